@@ -108,6 +108,21 @@ public class OwlApiGeneratorCli implements Callable<Integer> {
     )
     private boolean generateOntologyLoader;
 
+    @Option(
+        names = "--max-constants-per-class",
+        defaultValue = "7000",
+        description = "Maximum number of IRI constants in a generated class. Larger namespaces are split into lazily initialized holder classes. Namespaces with more IRIs than fit into a class are always split."
+    )
+    private int maxConstantsPerClass;
+
+    @Option(
+        names = "--entity-constants",
+        negatable = true,
+        defaultValue = "false",
+        description = "Generate typed constants for the OWL entities (OWLClass, OWLDataProperty, ...) in addition to the IRI constants?"
+    )
+    private boolean generateEntityConstants;
+
     /**
      * Path for storing the generated sources.
      */
@@ -150,7 +165,12 @@ public class OwlApiGeneratorCli implements Callable<Integer> {
         LOGGER.info("Generating IRI constants...");
         final IriConstantsGenerator iriConstantsGenerator
                                         = IriConstantsGenerator
-                .buildIriConstantsGenerator(ontologyOwlApi, outputDirPath);
+                .buildIriConstantsGenerator(
+                    ontologyOwlApi,
+                    outputDirPath,
+                    maxConstantsPerClass,
+                    generateEntityConstants
+                );
         try {
             if (generateIriConstantsForClasses) {
                 iriConstantsGenerator.generateClassIriConstants();
@@ -24,14 +24,14 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -45,6 +45,32 @@ public class IriConstantsGenerator {
 
     private static final String CONSTANT_NAME = "constantName";
 
+    /**
+     * The maximum number of IRI constants in a generated class. Each constant
+     * adds 9 bytes to the static initializer of the class, and the JVM limits
+     * the size of a method to 64KB. The limit leaves some room below the
+     * 7281 constants which would fit.
+     */
+    public static final int MAX_IRI_CONSTANTS_PER_CLASS = 7000;
+
+    /**
+     * The maximum number of constants in a generated class if constants for
+     * the OWL entities are generated. Each entity constant adds 14 bytes to
+     * the static initializer of the nested {@code Entities} class, therefore
+     * fewer constants fit into a class.
+     */
+    public static final int MAX_ENTITY_CONSTANTS_PER_CLASS = 4500;
+
+    /**
+     * Default value for the maximum number of constants generated into a
+     * single class. Per default bundles are only split into lazily
+     * initialized holder classes if their constants wouldn't fit into a
+     * single class ({@link #MAX_IRI_CONSTANTS_PER_CLASS},
+     * {@link #MAX_ENTITY_CONSTANTS_PER_CLASS}).
+     */
+    public static final int DEFAULT_MAX_CONSTANTS_PER_CLASS
+                                = MAX_IRI_CONSTANTS_PER_CLASS;
+
     /**
      * The ontology to use.
      */
@@ -55,17 +81,45 @@ public class IriConstantsGenerator {
      */
     private final Path outputDir;
 
+    /**
+     * The maximum number of constants in a generated class, the configured
+     * limit or the limit of the JVM, whichever is lower.
+     */
+    private final int maxConstantsPerClass;
+
+    /**
+     * Also generate constants for the OWL entities ({@code OWLClass},
+     * {@code OWLDataProperty}, ...), not only for their IRIs?
+     */
+    private final boolean generateEntityConstants;
+
     /**
      * Creates a new {@code IriConstantsGenerator}
      *
-     * @param ontologyOwlApi The ontology to use.
-     * @param outputDir      The output directory.
+     * @param ontologyOwlApi          The ontology to use.
+     * @param outputDir               The output directory.
+     * @param maxConstantsPerClass    The maximum number of constants in a
+     *                                generated class.
+     * @param generateEntityConstants Generate constants for the OWL entities?
      */
     private IriConstantsGenerator(
-        final OntologyOwlApi ontologyOwlApi, final Path outputDir
+        final OntologyOwlApi ontologyOwlApi,
+        final Path outputDir,
+        final int maxConstantsPerClass,
+        final boolean generateEntityConstants
     ) {
         this.ontologyOwlApi = ontologyOwlApi;
         this.outputDir = outputDir;
+        if (generateEntityConstants) {
+            this.maxConstantsPerClass = Math.min(
+                maxConstantsPerClass, MAX_ENTITY_CONSTANTS_PER_CLASS
+            );
+        } else {
+            this.maxConstantsPerClass = Math.min(
+                maxConstantsPerClass, MAX_IRI_CONSTANTS_PER_CLASS
+            );
+        }
+        this.generateEntityConstants = generateEntityConstants;
     }
 
     /**
@@ -83,6 +137,76 @@ public class IriConstantsGenerator {
         final OntologyOwlApi ontologyOwlApi,
         final Path outputDir
     ) {
+        return buildIriConstantsGenerator(
+            ontologyOwlApi, outputDir, DEFAULT_MAX_CONSTANTS_PER_CLASS
+        );
+    }
+
+    /**
+     * Factory method creating a new {@code IriConstantsGenerator} instance
+     * which uses a custom limit for the number of constants per generated
+     * class.
+     *
+     * The provided parameters are checked. If an parameter is invalid an
+     * {@link IllegalArgumentException} is thrown.
+     *
+     * @param ontologyOwlApi       The ontology to use.
+     * @param outputDir            The output directory.
+     * @param maxConstantsPerClass The maximum number of constants in a
+     *                             generated class. If a bundle contains more
+     *                             IRIs the constants are distributed over
+     *                             several nested holder classes. Bundles
+     *                             which don't fit into a single class are
+     *                             always split, regardless of this limit.
+     *
+     * @return An {@code IriConstantsGenerator}.
+     */
+    public static IriConstantsGenerator buildIriConstantsGenerator(
+        final OntologyOwlApi ontologyOwlApi,
+        final Path outputDir,
+        final int maxConstantsPerClass
+    ) {
+        return buildIriConstantsGenerator(
+            ontologyOwlApi, outputDir, maxConstantsPerClass, false
+        );
+    }
+
+    /**
+     * Factory method creating a new {@code IriConstantsGenerator} instance
+     * which uses a custom limit for the number of constants per generated
+     * class and optionally generates constants for the OWL entities.
+     *
+     * If {@code generateEntityConstants} is {@code true} each generated class
+     * contains a nested class {@code Entities} with a typed constant
+     * ({@code OWLClass}, {@code OWLObjectProperty}, {@code OWLDataProperty},
+     * {@code OWLNamedIndividual} or {@code OWLAnnotationProperty}) for each
+     * IRI constant. These constants can be passed directly to the utility
+     * classes of owlapi-simplex-utils, avoiding a lookup using the
+     * {@code OWLDataFactory} for each call.
+     *
+     * The provided parameters are checked. If an parameter is invalid an
+     * {@link IllegalArgumentException} is thrown.
+     *
+     * @param ontologyOwlApi          The ontology to use.
+     * @param outputDir               The output directory.
+     * @param maxConstantsPerClass    The maximum number of constants in a
+     *                                generated class.
+     * @param generateEntityConstants Generate constants for the OWL entities?
+     *
+     * @return An {@code IriConstantsGenerator}.
+     */
+    public static IriConstantsGenerator buildIriConstantsGenerator(
+        final OntologyOwlApi ontologyOwlApi,
+        final Path outputDir,
+        final int maxConstantsPerClass,
+        final boolean generateEntityConstants
+    ) {
+        if (maxConstantsPerClass < 1) {
+            throw new IllegalArgumentException(
+                "maxConstantsPerClass must be greater than zero."
+            );
+        }
+
         if (!Files.isDirectory(outputDir)) {
             throw new IllegalArgumentException(
                 String.format(
@@ -103,7 +227,12 @@ public class IriConstantsGenerator {
 
         Objects.requireNonNull(ontologyOwlApi, "ontologyOwlApi can't be null");
 
-        return new IriConstantsGenerator(ontologyOwlApi, outputDir);
+        return new IriConstantsGenerator(
+            ontologyOwlApi,
+            outputDir,
+            maxConstantsPerClass,
+            generateEntityConstants
+        );
     }
 
     /**
@@ -226,27 +355,39 @@ public class IriConstantsGenerator {
         }
 
         for (final IriBundle iriBundle : iriBundles.values()) {
-            writeConstantsFile(iriBundle);
+            writeConstantsFile(iriBundle, entityType);
         }
     }
 
     /**
      * Helper method for writing the contants files.
      */
-    private void writeConstantsFile(final IriBundle iriBundle)
-        throws IriConstantsGenerationFailedExpection {
+    private void writeConstantsFile(
+        final IriBundle iriBundle, final OwlEntityType entityType
+    ) throws IriConstantsGenerationFailedExpection {
         final Map<String, Object> dataModel = new HashMap<>();
         dataModel.put("license", "");
         dataModel.put("package", iriBundle.getPackageName());
         dataModel.put("baseIri", iriBundle.getNamespace());
         dataModel.put("className", iriBundle.getClassName());
+        dataModel.put("entityClass", "");
+        dataModel.put("entityFactoryMethod", "");
+        if (generateEntityConstants) {
+            addEntityTypeToDataModel(entityType, dataModel);
+        }
         final List<Map<String, String>> constants = iriBundle
             .getIris()
             .stream()
             .map(iri -> generateIriConstant(iri))
             .collect(Collectors.toList());
         preventDuplicateConstantNames(constants);
-        dataModel.put("iris", constants);
+        if (constants.size() > maxConstantsPerClass) {
+            dataModel.put("iris", Collections.emptyList());
+            dataModel.put("shards", generateShards(constants));
+        } else {
+            dataModel.put("iris", constants);
+            dataModel.put("shards", Collections.emptyList());
+        }
 
         final TemplateService templateService = TemplateService
             .getTemplateService();
@@ -269,6 +410,187 @@ public class IriConstantsGenerator {
 
     }
 
+    /**
+     * Helper method for adding the Java type of the OWL entities and the
+     * {@code OWLDataFactory} method creating them to the data model.
+     *
+     * @param entityType The type of the OWL entities.
+     * @param dataModel  The data model of the template.
+     */
+    private void addEntityTypeToDataModel(
+        final OwlEntityType entityType, final Map<String, Object> dataModel
+    ) {
+        switch (entityType) {
+            case ANNOTIATION_PROPERTY:
+                dataModel.put("entityClass", "OWLAnnotationProperty");
+                dataModel.put(
+                    "entityFactoryMethod", "getOWLAnnotationProperty"
+                );
+                break;
+            case CLASS:
+                dataModel.put("entityClass", "OWLClass");
+                dataModel.put("entityFactoryMethod", "getOWLClass");
+                break;
+            case DATA_PROPERTY:
+                dataModel.put("entityClass", "OWLDataProperty");
+                dataModel.put("entityFactoryMethod", "getOWLDataProperty");
+                break;
+            case INDIVIDUAL:
+                dataModel.put("entityClass", "OWLNamedIndividual");
+                dataModel.put("entityFactoryMethod", "getOWLNamedIndividual");
+                break;
+            case OBJECT_PROPERTY:
+                dataModel.put("entityClass", "OWLObjectProperty");
+                dataModel.put("entityFactoryMethod", "getOWLObjectProperty");
+                break;
+            default:
+                // No entity constants for other types.
+                break;
+        }
+    }
+
+    /**
+     * Helper method for distributing the constants of a large bundle over
+     * several holder classes. The constants are grouped by the first character
+     * of their name, so that users can find a constant without looking into
+     * the generated code ({@code FooIndividuals.P.PERSON}). Groups which are
+     * still larger than {@link #maxConstantsPerClass} are split again and
+     * numbered ({@code P1}, {@code P2}, ...). The holder class of a constant
+     * in a split group is selected using the hash code of its name, so that
+     * adding or removing an IRI doesn't move the other constants to another
+     * holder class, unless the number of holder classes of the group changes.
+     *
+     * Each holder class is a separate class for the JVM and is initialized
+     * only when one of its constants is accessed for the first time.
+     *
+     * @param constants The constants of the bundle.
+     *
+     * @return The holder classes for the template.
+     */
+    private List<Map<String, Object>> generateShards(
+        final List<Map<String, String>> constants
+    ) {
+        final Map<String, List<Map<String, String>>> groups
+                                                         = new TreeMap<>();
+        for (final Map<String, String> constant : constants) {
+            final char first = constant.get(CONSTANT_NAME).charAt(0);
+            final String groupName;
+            if (first >= 'A' && first <= 'Z') {
+                groupName = String.valueOf(first);
+            } else {
+                groupName = "Other";
+            }
+            groups
+                .computeIfAbsent(groupName, name -> new ArrayList<>())
+                .add(constant);
+        }
+
+        final List<Map<String, Object>> shards = new ArrayList<>();
+        for (final Map.Entry<String, List<Map<String, String>>> group : groups
+            .entrySet()) {
+            final List<Map<String, String>> groupConstants = group.getValue();
+            if (groupConstants.size() <= maxConstantsPerClass) {
+                shards.add(
+                    generateShard(
+                        group.getKey(), group.getKey(), groupConstants
+                    )
+                );
+            } else {
+                final List<List<Map<String, String>>> parts = splitGroup(
+                    groupConstants
+                );
+                for (int part = 0; part < parts.size(); part++) {
+                    if (parts.get(part).isEmpty()) {
+                        continue;
+                    }
+                    shards.add(
+                        generateShard(
+                            String.format("%s%d", group.getKey(), part + 1),
+                            group.getKey(),
+                            parts.get(part)
+                        )
+                    );
+                }
+            }
+        }
+
+        return shards;
+    }
+
+    /**
+     * Helper method for splitting a group of constants which is larger than
+     * {@link #maxConstantsPerClass}. The number of parts is a power of two,
+     * and is doubled until no part is larger than the limit. Each constant is
+     * assigned to a part using the hash code of its name, which is specified
+     * by the Java Language Specification and therefore the same on all JVMs.
+     *
+     * @param constants The constants of the group.
+     *
+     * @return The parts. Some parts may be empty.
+     */
+    private List<List<Map<String, String>>> splitGroup(
+        final List<Map<String, String>> constants
+    ) {
+        int partCount = 2;
+        while (partCount < constants.size()) {
+            final List<List<Map<String, String>>> parts = new ArrayList<>();
+            for (int part = 0; part < partCount; part++) {
+                parts.add(new ArrayList<>());
+            }
+            for (final Map<String, String> constant : constants) {
+                parts
+                    .get(
+                        Math.floorMod(
+                            constant.get(CONSTANT_NAME).hashCode(), partCount
+                        )
+                    )
+                    .add(constant);
+            }
+            if (parts
+                .stream()
+                .allMatch(part -> part.size() <= maxConstantsPerClass)) {
+                return parts;
+            }
+            partCount *= 2;
+        }
+
+        // Only possible if the names of too many constants have the same
+        // hash code.
+        final List<List<Map<String, String>>> parts = new ArrayList<>();
+        for (int from = 0;
+             from < constants.size();
+             from += maxConstantsPerClass) {
+            parts.add(
+                constants.subList(
+                    from, Math.min(from + maxConstantsPerClass, constants.size())
+                )
+            );
+        }
+        return parts;
+    }
+
+    /**
+     * Helper method for creating the data model of a single holder class.
+     *
+     * @param name      The name of the holder class.
+     * @param group     The group (first character of the constant names) of
+     *                  the holder class.
+     * @param constants The constants in the holder class.
+     *
+     * @return The data model for the holder class.
+     */
+    private Map<String, Object> generateShard(
+        final String name,
+        final String group,
+        final List<Map<String, String>> constants
+    ) {
+        final Map<String, Object> shard = new HashMap<>();
+        shard.put("name", name);
+        shard.put("group", group);
+        shard.put("iris", constants);
+        return shard;
+    }
+
     /**
      * Helper method for generating an valid Java name for an IRI.
      *
@@ -281,10 +603,9 @@ public class IriConstantsGenerator {
 
         final String iriString = iri.getIRIString();
 
-        final String constantName = ensureCamelCase(
-            iri.getFragment().replace("-", ""))
-            .replaceAll("(.)([\\p{Lu}])", "$1_$2")
-            .toUpperCase(Locale.ROOT);
+        final String constantName = Utils.generateConstantName(
+            iri.getFragment()
+        );
 
         constant.put(CONSTANT_NAME, constantName);
         constant.put("value", iriString);
@@ -292,33 +613,6 @@ public class IriConstantsGenerator {
         return constant;
     }
 
-    /**
-     * Helper method for ensuring that a name is camel case.
-     *
-     * @param name The name to check.
-     *
-     * @return The name in camel case (without two uppercase letters following
-     *         each other).
-     */
-    private String ensureCamelCase(final String name) {
-
-        final Matcher matcher = Pattern
-            .compile("([A-Z])([A-Z]*)([A-Z])")
-            .matcher(name);
-
-        int last = 0;
-        final StringBuilder builder = new StringBuilder();
-        while (matcher.find()) {
-            builder.append(name.substring(last, matcher.start()));
-            builder.append(matcher.group(1));
-            builder.append(matcher.group(2).toLowerCase(Locale.ROOT));
-            builder.append(matcher.group(3));
-            last = matcher.end();
-        }
-        builder.append(name.substring(last));
-        return builder.toString();
-    }
-    
     private void preventDuplicateConstantNames(
         final List<Map<String, String>> constants
     ) {
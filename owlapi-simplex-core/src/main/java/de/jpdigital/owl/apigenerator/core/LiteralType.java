@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owl.apigenerator.core;
+
+import org.semanticweb.owlapi.model.OWLDatatype;
+
+/**
+ * The Java types used in the generated code for the values of data
+ * properties, derived from the declared range of the property.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public enum LiteralType {
+
+    BOOLEAN("boolean", false),
+    DATE_TIME("java.time.OffsetDateTime", true),
+    DECIMAL("java.math.BigDecimal", true),
+    DOUBLE("double", true),
+    INT("int", true),
+    LONG("long", true),
+    STRING("String", false);
+
+    /**
+     * The Java type used in the generated code.
+     */
+    private final String javaType;
+
+    /**
+     * Are the values ordered, so that range queries are possible?
+     */
+    private final boolean ordered;
+
+    private LiteralType(final String javaType, final boolean ordered) {
+        this.javaType = javaType;
+        this.ordered = ordered;
+    }
+
+    public String getJavaType() {
+        return javaType;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * Determines the type for a datatype. Datatypes which are not supported
+     * are mapped to {@link #STRING}.
+     *
+     * @param datatype The datatype.
+     *
+     * @return The {@code LiteralType} for the datatype.
+     */
+    public static LiteralType fromDatatype(final OWLDatatype datatype) {
+        if (!datatype.isBuiltIn()) {
+            return STRING;
+        }
+
+        switch (datatype.getBuiltInDatatype()) {
+            case XSD_BOOLEAN:
+                return BOOLEAN;
+            case XSD_DATE_TIME:
+            case XSD_DATE_TIME_STAMP:
+                return DATE_TIME;
+            case XSD_DECIMAL:
+                return DECIMAL;
+            case XSD_DOUBLE:
+            case XSD_FLOAT:
+                return DOUBLE;
+            case XSD_INT:
+            case XSD_SHORT:
+            case XSD_BYTE:
+            case XSD_UNSIGNED_SHORT:
+            case XSD_UNSIGNED_BYTE:
+                return INT;
+            case XSD_INTEGER:
+            case XSD_LONG:
+            case XSD_NON_NEGATIVE_INTEGER:
+            case XSD_NON_POSITIVE_INTEGER:
+            case XSD_POSITIVE_INTEGER:
+            case XSD_NEGATIVE_INTEGER:
+            case XSD_UNSIGNED_INT:
+            case XSD_UNSIGNED_LONG:
+                return LONG;
+            default:
+                return STRING;
+        }
+    }
+
+}
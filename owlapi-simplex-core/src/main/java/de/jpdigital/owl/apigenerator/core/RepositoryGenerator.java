@@ -22,6 +22,7 @@ import org.apache.logging.log4j.Logger;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataRange;
 import org.semanticweb.owlapi.model.parameters.Imports;
 
 import java.io.IOException;
@@ -42,7 +43,10 @@ import java.util.stream.Collectors;
  * <ul>
  * <li>Retrieving all instances of a class</li>
  * <li>For each data property a method is generated thtat allows it to filter
- * the instances for a specific value</li>
+ * the instances for a specific value. The type of the parameter of these
+ * methods is derived from the range of the property.</li>
+ * <li>For each data property with a numeric or {@code xsd:dateTime} range a
+ * method is generated for filtering the instances by a range of values.</li>
  * </ul>
  *
  * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
@@ -139,20 +143,19 @@ public class RepositoryGenerator {
             owlClass.getIRI().toString()
         );
 
-        final List<IRI> dataPropertesIris = ontologyOwlApi
+        final List<OWLDataProperty> owlDataProperties = ontologyOwlApi
             .getOntology()
             .dataPropertiesInSignature(Imports.INCLUDED)
             .filter(dataProp -> classInDomainOfDataProperty(owlClass, dataProp))
-            .map(dataProp -> dataProp.getIRI())
             .collect(Collectors.toList());
 
-        dataPropertesIris.forEach(
-            dataProp -> LOGGER.info("* {}", dataProp.toString())
+        owlDataProperties.forEach(
+            dataProp -> LOGGER.info("* {}", dataProp.getIRI().toString())
         );
 
-        final List<String> dataProperties = dataPropertesIris
+        final List<Map<String, String>> dataProperties = owlDataProperties
             .stream()
-            .map(dataProperty -> dataProperty.getShortForm())
+            .map(this::generateDataPropertyModel)
             .collect(Collectors.toList());
 
         final String packageName = Utils.generatePackageName(owlClass.getIRI());
@@ -187,17 +190,65 @@ public class RepositoryGenerator {
         }
     }
 
-//    private String dataPropertyRangeTypes(final OWLDataProperty dataProperty) {
-//        return ontologyOwlApi
-//            .getOntology()
-//            .dataPropertyRangeAxioms(dataProperty)
-//            .map(axiom -> axiom.getRange().asOWLDatatype())
-//            .filter(dataType -> dataType.isBuiltIn())
-//            .map(dataType -> dataType.getBuiltInDatatype())
-//            .map(dataType -> dataType.getShortForm())
-//            .collect(Collectors.joining(", "));
-//
-//    }
+    /**
+     * Helper method for creating the data model for a data property.
+     *
+     * @param dataProperty The data property.
+     *
+     * @return The data model for the property.
+     */
+    private Map<String, String> generateDataPropertyModel(
+        final OWLDataProperty dataProperty
+    ) {
+        final IRI iri = dataProperty.getIRI();
+        final LiteralType type = dataPropertyRangeType(dataProperty);
+        LOGGER.debug(
+            "Data property {} has range type {}.", iri.toString(), type
+        );
+
+        final Map<String, String> model = new HashMap<>();
+        model.put("name", iri.getShortForm());
+        model.put(
+            "constantName",
+            String.format(
+                "%s_PROPERTY", Utils.generateConstantName(iri.getShortForm())
+            )
+        );
+        model.put("iri", iri.toString());
+        model.put("type", type.toString());
+        model.put("javaType", type.getJavaType());
+        model.put("ordered", Boolean.toString(type.isOrdered()));
+        return model;
+    }
+
+    /**
+     * Determines the type of the values of a data property from the range
+     * axioms for the property. If the property has no range or several
+     * different ranges {@link LiteralType#STRING} is used.
+     *
+     * @param dataProperty The data property.
+     *
+     * @return The type of the values of the property.
+     */
+    private LiteralType dataPropertyRangeType(
+        final OWLDataProperty dataProperty
+    ) {
+        final Set<OWLDataRange> ranges = ontologyOwlApi
+            .getOntology()
+            .importsClosure()
+            .flatMap(ontology -> ontology.dataPropertyRangeAxioms(dataProperty))
+            .map(axiom -> axiom.getRange())
+            .collect(Collectors.toSet());
+
+        if (ranges.size() == 1) {
+            final OWLDataRange range = ranges.iterator().next();
+            if (range.isOWLDatatype()) {
+                return LiteralType.fromDatatype(range.asOWLDatatype());
+            }
+        }
+        return LiteralType.STRING;
+    }
+
     private boolean classInDomainOfDataProperty(
         final OWLClass owlClass, final OWLDataProperty dataProperty
     ) {
@@ -28,6 +28,8 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
@@ -122,6 +124,47 @@ public class Utils {
         return Paths.get(packageName.replace('.', '/'));
     }
 
+    /**
+     * Generates a name for a Java constant from the provided name, for example
+     * {@code SOME_PROPERTY} from {@code someProperty}.
+     *
+     * @param name The name, for example the fragment of an IRI.
+     *
+     * @return A name for a constant.
+     */
+    public static String generateConstantName(final String name) {
+        return ensureCamelCase(name.replace("-", ""))
+            .replaceAll("(.)([\\p{Lu}])", "$1_$2")
+            .toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Helper method for ensuring that a name is camel case.
+     *
+     * @param name The name to check.
+     *
+     * @return The name in camel case (without two uppercase letters following
+     *         each other).
+     */
+    private static String ensureCamelCase(final String name) {
+
+        final Matcher matcher = Pattern
+            .compile("([A-Z])([A-Z]*)([A-Z])")
+            .matcher(name);
+
+        int last = 0;
+        final StringBuilder builder = new StringBuilder();
+        while (matcher.find()) {
+            builder.append(name.substring(last, matcher.start()));
+            builder.append(matcher.group(1));
+            builder.append(matcher.group(2).toLowerCase(Locale.ROOT));
+            builder.append(matcher.group(3));
+            last = matcher.end();
+        }
+        builder.append(name.substring(last));
+        return builder.toString();
+    }
+
     /**
      * Helper method for avoiding a numeric first character in package or class
      * names.
@@ -5,20 +5,82 @@ This file was automatically generated by the OWL API Generator.
 
 package ${package};
 
+<#if entityClass?has_content>
+import org.semanticweb.owlapi.apibinding.OWLManager;
+</#if>
 import org.semanticweb.owlapi.model.IRI;
+<#if entityClass?has_content>
+import org.semanticweb.owlapi.model.${entityClass};
+import org.semanticweb.owlapi.model.OWLDataFactory;
+</#if>
+<#macro entities constants owner indent>
+<#if entityClass?has_content>
+
+${indent}/**
+${indent} * The OWL entities identified by the IRI constants.
+${indent} */
+${indent}public static final class Entities {
+
+${indent}    private static final OWLDataFactory dataFactory = OWLManager
+${indent}        .getOWLDataFactory();
+
+${indent}    private Entities() {
+${indent}        // This class only provides constants, therefore no instances can
+${indent}        // be created.
+${indent}    }
+
+    <#list constants as iri>
+${indent}    public static final ${entityClass} ${iri.constantName} = dataFactory
+${indent}        .${entityFactoryMethod}(${owner}.${iri.constantName});
+    </#list>
+${indent}}
+</#if>
+</#macro>
 
 /**
  * Constants for all IRIs starting with ${baseIri}.
+<#if shards?has_content>
+ *
+ * The namespace contains too many IRIs for a single class. Therefore the
+ * constants are grouped by the first character of their name into nested
+ * holder classes, for example {@code ${className}.${shards[0].name}.${shards[0].iris[0].constantName}}.
+ * A holder class is initialized when one of its constants is used for the
+ * first time.
+</#if>
  */
 public final class ${className} {
 
     private ${className}() {
-        // This class only provides constants, therefore no instances can be 
+        // This class only provides constants, therefore no instances can be
         // created.
     }
-    
+
     <#list iris as iri>
     public static final IRI ${iri.constantName} = IRI.create("${iri.value}");
     </#list>
-}
+    <#if iris?has_content>
+    <@entities constants=iris owner=className indent="    "/>
+    </#if>
+    <#list shards as shard>
+
+    /**
+    <#if shard.group == "Other">
+     * Holder class for the constants which do not start with a letter.
+    <#else>
+     * Holder class for the constants starting with ${shard.group}.
+    </#if>
+     */
+    public static final class ${shard.name} {
+
+        private ${shard.name}() {
+            // This class only provides constants, therefore no instances can
+            // be created.
+        }
 
+        <#list shard.iris as iri>
+        public static final IRI ${iri.constantName} = IRI.create("${iri.value}");
+        </#list>
+        <@entities constants=shard.iris owner=className + "." + shard.name indent="        "/>
+    }
+    </#list>
+}
@@ -5,13 +5,21 @@ This file was automatically generated by the OWL API Generator.
 
 package ${package};
 
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 
 import java.util.List;
 import java.util.stream.Stream;
 
+import de.jpdigital.owlapisimplex.ClassHierarchy;
 import de.jpdigital.owlapisimplex.OwlApiSimplexUtils;
 import de.jpdigital.owlapisimplex.Instances;
+import de.jpdigital.owlapisimplex.QueryExpression;
+import de.jpdigital.owlapisimplex.QueryOptions;
+import de.jpdigital.owlapisimplex.ResultFlow;
 
 import java.util.stream.Collectors;
 
@@ -20,43 +28,172 @@ import java.util.stream.Collectors;
  **/
 public class ${className} {
 
+    /**
+     * The OWL class of this repository.
+     */
+    public static final OWLClass OWL_CLASS = OWLManager
+        .getOWLDataFactory()
+        .getOWLClass(IRI.create("${classIri}"));
+
+    /**
+     * The OWL class of this repository as a {@link QueryExpression}, for
+     * combining it with other query expressions.
+     */
+    public static final QueryExpression QUERY = QueryExpression.cls(OWL_CLASS);
+    <#list dataProperties as dataProperty>
+
+    private static final OWLDataProperty ${dataProperty.constantName} = OWLManager
+        .getOWLDataFactory()
+        .getOWLDataProperty(IRI.create("${dataProperty.iri}"));
+    </#list>
+
     private final Instances instances;
 
+    private final ClassHierarchy classHierarchy;
+
     public ${className}(final OwlApiSimplexUtils owlApiSimplexUtils) {
         instances = owlApiSimplexUtils.buildInstances();
+        classHierarchy = owlApiSimplexUtils.buildClassHierarchy();
     }
 
     public ${className}(final Instances instances) {
         this.instances = instances;
+        classHierarchy = instances.buildClassHierarchy();
     }
     
     public Stream<OWLNamedIndividual> instances() {
-        return instances.instances("${classIri}");
+        return instances.instances(OWL_CLASS);
     }
 
     public List<OWLNamedIndividual> getInstances() {
-        return instances.getInstances("${classIri}");
+        return instances.getInstances(OWL_CLASS);
+    }
+
+    public Stream<OWLNamedIndividual> instances(final QueryOptions options) {
+        return instances.instances(OWL_CLASS, options);
+    }
+
+    public List<OWLNamedIndividual> getInstances(final QueryOptions options) {
+        return instances.getInstances(OWL_CLASS, options);
+    }
+
+    public Stream<OWLNamedIndividual> instances(
+        final QueryExpression restriction
+    ) {
+        return instances.instances(QUERY.and(restriction));
+    }
+
+    public List<OWLNamedIndividual> getInstances(
+        final QueryExpression restriction
+    ) {
+        return instances.getInstances(QUERY.and(restriction));
+    }
+
+    public ResultFlow.Publisher<OWLNamedIndividual> publishInstances() {
+        return instances.publishInstances(OWL_CLASS);
+    }
+
+    public long count() {
+        return instances.countInstances(OWL_CLASS);
+    }
+
+    public long count(final QueryExpression restriction) {
+        return instances.countInstances(QUERY.and(restriction));
+    }
+
+    public boolean exists() {
+        return instances.hasInstances(OWL_CLASS);
+    }
+
+    public boolean isInstance(final OWLNamedIndividual individual) {
+        return instances.isInstanceOf(individual, OWL_CLASS);
+    }
+
+    public Stream<OWLClass> subClasses(final boolean direct) {
+        return classHierarchy.subClasses(OWL_CLASS, direct);
+    }
+
+    public List<OWLClass> getSubClasses(final boolean direct) {
+        return classHierarchy.getSubClasses(OWL_CLASS, direct);
+    }
+
+    public Stream<OWLClass> superClasses(final boolean direct) {
+        return classHierarchy.superClasses(OWL_CLASS, direct);
+    }
+
+    public List<OWLClass> getSuperClasses(final boolean direct) {
+        return classHierarchy.getSuperClasses(OWL_CLASS, direct);
+    }
+
+    public boolean isSubClassOf(final OWLClass superClass) {
+        return classHierarchy.isSubClassOf(OWL_CLASS, superClass);
     }
 
     <#list dataProperties as dataProperty>
 
-    public Stream<OWLNamedIndividual> instancesFilteredBy${dataProperty}(
-        final String value
+    public Stream<OWLNamedIndividual> instancesFilteredBy${dataProperty.name}(
+        final ${dataProperty.javaType} value
+    ) {
+        return instances.instancesWithDataPropertyValue(
+            OWL_CLASS, ${dataProperty.constantName}, value
+        );
+    }
+
+    public List<OWLNamedIndividual> getInstancesFilteredBy${dataProperty.name}(
+        final ${dataProperty.javaType} value
+    ) {
+        return instancesFilteredBy${dataProperty.name}(value)
+            .collect(Collectors.toList());
+    }
+
+    public long countFilteredBy${dataProperty.name}(
+        final ${dataProperty.javaType} value
+    ) {
+        return instances.countInstancesWithDataPropertyValue(
+            OWL_CLASS, ${dataProperty.constantName}, value
+        );
+    }
+
+    <#if dataProperty.ordered == "true">
+    public Stream<OWLNamedIndividual> instancesFilteredBy${dataProperty.name}InRange(
+        final ${dataProperty.javaType} min, final ${dataProperty.javaType} max
+    ) {
+        return instances.instancesWithDataPropertyInRange(
+            OWL_CLASS, ${dataProperty.constantName}, min, max
+        );
+    }
+
+    public List<OWLNamedIndividual> getInstancesFilteredBy${dataProperty.name}InRange(
+        final ${dataProperty.javaType} min, final ${dataProperty.javaType} max
+    ) {
+        return instancesFilteredBy${dataProperty.name}InRange(min, max)
+            .collect(Collectors.toList());
+    }
+
+    public long countFilteredBy${dataProperty.name}InRange(
+        final ${dataProperty.javaType} min, final ${dataProperty.javaType} max
+    ) {
+        return instances.countInstancesWithDataPropertyInRange(
+            OWL_CLASS, ${dataProperty.constantName}, min, max
+        );
+    }
+
+    public Stream<OWLNamedIndividual> instancesOrderedBy${dataProperty.name}(
+        final boolean ascending, final int limit
     ) {
-        final String query = String.format(
-            "${owlClassName} and (${dataProperty} value %s or ${dataProperty} value \"%s\")",
-            value
+        return instances.instancesOrderedByDataProperty(
+            OWL_CLASS, ${dataProperty.constantName}, ascending, limit
         );
-        return instances.instances(query);
     }
 
-    public List<OWLNamedIndividual> getInstancesFilteredBy${dataProperty}(
-        final String value
+    public List<OWLNamedIndividual> getInstancesOrderedBy${dataProperty.name}(
+        final boolean ascending, final int limit
     ) {
-        return instancesFilteredBy${dataProperty}(value)
+        return instancesOrderedBy${dataProperty.name}(ascending, limit)
             .collect(Collectors.toList());
     }
 
+    </#if>
     </#list>
 
 }
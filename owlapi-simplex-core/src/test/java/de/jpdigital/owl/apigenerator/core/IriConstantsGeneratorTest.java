@@ -0,0 +1,302 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owl.apigenerator.core;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyCreationException;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the distribution of the IRI constants over holder classes by the
+ * {@link IriConstantsGenerator} at the limits of the JVM. The generated
+ * classes are compiled, a class which exceeds the limits of the JVM fails to
+ * compile ("code too large").
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class IriConstantsGeneratorTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/generated#";
+
+    private static final Pattern HOLDER_CLASS = Pattern.compile(
+        "^\\s{4}public static final class (\\w+) \\{"
+    );
+
+    private static final Pattern IRI_CONSTANT = Pattern.compile(
+        "^\\s*public static final IRI (\\w+) = "
+    );
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void maxIriConstantsFitIntoOneClass() throws Exception {
+        final String source = generate(
+            names(
+                "Individual", IriConstantsGenerator.MAX_IRI_CONSTANTS_PER_CLASS
+            ),
+            IriConstantsGenerator.DEFAULT_MAX_CONSTANTS_PER_CLASS,
+            false
+        );
+
+        assertTrue(holderClasses(source).isEmpty());
+        assertCompiles();
+    }
+
+    @Test
+    public void moreIriConstantsAreSplit() throws Exception {
+        final String source = generate(
+            names(
+                "Individual",
+                IriConstantsGenerator.MAX_IRI_CONSTANTS_PER_CLASS + 1
+            ),
+            IriConstantsGenerator.DEFAULT_MAX_CONSTANTS_PER_CLASS,
+            false
+        );
+
+        final Map<String, String> holders = holderClasses(source);
+        assertEquals(
+            IriConstantsGenerator.MAX_IRI_CONSTANTS_PER_CLASS + 1,
+            holders.size()
+        );
+        assertTrue(
+            holders.values().stream().allMatch(name -> name.startsWith("I"))
+        );
+        assertCompiles();
+    }
+
+    @Test
+    public void maxEntityConstantsFitIntoOneClass() throws Exception {
+        final String source = generate(
+            names(
+                "Individual",
+                IriConstantsGenerator.MAX_ENTITY_CONSTANTS_PER_CLASS
+            ),
+            IriConstantsGenerator.DEFAULT_MAX_CONSTANTS_PER_CLASS,
+            true
+        );
+
+        assertTrue(holderClasses(source).isEmpty());
+        assertCompiles();
+    }
+
+    @Test
+    public void moreEntityConstantsAreSplit() throws Exception {
+        final String source = generate(
+            names(
+                "Individual",
+                IriConstantsGenerator.MAX_ENTITY_CONSTANTS_PER_CLASS + 1
+            ),
+            IriConstantsGenerator.DEFAULT_MAX_CONSTANTS_PER_CLASS,
+            true
+        );
+
+        assertFalse(holderClasses(source).isEmpty());
+        assertCompiles();
+    }
+
+    @Test
+    public void lowerLimitSplitsByFirstCharacter() throws Exception {
+        final List<String> names = new ArrayList<>();
+        names.addAll(names("Alpha", 5));
+        names.addAll(names("Beta", 5));
+        names.addAll(names("_", 5));
+
+        final Map<String, String> holders = holderClasses(
+            generate(names, 10, false)
+        );
+
+        assertEquals(15, holders.size());
+        assertEquals("A", holders.get("ALPHA0000"));
+        assertEquals("B", holders.get("BETA0000"));
+        assertEquals("Other", holders.get("_0000"));
+        assertCompiles();
+    }
+
+    @Test
+    public void splitIsStable() throws Exception {
+        final Map<String, String> before = holderClasses(
+            generate(names("Alpha", 150), 100, false)
+        );
+        temporaryFolder.delete();
+        temporaryFolder.create();
+        // The new name is sorted before most of the other names, therefore
+        // the holder classes can't be assigned by position.
+        final List<String> names = names("Alpha", 150);
+        names.add("Alpha0000A");
+        final Map<String, String> after = holderClasses(
+            generate(names, 100, false)
+        );
+
+        assertEquals(
+            new HashSet<>(Arrays.asList("A1", "A2")),
+            new HashSet<>(before.values())
+        );
+        for (final Map.Entry<String, String> constant : before.entrySet()) {
+            assertEquals(
+                constant.getKey(),
+                constant.getValue(),
+                after.get(constant.getKey())
+            );
+        }
+    }
+
+    /**
+     * Generates the constants for individuals with the provided names.
+     *
+     * @return The source code of the generated class.
+     */
+    private String generate(
+        final List<String> names,
+        final int maxConstantsPerClass,
+        final boolean generateEntityConstants
+    ) throws OWLOntologyCreationException,
+             IriConstantsGenerationFailedExpection,
+             IOException {
+        final OWLOntologyManager manager = OWLManager
+            .createOWLOntologyManager();
+        final OWLDataFactory dataFactory = manager.getOWLDataFactory();
+        final OWLOntology ontology = manager.createOntology(
+            IRI.create("http://example.org/ontologies/generated")
+        );
+        for (final String name : names) {
+            manager.addAxiom(
+                ontology,
+                dataFactory.getOWLDeclarationAxiom(
+                    dataFactory.getOWLNamedIndividual(
+                        IRI.create(NAMESPACE + name)
+                    )
+                )
+            );
+        }
+
+        IriConstantsGenerator
+            .buildIriConstantsGenerator(
+                new OntologyOwlApi(
+                    ontology,
+                    Collections.singletonList(ontology),
+                    manager,
+                    null
+                ),
+                temporaryFolder.getRoot().toPath(),
+                maxConstantsPerClass,
+                generateEntityConstants
+            )
+            .generateIndividualPropertyIriConstants();
+
+        final List<Path> sources = sources();
+        assertEquals(1, sources.size());
+        return new String(
+            Files.readAllBytes(sources.get(0)), StandardCharsets.UTF_8
+        );
+    }
+
+    /**
+     * Compiles the generated classes.
+     */
+    private void assertCompiles() throws IOException {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final List<String> arguments = new ArrayList<>();
+        arguments.add("-classpath");
+        arguments.add(System.getProperty("java.class.path"));
+        arguments.add("-d");
+        arguments.add(temporaryFolder.newFolder().toString());
+        for (final Path source : sources()) {
+            arguments.add(source.toString());
+        }
+        final ByteArrayOutputStream errors = new ByteArrayOutputStream();
+        final int result = compiler.run(
+            null, null, errors, arguments.toArray(new String[0])
+        );
+        assertEquals(
+            new String(errors.toByteArray(), StandardCharsets.UTF_8),
+            0,
+            result
+        );
+    }
+
+    private List<Path> sources() throws IOException {
+        try (Stream<Path> files = Files.walk(temporaryFolder.getRoot().toPath())) {
+            return files
+                .filter(file -> file.toString().endsWith(".java"))
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Reads the holder classes of the IRI constants from the generated
+     * source.
+     *
+     * @return The name of the holder class of each constant in a holder
+     *         class.
+     */
+    private static Map<String, String> holderClasses(final String source) {
+        final Map<String, String> holders = new HashMap<>();
+        String holder = null;
+        for (final String line : source.split("\n")) {
+            final Matcher holderMatcher = HOLDER_CLASS.matcher(line);
+            if (holderMatcher.find()) {
+                holder = holderMatcher.group(1);
+            }
+            final Matcher constantMatcher = IRI_CONSTANT.matcher(line);
+            if (holder != null && constantMatcher.find()) {
+                holders.put(constantMatcher.group(1), holder);
+            }
+        }
+        return holders;
+    }
+
+    private static List<String> names(final String prefix, final int count) {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            names.add(String.format("%s%04d", prefix, i));
+        }
+        return names;
+    }
+
+}
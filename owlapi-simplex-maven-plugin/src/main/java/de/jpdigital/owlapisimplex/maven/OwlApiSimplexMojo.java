@@ -79,6 +79,22 @@ public class OwlApiSimplexMojo extends AbstractMojo {
     @Parameter(required = false, defaultValue = "true")
     private boolean generateOntologyLoader;
 
+    /**
+     * Maximum number of IRI constants in a generated class. The constants of
+     * namespaces with more IRIs are distributed over lazily initialized holder
+     * classes. Namespaces with more IRIs than fit into a class are always
+     * split.
+     */
+    @Parameter(required = false, defaultValue = "7000")
+    private int maxConstantsPerClass;
+
+    /**
+     * Generate typed constants ({@code OWLClass}, {@code OWLDataProperty},
+     * ...) for the OWL entities in addition to the IRI constants?
+     */
+    @Parameter(required = false, defaultValue = "false")
+    private boolean generateEntityConstants;
+
     /**
      * The OWL files to use. They must be provided in the correct order so that
      * imports in the OWL files can be resolved. The path are relative to the
@@ -151,7 +167,12 @@ public class OwlApiSimplexMojo extends AbstractMojo {
 
         final IriConstantsGenerator iriConstantsGenerator
                                         = IriConstantsGenerator
-                .buildIriConstantsGenerator(ontologyOwlApi, outputDir.toPath());
+                .buildIriConstantsGenerator(
+                    ontologyOwlApi,
+                    outputDir.toPath(),
+                    maxConstantsPerClass,
+                    generateEntityConstants
+                );
 
         try {
             if (generateIriConstantsForClasses) {
@@ -0,0 +1,574 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.util.Arrays;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalDouble;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+
+/**
+ * Aggregations (counts, minimum, maximum, sum) over the members of a class,
+ * optionally grouped by the value of a data property or by the target of an
+ * object property, for example the number of employees per company or the
+ * sum of the salaries per department.
+ *
+ * Each aggregation is computed in a single scan over the members of the
+ * class, reading the values from the value indexes, the parsed numeric values
+ * and the graphs of the {@link OntologyIndex}. For classes with at least
+ * {@value DataProperties#PARALLEL_THRESHOLD} members the scan runs in
+ * parallel.
+ *
+ * The members of the class are the inferred members. The values are taken
+ * from the property assertions of the ontology (including sub-properties, and
+ * inverse properties for object properties) stored in the index. If the
+ * reasoner may entail values of a property which are not asserted (see
+ * {@link DataPropertyValueIndex#isComplete()} and
+ * {@link ObjectPropertyGraph#isComplete()}), the values of the property are
+ * retrieved from the reasoner instead, one call per member, so that the
+ * aggregations include the entailed values.
+ *
+ * An individual with several values belongs to several groups, but is
+ * counted only once per group. Numeric aggregations include all numeric
+ * values of a property (see
+ * {@link DataProperties#doubleDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLDataProperty)}),
+ * other values are ignored. Groups are returned ordered by their count,
+ * largest first. Groups with the same count are ordered by their value or
+ * individual.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class Aggregations {
+
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ontologyIndex The materialized state of the ontology.
+     */
+    private Aggregations(final OntologyIndex ontologyIndex) {
+        this.ontologyIndex = ontologyIndex;
+    }
+
+    /**
+     * Factory method for creating new instances of {@code Aggregations}.
+     *
+     * @param ontologyIndex The materialized state of the ontology.
+     *
+     * @return An {@code Aggregations} instance.
+     */
+    public static Aggregations buildAggregations(
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontologyIndex);
+
+        return new Aggregations(ontologyIndex);
+    }
+
+    /**
+     * Counts the members of a class grouped by the value of a data property.
+     * Values are grouped by their value, not by their lexical form, for
+     * example {@code "5000"^^xsd:decimal} and {@code "5000.00"^^xsd:decimal}
+     * are the same group. The key of a group is the value of the member with
+     * the lowest IRI.
+     *
+     * @param owlClass The class.
+     * @param groupBy  The data property.
+     *
+     * @return The number of members for each value. Members without a value
+     *         are not included.
+     */
+    public Map<OWLLiteral, Long> countByDataPropertyValue(
+        final OWLClass owlClass, final OWLDataProperty groupBy
+    ) {
+        return toCounts(
+            aggregate(owlClass, dataGroups(groupBy), null),
+            OWLLiteral.class::cast
+        );
+    }
+
+    /**
+     * Counts the members of a class grouped by the targets of an object
+     * property.
+     *
+     * @param owlClass The class.
+     * @param groupBy  The object property.
+     *
+     * @return The number of members linked to each target. Members without a
+     *         target are not included.
+     */
+    public Map<OWLNamedIndividual, Long> countByObjectPropertyValue(
+        final OWLClass owlClass, final OWLObjectProperty groupBy
+    ) {
+        return toCounts(
+            aggregate(owlClass, objectGroups(groupBy), null),
+            this::toIndividual
+        );
+    }
+
+    /**
+     * Computes the count, minimum, maximum, sum and average of the numeric
+     * values of a data property for the members of a class.
+     *
+     * @param owlClass The class.
+     * @param measure  The data property.
+     *
+     * @return The statistics of the values. The count is the number of
+     *         values, not the number of members.
+     */
+    public DoubleSummaryStatistics summarizeDataPropertyValues(
+        final OWLClass owlClass, final OWLDataProperty measure
+    ) {
+        Objects.requireNonNull(measure);
+
+        final Group group = aggregate(
+            owlClass, (id, groups) -> groups.accept(Boolean.TRUE, null),
+            measure
+        ).get(Boolean.TRUE);
+        if (group == null) {
+            return new DoubleSummaryStatistics();
+        } else {
+            return group.statistics;
+        }
+    }
+
+    /**
+     * Get the minimum of the numeric values of a data property for the
+     * members of a class.
+     *
+     * @param owlClass The class.
+     * @param measure  The data property.
+     *
+     * @return The minimum, or an empty {@link OptionalDouble} if none of the
+     *         members has a numeric value.
+     */
+    public OptionalDouble minDataPropertyValue(
+        final OWLClass owlClass, final OWLDataProperty measure
+    ) {
+        final DoubleSummaryStatistics statistics = summarizeDataPropertyValues(
+            owlClass, measure
+        );
+        if (statistics.getCount() == 0) {
+            return OptionalDouble.empty();
+        } else {
+            return OptionalDouble.of(statistics.getMin());
+        }
+    }
+
+    /**
+     * Get the maximum of the numeric values of a data property for the
+     * members of a class.
+     *
+     * @param owlClass The class.
+     * @param measure  The data property.
+     *
+     * @return The maximum, or an empty {@link OptionalDouble} if none of the
+     *         members has a numeric value.
+     */
+    public OptionalDouble maxDataPropertyValue(
+        final OWLClass owlClass, final OWLDataProperty measure
+    ) {
+        final DoubleSummaryStatistics statistics = summarizeDataPropertyValues(
+            owlClass, measure
+        );
+        if (statistics.getCount() == 0) {
+            return OptionalDouble.empty();
+        } else {
+            return OptionalDouble.of(statistics.getMax());
+        }
+    }
+
+    /**
+     * Get the sum of the numeric values of a data property for the members
+     * of a class.
+     *
+     * @param owlClass The class.
+     * @param measure  The data property.
+     *
+     * @return The sum, {@code 0} if none of the members has a numeric value.
+     */
+    public double sumDataPropertyValues(
+        final OWLClass owlClass, final OWLDataProperty measure
+    ) {
+        return summarizeDataPropertyValues(owlClass, measure).getSum();
+    }
+
+    /**
+     * Computes the statistics of the numeric values of a data property for
+     * the members of a class, grouped by the value of another data property.
+     *
+     * @param owlClass The class.
+     * @param groupBy  The data property for grouping.
+     * @param measure  The data property to aggregate.
+     *
+     * @return The statistics of the values of {@code measure} for each value
+     *         of {@code groupBy}. Groups whose members have no numeric values
+     *         are included with a count of {@code 0}.
+     *
+     * @see #countByDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public Map<OWLLiteral, DoubleSummaryStatistics> summarizeByDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty groupBy,
+        final OWLDataProperty measure
+    ) {
+        Objects.requireNonNull(measure);
+
+        return toStatistics(
+            aggregate(owlClass, dataGroups(groupBy), measure),
+            OWLLiteral.class::cast
+        );
+    }
+
+    /**
+     * Computes the statistics of the numeric values of a data property for
+     * the members of a class, grouped by the targets of an object property,
+     * for example the salaries of the employees per company.
+     *
+     * @param owlClass The class.
+     * @param groupBy  The object property for grouping.
+     * @param measure  The data property to aggregate.
+     *
+     * @return The statistics of the values of {@code measure} for each target
+     *         of {@code groupBy}. Groups whose members have no numeric values
+     *         are included with a count of {@code 0}.
+     */
+    public Map<OWLNamedIndividual, DoubleSummaryStatistics> summarizeByObjectPropertyValue(
+        final OWLClass owlClass,
+        final OWLObjectProperty groupBy,
+        final OWLDataProperty measure
+    ) {
+        Objects.requireNonNull(measure);
+
+        return toStatistics(
+            aggregate(owlClass, objectGroups(groupBy), measure),
+            this::toIndividual
+        );
+    }
+
+    /**
+     * Helper method for creating the grouping function for a data property.
+     * The groups are the keys of the values (see
+     * {@link LiteralValues#toKey(org.semanticweb.owlapi.model.OWLLiteral)}),
+     * the representatives are the literals. If the value index of the
+     * property is not complete, the values are retrieved from the reasoner.
+     *
+     * @param property The data property.
+     *
+     * @return The grouping function.
+     */
+    private Grouping dataGroups(final OWLDataProperty property) {
+        Objects.requireNonNull(property);
+
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+        final IntFunction<OWLLiteral[]> read;
+        if (valueIndex.isComplete()) {
+            read = valueIndex::getValues;
+        } else {
+            read = id -> ontologyIndex.getDataPropertyValues(
+                id, property, QueryDeadline.NONE
+            );
+        }
+        return (id, groups) -> {
+            final OWLLiteral[] values = read.apply(id);
+            if (values.length == 1) {
+                groups.accept(LiteralValues.toKey(values[0]), values[0]);
+            } else {
+                final Set<Object> keys = new HashSet<>();
+                for (final OWLLiteral value : values) {
+                    final Object key = LiteralValues.toKey(value);
+                    if (keys.add(key)) {
+                        groups.accept(key, value);
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Helper method for creating the grouping function for an object
+     * property. The groups and the representatives are the ids of the
+     * targets. If the graph of the property is not complete, the targets are
+     * retrieved from the reasoner.
+     *
+     * @param property The object property.
+     *
+     * @return The grouping function.
+     */
+    private Grouping objectGroups(final OWLObjectProperty property) {
+        Objects.requireNonNull(property);
+
+        return (id, groups) -> Arrays
+            .stream(
+                ontologyIndex.getObjectPropertyValues(
+                    id, property, QueryDeadline.NONE
+                )
+            )
+            .forEach(target -> groups.accept(target, target));
+    }
+
+    /**
+     * Helper method for aggregating the members of a class in a single scan.
+     *
+     * @param owlClass The class.
+     * @param grouping The function assigning the members to groups.
+     * @param measure  The property to aggregate, {@code null} if only the
+     *                 members are counted.
+     *
+     * @return The groups, by their key.
+     */
+    private Map<Object, Group> aggregate(
+        final OWLClass owlClass,
+        final Grouping grouping,
+        final OWLDataProperty measure
+    ) {
+        Objects.requireNonNull(owlClass);
+
+        final int[] members = ontologyIndex
+            .getClassMembers(owlClass)
+            .stream()
+            .toArray();
+        final IntFunction<DoubleStream> values;
+        if (measure == null) {
+            values = id -> DoubleStream.empty();
+        } else {
+            if (ontologyIndex.getDataPropertyValueIndex(measure).isComplete()) {
+                final PrimitiveDataPropertyValues primitiveValues
+                                                      = ontologyIndex
+                    .getPrimitiveValues(measure);
+                values = primitiveValues::doubleValues;
+            } else {
+                values = id -> PrimitiveDataPropertyValues
+                    .parse(
+                        ontologyIndex.getDataPropertyValues(
+                            id, measure, QueryDeadline.NONE
+                        )
+                    )
+                    .doubleValues(0);
+            }
+        }
+
+        IntStream scan = Arrays.stream(members);
+        if (members.length >= DataProperties.PARALLEL_THRESHOLD) {
+            scan = scan.parallel();
+        }
+        return scan.collect(
+            HashMap::new,
+            (groups, id) -> grouping.groups(
+                id,
+                (key, representative) -> groups
+                    .computeIfAbsent(key, k -> new Group(id, representative))
+                    .accept(values.apply(id))
+            ),
+            (groups, other) -> other.forEach(
+                (key, group) -> groups.merge(key, group, Group::combine)
+            )
+        );
+    }
+
+    /**
+     * Helper method for converting the groups to a map of counts.
+     *
+     * @param <K>     The type of the keys of the result.
+     * @param groups  The groups.
+     * @param convert Converts the representative of a group to the key of the
+     *                result.
+     *
+     * @return The counts, largest first.
+     */
+    private static <K> Map<K, Long> toCounts(
+        final Map<Object, Group> groups, final Function<Object, K> convert
+    ) {
+        final Map<K, Long> result = new LinkedHashMap<>();
+        groups
+            .values()
+            .stream()
+            .sorted()
+            .forEach(
+                group -> result.put(
+                    convert.apply(group.representative), group.members
+                )
+            );
+        return result;
+    }
+
+    /**
+     * Helper method for converting the groups to a map of statistics.
+     *
+     * @param <K>     The type of the keys of the result.
+     * @param groups  The groups.
+     * @param convert Converts the representative of a group to the key of the
+     *                result.
+     *
+     * @return The statistics, largest group first.
+     */
+    private static <K> Map<K, DoubleSummaryStatistics> toStatistics(
+        final Map<Object, Group> groups, final Function<Object, K> convert
+    ) {
+        final Map<K, DoubleSummaryStatistics> result = new LinkedHashMap<>();
+        groups
+            .values()
+            .stream()
+            .sorted()
+            .forEach(
+                group -> result.put(
+                    convert.apply(group.representative), group.statistics
+                )
+            );
+        return result;
+    }
+
+    /**
+     * Helper method for converting the id of an individual.
+     *
+     * @param id The id of the individual.
+     *
+     * @return The individual.
+     */
+    private OWLNamedIndividual toIndividual(final Object id) {
+        return ontologyIndex.getDictionary().getIndividual((Integer) id);
+    }
+
+    /**
+     * Assigns a member of a class to its groups.
+     */
+    @FunctionalInterface
+    private interface Grouping {
+
+        /**
+         * Passes the groups of a member to a consumer, each group only once.
+         *
+         * @param id     The id of the member.
+         * @param groups Accepts the key and the representative of each
+         *               group.
+         */
+        void groups(int id, BiConsumer<Object, Object> groups);
+
+    }
+
+    /**
+     * The state of a group during an aggregation.
+     */
+    private static final class Group implements Comparable<Group> {
+
+        /**
+         * The id of the first member of the group.
+         */
+        private int firstMember;
+
+        /**
+         * The representative of the group, taken from the first member.
+         */
+        private Object representative;
+
+        /**
+         * The number of members of the group.
+         */
+        private long members;
+
+        /**
+         * The statistics of the values of the members.
+         */
+        private final DoubleSummaryStatistics statistics;
+
+        /**
+         * Creates a group.
+         *
+         * @param firstMember    The id of the first member of the group.
+         * @param representative The representative of the group.
+         */
+        Group(final int firstMember, final Object representative) {
+            this.firstMember = firstMember;
+            this.representative = representative;
+            statistics = new DoubleSummaryStatistics();
+        }
+
+        /**
+         * Adds a member to the group.
+         *
+         * @param values The values of the member.
+         */
+        void accept(final DoubleStream values) {
+            members++;
+            values.forEach(statistics);
+        }
+
+        /**
+         * Combines two partial groups.
+         *
+         * @param other The other group.
+         *
+         * @return This group.
+         */
+        Group combine(final Group other) {
+            if (other.firstMember < firstMember) {
+                firstMember = other.firstMember;
+                representative = other.representative;
+            }
+            members += other.members;
+            statistics.combine(other.statistics);
+            return this;
+        }
+
+        /**
+         * Orders the groups by their number of members, largest first.
+         * Groups with the same number of members are ordered by their
+         * representatives, which are either literals or the ids of
+         * individuals (assigned in the order of the IRIs).
+         *
+         * @param other The other group.
+         *
+         * @return The result of the comparison.
+         */
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(final Group other) {
+            final int result = Long.compare(other.members, members);
+            if (result == 0) {
+                return ((Comparable<Object>) representative).compareTo(
+                    other.representative
+                );
+            } else {
+                return result;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,416 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * The annotation assertions of an ontology and its imports, grouped by their
+ * subject, and a sorted index of the labels for prefix searches.
+ *
+ * The annotations of each subject are stored in an array, so looking up the
+ * label or the comment of an entity requires a single hash lookup instead of
+ * a scan of the annotation assertions of the ontology.
+ *
+ * The label index contains an entry for the start of each word of each
+ * {@code rdfs:label}, in lower case. For example the label "ACME Corporation"
+ * has the entries "acme corporation" and "corporation". The complete label is
+ * always an entry, even if it doesn't start with a letter or digit. The entries are
+ * stored in a sorted array as positions in the labels, therefore a prefix
+ * search requires a binary search for the first entry and a scan of the
+ * matching entries only.
+ *
+ * Instances of this class are immutable. They are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class AnnotationIndex {
+
+    /**
+     * An empty array of annotations.
+     */
+    private static final OWLAnnotation[] NO_ANNOTATIONS = new OWLAnnotation[0];
+
+    /**
+     * The annotations of each subject, ordered by property and value.
+     */
+    private final Map<IRI, OWLAnnotation[]> annotationsBySubject;
+
+    /**
+     * The subjects of the labels in the label index.
+     */
+    private final IRI[] labelSubjects;
+
+    /**
+     * The labels in the label index.
+     */
+    private final OWLLiteral[] labels;
+
+    /**
+     * The lower case text of the labels in the label index.
+     */
+    private final String[] normalizedLabels;
+
+    /**
+     * The label of each entry of the label index, in the order of the
+     * entries.
+     */
+    private final int[] entryLabels;
+
+    /**
+     * The start of each entry in the lower case text of its label.
+     */
+    private final int[] entryOffsets;
+
+    /**
+     * Builds the index of the annotation assertions of an ontology and its
+     * imports. Only annotations of IRIs are included, annotations of
+     * anonymous individuals are ignored.
+     *
+     * @param ontology The ontology.
+     */
+    AnnotationIndex(final OWLOntology ontology) {
+        final Map<IRI, List<OWLAnnotation>> annotations = new HashMap<>();
+        ontology
+            .axioms(AxiomType.ANNOTATION_ASSERTION, Imports.INCLUDED)
+            .filter(axiom -> axiom.getSubject().isIRI())
+            .forEach(
+                axiom -> annotations
+                    .computeIfAbsent(
+                        (IRI) axiom.getSubject(), subject -> new ArrayList<>(2)
+                    )
+                    .add(axiom.getAnnotation())
+            );
+        annotationsBySubject = new HashMap<>(annotations.size() * 4 / 3 + 1);
+        final List<IRI> subjects = new ArrayList<>();
+        final List<OWLLiteral> literals = new ArrayList<>();
+        annotations.forEach((subject, values) -> {
+            final OWLAnnotation[] sorted;
+            if (values.size() == 1) {
+                sorted = values.toArray(new OWLAnnotation[1]);
+            } else {
+                // The same annotation may be asserted in several imported
+                // ontologies.
+                sorted = values
+                    .stream()
+                    .distinct()
+                    .sorted()
+                    .toArray(OWLAnnotation[]::new);
+            }
+            annotationsBySubject.put(subject, sorted);
+            for (final OWLAnnotation annotation : sorted) {
+                if (annotation.getProperty().isLabel()
+                        && annotation.getValue().isLiteral()) {
+                    subjects.add(subject);
+                    literals.add(annotation.getValue().asLiteral().get());
+                }
+            }
+        });
+        labelSubjects = subjects.toArray(new IRI[0]);
+        labels = literals.toArray(new OWLLiteral[0]);
+        normalizedLabels = literals
+            .stream()
+            .map(literal -> normalize(literal.getLiteral()))
+            .toArray(String[]::new);
+
+        // Each entry is encoded as a long: The label in the upper half, the
+        // offset in the lower half.
+        final LongStream.Builder builder = LongStream.builder();
+        for (int label = 0; label < normalizedLabels.length; label++) {
+            final String text = normalizedLabels[label];
+            for (int offset = 0; offset < text.length(); offset++) {
+                if (offset == 0 || isWordStart(text, offset)) {
+                    builder.add((long) label << 32 | offset);
+                }
+            }
+        }
+        final long[] entries = builder.build().toArray();
+        sortEntries(entries);
+        entryLabels = new int[entries.length];
+        entryOffsets = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            entryLabels[i] = (int) (entries[i] >>> 32);
+            entryOffsets[i] = (int) entries[i];
+        }
+    }
+
+    /**
+     * Get the annotations of a subject.
+     *
+     * @param subject The IRI of the subject.
+     *
+     * @return The annotations, ordered by property and value. The returned
+     *         array is shared and must not be modified.
+     */
+    OWLAnnotation[] getAnnotations(final IRI subject) {
+        return annotationsBySubject.getOrDefault(subject, NO_ANNOTATIONS);
+    }
+
+    /**
+     * @return The number of entries in the label index.
+     */
+    int getLabelEntryCount() {
+        return entryLabels.length;
+    }
+
+    /**
+     * Finds the subjects with a label containing a word which starts with a
+     * prefix. The comparison is case insensitive.
+     *
+     * @param prefix   The prefix.
+     * @param language The language of the labels to search. Labels without a
+     *                 language are always included. If {@code null}, all
+     *                 labels are included.
+     * @param limit    The maximum number of subjects to return.
+     *
+     * @return The subjects, in the order of the matching part of their
+     *         labels. Each subject is included only once.
+     */
+    List<IRI> findByLabelPrefix(
+        final String prefix, final String language, final int limit
+    ) {
+        final String normalizedPrefix = normalize(prefix);
+        final Set<IRI> result = new LinkedHashSet<>();
+        for (int entry = firstEntryAtLeast(normalizedPrefix);
+             entry < entryLabels.length && result.size() < limit;
+             entry++) {
+            final int label = entryLabels[entry];
+            if (!normalizedLabels[label].startsWith(
+                normalizedPrefix, entryOffsets[entry]
+            )) {
+                break;
+            }
+            if (language == null
+                    || !labels[label].hasLang()
+                    || matchesLanguage(labels[label].getLang(), language)) {
+                result.add(labelSubjects[label]);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Estimates the memory used by the index, excluding the annotations,
+     * IRIs and literals which are shared with the ontology.
+     *
+     * @return The estimated size of the index in bytes.
+     */
+    long estimateMemoryUsage() {
+        final long annotationArrays = annotationsBySubject
+            .values()
+            .stream()
+            .mapToLong(annotations -> MemoryEstimates.array(annotations.length))
+            .sum();
+        final long normalizedTexts = IntStream
+            .range(0, normalizedLabels.length)
+            .mapToLong(
+                label -> MemoryEstimates.OBJECT_HEADER
+                             + MemoryEstimates.REFERENCE
+                             + 2L * normalizedLabels[label].length()
+            )
+            .sum();
+        return MemoryEstimates.map(annotationsBySubject.size())
+                   + annotationArrays
+                   + MemoryEstimates.array(labelSubjects.length)
+                   + MemoryEstimates.array(labels.length)
+                   + MemoryEstimates.array(normalizedLabels.length)
+                   + normalizedTexts
+                   + MemoryEstimates.intArray(entryLabels.length)
+                   + MemoryEstimates.intArray(entryOffsets.length);
+    }
+
+    /**
+     * Checks if the language tag of a literal matches a requested language.
+     * The tags match if they are equal (ignoring case) or if one of them is
+     * a more specific variant of the other, for example {@code en-US} and
+     * {@code en}.
+     *
+     * @param tag      The language tag of the literal.
+     * @param language The requested language.
+     *
+     * @return {@code true} if the tags match, {@code false} otherwise.
+     */
+    static boolean matchesLanguage(final String tag, final String language) {
+        final String normalizedTag = tag.toLowerCase(Locale.ROOT);
+        final String normalizedLanguage = language.toLowerCase(Locale.ROOT);
+        return normalizedTag.equals(normalizedLanguage)
+                   || normalizedTag.startsWith(normalizedLanguage + "-")
+                   || normalizedLanguage.startsWith(normalizedTag + "-");
+    }
+
+    /**
+     * Binary search for the first entry which is equal to or greater than a
+     * prefix.
+     *
+     * @param prefix The normalized prefix.
+     *
+     * @return The position of the entry, the number of entries if all entries
+     *         are smaller.
+     */
+    private int firstEntryAtLeast(final String prefix) {
+        int low = 0;
+        int high = entryLabels.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (compare(
+                normalizedLabels[entryLabels[middle]],
+                entryOffsets[middle],
+                prefix,
+                0
+            ) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method for sorting the entries of the label index by their
+     * text, then by their label. The entries are sorted using a bottom-up
+     * merge sort on the primitive array, avoiding boxing the entries.
+     *
+     * @param entries The encoded entries.
+     */
+    private void sortEntries(final long[] entries) {
+        long[] source = entries;
+        long[] target = new long[entries.length];
+        for (int width = 1; width < entries.length; width *= 2) {
+            for (int low = 0; low < entries.length; low += 2 * width) {
+                final int middle = Math.min(low + width, entries.length);
+                final int high = Math.min(low + 2 * width, entries.length);
+                int left = low;
+                int right = middle;
+                for (int i = low; i < high; i++) {
+                    if (left < middle
+                            && (right >= high
+                                || compareEntries(
+                                source[left], source[right]
+                            ) <= 0)) {
+                        target[i] = source[left++];
+                    } else {
+                        target[i] = source[right++];
+                    }
+                }
+            }
+            final long[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != entries) {
+            System.arraycopy(source, 0, entries, 0, entries.length);
+        }
+    }
+
+    /**
+     * Helper method for ordering the entries of the label index: By their
+     * text, then by their label.
+     *
+     * @param first  The first encoded entry.
+     * @param second The second encoded entry.
+     *
+     * @return The result of the comparison.
+     */
+    private int compareEntries(final long first, final long second) {
+        final int firstLabel = (int) (first >>> 32);
+        final int secondLabel = (int) (second >>> 32);
+        final int result = compare(
+            normalizedLabels[firstLabel],
+            (int) first,
+            normalizedLabels[secondLabel],
+            (int) second
+        );
+        if (result == 0) {
+            return Integer.compare(firstLabel, secondLabel);
+        } else {
+            return result;
+        }
+    }
+
+    /**
+     * Compares the suffixes of two strings without copying them.
+     *
+     * @param first        The first string.
+     * @param firstOffset  The start of the suffix of the first string.
+     * @param second       The second string.
+     * @param secondOffset The start of the suffix of the second string.
+     *
+     * @return The result of the comparison, like
+     *         {@link String#compareTo(java.lang.String)}.
+     */
+    private static int compare(
+        final String first,
+        final int firstOffset,
+        final String second,
+        final int secondOffset
+    ) {
+        final int firstLength = first.length() - firstOffset;
+        final int secondLength = second.length() - secondOffset;
+        final int length = Math.min(firstLength, secondLength);
+        for (int i = 0; i < length; i++) {
+            final char firstChar = first.charAt(firstOffset + i);
+            final char secondChar = second.charAt(secondOffset + i);
+            if (firstChar != secondChar) {
+                return firstChar - secondChar;
+            }
+        }
+        return firstLength - secondLength;
+    }
+
+    /**
+     * Checks if a word starts at a position of a text.
+     *
+     * @param text   The text.
+     * @param offset The position, greater than {@code 0}.
+     *
+     * @return {@code true} if the character at the position is a letter or
+     *         digit and the preceding character is not.
+     */
+    private static boolean isWordStart(final String text, final int offset) {
+        return Character.isLetterOrDigit(text.charAt(offset))
+                   && !Character.isLetterOrDigit(text.charAt(offset - 1));
+    }
+
+    /**
+     * Helper method for normalizing a label or a prefix.
+     *
+     * @param text The text.
+     *
+     * @return The text in lower case.
+     */
+    private static String normalize(final String text) {
+        return text.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLAnnotationValue;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An Utility class for working with the annotations of OWL entities, for
+ * example their labels and comments.
+ *
+ * The annotation assertions of the ontology and its imports are read once
+ * and grouped by their subject in the {@link OntologyIndex}, so looking up
+ * the annotations of an entity does not scan the ontology. Labels can also
+ * be searched by a prefix, for example for a type-ahead search.
+ *
+ * Methods with a language parameter select a literal in this order:
+ * <ol>
+ * <li>a literal with the requested language, ignoring case,</li>
+ * <li>a literal with a more specific or more general variant of the
+ * language, for example {@code en-US} for {@code en},</li>
+ * <li>a literal without language,</li>
+ * <li>any other literal.</li>
+ * </ol>
+ * If there are several literals on the same level, the first one in the
+ * order of the OWL API is returned.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class Annotations {
+
+    /**
+     * The ontology manager for interacting the ontology.
+     */
+    private final OWLOntologyManager ontologyManager;
+
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param ontologyIndex   The materialized state of the ontology.
+     */
+    private Annotations(
+        final OWLOntologyManager ontologyManager,
+        final OntologyIndex ontologyIndex
+    ) {
+        this.ontologyManager = ontologyManager;
+        this.ontologyIndex = ontologyIndex;
+    }
+
+    /**
+     * Factory method for creating new instances of {@code Annotations}.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param ontologyIndex   The materialized state of the ontology.
+     *
+     * @return An {@code Annotations} instance.
+     */
+    public static Annotations buildAnnotations(
+        final OWLOntologyManager ontologyManager,
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(ontologyIndex);
+
+        return new Annotations(ontologyManager, ontologyIndex);
+    }
+
+    /**
+     * Get all annotations of an entity.
+     *
+     * @param subject The IRI of the entity.
+     *
+     * @return A stream of the annotations, ordered by property and value.
+     */
+    public Stream<OWLAnnotation> annotations(final IRI subject) {
+        Objects.requireNonNull(subject);
+
+        return Arrays.stream(
+            ontologyIndex.getAnnotationIndex().getAnnotations(subject)
+        );
+    }
+
+    /**
+     * Get all annotations of an entity.
+     *
+     * @param subject The IRI of the entity.
+     *
+     * @return A {@link List} of the annotations, ordered by property and
+     *         value.
+     *
+     * @see #annotations(org.semanticweb.owlapi.model.IRI)
+     */
+    public List<OWLAnnotation> getAnnotations(final IRI subject) {
+        return annotations(subject).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the values of an annotation property for an entity.
+     *
+     * @param subject  The IRI of the entity.
+     * @param property The annotation property.
+     *
+     * @return A stream of the values. The values are either literals, IRIs or
+     *         anonymous individuals.
+     */
+    public Stream<OWLAnnotationValue> annotationValues(
+        final IRI subject, final OWLAnnotationProperty property
+    ) {
+        Objects.requireNonNull(property);
+
+        return annotations(subject)
+            .filter(annotation -> annotation.getProperty().equals(property))
+            .map(OWLAnnotation::getValue);
+    }
+
+    /**
+     * Get the values of an annotation property for an entity.
+     *
+     * @param subject  The IRI of the entity.
+     * @param property The annotation property.
+     *
+     * @return A {@link List} of the values.
+     *
+     * @see #annotationValues(org.semanticweb.owlapi.model.IRI,
+     * org.semanticweb.owlapi.model.OWLAnnotationProperty)
+     */
+    public List<OWLAnnotationValue> getAnnotationValues(
+        final IRI subject, final OWLAnnotationProperty property
+    ) {
+        return annotationValues(subject, property)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the values of an annotation property for an entity.
+     *
+     * @param subject     The IRI of the entity.
+     * @param propertyIri The IRI of the annotation property.
+     *
+     * @return A {@link List} of the values.
+     *
+     * @see #annotationValues(org.semanticweb.owlapi.model.IRI,
+     * org.semanticweb.owlapi.model.OWLAnnotationProperty)
+     */
+    public List<OWLAnnotationValue> getAnnotationValues(
+        final IRI subject, final IRI propertyIri
+    ) {
+        return getAnnotationValues(
+            subject, getDataFactory().getOWLAnnotationProperty(propertyIri)
+        );
+    }
+
+    /**
+     * Get the literal value of an annotation property for an entity in a
+     * specific language.
+     *
+     * @param subject  The IRI of the entity.
+     * @param property The annotation property.
+     * @param language The requested language, for example {@code en}. If
+     *                 {@code null}, a literal without language is preferred.
+     *
+     * @return An {@link Optional} with the selected literal, or an empty
+     *         {@link Optional} if the entity has no literal value for the
+     *         property.
+     */
+    public Optional<OWLLiteral> getAnnotationValue(
+        final IRI subject,
+        final OWLAnnotationProperty property,
+        final String language
+    ) {
+        final List<OWLLiteral> literals = literals(subject, property);
+        if (language != null) {
+            for (final OWLLiteral literal : literals) {
+                if (literal.getLang().equalsIgnoreCase(language)) {
+                    return Optional.of(literal);
+                }
+            }
+            for (final OWLLiteral literal : literals) {
+                if (literal.hasLang()
+                        && AnnotationIndex.matchesLanguage(
+                        literal.getLang(), language
+                    )) {
+                    return Optional.of(literal);
+                }
+            }
+        }
+        for (final OWLLiteral literal : literals) {
+            if (!literal.hasLang()) {
+                return Optional.of(literal);
+            }
+        }
+        return literals.stream().findFirst();
+    }
+
+    /**
+     * Get the label ({@code rdfs:label}) of an entity, preferring a label
+     * without language.
+     *
+     * @param entity The entity.
+     *
+     * @return An {@link Optional} with the label, or an empty
+     *         {@link Optional} if the entity has no label.
+     */
+    public Optional<String> getLabel(final OWLEntity entity) {
+        return getLabel(entity.getIRI(), null);
+    }
+
+    /**
+     * Get the label ({@code rdfs:label}) of an entity in a specific language.
+     *
+     * @param entity   The entity.
+     * @param language The requested language, for example {@code en}.
+     *
+     * @return An {@link Optional} with the label, or an empty
+     *         {@link Optional} if the entity has no label.
+     */
+    public Optional<String> getLabel(
+        final OWLEntity entity, final String language
+    ) {
+        return getLabel(entity.getIRI(), language);
+    }
+
+    /**
+     * Get the label ({@code rdfs:label}) of an entity in a specific
+     * language, for example for displaying the results of
+     * {@link #findByLabelPrefix(java.lang.String, java.lang.String, int)}.
+     *
+     * @param subject  The IRI of the entity.
+     * @param language The requested language, for example {@code en}. If
+     *                 {@code null}, a label without language is preferred.
+     *
+     * @return An {@link Optional} with the label, or an empty
+     *         {@link Optional} if the entity has no label.
+     */
+    public Optional<String> getLabel(
+        final IRI subject, final String language
+    ) {
+        return getAnnotationValue(
+            subject, getDataFactory().getRDFSLabel(), language
+        ).map(OWLLiteral::getLiteral);
+    }
+
+    /**
+     * Get all labels ({@code rdfs:label}) of an entity.
+     *
+     * @param entity The entity.
+     *
+     * @return A {@link List} with the labels in all languages.
+     */
+    public List<OWLLiteral> getLabels(final OWLEntity entity) {
+        return literals(entity.getIRI(), getDataFactory().getRDFSLabel());
+    }
+
+    /**
+     * Get the comment ({@code rdfs:comment}) of an entity, preferring a
+     * comment without language.
+     *
+     * @param entity The entity.
+     *
+     * @return An {@link Optional} with the comment, or an empty
+     *         {@link Optional} if the entity has no comment.
+     */
+    public Optional<String> getComment(final OWLEntity entity) {
+        return getComment(entity, null);
+    }
+
+    /**
+     * Get the comment ({@code rdfs:comment}) of an entity in a specific
+     * language.
+     *
+     * @param entity   The entity.
+     * @param language The requested language, for example {@code en}.
+     *
+     * @return An {@link Optional} with the comment, or an empty
+     *         {@link Optional} if the entity has no comment.
+     */
+    public Optional<String> getComment(
+        final OWLEntity entity, final String language
+    ) {
+        return getAnnotationValue(
+            entity.getIRI(), getDataFactory().getRDFSComment(), language
+        ).map(OWLLiteral::getLiteral);
+    }
+
+    /**
+     * Get all comments ({@code rdfs:comment}) of an entity.
+     *
+     * @param entity The entity.
+     *
+     * @return A {@link List} with the comments in all languages.
+     */
+    public List<OWLLiteral> getComments(final OWLEntity entity) {
+        return literals(entity.getIRI(), getDataFactory().getRDFSComment());
+    }
+
+    /**
+     * Finds the entities with a label in any language containing a word
+     * which starts with a prefix.
+     *
+     * @param prefix The prefix.
+     * @param limit  The maximum number of entities to return.
+     *
+     * @return The IRIs of the entities.
+     *
+     * @see #findByLabelPrefix(java.lang.String, java.lang.String, int)
+     */
+    public List<IRI> findByLabelPrefix(final String prefix, final int limit) {
+        return findByLabelPrefix(prefix, null, limit);
+    }
+
+    /**
+     * Finds the entities with a label containing a word which starts with a
+     * prefix, for example for a type-ahead search. The comparison is case
+     * insensitive. For example the prefix {@code "corp"} finds an entity
+     * labeled "ACME Corporation".
+     *
+     * The labels are searched in a sorted index, which is built once when it
+     * is used for the first time. The time required for a search depends on
+     * the number of matches and on the logarithm of the number of labels,
+     * not on the size of the ontology.
+     *
+     * @param prefix   The prefix.
+     * @param language Search only labels in this language (and labels
+     *                 without language). If {@code null} the labels in all
+     *                 languages are searched.
+     * @param limit    The maximum number of entities to return.
+     *
+     * @return The IRIs of the entities, ordered by the matching part of
+     *         their labels. Use
+     *         {@link #getLabel(org.semanticweb.owlapi.model.IRI, java.lang.String)}
+     *         to display them.
+     *
+     * @throws IllegalArgumentException If {@code limit} is negative.
+     */
+    public List<IRI> findByLabelPrefix(
+        final String prefix, final String language, final int limit
+    ) {
+        Objects.requireNonNull(prefix);
+        if (limit < 0) {
+            throw new IllegalArgumentException(
+                "The limit must not be negative."
+            );
+        }
+
+        return ontologyIndex
+            .getAnnotationIndex()
+            .findByLabelPrefix(prefix, language, limit);
+    }
+
+    /**
+     * Helper method for retrieving the literal values of an annotation
+     * property.
+     *
+     * @param subject  The IRI of the entity.
+     * @param property The annotation property.
+     *
+     * @return The literal values.
+     */
+    private List<OWLLiteral> literals(
+        final IRI subject, final OWLAnnotationProperty property
+    ) {
+        return annotationValues(subject, property)
+            .filter(OWLAnnotationValue::isLiteral)
+            .map(value -> value.asLiteral().get())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * @return The data factory of the ontology manager.
+     */
+    private OWLDataFactory getDataFactory() {
+        return ontologyManager.getOWLDataFactory();
+    }
+
+}
@@ -0,0 +1,463 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Asynchronous facade for the query utilities. The queries are executed on a
+ * dedicated executor and the results are returned as
+ * {@link CompletableFuture}s, so that callers, for example the event loop of
+ * a reactive web framework, are never blocked by a query.
+ *
+ * The executor has a fixed number of threads and a bounded queue. If the
+ * queue is full, a query is rejected immediately: The returned future fails
+ * with a {@link RejectedExecutionException} and the rejection is counted in
+ * the {@link QueryMetrics}. Each query runs with a {@link QueryDeadline}.
+ * Cancelling the returned future cancels the query, a running call of the
+ * reasoner is interrupted. The calls of the reasoner are serialized, queries
+ * answered from the {@link OntologyIndex} run in parallel.
+ *
+ * A query failing with a {@link RuntimeException} completes the returned
+ * future exceptionally. An {@link Error} thrown by a query also completes the
+ * future exceptionally, but is rethrown and terminates the thread executing
+ * the query, the executor replaces the thread.
+ *
+ * The results are returned as lists, because a lazy
+ * {@link java.util.stream.Stream} would be consumed in the thread of the
+ * caller. Instances should be closed using {@link #close()} if they are no
+ * longer used.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class AsyncQueries implements AutoCloseable {
+
+    /**
+     * Default capacity of the queue of the executor.
+     */
+    public static final int DEFAULT_QUEUE_CAPACITY = 256;
+
+    /**
+     * Counter for the names of the executors.
+     */
+    private static final AtomicInteger EXECUTOR_COUNTER = new AtomicInteger();
+
+    /**
+     * The {@link Instances} used for the queries.
+     */
+    private final Instances instances;
+
+    /**
+     * The {@link DataProperties} used for the queries.
+     */
+    private final DataProperties dataProperties;
+
+    /**
+     * The {@link ObjectProperties} used for the queries.
+     */
+    private final ObjectProperties objectProperties;
+
+    /**
+     * The metrics for recording accepted and rejected queries.
+     */
+    private final QueryMetrics metrics;
+
+    /**
+     * The executor for the queries.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param instances        The {@link Instances} used for the queries.
+     * @param dataProperties   The {@link DataProperties} used for the
+     *                         queries.
+     * @param objectProperties The {@link ObjectProperties} used for the
+     *                         queries.
+     * @param metrics          The metrics for the queries.
+     * @param threads          The number of threads of the executor.
+     * @param queueCapacity    The capacity of the queue of the executor.
+     */
+    private AsyncQueries(
+        final Instances instances,
+        final DataProperties dataProperties,
+        final ObjectProperties objectProperties,
+        final QueryMetrics metrics,
+        final int threads,
+        final int queueCapacity
+    ) {
+        this.instances = instances;
+        this.dataProperties = dataProperties;
+        this.objectProperties = objectProperties;
+        this.metrics = metrics;
+
+        final String namePrefix = String.format(
+            "owlapi-simplex-query-%d-", EXECUTOR_COUNTER.incrementAndGet()
+        );
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadFactory threadFactory = runnable -> {
+            final Thread thread = new Thread(
+                runnable, namePrefix + threadCounter.incrementAndGet()
+            );
+            thread.setDaemon(true);
+            return thread;
+        };
+        executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            threadFactory,
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Factory method for generating new instances of {@code AsyncQueries}.
+     * Usually there is no need to call this method, use
+     * {@link OwlApiSimplexUtils#buildAsyncQueries(int, int)} instead.
+     *
+     * @param instances        The {@link Instances} used for the queries.
+     * @param dataProperties   The {@link DataProperties} used for the
+     *                         queries.
+     * @param objectProperties The {@link ObjectProperties} used for the
+     *                         queries.
+     * @param ontologyIndex    The {@link OntologyIndex} shared by the
+     *                         utilities, which provides the
+     *                         {@link QueryMetrics}.
+     * @param threads          The number of threads of the executor.
+     * @param queueCapacity    The maximum number of queries waiting for a
+     *                         thread.
+     *
+     * @return An {@code AsyncQueries} instance.
+     *
+     * @throws IllegalArgumentException If {@code threads} or
+     *                                  {@code queueCapacity} is less than 1.
+     */
+    public static AsyncQueries buildAsyncQueries(
+        final Instances instances,
+        final DataProperties dataProperties,
+        final ObjectProperties objectProperties,
+        final OntologyIndex ontologyIndex,
+        final int threads,
+        final int queueCapacity
+    ) {
+        Objects.requireNonNull(instances);
+        Objects.requireNonNull(dataProperties);
+        Objects.requireNonNull(objectProperties);
+        Objects.requireNonNull(ontologyIndex);
+        if (threads < 1) {
+            throw new IllegalArgumentException(
+                String.format("Invalid number of threads %d.", threads)
+            );
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException(
+                String.format("Invalid queue capacity %d.", queueCapacity)
+            );
+        }
+
+        return new AsyncQueries(
+            instances,
+            dataProperties,
+            objectProperties,
+            ontologyIndex.getQueryMetrics(),
+            threads,
+            queueCapacity
+        );
+    }
+
+    /**
+     * Submits a query. The query is called with the {@link QueryDeadline}
+     * which is cancelled if the returned future is cancelled:
+     *
+     * <pre>
+     * asyncQueries.submit(
+     *     deadline -&gt; instances.getInstances(query, deadline)
+     * );
+     * </pre>
+     *
+     * @param <T>   The type of the result.
+     * @param query The query.
+     *
+     * @return A future for the result of the query. If the queue of the
+     *         executor is full, the future fails with a
+     *         {@link RejectedExecutionException}.
+     */
+    public <T> CompletableFuture<T> submit(
+        final Function<QueryDeadline, T> query
+    ) {
+        return submit(QueryDeadline.buildQueryDeadline(), query);
+    }
+
+    /**
+     * Submits a query with a timeout. The timeout is measured from the
+     * submission, the time the query waits in the queue is included. A query
+     * whose deadline has passed before it is started fails with a
+     * {@link QueryTimeoutException} without being executed.
+     *
+     * @param <T>     The type of the result.
+     * @param timeout The timeout of the query.
+     * @param query   The query.
+     *
+     * @return A future for the result of the query.
+     *
+     * @see #submit(java.util.function.Function)
+     */
+    public <T> CompletableFuture<T> submit(
+        final Duration timeout, final Function<QueryDeadline, T> query
+    ) {
+        return submit(QueryDeadline.buildQueryDeadline(timeout), query);
+    }
+
+    /**
+     * Retrieves the instances matching the provided DL query.
+     *
+     * @param query The query to execute.
+     *
+     * @return A future for the matching individuals.
+     *
+     * @see Instances#getInstances(java.lang.String,
+     * de.jpdigital.owlapisimplex.QueryDeadline)
+     */
+    public CompletableFuture<List<OWLNamedIndividual>> getInstances(
+        final String query
+    ) {
+        return submit(deadline -> instances.getInstances(query, deadline));
+    }
+
+    /**
+     * Get all instances of the provided class expression.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return A future for the matching individuals.
+     */
+    public CompletableFuture<List<OWLNamedIndividual>> getInstances(
+        final OWLClassExpression classExpression
+    ) {
+        return submit(
+            deadline -> instances.getInstances(classExpression, deadline)
+        );
+    }
+
+    /**
+     * Get the instances of the provided class expression using the provided
+     * {@link QueryOptions}. If the options have no deadline, the query can be
+     * cancelled by cancelling the returned future.
+     *
+     * @param classExpression The class expression.
+     * @param options         The options for the query.
+     *
+     * @return A future for the matching individuals.
+     */
+    public CompletableFuture<List<OWLNamedIndividual>> getInstances(
+        final OWLClassExpression classExpression, final QueryOptions options
+    ) {
+        if (options.getDeadline() == QueryDeadline.NONE) {
+            return submit(
+                deadline -> instances.getInstances(
+                    classExpression, options.withDeadline(deadline)
+                )
+            );
+        } else {
+            return submit(
+                options.getDeadline(),
+                deadline -> instances.getInstances(classExpression, options)
+            );
+        }
+    }
+
+    /**
+     * Counts the instances of the provided class expression.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return A future for the number of instances.
+     */
+    public CompletableFuture<Long> countInstances(
+        final OWLClassExpression classExpression
+    ) {
+        return submit(
+            deadline -> instances.countInstances(classExpression, deadline)
+        );
+    }
+
+    /**
+     * Get the values of an data property for an individual.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     *
+     * @return A future for the values of the data property.
+     */
+    public CompletableFuture<List<OWLLiteral>> getDataPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLDataProperty property
+    ) {
+        return submit(
+            deadline -> dataProperties.getDataPropertyValues(
+                fromIndividual, property, deadline
+            )
+        );
+    }
+
+    /**
+     * Get the values of an object property for an individual.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     *
+     * @return A future for the values of the object property.
+     */
+    public CompletableFuture<List<OWLNamedIndividual>> getObjectPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property
+    ) {
+        return submit(
+            deadline -> objectProperties.getObjectPropertyValues(
+                fromIndividual, property, deadline
+            )
+        );
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation).
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param property     The property.
+     *
+     * @return A future for the individuals pointing to the individual.
+     */
+    public CompletableFuture<List<OWLNamedIndividual>> getInverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property
+    ) {
+        return submit(
+            deadline -> objectProperties.getInverseObjectPropertyValues(
+                toIndividual, property, deadline
+            )
+        );
+    }
+
+    /**
+     * @return The number of queries waiting for a thread.
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return The number of queries which can be queued additionally before
+     *         new queries are rejected.
+     */
+    public int getRemainingQueueCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    /**
+     * @return The approximate number of queries currently executed.
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Shuts down the executor. Queries already submitted are still executed,
+     * new queries are rejected.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Helper method for submitting a query with a deadline.
+     *
+     * @param <T>      The type of the result.
+     * @param deadline The deadline of the query.
+     * @param query    The query.
+     *
+     * @return A future for the result of the query.
+     */
+    private <T> CompletableFuture<T> submit(
+        final QueryDeadline deadline, final Function<QueryDeadline, T> query
+    ) {
+        Objects.requireNonNull(query);
+
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.whenComplete((result, ex) -> {
+            if (future.isCancelled()) {
+                deadline.cancel();
+            }
+        });
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                if (deadline.isExpired()) {
+                    metrics.recordTimeout();
+                    future.completeExceptionally(
+                        new QueryTimeoutException(
+                            "The query has exceeded its deadline while "
+                                + "waiting in the queue."
+                        )
+                    );
+                    return;
+                }
+                try {
+                    future.complete(query.apply(deadline));
+                } catch (RuntimeException ex) {
+                    future.completeExceptionally(ex);
+                } catch (Error error) {
+                    // Don't leave the caller waiting, but don't swallow the
+                    // error either: the worker thread terminates and the
+                    // error reaches its uncaught exception handler.
+                    future.completeExceptionally(error);
+                    throw error;
+                }
+            });
+            metrics.recordAsyncSubmission();
+        } catch (RejectedExecutionException ex) {
+            metrics.recordAsyncRejection();
+            future.completeExceptionally(ex);
+        }
+        return future;
+    }
+
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An utility class for working with the inferred hierarchy of the OWL
+ * classes.
+ *
+ * The hierarchy is built once from the reasoner after the classification and
+ * is stored in the {@link OntologyIndex}. Checking if a class is a subclass
+ * of another class requires a single lookup in a {@link java.util.BitSet}.
+ * The super- and subclasses of a class are read from the index without
+ * calling the reasoner. Only classes which are not part of the signature of
+ * the ontology are passed to the reasoner.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class ClassHierarchy {
+
+    /**
+     * The ontology manager for interacting the ontology.
+     */
+    private final OWLOntologyManager ontologyManager;
+
+    /**
+     * Reasoner for the ontology.
+     */
+    private final OWLReasoner reasoner;
+
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
+     */
+    private ClassHierarchy(
+        final OWLOntologyManager ontologyManager,
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
+    ) {
+        this.ontologyManager = ontologyManager;
+        this.reasoner = reasoner;
+        this.ontologyIndex = ontologyIndex;
+    }
+
+    /**
+     * Factory method for generating new instances of {@code ClassHierarchy}.
+     *
+     * The returned instance uses the {@link OntologyIndex} shared by all
+     * utility classes created for the reasoner without an index, therefore
+     * repeated calls don't create additional indexes. The index is kept
+     * while it is used by a utility class and can be closed explicitly using
+     * {@link OntologyIndex#closeSharedOntologyIndex(OWLReasoner)}.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param reasoner        The reasoner.
+     *
+     * @return A {@code ClassHierarchy} instance.
+     */
+    public static ClassHierarchy buildClassHierarchy(
+        final OWLOntologyManager ontologyManager,
+        final OWLReasoner reasoner
+    ) {
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(reasoner);
+
+        return new ClassHierarchy(
+            ontologyManager,
+            reasoner,
+            OntologyIndex.getSharedOntologyIndex(reasoner)
+        );
+    }
+
+    /**
+     * Factory method for generating new instances of {@code ClassHierarchy}
+     * which share an {@link OntologyIndex} with other utility classes.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
+     *
+     * @return A {@code ClassHierarchy} instance.
+     */
+    public static ClassHierarchy buildClassHierarchy(
+        final OWLOntologyManager ontologyManager,
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(reasoner);
+        Objects.requireNonNull(ontologyIndex);
+
+        return new ClassHierarchy(ontologyManager, reasoner, ontologyIndex);
+    }
+
+    /**
+     * Checks if a class is a subclass of another class.
+     *
+     * @param subClassIri   The IRI of the possible subclass.
+     * @param superClassIri The IRI of the possible superclass.
+     *
+     * @return {@code true} if the first class is a subclass of the second
+     *         class, {@code false} otherwise.
+     *
+     * @see #isSubClassOf(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLClass)
+     */
+    public boolean isSubClassOf(
+        final IRI subClassIri, final IRI superClassIri
+    ) {
+        return isSubClassOf(
+            ontologyManager.getOWLDataFactory().getOWLClass(subClassIri),
+            ontologyManager.getOWLDataFactory().getOWLClass(superClassIri)
+        );
+    }
+
+    /**
+     * Checks if a class is a subclass of another class, directly or
+     * indirectly. As in OWL, each class is a subclass of itself and of its
+     * equivalent classes, and unsatisfiable classes are subclasses of all
+     * classes. For classes in the signature of the ontology the check
+     * requires constant time.
+     *
+     * @param subClass   The possible subclass.
+     * @param superClass The possible superclass.
+     *
+     * @return {@code true} if {@code subClass} is a subclass of
+     *         {@code superClass}, {@code false} otherwise.
+     */
+    public boolean isSubClassOf(
+        final OWLClass subClass, final OWLClass superClass
+    ) {
+        final ClassHierarchyIndex hierarchy = ontologyIndex
+            .getClassHierarchy();
+        final int subClassId = hierarchy.getId(subClass);
+        final int superClassId = hierarchy.getId(superClass);
+        if (subClassId >= 0 && superClassId >= 0) {
+            return hierarchy.isSubClassOf(subClassId, superClassId);
+        }
+
+        if (reasoner.isEntailmentCheckingSupported(AxiomType.SUBCLASS_OF)) {
+            return reasoner.isEntailed(
+                ontologyManager
+                    .getOWLDataFactory()
+                    .getOWLSubClassOfAxiom(subClass, superClass)
+            );
+        } else {
+            return subClass.equals(superClass)
+                       || reasoner
+                    .getSuperClasses(subClass, false)
+                    .containsEntity(superClass)
+                       || reasoner
+                    .getEquivalentClasses(subClass)
+                    .contains(superClass);
+        }
+    }
+
+    /**
+     * Get the superclasses of a class as {@link Stream}.
+     *
+     * @param owlClass The class.
+     * @param direct   Only the direct superclasses ({@code true}) or all
+     *                 inferred superclasses ({@code false})?
+     *
+     * @return A {@link Stream} of the superclasses, ordered by their IRI.
+     *         Equivalent classes are not included.
+     */
+    public Stream<OWLClass> superClasses(
+        final OWLClass owlClass, final boolean direct
+    ) {
+        final ClassHierarchyIndex hierarchy = ontologyIndex
+            .getClassHierarchy();
+        final int id = hierarchy.getId(owlClass);
+        if (id < 0) {
+            return reasoner
+                .getSuperClasses(owlClass, direct)
+                .entities()
+                .sorted(this::sortResults);
+        }
+        return hierarchy.classes(hierarchy.getSuperClasses(id, direct));
+    }
+
+    /**
+     * Get the superclasses of a class as {@link List}.
+     *
+     * @param owlClass The class.
+     * @param direct   Only the direct superclasses ({@code true}) or all
+     *                 inferred superclasses ({@code false})?
+     *
+     * @return A {@link List} of the superclasses.
+     */
+    public List<OWLClass> getSuperClasses(
+        final OWLClass owlClass, final boolean direct
+    ) {
+        return superClasses(owlClass, direct).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the subclasses of a class as {@link Stream}. The subclasses of a
+     * class are computed once and cached.
+     *
+     * @param owlClass The class.
+     * @param direct   Only the direct subclasses ({@code true}) or all
+     *                 inferred subclasses ({@code false})?
+     *
+     * @return A {@link Stream} of the subclasses, ordered by their IRI.
+     *         Equivalent classes and unsatisfiable classes are not included.
+     */
+    public Stream<OWLClass> subClasses(
+        final OWLClass owlClass, final boolean direct
+    ) {
+        final ClassHierarchyIndex hierarchy = ontologyIndex
+            .getClassHierarchy();
+        final int id = hierarchy.getId(owlClass);
+        if (id < 0) {
+            return reasoner
+                .getSubClasses(owlClass, direct)
+                .entities()
+                .filter(subClass -> !subClass.isOWLNothing())
+                .sorted(this::sortResults);
+        }
+        return hierarchy.classes(hierarchy.getSubClasses(id, direct));
+    }
+
+    /**
+     * Get the subclasses of a class as {@link List}.
+     *
+     * @param owlClass The class.
+     * @param direct   Only the direct subclasses ({@code true}) or all
+     *                 inferred subclasses ({@code false})?
+     *
+     * @return A {@link List} of the subclasses.
+     */
+    public List<OWLClass> getSubClasses(
+        final OWLClass owlClass, final boolean direct
+    ) {
+        return subClasses(owlClass, direct).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the classes equivalent to a class as {@link Stream}.
+     *
+     * @param owlClass The class.
+     *
+     * @return A {@link Stream} of the equivalent classes, ordered by their
+     *         IRI. The class itself is not included.
+     */
+    public Stream<OWLClass> equivalentClasses(final OWLClass owlClass) {
+        final ClassHierarchyIndex hierarchy = ontologyIndex
+            .getClassHierarchy();
+        final int id = hierarchy.getId(owlClass);
+        if (id < 0) {
+            return reasoner
+                .getEquivalentClasses(owlClass)
+                .entities()
+                .filter(equivalent -> !equivalent.equals(owlClass))
+                .sorted(this::sortResults);
+        }
+        return hierarchy.classes(hierarchy.getEquivalentClasses(id));
+    }
+
+    /**
+     * Get the classes equivalent to a class as {@link List}.
+     *
+     * @param owlClass The class.
+     *
+     * @return A {@link List} of the equivalent classes.
+     */
+    public List<OWLClass> getEquivalentClasses(final OWLClass owlClass) {
+        return equivalentClasses(owlClass).collect(Collectors.toList());
+    }
+
+    /**
+     * Helper method for sorting {@link OWLClass}es by their IRI.
+     *
+     * @param class1
+     * @param class2
+     *
+     * @return
+     */
+    private int sortResults(final OWLClass class1, final OWLClass class2) {
+        return class1
+            .getIRI()
+            .toString()
+            .compareTo(class2.getIRI().toString());
+    }
+
+}
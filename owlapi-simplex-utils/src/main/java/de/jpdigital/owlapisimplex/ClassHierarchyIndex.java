@@ -0,0 +1,493 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The inferred class hierarchy of an ontology, built once from the reasoner
+ * after the classification.
+ *
+ * Each named class of the ontology gets a dense numeric id, assigned in the
+ * order of the IRIs of the classes. Equivalent classes are grouped into
+ * nodes, the class with the smallest id is the representative of the node.
+ * The hierarchy is encoded using bit-vector labeling: For each node a
+ * {@link BitSet} containing the ids of all (direct and indirect)
+ * superclasses is stored. Therefore, checking if a class is a subclass of
+ * another class is a single lookup in a {@link BitSet}. The subclasses of a
+ * class are computed on first use and cached.
+ *
+ * Unsatisfiable classes (including {@code owl:Nothing}) are subclasses of all
+ * classes. They are not part of any node and are never returned as
+ * subclasses.
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class ClassHierarchyIndex {
+
+    /**
+     * An empty set of classes.
+     */
+    private static final int[] NONE = new int[0];
+
+    /**
+     * The classes, the position in the array is the id.
+     */
+    private final OWLClass[] classes;
+
+    /**
+     * The ids of the classes.
+     */
+    private final Map<OWLClass, Integer> ids;
+
+    /**
+     * The id of the representative of the node of each class, {@code -1} for
+     * unsatisfiable classes.
+     */
+    private final int[] nodes;
+
+    /**
+     * The ids of the classes of each node, indexed by the id of the
+     * representative. {@code null} for all other classes.
+     */
+    private final int[][] nodeMembers;
+
+    /**
+     * The ids of all superclasses of each node, indexed by the id of the
+     * representative. The classes of the node itself are not included.
+     */
+    private final BitSet[] ancestors;
+
+    /**
+     * The ids of the direct superclasses of each node, indexed by the id of
+     * the representative.
+     */
+    private final int[][] directSuperClasses;
+
+    /**
+     * The ids of the direct subclasses of each node, indexed by the id of the
+     * representative.
+     */
+    private final int[][] directSubClasses;
+
+    /**
+     * The ids of the unsatisfiable classes.
+     */
+    private final BitSet unsatisfiable;
+
+    /**
+     * The ids of all subclasses of the nodes, indexed by the id of the
+     * representative. Computed on first use.
+     */
+    private final Map<Integer, BitSet> descendants;
+
+    /**
+     * Builds the hierarchy of the classes of an ontology and its imports.
+     *
+     * @param ontology The ontology.
+     * @param reasoner The reasoner for the ontology.
+     */
+    ClassHierarchyIndex(
+        final OWLOntology ontology, final OWLReasoner reasoner
+    ) {
+        reasoner.precomputeInferences(InferenceType.CLASS_HIERARCHY);
+
+        final OWLClass thing = ontology
+            .getOWLOntologyManager()
+            .getOWLDataFactory()
+            .getOWLThing();
+        final OWLClass nothing = ontology
+            .getOWLOntologyManager()
+            .getOWLDataFactory()
+            .getOWLNothing();
+        classes = Stream
+            .concat(
+                ontology.classesInSignature(Imports.INCLUDED),
+                Stream.of(thing, nothing)
+            )
+            .distinct()
+            .sorted(
+                (class1, class2) -> class1
+                    .getIRI()
+                    .toString()
+                    .compareTo(class2.getIRI().toString())
+            )
+            .toArray(OWLClass[]::new);
+        ids = new HashMap<>(classes.length * 4 / 3 + 1);
+        for (int i = 0; i < classes.length; i++) {
+            ids.put(classes[i], i);
+        }
+
+        unsatisfiable = new BitSet(classes.length);
+        unsatisfiable.set(getId(nothing));
+        reasoner
+            .getUnsatisfiableClasses()
+            .entities()
+            .mapToInt(this::getId)
+            .filter(id -> id >= 0)
+            .forEach(unsatisfiable::set);
+
+        // Group the classes into nodes of equivalent classes. The classes are
+        // processed in the order of their ids, so the first class of a node
+        // is the class with the smallest id.
+        nodes = new int[classes.length];
+        Arrays.fill(nodes, -1);
+        nodeMembers = new int[classes.length][];
+        directSuperClasses = new int[classes.length][];
+        for (int id = 0; id < classes.length; id++) {
+            if (nodes[id] >= 0 || unsatisfiable.get(id)) {
+                continue;
+            }
+            final int[] members = IntStream
+                .concat(
+                    IntStream.of(id),
+                    reasoner
+                        .getEquivalentClasses(classes[id])
+                        .entities()
+                        .mapToInt(this::getId)
+                )
+                .filter(member -> member >= 0)
+                .sorted()
+                .distinct()
+                .toArray();
+            for (final int member : members) {
+                nodes[member] = id;
+            }
+            nodeMembers[id] = members;
+            directSuperClasses[id] = reasoner
+                .getSuperClasses(classes[id], true)
+                .entities()
+                .mapToInt(this::getId)
+                .filter(superClass -> superClass >= 0)
+                .sorted()
+                .distinct()
+                .toArray();
+        }
+
+        directSubClasses = buildDirectSubClasses();
+        ancestors = buildAncestors();
+        descendants = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return The number of classes in the hierarchy.
+     */
+    int size() {
+        return classes.length;
+    }
+
+    /**
+     * Get the id of a class.
+     *
+     * @param owlClass The class.
+     *
+     * @return The id of the class or {@code -1} if the class is not part of
+     *         the hierarchy.
+     */
+    int getId(final OWLClass owlClass) {
+        final Integer id = ids.get(owlClass);
+        if (id == null) {
+            return -1;
+        } else {
+            return id;
+        }
+    }
+
+    /**
+     * Get the class with the provided id.
+     *
+     * @param id The id.
+     *
+     * @return The class with the id.
+     */
+    OWLClass getOWLClass(final int id) {
+        return classes[id];
+    }
+
+    /**
+     * Converts a set of ids to the classes.
+     *
+     * @param classIds The ids.
+     *
+     * @return A stream of the classes, ordered by their IRI.
+     */
+    Stream<OWLClass> classes(final BitSet classIds) {
+        return classIds.stream().mapToObj(id -> classes[id]);
+    }
+
+    /**
+     * Checks if a class is a subclass of another class. Each class is a
+     * subclass of itself and of its equivalent classes.
+     *
+     * @param subClass   The id of the possible subclass.
+     * @param superClass The id of the possible superclass.
+     *
+     * @return {@code true} if {@code subClass} is a subclass of
+     *         {@code superClass}, {@code false} otherwise.
+     */
+    boolean isSubClassOf(final int subClass, final int superClass) {
+        if (unsatisfiable.get(subClass)) {
+            return true;
+        }
+        return nodes[subClass] == nodes[superClass]
+                   || ancestors[nodes[subClass]].get(superClass);
+    }
+
+    /**
+     * Get the classes equivalent to a class.
+     *
+     * @param id The id of the class.
+     *
+     * @return The ids of the equivalent classes, excluding the class itself.
+     */
+    BitSet getEquivalentClasses(final int id) {
+        final BitSet result;
+        if (unsatisfiable.get(id)) {
+            result = (BitSet) unsatisfiable.clone();
+        } else {
+            result = toBitSet(nodeMembers[nodes[id]]);
+        }
+        result.clear(id);
+        return result;
+    }
+
+    /**
+     * Get the superclasses of a class.
+     *
+     * @param id     The id of the class.
+     * @param direct Only the direct superclasses?
+     *
+     * @return The ids of the superclasses, excluding the equivalent classes.
+     *         The {@link BitSet} is shared and must not be modified.
+     */
+    BitSet getSuperClasses(final int id, final boolean direct) {
+        if (unsatisfiable.get(id)) {
+            // All satisfiable classes, unsatisfiable classes are in the same
+            // node. The direct superclasses are the most specific classes.
+            final BitSet result = new BitSet(classes.length);
+            for (int node = 0; node < classes.length; node++) {
+                if (nodeMembers[node] != null
+                        && (!direct || directSubClasses[node].length == 0)) {
+                    result.or(toBitSet(nodeMembers[node]));
+                }
+            }
+            return result;
+        }
+        final int node = nodes[id];
+        if (direct) {
+            return toBitSet(directSuperClasses[node]);
+        } else {
+            return ancestors[node];
+        }
+    }
+
+    /**
+     * Get the subclasses of a class. Unsatisfiable classes are not included.
+     *
+     * @param id     The id of the class.
+     * @param direct Only the direct subclasses?
+     *
+     * @return The ids of the subclasses, excluding the equivalent classes.
+     *         The {@link BitSet} is shared and must not be modified.
+     */
+    BitSet getSubClasses(final int id, final boolean direct) {
+        if (unsatisfiable.get(id)) {
+            return new BitSet();
+        }
+        final int node = nodes[id];
+        if (direct) {
+            return toBitSet(directSubClasses[node]);
+        } else {
+            return descendants.computeIfAbsent(node, this::buildDescendants);
+        }
+    }
+
+    /**
+     * Estimates the memory used by the hierarchy, excluding the classes which
+     * are shared with the ontology.
+     *
+     * @return The estimated size of the hierarchy in bytes.
+     */
+    long estimateMemoryUsage() {
+        long result = MemoryEstimates.array(classes.length)
+                          + MemoryEstimates.map(ids.size())
+                          + MemoryEstimates.intArray(nodes.length)
+                          + MemoryEstimates.array(nodeMembers.length)
+                          + MemoryEstimates.array(ancestors.length)
+                          + MemoryEstimates.array(directSuperClasses.length)
+                          + MemoryEstimates.array(directSubClasses.length)
+                          + MemoryEstimates.bitSet(unsatisfiable)
+                          + MemoryEstimates.bitSetMap(descendants);
+        for (int node = 0; node < classes.length; node++) {
+            if (nodeMembers[node] != null) {
+                result += MemoryEstimates.intArray(nodeMembers[node].length)
+                              + MemoryEstimates.bitSet(ancestors[node])
+                              + MemoryEstimates.intArray(
+                    directSuperClasses[node].length
+                )
+                              + MemoryEstimates.intArray(
+                    directSubClasses[node].length
+                );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for inverting the direct superclasses.
+     *
+     * @return The ids of the direct subclasses of each node.
+     */
+    private int[][] buildDirectSubClasses() {
+        final Map<Integer, IntStream.Builder> subClasses = new HashMap<>();
+        for (int node = 0; node < classes.length; node++) {
+            if (nodeMembers[node] == null) {
+                continue;
+            }
+            for (final int superClass : directSuperClasses[node]) {
+                if (nodes[superClass] < 0) {
+                    continue;
+                }
+                final IntStream.Builder builder = subClasses.computeIfAbsent(
+                    nodes[superClass], key -> IntStream.builder()
+                );
+                for (final int member : nodeMembers[node]) {
+                    builder.add(member);
+                }
+            }
+        }
+
+        final int[][] result = new int[classes.length][];
+        for (int node = 0; node < classes.length; node++) {
+            if (nodeMembers[node] == null) {
+                continue;
+            }
+            if (subClasses.containsKey(node)) {
+                result[node] = subClasses
+                    .get(node)
+                    .build()
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            } else {
+                result[node] = NONE;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for computing the labels (all superclasses) of the nodes.
+     * The nodes are processed in depth first post order, so the labels of the
+     * direct superclasses of a node are available when the label of the node
+     * is computed. An explicit stack is used to avoid deep recursion for deep
+     * hierarchies.
+     *
+     * @return The ids of the superclasses of each node.
+     */
+    private BitSet[] buildAncestors() {
+        final BitSet[] result = new BitSet[classes.length];
+        final int[] stack = new int[classes.length];
+        final int[] nextSuperClass = new int[classes.length];
+        for (int start = 0; start < classes.length; start++) {
+            if (nodeMembers[start] == null || result[start] != null) {
+                continue;
+            }
+            int top = 0;
+            stack[top++] = start;
+            nextSuperClass[start] = 0;
+            while (top > 0) {
+                final int node = stack[top - 1];
+                final int[] superClasses = directSuperClasses[node];
+                if (nextSuperClass[node] < superClasses.length) {
+                    final int superNode = nodes[
+                        superClasses[nextSuperClass[node]++]
+                    ];
+                    if (superNode >= 0 && result[superNode] == null) {
+                        nextSuperClass[superNode] = 0;
+                        stack[top++] = superNode;
+                    }
+                    continue;
+                }
+
+                final BitSet label = new BitSet(classes.length);
+                for (final int superClass : superClasses) {
+                    final int superNode = nodes[superClass];
+                    if (superNode >= 0 && result[superNode] != null) {
+                        label.or(result[superNode]);
+                        for (final int member : nodeMembers[superNode]) {
+                            label.set(member);
+                        }
+                    }
+                }
+                result[node] = label;
+                top--;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for computing all subclasses of a node.
+     *
+     * @param node The id of the representative of the node.
+     *
+     * @return The ids of the subclasses of the node.
+     */
+    private BitSet buildDescendants(final int node) {
+        final BitSet result = new BitSet(classes.length);
+        for (int other = 0; other < classes.length; other++) {
+            if (nodeMembers[other] != null && ancestors[other].get(node)) {
+                for (final int member : nodeMembers[other]) {
+                    result.set(member);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for converting an array of ids to a {@link BitSet}.
+     *
+     * @param classIds The ids.
+     *
+     * @return A new {@link BitSet} containing the ids.
+     */
+    private static BitSet toBitSet(final int[] classIds) {
+        final BitSet result = new BitSet();
+        for (final int id : classIds) {
+            result.set(id);
+        }
+        return result;
+    }
+
+}
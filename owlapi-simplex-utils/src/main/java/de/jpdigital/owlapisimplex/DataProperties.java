@@ -17,15 +17,27 @@
 package de.jpdigital.owlapisimplex;
 
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
 import java.util.Objects;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -35,6 +47,13 @@ import java.util.stream.Stream;
  */
 public class DataProperties {
 
+    /**
+     * Minimum number of cells (individuals times properties) for which
+     * {@link #getDataPropertyValuesTable(java.util.Collection, org.semanticweb.owlapi.model.OWLDataProperty...)}
+     * fetches the values in parallel.
+     */
+    static final int PARALLEL_THRESHOLD = 10_000;
+
     /**
      * The ontology manager for interacting the ontology.
      */
@@ -45,23 +64,36 @@ public class DataProperties {
      */
     private final OWLReasoner reasoner;
 
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
     /**
      * Creates a new instance.
      * 
-     * @param ontology The ontology to use.
      * @param ontologyManager The ontology manager.
      * @param reasoner The reasoner.
+     * @param ontologyIndex The materialized state of the ontology.
      */
     private DataProperties(
         final OWLOntologyManager ontologyManager,
-        final OWLReasoner reasoner
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
     ) {
         this.ontologyManager = ontologyManager;
         this.reasoner = reasoner;
+        this.ontologyIndex = ontologyIndex;
     }
 
     /**
      * Factory method for generating new instances of {@code DataProperties}.
+     *
+     * The returned instance uses the {@link OntologyIndex} shared by all
+     * utility classes created for the reasoner without an index, therefore
+     * repeated calls don't create additional indexes. The index is kept
+     * while it is used by a utility class and can be closed explicitly using
+     * {@link OntologyIndex#closeSharedOntologyIndex(OWLReasoner)}.
      * 
      @param ontology The ontology to use.
      * @param ontologyManager The ontology manager.
@@ -76,7 +108,33 @@ public class DataProperties {
         Objects.requireNonNull(ontologyManager);
         Objects.requireNonNull(reasoner);
 
-        return new DataProperties(ontologyManager, reasoner);
+        return new DataProperties(
+            ontologyManager,
+            reasoner,
+            OntologyIndex.getSharedOntologyIndex(reasoner)
+        );
+    }
+
+    /**
+     * Factory method for generating new instances of {@code DataProperties}
+     * which share an {@link OntologyIndex} with other utility classes.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
+     *
+     * @return A {@code DataProperties} instance.
+     */
+    public static DataProperties buildDataProperties(
+        final OWLOntologyManager ontologyManager,
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(reasoner);
+        Objects.requireNonNull(ontologyIndex);
+
+        return new DataProperties(ontologyManager, reasoner, ontologyIndex);
     }
 
    
@@ -96,7 +154,72 @@ public class DataProperties {
             .getOWLDataFactory()
             .getOWLDataProperty(propertyIri);
 
-        return reasoner.dataPropertyValues(fromIndividual, property);
+        return dataPropertyValues(fromIndividual, property);
+    }
+
+    /**
+     * Get the values of an data property for an individual as {@link Stream}.
+     *
+     * This variant avoids the lookup of the property using the
+     * {@link org.semanticweb.owlapi.model.OWLDataFactory} and should be
+     * preferred if the property is already available, for example as
+     * constant generated by owlapi-simplex.
+     *
+     * The values are read from the value index of the property in the
+     * {@link OntologyIndex}, which includes the values asserted for the
+     * sub-properties of the property. If the reasoner may entail additional
+     * values, for example because the property is used in a {@code hasValue}
+     * restriction, the values are retrieved from the reasoner.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     *
+     * @return A {@link Stream} of the values of the data property.
+     */
+    public Stream<OWLLiteral> dataPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLDataProperty property
+    ) {
+        return dataPropertyValues(fromIndividual, property, QueryDeadline.NONE);
+    }
+
+    /**
+     * Get the values of an data property for an individual as {@link Stream}
+     * with a deadline. If the values are retrieved from the reasoner, the
+     * reasoner is interrupted when the deadline passes or the query is
+     * cancelled.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     * @param deadline       The deadline of the query.
+     *
+     * @return A {@link Stream} of the values of the data property.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public Stream<OWLLiteral> dataPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLDataProperty property,
+        final QueryDeadline deadline
+    ) {
+        Objects.requireNonNull(deadline);
+
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        guard.check(deadline);
+        final int id = ontologyIndex.getDictionary().getId(fromIndividual);
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+        if (id < 0 || !valueIndex.isComplete()) {
+            return guard.checked(
+                deadline,
+                guard.call(
+                    deadline,
+                    () -> reasoner.dataPropertyValues(fromIndividual, property)
+                )
+            );
+        }
+        return guard.checked(deadline, Arrays.stream(valueIndex.getValues(id)));
     }
 
     /**
@@ -115,4 +238,633 @@ public class DataProperties {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Get the values of an data property for an individual as {@link List}.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     *
+     * @return A {@link List} of the values of the data property.
+     */
+    public List<OWLLiteral> getDataPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLDataProperty property
+    ) {
+        return dataPropertyValues(fromIndividual, property)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the values of an data property for an individual as {@link List}
+     * with a deadline.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     * @param deadline       The deadline of the query.
+     *
+     * @return A {@link List} of the values of the data property.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public List<OWLLiteral> getDataPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLDataProperty property,
+        final QueryDeadline deadline
+    ) {
+        return dataPropertyValues(fromIndividual, property, deadline)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the integer values of a data property for an individual as
+     * {@link IntStream}. All integer values and {@code xsd:decimal} values
+     * without a fractional part in the range of an {@code int} are included,
+     * other values are ignored. Use
+     * {@link #longDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLDataProperty)}
+     * for properties with larger values, for example {@code xsd:integer}.
+     *
+     * The values are parsed once, when the property is used for the first
+     * time, and cached in the {@link OntologyIndex}. Like
+     * {@link #getDataPropertyValuesTable(java.util.Collection, org.semanticweb.owlapi.model.OWLDataProperty...)}
+     * this method uses the data property assertions of the ontology instead of
+     * the reasoner, unless the reasoner may entail values of the property
+     * which are not asserted. In this case the values are retrieved from the
+     * reasoner and parsed for each call.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values as {@link IntStream}.
+     */
+    public IntStream intDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return longDataPropertyValues(individual, property)
+            .filter(
+                value -> value >= Integer.MIN_VALUE
+                             && value <= Integer.MAX_VALUE
+            )
+            .mapToInt(value -> (int) value);
+    }
+
+    /**
+     * Get the integer values of a data property for an individual as
+     * {@code int} array.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values.
+     *
+     * @see #intDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public int[] getIntDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return intDataPropertyValues(individual, property).toArray();
+    }
+
+    /**
+     * Get the first {@code int} value of a data property for an individual.
+     * Values outside of the range of an {@code int} are ignored.
+     *
+     * @param individual   The individual.
+     * @param property     The property.
+     * @param defaultValue The value to return if the individual has no value
+     *                     in the range of an {@code int} for the property.
+     *
+     * @return The first value or the default value.
+     *
+     * @see #intDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public int getIntDataPropertyValue(
+        final OWLNamedIndividual individual,
+        final OWLDataProperty property,
+        final int defaultValue
+    ) {
+        return intDataPropertyValues(individual, property)
+            .findFirst()
+            .orElse(defaultValue);
+    }
+
+    /**
+     * Get the integer values of a data property for an individual as
+     * {@link LongStream}. All integer values and {@code xsd:decimal} values
+     * without a fractional part are included, other values are ignored.
+     *
+     * The values are parsed once, when the property is used for the first
+     * time, and cached in the {@link OntologyIndex}. Like
+     * {@link #getDataPropertyValuesTable(java.util.Collection, org.semanticweb.owlapi.model.OWLDataProperty...)}
+     * this method uses the data property assertions of the ontology instead of
+     * the reasoner, unless the reasoner may entail values of the property
+     * which are not asserted. In this case the values are retrieved from the
+     * reasoner and parsed for each call.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values as {@link LongStream}.
+     */
+    public LongStream longDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return readPrimitiveValues(
+            individual, property, PrimitiveDataPropertyValues::longValues
+        );
+    }
+
+    /**
+     * Get the integer values of a data property for an individual as
+     * {@code long} array.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values.
+     *
+     * @see #longDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public long[] getLongDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return readPrimitiveValues(
+            individual, property, PrimitiveDataPropertyValues::getLongValues
+        );
+    }
+
+    /**
+     * Get the first {@code long} value of a data property for an individual.
+     *
+     * @param individual   The individual.
+     * @param property     The property.
+     * @param defaultValue The value to return if the individual has no value
+     *                     for the property.
+     *
+     * @return The first value or the default value.
+     *
+     * @see #longDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public long getLongDataPropertyValue(
+        final OWLNamedIndividual individual,
+        final OWLDataProperty property,
+        final long defaultValue
+    ) {
+        return readPrimitiveValues(
+            individual,
+            property,
+            (values, id) -> values.getLongValue(id, defaultValue)
+        );
+    }
+
+    /**
+     * Get the numeric values of a data property for an individual as
+     * {@link DoubleStream}. All numeric values ({@code xsd:decimal},
+     * {@code xsd:double} and the integer types) are included.
+     *
+     * The values are parsed once, when the property is used for the first
+     * time, and cached in the {@link OntologyIndex}. Like
+     * {@link #getDataPropertyValuesTable(java.util.Collection, org.semanticweb.owlapi.model.OWLDataProperty...)}
+     * this method uses the data property assertions of the ontology instead of
+     * the reasoner, unless the reasoner may entail values of the property
+     * which are not asserted. In this case the values are retrieved from the
+     * reasoner and parsed for each call.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values as {@link DoubleStream}.
+     */
+    public DoubleStream doubleDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return readPrimitiveValues(
+            individual, property, PrimitiveDataPropertyValues::doubleValues
+        );
+    }
+
+    /**
+     * Get the numeric values of a data property for an individual as
+     * {@code double} array.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values.
+     *
+     * @see #doubleDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public double[] getDoubleDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return readPrimitiveValues(
+            individual, property, PrimitiveDataPropertyValues::getDoubleValues
+        );
+    }
+
+    /**
+     * Get the first {@code double} value of a data property for an individual.
+     *
+     * @param individual   The individual.
+     * @param property     The property.
+     * @param defaultValue The value to return if the individual has no value
+     *                     for the property.
+     *
+     * @return The first value or the default value.
+     *
+     * @see #doubleDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public double getDoubleDataPropertyValue(
+        final OWLNamedIndividual individual,
+        final OWLDataProperty property,
+        final double defaultValue
+    ) {
+        return readPrimitiveValues(
+            individual,
+            property,
+            (values, id) -> values.getDoubleValue(id, defaultValue)
+        );
+    }
+
+    /**
+     * Get the {@code xsd:boolean} values of a data property for an individual
+     * as {@code boolean} array. Other values are ignored.
+     *
+     * The values are parsed once, when the property is used for the first
+     * time, and cached in the {@link OntologyIndex}. If the reasoner may
+     * entail values of the property which are not asserted, the values are
+     * retrieved from the reasoner and parsed for each call.
+     *
+     * @param individual The individual.
+     * @param property   The property.
+     *
+     * @return The values.
+     */
+    public boolean[] getBooleanDataPropertyValues(
+        final OWLNamedIndividual individual, final OWLDataProperty property
+    ) {
+        return readPrimitiveValues(
+            individual, property, PrimitiveDataPropertyValues::getBooleanValues
+        );
+    }
+
+    /**
+     * Get the first {@code xsd:boolean} value of a data property for an
+     * individual.
+     *
+     * @param individual   The individual.
+     * @param property     The property.
+     * @param defaultValue The value to return if the individual has no value
+     *                     for the property.
+     *
+     * @return The first value or the default value.
+     *
+     * @see #getBooleanDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLDataProperty)
+     */
+    public boolean getBooleanDataPropertyValue(
+        final OWLNamedIndividual individual,
+        final OWLDataProperty property,
+        final boolean defaultValue
+    ) {
+        return readPrimitiveValues(
+            individual,
+            property,
+            (values, id) -> values.getBooleanValue(id, defaultValue)
+        );
+    }
+
+    /**
+     * Finds the individuals which have a specific value for a data property
+     * (reverse lookup).
+     *
+     * @param propertyIri The IRI of the property.
+     * @param value       The value.
+     *
+     * @return A {@link Stream} of the individuals having the value.
+     *
+     * @see #individualsWithDataPropertyValue(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public Stream<OWLNamedIndividual> individualsWithDataPropertyValue(
+        final IRI propertyIri, final OWLLiteral value
+    ) {
+        final OWLDataProperty property = ontologyManager
+            .getOWLDataFactory()
+            .getOWLDataProperty(propertyIri);
+
+        return individualsWithDataPropertyValue(property, value);
+    }
+
+    /**
+     * Finds the individuals which have a specific value for a data property
+     * (reverse lookup).
+     *
+     * The lookup uses the hash index of the property in the
+     * {@link OntologyIndex}, which is built from the data property assertions
+     * of the ontology when the property is used for the first time, and
+     * requires no call of the reasoner. Values are compared by their value,
+     * not by their lexical form, for example {@code "1"^^xsd:int} is equal
+     * to {@code "01"^^xsd:integer}.
+     *
+     * If the reasoner may entail values of the property which are not
+     * asserted (see {@link DataPropertyValueIndex#isComplete()}), the
+     * individuals are retrieved from the reasoner as the instances of the
+     * class expression {@code property value value} instead.
+     *
+     * @param property The property.
+     * @param value    The value.
+     *
+     * @return A {@link Stream} of the individuals having the value, ordered
+     *         by their IRI.
+     */
+    public Stream<OWLNamedIndividual> individualsWithDataPropertyValue(
+        final OWLDataProperty property, final OWLLiteral value
+    ) {
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+        if (valueIndex.isComplete()) {
+            return dictionary.individuals(
+                valueIndex.getIndividualsWithValue(LiteralValues.toKey(value))
+            );
+        }
+
+        final OWLClassExpression hasValue = ontologyManager
+            .getOWLDataFactory()
+            .getOWLDataHasValue(property, value);
+        final BitSet result = new BitSet();
+        ontologyIndex
+            .getReasonerGuard()
+            .call(
+                QueryDeadline.NONE,
+                () -> reasoner.getInstances(hasValue, false)
+            )
+            .entities()
+            .mapToInt(dictionary::getId)
+            .filter(id -> id >= 0)
+            .forEach(result::set);
+        return dictionary.individuals(result);
+    }
+
+    /**
+     * Finds the individuals which have a specific value for a data property
+     * (reverse lookup).
+     *
+     * @param propertyIri The IRI of the property.
+     * @param value       The value.
+     *
+     * @return A {@link List} of the individuals having the value.
+     *
+     * @see #individualsWithDataPropertyValue(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public List<OWLNamedIndividual> getIndividualsWithDataPropertyValue(
+        final IRI propertyIri, final OWLLiteral value
+    ) {
+        return individualsWithDataPropertyValue(propertyIri, value)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds the individuals which have a specific value for a data property
+     * (reverse lookup).
+     *
+     * @param property The property.
+     * @param value    The value.
+     *
+     * @return A {@link List} of the individuals having the value.
+     *
+     * @see #individualsWithDataPropertyValue(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public List<OWLNamedIndividual> getIndividualsWithDataPropertyValue(
+        final OWLDataProperty property, final OWLLiteral value
+    ) {
+        return individualsWithDataPropertyValue(property, value)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Fetches the values of several data properties for several individuals
+     * at once.
+     *
+     * @param individuals  The individuals.
+     * @param propertyIris The IRIs of the properties.
+     *
+     * @return A table with a row for each individual and a column for each
+     *         property.
+     *
+     * @see #getDataPropertyValuesTable(java.util.Collection,
+     * org.semanticweb.owlapi.model.OWLDataProperty...)
+     */
+    public DataPropertyValuesTable getDataPropertyValuesTable(
+        final Collection<OWLNamedIndividual> individuals,
+        final List<IRI> propertyIris
+    ) {
+        final OWLDataFactory dataFactory = ontologyManager.getOWLDataFactory();
+        return getDataPropertyValuesTable(
+            individuals,
+            propertyIris
+                .stream()
+                .map(dataFactory::getOWLDataProperty)
+                .toArray(OWLDataProperty[]::new)
+        );
+    }
+
+    /**
+     * Fetches the values of several data properties for several individuals
+     * at once, for example for rendering a table or for exporting data.
+     *
+     * In contrast to {@link #getDataPropertyValues(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLDataProperty)}
+     * the values are not retrieved from the reasoner. Instead, the value
+     * index of each property in the {@link OntologyIndex} is used, which is
+     * built from the data property assertions of the ontology in a single
+     * scan. For large inputs the values are fetched in parallel. Only the
+     * columns of properties for which the reasoner may entail values which
+     * are not asserted (see {@link DataPropertyValueIndex#isComplete()}) are
+     * fetched from the reasoner, one call per row.
+     *
+     * @param individuals The individuals.
+     * @param properties  The properties.
+     *
+     * @return A table with a row for each individual and a column for each
+     *         property.
+     */
+    public DataPropertyValuesTable getDataPropertyValuesTable(
+        final Collection<OWLNamedIndividual> individuals,
+        final OWLDataProperty... properties
+    ) {
+        final List<OWLNamedIndividual> rows = new ArrayList<>(individuals);
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int[] ids = rows
+            .stream()
+            .mapToInt(dictionary::getId)
+            .toArray();
+
+        final boolean parallel = (long) ids.length * properties.length
+                                     >= PARALLEL_THRESHOLD;
+        final OWLLiteral[][][] columns = parallel(
+            IntStream.range(0, properties.length), parallel
+        )
+            .mapToObj(
+                column -> fetchColumn(properties[column], ids, parallel)
+            )
+            .toArray(OWLLiteral[][][]::new);
+
+        return new DataPropertyValuesTable(
+            rows, Arrays.asList(properties), columns
+        );
+    }
+
+    /**
+     * Publishes the values of a data property for all members of a class with
+     * backpressure, for example for exporting the values. Each value is
+     * emitted as a data property assertion. The members are emitted in the
+     * order of their IRI.
+     *
+     * The members of the class and the values are read from the
+     * {@link OntologyIndex} as the subscriber requests them, so the memory
+     * required for publishing does not depend on the size of the class. If
+     * the reasoner may entail additional values of the property, the values
+     * of each member are retrieved from the reasoner when the member is
+     * reached.
+     *
+     * @param owlClass The class.
+     * @param property The data property.
+     *
+     * @return A publisher for the values of the property.
+     */
+    public ResultFlow.Publisher<OWLDataPropertyAssertionAxiom> publishDataPropertyValues(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        Objects.requireNonNull(owlClass);
+        Objects.requireNonNull(property);
+
+        final OWLDataFactory dataFactory = ontologyManager.getOWLDataFactory();
+        return new StreamPublisher<>(
+            () -> ontologyIndex
+                .getDictionary()
+                .individuals(ontologyIndex.getClassMembers(owlClass))
+                .flatMap(
+                    individual -> dataPropertyValues(individual, property)
+                        .map(
+                            value -> dataFactory
+                                .getOWLDataPropertyAssertionAxiom(
+                                    property, individual, value
+                                )
+                        )
+                )
+        );
+    }
+
+    /**
+     * Helper method for fetching the values of a property for the rows of a
+     * {@link DataPropertyValuesTable}.
+     *
+     * @param property The property.
+     * @param ids      The ids of the individuals.
+     * @param parallel Fetch the values in parallel?
+     *
+     * @return The values of the property, indexed by row.
+     */
+    private OWLLiteral[][] fetchColumn(
+        final OWLDataProperty property, final int[] ids, final boolean parallel
+    ) {
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+        if (!valueIndex.isComplete()) {
+            // The calls of the reasoner are serialized, therefore the values
+            // are not fetched in parallel.
+            return Arrays
+                .stream(ids)
+                .mapToObj(id -> fetchEntailedValues(id, property))
+                .toArray(OWLLiteral[][]::new);
+        }
+        return parallel(IntStream.range(0, ids.length), parallel)
+            .mapToObj(row -> valueIndex.getValues(ids[row]))
+            .toArray(OWLLiteral[][]::new);
+    }
+
+    /**
+     * Helper method for reading the parsed values of a property for an
+     * individual. The values are read from the {@link OntologyIndex} if the
+     * value index of the property is complete. Otherwise the values entailed
+     * by the reasoner are parsed.
+     *
+     * @param <T>        The type of the result.
+     * @param individual The individual.
+     * @param property   The property.
+     * @param reader     Reads the values of the individual with the provided
+     *                   id from the parsed values.
+     *
+     * @return The result of the reader.
+     */
+    private <T> T readPrimitiveValues(
+        final OWLNamedIndividual individual,
+        final OWLDataProperty property,
+        final BiFunction<PrimitiveDataPropertyValues, Integer, T> reader
+    ) {
+        final int id = ontologyIndex.getDictionary().getId(individual);
+        if (id >= 0
+                && !ontologyIndex
+                .getDataPropertyValueIndex(property)
+                .isComplete()) {
+            return reader.apply(
+                PrimitiveDataPropertyValues.parse(
+                    ontologyIndex.getDataPropertyValues(
+                        id, property, QueryDeadline.NONE
+                    )
+                ),
+                0
+            );
+        }
+        return reader.apply(ontologyIndex.getPrimitiveValues(property), id);
+    }
+
+    /**
+     * Helper method for fetching the values of a property entailed by the
+     * reasoner for a row of a {@link DataPropertyValuesTable}.
+     *
+     * @param id       The id of the individual, negative if the individual is
+     *                 not part of the ontology.
+     * @param property The property.
+     *
+     * @return The values of the property.
+     */
+    private OWLLiteral[] fetchEntailedValues(
+        final int id, final OWLDataProperty property
+    ) {
+        if (id < 0) {
+            return new OWLLiteral[0];
+        }
+        return ontologyIndex.getDataPropertyValues(
+            id, property, QueryDeadline.NONE
+        );
+    }
+
+    /**
+     * Helper method for switching a stream to parallel mode.
+     *
+     * @param stream   The stream.
+     * @param parallel Switch to parallel mode?
+     *
+     * @return The stream.
+     */
+    private static IntStream parallel(
+        final IntStream stream, final boolean parallel
+    ) {
+        if (parallel) {
+            return stream.parallel();
+        } else {
+            return stream;
+        }
+    }
+
 }
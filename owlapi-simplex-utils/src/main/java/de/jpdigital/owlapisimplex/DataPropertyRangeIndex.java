@@ -0,0 +1,373 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.PrimitiveIterator;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Sorted index of the numeric or temporal values of a single data property.
+ * The index is used to answer range queries and to retrieve individuals
+ * ordered by the value of the property.
+ *
+ * All values are mapped to a primitive {@code long} key which preserves the
+ * order of the values. The keys are stored in a sorted array together with
+ * the ids of the individuals and the literals, therefore range queries
+ * require a binary search only.
+ *
+ * <ul>
+ * <li>Numeric values ({@code xsd:decimal}, {@code xsd:double} and all integer
+ * types) are compared as {@code double}. Values which can't be represented
+ * exactly as a {@code double} (very large integers or decimals with a lot of
+ * digits) are rounded.</li>
+ * <li>Temporal values ({@code xsd:dateTime} and {@code xsd:dateTimeStamp})
+ * are compared with millisecond precision.</li>
+ * </ul>
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class DataPropertyRangeIndex {
+
+    /**
+     * The keys of the values in ascending order.
+     */
+    private final long[] keys;
+
+    /**
+     * The ids of the individuals, the entry at position {@code i} belongs to
+     * the key at position {@code i}.
+     */
+    private final int[] individualIds;
+
+    /**
+     * The values, the entry at position {@code i} belongs to the key at
+     * position {@code i}.
+     */
+    private final OWLLiteral[] values;
+
+    private DataPropertyRangeIndex(
+        final long[] keys, final int[] individualIds, final OWLLiteral[] values
+    ) {
+        this.keys = keys;
+        this.individualIds = individualIds;
+        this.values = values;
+    }
+
+    /**
+     * Builds a range index for the numeric values of a data property.
+     *
+     * @param valueIndex      The value index of the property.
+     * @param individualCount The number of individuals in the dictionary.
+     *
+     * @return The range index.
+     */
+    static DataPropertyRangeIndex buildNumericIndex(
+        final DataPropertyValueIndex valueIndex, final int individualCount
+    ) {
+        return build(
+            valueIndex::getValues,
+            IntStream.range(0, individualCount),
+            valueIndex.getValueCount(),
+            true
+        );
+    }
+
+    /**
+     * Builds a range index for the {@code xsd:dateTime} values of a data
+     * property.
+     *
+     * @param valueIndex      The value index of the property.
+     * @param individualCount The number of individuals in the dictionary.
+     *
+     * @return The range index.
+     */
+    static DataPropertyRangeIndex buildTemporalIndex(
+        final DataPropertyValueIndex valueIndex, final int individualCount
+    ) {
+        return build(
+            valueIndex::getValues,
+            IntStream.range(0, individualCount),
+            valueIndex.getValueCount(),
+            false
+        );
+    }
+
+    /**
+     * Builds a range index for the values of some individuals provided by a
+     * function, for example the values entailed by the reasoner if the value
+     * index of the property is incomplete.
+     *
+     * @param values  Provides the values of an individual.
+     * @param ids     The ids of the individuals to index.
+     * @param numeric Index the numeric ({@code true}) or the temporal
+     *                ({@code false}) values?
+     *
+     * @return The range index.
+     */
+    static DataPropertyRangeIndex buildIndex(
+        final IntFunction<OWLLiteral[]> values,
+        final BitSet ids,
+        final boolean numeric
+    ) {
+        return build(values, ids.stream(), ids.cardinality(), numeric);
+    }
+
+    /**
+     * Converts a numeric value into a key. The bits of the {@code double}
+     * value are rearranged so that the order of the keys is the order of the
+     * values. As a result, the next larger {@code double} value has the next
+     * larger key.
+     *
+     * @param value The value. Must not be {@link Double#NaN}.
+     *
+     * @return The key of the value.
+     */
+    static long numericKey(final double value) {
+        // Add 0.0 to map -0.0 to 0.0
+        final long bits = Double.doubleToLongBits(value + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    /**
+     * Converts a point in time into a key.
+     *
+     * @param value The point in time.
+     *
+     * @return The key of the value, the number of milliseconds since the
+     *         epoch. Values outside of the range of a {@code long} are
+     *         clamped.
+     */
+    static long temporalKey(final Instant value) {
+        try {
+            return value.toEpochMilli();
+        } catch (ArithmeticException ex) {
+            if (value.isBefore(Instant.EPOCH)) {
+                return Long.MIN_VALUE;
+            } else {
+                return Long.MAX_VALUE;
+            }
+        }
+    }
+
+    /**
+     * @return The number of values in the index.
+     */
+    int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param position A position in the index.
+     *
+     * @return The id of the individual at the position.
+     */
+    int getIndividualId(final int position) {
+        return individualIds[position];
+    }
+
+    /**
+     * @param position A position in the index.
+     *
+     * @return The value at the position.
+     */
+    OWLLiteral getValue(final int position) {
+        return values[position];
+    }
+
+    /**
+     * Estimates the memory used by the index, excluding the literals which
+     * are shared with the ontology.
+     *
+     * @return The estimated size of the index in bytes.
+     */
+    long estimateMemoryUsage() {
+        return MemoryEstimates.longArray(keys.length)
+                   + MemoryEstimates.intArray(individualIds.length)
+                   + MemoryEstimates.array(values.length);
+    }
+
+    /**
+     * Get the individuals with a value in a range.
+     *
+     * @param lower The key of the lower bound (inclusive).
+     * @param upper The key of the upper bound (inclusive).
+     *
+     * @return The ids of the individuals with at least one value in the
+     *         range.
+     */
+    BitSet getIndividualsInRange(final long lower, final long upper) {
+        final BitSet result = new BitSet();
+        if (lower > upper) {
+            return result;
+        }
+        final int end = firstPositionAfter(upper);
+        for (int i = firstPositionAtLeast(lower); i < end; i++) {
+            result.set(individualIds[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of the index in order of the values.
+     *
+     * @param ascending Ascending or descending order?
+     *
+     * @return The positions, the stream is lazy.
+     */
+    IntStream positions(final boolean ascending) {
+        if (ascending) {
+            return IntStream.range(0, keys.length);
+        } else {
+            return IntStream
+                .range(0, keys.length)
+                .map(position -> keys.length - 1 - position);
+        }
+    }
+
+    /**
+     * Binary search for the first position with a key equal or greater than
+     * the provided key.
+     *
+     * @param key The key.
+     *
+     * @return The position, {@link #size()} if all keys are smaller.
+     */
+    private int firstPositionAtLeast(final long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (keys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary search for the first position with a key greater than the
+     * provided key.
+     *
+     * @param key The key.
+     *
+     * @return The position, {@link #size()} if no key is greater.
+     */
+    private int firstPositionAfter(final long key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (keys[middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Helper method for building a range index.
+     *
+     * @param literals Provides the values of an individual.
+     * @param ids      The ids of the individuals to index.
+     * @param capacity The expected number of values. The arrays are enlarged
+     *                 if there are more values.
+     * @param numeric  Index the numeric ({@code true}) or the temporal
+     *                 ({@code false}) values?
+     *
+     * @return The range index.
+     */
+    private static DataPropertyRangeIndex build(
+        final IntFunction<OWLLiteral[]> literals,
+        final IntStream ids,
+        final int capacity,
+        final boolean numeric
+    ) {
+        int count = 0;
+        long[] unsortedKeys = new long[capacity];
+        int[] unsortedIds = new int[capacity];
+        OWLLiteral[] unsortedValues = new OWLLiteral[capacity];
+        for (final PrimitiveIterator.OfInt iterator = ids.iterator();
+             iterator.hasNext();) {
+            final int id = iterator.nextInt();
+            for (final OWLLiteral literal : literals.apply(id)) {
+                if (count == unsortedKeys.length) {
+                    final int length = Math.max(16, count * 2);
+                    unsortedKeys = Arrays.copyOf(unsortedKeys, length);
+                    unsortedIds = Arrays.copyOf(unsortedIds, length);
+                    unsortedValues = Arrays.copyOf(unsortedValues, length);
+                }
+                final Object key = LiteralValues.toKey(literal);
+                if (numeric && key instanceof BigDecimal) {
+                    unsortedKeys[count] = numericKey(
+                        ((BigDecimal) key).doubleValue()
+                    );
+                } else if (numeric
+                               && key instanceof Double
+                               && !((Double) key).isNaN()) {
+                    unsortedKeys[count] = numericKey((Double) key);
+                } else if (!numeric && key instanceof Instant) {
+                    unsortedKeys[count] = temporalKey((Instant) key);
+                } else {
+                    continue;
+                }
+                unsortedIds[count] = id;
+                unsortedValues[count] = literal;
+                count++;
+            }
+        }
+
+        final long[] sortKeys = unsortedKeys;
+        final int[] sortIds = unsortedIds;
+        final int[] order = IntStream
+            .range(0, count)
+            .boxed()
+            .sorted(
+                Comparator
+                    .<Integer>comparingLong(position -> sortKeys[position])
+                    .thenComparingInt(position -> sortIds[position])
+            )
+            .mapToInt(Integer::intValue)
+            .toArray();
+
+        final long[] keys = new long[count];
+        final int[] individualIds = new int[count];
+        final OWLLiteral[] values = new OWLLiteral[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = unsortedKeys[order[i]];
+            individualIds[i] = unsortedIds[order[i]];
+            values[i] = unsortedValues[order[i]];
+        }
+
+        return new DataPropertyRangeIndex(keys, individualIds, values);
+    }
+
+}
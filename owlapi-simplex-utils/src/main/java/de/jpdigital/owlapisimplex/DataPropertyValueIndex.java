@@ -0,0 +1,423 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Index of the values of a single data property. Maps the values of the
+ * property to the individuals having these values. The values asserted for
+ * the sub-properties of the property are included.
+ *
+ * The individuals having a value are stored as sorted arrays of their ids.
+ * Most values of a property are used by a few individuals only, so the arrays
+ * are much smaller than a {@link BitSet} covering all individuals.
+ *
+ * The index can be updated incrementally if a data property assertion is
+ * added or removed. Updates are copy on write: The arrays used by this class
+ * are never modified, an update replaces them with modified copies. Therefore
+ * the index can be read concurrently while it is updated.
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class DataPropertyValueIndex {
+
+    /**
+     * An empty set of individuals.
+     */
+    private static final int[] NONE = new int[0];
+
+    /**
+     * An empty array of values.
+     */
+    private static final OWLLiteral[] NO_VALUES = new OWLLiteral[0];
+
+    /**
+     * The indexed property.
+     */
+    private final OWLDataProperty property;
+
+    /**
+     * The properties whose assertions are included in the index, the property
+     * itself and its sub-properties.
+     */
+    private final Set<OWLDataProperty> sourceProperties;
+
+    /**
+     * Are all values of the property covered by the index?
+     */
+    private final boolean complete;
+
+    /**
+     * The values of the property for each individual. The array is indexed by
+     * the ids of the individuals, the entries for individuals without values
+     * are {@code null}.
+     */
+    private final AtomicReferenceArray<OWLLiteral[]> valuesByIndividual;
+
+    /**
+     * The individuals for each value, using the keys generated by
+     * {@link LiteralValues#toKey(org.semanticweb.owlapi.model.OWLLiteral)}.
+     */
+    private final Map<Object, int[]> individualsByValue;
+
+    /**
+     * The individuals for each lexical form of the values.
+     */
+    private final Map<String, int[]> individualsByLexicalForm;
+
+    /**
+     * The total number of values in the index.
+     */
+    private volatile int valueCount;
+
+    /**
+     * Creates the index.
+     *
+     * @param property           The indexed property.
+     * @param sourceProperties   The properties whose assertions are included
+     *                           in the index.
+     * @param complete           Are all values of the property covered by
+     *                           the index?
+     * @param valuesByIndividual The values of the property by the id of the
+     *                           individuals.
+     */
+    DataPropertyValueIndex(
+        final OWLDataProperty property,
+        final Set<OWLDataProperty> sourceProperties,
+        final boolean complete,
+        final OWLLiteral[][] valuesByIndividual
+    ) {
+        this.property = property;
+        this.sourceProperties = Collections.unmodifiableSet(sourceProperties);
+        this.complete = complete;
+        this.valuesByIndividual = new AtomicReferenceArray<>(
+            valuesByIndividual
+        );
+        individualsByValue = new ConcurrentHashMap<>();
+        individualsByLexicalForm = new ConcurrentHashMap<>();
+
+        final Map<Object, IntStream.Builder> byValue = new HashMap<>();
+        final Map<String, IntStream.Builder> byLexicalForm = new HashMap<>();
+        int count = 0;
+        for (int id = 0; id < valuesByIndividual.length; id++) {
+            if (valuesByIndividual[id] == null) {
+                continue;
+            }
+            for (final OWLLiteral literal : valuesByIndividual[id]) {
+                byValue
+                    .computeIfAbsent(
+                        LiteralValues.toKey(literal),
+                        key -> IntStream.builder()
+                    )
+                    .add(id);
+                byLexicalForm
+                    .computeIfAbsent(
+                        literal.getLiteral(), key -> IntStream.builder()
+                    )
+                    .add(id);
+                count++;
+            }
+        }
+        // The ids are added in ascending order, but an individual may have
+        // several literals with the same value or lexical form.
+        byValue.forEach(
+            (key, ids) -> individualsByValue.put(
+                key, ids.build().distinct().toArray()
+            )
+        );
+        byLexicalForm.forEach(
+            (key, ids) -> individualsByLexicalForm.put(
+                key, ids.build().distinct().toArray()
+            )
+        );
+        valueCount = count;
+    }
+
+    /**
+     * @return The indexed property.
+     */
+    OWLDataProperty getProperty() {
+        return property;
+    }
+
+    /**
+     * @return The properties whose assertions are included in the index.
+     */
+    Set<OWLDataProperty> getSourceProperties() {
+        return sourceProperties;
+    }
+
+    /**
+     * @return {@code true} if the index contains all values of the property,
+     *         {@code false} if the reasoner may entail additional values.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return The total number of values in the index.
+     */
+    int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Get the values of the property for an individual.
+     *
+     * @param individualId The id of the individual.
+     *
+     * @return The values of the property. An empty array if the individual
+     *         has no values for the property. The returned array is shared
+     *         and must not be modified.
+     */
+    OWLLiteral[] getValues(final int individualId) {
+        if (individualId < 0 || individualId >= valuesByIndividual.length()) {
+            return NO_VALUES;
+        }
+        final OWLLiteral[] values = valuesByIndividual.get(individualId);
+        if (values == null) {
+            return NO_VALUES;
+        } else {
+            return values;
+        }
+    }
+
+    /**
+     * Get the individuals with a specific value.
+     *
+     * @param key The key of the value, generated by one of the {@code toKey}
+     *            methods of {@link LiteralValues}.
+     *
+     * @return The ids of the individuals having the value.
+     */
+    BitSet getIndividualsWithValue(final Object key) {
+        return toBitSet(individualsByValue.getOrDefault(key, NONE));
+    }
+
+    /**
+     * Get the individuals with a value with a specific lexical form,
+     * regardless of the datatype of the value.
+     *
+     * @param lexicalForm The lexical form.
+     *
+     * @return The ids of the individuals having the value.
+     */
+    BitSet getIndividualsWithLexicalForm(final String lexicalForm) {
+        return toBitSet(
+            individualsByLexicalForm.getOrDefault(lexicalForm, NONE)
+        );
+    }
+
+    /**
+     * Adds a value for an individual to the index.
+     *
+     * @param individualId The id of the individual.
+     * @param value        The new value.
+     */
+    synchronized void addValue(final int individualId, final OWLLiteral value) {
+        final OWLLiteral[] values = getValues(individualId);
+        if (Arrays.asList(values).contains(value)) {
+            return;
+        }
+        final OWLLiteral[] updated = Arrays.copyOf(values, values.length + 1);
+        updated[values.length] = value;
+        valuesByIndividual.set(individualId, updated);
+
+        individualsByValue.compute(
+            LiteralValues.toKey(value),
+            (key, individuals) -> copyWith(individuals, individualId, true)
+        );
+        individualsByLexicalForm.compute(
+            value.getLiteral(),
+            (key, individuals) -> copyWith(individuals, individualId, true)
+        );
+        valueCount++;
+    }
+
+    /**
+     * Removes a value of an individual from the index.
+     *
+     * @param individualId The id of the individual.
+     * @param value        The value to remove.
+     */
+    synchronized void removeValue(
+        final int individualId, final OWLLiteral value
+    ) {
+        final OWLLiteral[] values = getValues(individualId);
+        if (!Arrays.asList(values).contains(value)) {
+            return;
+        }
+        final OWLLiteral[] updated = Arrays
+            .stream(values)
+            .filter(literal -> !literal.equals(value))
+            .toArray(OWLLiteral[]::new);
+        if (updated.length == 0) {
+            valuesByIndividual.set(individualId, null);
+        } else {
+            valuesByIndividual.set(individualId, updated);
+        }
+
+        // The individual may have another literal with the same value or the
+        // same lexical form, for example "1"^^xsd:int and "01"^^xsd:integer.
+        final Object valueKey = LiteralValues.toKey(value);
+        final boolean keepValue = Arrays
+            .stream(updated)
+            .anyMatch(literal -> LiteralValues.toKey(literal).equals(valueKey));
+        final boolean keepLexicalForm = Arrays
+            .stream(updated)
+            .anyMatch(
+                literal -> literal.getLiteral().equals(value.getLiteral())
+            );
+        individualsByValue.compute(
+            valueKey,
+            (key, individuals) -> copyWith(
+                individuals, individualId, keepValue
+            )
+        );
+        individualsByLexicalForm.compute(
+            value.getLiteral(),
+            (key, individuals) -> copyWith(
+                individuals, individualId, keepLexicalForm
+            )
+        );
+        valueCount--;
+    }
+
+    /**
+     * Estimates the memory used by the index, excluding the literals which
+     * are shared with the ontology.
+     *
+     * @return The estimated size of the index in bytes.
+     */
+    long estimateMemoryUsage() {
+        long result = MemoryEstimates.array(valuesByIndividual.length());
+        for (int id = 0; id < valuesByIndividual.length(); id++) {
+            final OWLLiteral[] values = valuesByIndividual.get(id);
+            if (values != null) {
+                result += MemoryEstimates.array(values.length);
+            }
+        }
+        result += estimateMemoryUsage(individualsByValue);
+        result += estimateMemoryUsage(individualsByLexicalForm);
+        return result;
+    }
+
+    /**
+     * Helper method for estimating the memory used by one of the maps of the
+     * index.
+     *
+     * @param map The map.
+     *
+     * @return The estimated size of the map and the arrays of ids.
+     */
+    private static long estimateMemoryUsage(final Map<?, int[]> map) {
+        final long ids = map
+            .values()
+            .stream()
+            .mapToLong(individuals -> MemoryEstimates.intArray(
+                individuals.length
+            ))
+            .sum();
+        return MemoryEstimates.map(map.size()) + ids;
+    }
+
+    /**
+     * Helper method for converting an array of ids to a {@link BitSet}.
+     *
+     * @param ids The ids.
+     *
+     * @return A new {@link BitSet} containing the ids.
+     */
+    private static BitSet toBitSet(final int[] ids) {
+        final BitSet result = new BitSet();
+        for (final int id : ids) {
+            result.set(id);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for creating a modified copy of a set of individuals.
+     *
+     * @param individuals  The current sorted ids, may be {@code null}.
+     * @param individualId The id of the individual to add or remove.
+     * @param include      Include ({@code true}) or exclude ({@code false})
+     *                     the individual?
+     *
+     * @return The modified copy, or {@code null} if the set is empty (which
+     *         removes the entry from the map).
+     */
+    private static int[] copyWith(
+        final int[] individuals, final int individualId, final boolean include
+    ) {
+        final int[] current;
+        if (individuals == null) {
+            current = NONE;
+        } else {
+            current = individuals;
+        }
+        final int position = Arrays.binarySearch(current, individualId);
+        final int[] result;
+        if (include && position < 0) {
+            final int insertAt = -position - 1;
+            result = new int[current.length + 1];
+            System.arraycopy(current, 0, result, 0, insertAt);
+            result[insertAt] = individualId;
+            System.arraycopy(
+                current,
+                insertAt,
+                result,
+                insertAt + 1,
+                current.length - insertAt
+            );
+        } else if (!include && position >= 0) {
+            result = new int[current.length - 1];
+            System.arraycopy(current, 0, result, 0, position);
+            System.arraycopy(
+                current,
+                position + 1,
+                result,
+                position,
+                current.length - position - 1
+            );
+        } else {
+            result = current;
+        }
+        if (result.length == 0) {
+            return null;
+        } else {
+            return result;
+        }
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The values of several data properties for several individuals, created by
+ * {@link DataProperties#getDataPropertyValuesTable(java.util.Collection, java.util.List)}.
+ *
+ * The table has a row for each individual and a column for each property. The
+ * values are stored column by column, so retrieving all values of a property
+ * is cheap. Instances of this class are immutable.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class DataPropertyValuesTable {
+
+    /**
+     * The individuals, one for each row.
+     */
+    private final List<OWLNamedIndividual> individuals;
+
+    /**
+     * The properties, one for each column.
+     */
+    private final List<OWLDataProperty> properties;
+
+    /**
+     * The values, indexed by column and row.
+     */
+    private final OWLLiteral[][][] columns;
+
+    /**
+     * Creates a new table.
+     *
+     * @param individuals The individuals (rows).
+     * @param properties  The properties (columns).
+     * @param columns     The values, indexed by column and row.
+     */
+    DataPropertyValuesTable(
+        final List<OWLNamedIndividual> individuals,
+        final List<OWLDataProperty> properties,
+        final OWLLiteral[][][] columns
+    ) {
+        this.individuals = Collections.unmodifiableList(individuals);
+        this.properties = Collections.unmodifiableList(properties);
+        this.columns = columns;
+    }
+
+    /**
+     * @return The number of rows (individuals) of the table.
+     */
+    public int getRowCount() {
+        return individuals.size();
+    }
+
+    /**
+     * @return The number of columns (properties) of the table.
+     */
+    public int getColumnCount() {
+        return properties.size();
+    }
+
+    /**
+     * @return The individuals of the table, in the order of the rows.
+     */
+    public List<OWLNamedIndividual> getIndividuals() {
+        return individuals;
+    }
+
+    /**
+     * @return The properties of the table, in the order of the columns.
+     */
+    public List<OWLDataProperty> getProperties() {
+        return properties;
+    }
+
+    /**
+     * Get the values of a property for a individual.
+     *
+     * @param row    The row of the individual.
+     * @param column The column of the property.
+     *
+     * @return The values of the property for the individual. An empty list if
+     *         the individual has no values for the property.
+     */
+    public List<OWLLiteral> getValues(final int row, final int column) {
+        return Collections.unmodifiableList(
+            Arrays.asList(columns[column][row])
+        );
+    }
+
+    /**
+     * Get the values of a property for all individuals.
+     *
+     * @param column The column of the property.
+     *
+     * @return A list with the values of the property for each individual, in
+     *         the order of the rows.
+     */
+    public List<List<OWLLiteral>> getColumn(final int column) {
+        final OWLLiteral[][] values = columns[column];
+        return new AbstractList<List<OWLLiteral>>() {
+
+            @Override
+            public List<OWLLiteral> get(final int row) {
+                return Collections.unmodifiableList(Arrays.asList(values[row]));
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+
+        };
+    }
+
+    /**
+     * Get the values of a property for all individuals.
+     *
+     * @param property The property.
+     *
+     * @return A list with the values of the property for each individual, in
+     *         the order of the rows.
+     *
+     * @throws IllegalArgumentException If the property is not a column of
+     *                                  this table.
+     */
+    public List<List<OWLLiteral>> getColumn(final OWLDataProperty property) {
+        final int column = properties.indexOf(property);
+        if (column < 0) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Property %s is not part of this table.",
+                    property.getIRI().toString()
+                )
+            );
+        }
+        return getColumn(column);
+    }
+
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.expression.OWLEntityChecker;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+/**
+ * An {@link OWLEntityChecker} which resolves full IRIs enclosed in
+ * {@code <} and {@code >}, for example
+ * {@code <http://example.org/ontology#Person>}, to the entities of an
+ * ontology and its imports. All other names are resolved by another entity
+ * checker.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+class FullIriEntityChecker implements OWLEntityChecker {
+
+    /**
+     * The ontology providing the entities.
+     */
+    private final OWLOntology ontology;
+
+    /**
+     * The entity checker for all other names.
+     */
+    private final OWLEntityChecker delegate;
+
+    FullIriEntityChecker(
+        final OWLOntology ontology, final OWLEntityChecker delegate
+    ) {
+        this.ontology = ontology;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public OWLClass getOWLClass(final String name) {
+        final IRI iri = toIri(name);
+        if (iri != null
+                && ontology.containsClassInSignature(iri, Imports.INCLUDED)) {
+            return getDataFactory().getOWLClass(iri);
+        }
+        return delegate.getOWLClass(name);
+    }
+
+    @Override
+    public OWLObjectProperty getOWLObjectProperty(final String name) {
+        final IRI iri = toIri(name);
+        if (iri != null
+                && ontology.containsObjectPropertyInSignature(
+                iri, Imports.INCLUDED
+            )) {
+            return getDataFactory().getOWLObjectProperty(iri);
+        }
+        return delegate.getOWLObjectProperty(name);
+    }
+
+    @Override
+    public OWLDataProperty getOWLDataProperty(final String name) {
+        final IRI iri = toIri(name);
+        if (iri != null
+                && ontology.containsDataPropertyInSignature(
+                iri, Imports.INCLUDED
+            )) {
+            return getDataFactory().getOWLDataProperty(iri);
+        }
+        return delegate.getOWLDataProperty(name);
+    }
+
+    @Override
+    public OWLNamedIndividual getOWLIndividual(final String name) {
+        final IRI iri = toIri(name);
+        if (iri != null
+                && ontology.containsIndividualInSignature(
+                iri, Imports.INCLUDED
+            )) {
+            return getDataFactory().getOWLNamedIndividual(iri);
+        }
+        return delegate.getOWLIndividual(name);
+    }
+
+    @Override
+    public OWLDatatype getOWLDatatype(final String name) {
+        final IRI iri = toIri(name);
+        if (iri != null
+                && (OWL2Datatype.isBuiltIn(iri)
+                        || ontology.containsDatatypeInSignature(
+                iri, Imports.INCLUDED
+            ))) {
+            return getDataFactory().getOWLDatatype(iri);
+        }
+        return delegate.getOWLDatatype(name);
+    }
+
+    @Override
+    public OWLAnnotationProperty getOWLAnnotationProperty(
+        final String name
+    ) {
+        final IRI iri = toIri(name);
+        if (iri != null
+                && ontology.containsAnnotationPropertyInSignature(
+                iri, Imports.INCLUDED
+            )) {
+            return getDataFactory().getOWLAnnotationProperty(iri);
+        }
+        return delegate.getOWLAnnotationProperty(name);
+    }
+
+    private OWLDataFactory getDataFactory() {
+        return ontology.getOWLOntologyManager().getOWLDataFactory();
+    }
+
+    /**
+     * Get the IRI of a name which is a full IRI.
+     *
+     * @param name The name.
+     *
+     * @return The IRI or {@code null} if the name isn't a full IRI.
+     */
+    private static IRI toIri(final String name) {
+        if (name == null
+                || name.length() < 3
+                || name.charAt(0) != '<'
+                || name.charAt(name.length() - 1) != '>') {
+            return null;
+        }
+        return IRI.create(name.substring(1, name.length() - 1));
+    }
+
+}
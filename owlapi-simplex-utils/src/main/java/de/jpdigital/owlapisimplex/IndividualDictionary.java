@@ -0,0 +1,128 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Assigns a dense numeric id to each named individual of the ontology. The
+ * indexes of the {@link OntologyIndex} use these ids to store sets of
+ * individuals as {@link BitSet}s.
+ *
+ * The ids are assigned in the order of the IRIs of the individuals. Iterating
+ * over a {@link BitSet} therefore returns the individuals in the same order
+ * as the other methods of owlapi-simplex-utils.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class IndividualDictionary {
+
+    /**
+     * The individuals, the position in the array is the id.
+     */
+    private final OWLNamedIndividual[] individuals;
+
+    /**
+     * The ids of the individuals.
+     */
+    private final Map<OWLNamedIndividual, Integer> ids;
+
+    /**
+     * Creates a new dictionary for the provided individuals.
+     *
+     * @param individuals The individuals. Duplicates are ignored.
+     */
+    IndividualDictionary(final Stream<OWLNamedIndividual> individuals) {
+        this.individuals = individuals
+            .distinct()
+            .sorted(
+                (individual1, individual2) -> individual1
+                    .getIRI()
+                    .toString()
+                    .compareTo(individual2.getIRI().toString())
+            )
+            .toArray(OWLNamedIndividual[]::new);
+
+        ids = new HashMap<>(this.individuals.length * 4 / 3 + 1);
+        for (int i = 0; i < this.individuals.length; i++) {
+            ids.put(this.individuals[i], i);
+        }
+    }
+
+    /**
+     * @return The number of individuals in the dictionary.
+     */
+    int size() {
+        return individuals.length;
+    }
+
+    /**
+     * Get the id of an individual.
+     *
+     * @param individual The individual.
+     *
+     * @return The id of the individual or {@code -1} if the individual is not
+     *         part of the dictionary.
+     */
+    int getId(final OWLNamedIndividual individual) {
+        final Integer id = ids.get(individual);
+        if (id == null) {
+            return -1;
+        } else {
+            return id;
+        }
+    }
+
+    /**
+     * Get the individual with the provided id.
+     *
+     * @param id The id.
+     *
+     * @return The individual with the id.
+     */
+    OWLNamedIndividual getIndividual(final int id) {
+        return individuals[id];
+    }
+
+    /**
+     * Estimates the memory used by the dictionary, excluding the individuals
+     * which are shared with the ontology.
+     *
+     * @return The estimated size of the dictionary in bytes.
+     */
+    long estimateMemoryUsage() {
+        return MemoryEstimates.array(individuals.length)
+                   + MemoryEstimates.map(ids.size());
+    }
+
+    /**
+     * Converts a set of ids to the individuals.
+     *
+     * @param ids The ids.
+     *
+     * @return A stream of the individuals, ordered by their IRI.
+     */
+    Stream<OWLNamedIndividual> individuals(final BitSet ids) {
+        return ids.stream().mapToObj(id -> individuals[id]);
+    }
+
+}
@@ -17,12 +17,18 @@
 package de.jpdigital.owlapisimplex;
 
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.expression.OWLEntityChecker;
 import org.semanticweb.owlapi.expression.ShortFormEntityChecker;
+import org.semanticweb.owlapi.model.AxiomType;
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.NodeSet;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.util.BidirectionalShortFormProvider;
 import org.semanticweb.owlapi.util.BidirectionalShortFormProviderAdapter;
@@ -30,10 +36,22 @@ import org.semanticweb.owlapi.util.ShortFormProvider;
 import org.semanticweb.owlapi.util.SimpleShortFormProvider;
 import org.semanticweb.owlapi.util.mansyntax.ManchesterOWLSyntaxParser;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -58,21 +76,29 @@ public class Instances {
      */
     private final OWLReasoner reasoner;
 
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
     /**
      * Creates a new instance.
      *
      * @param ontology        The ontology to use.
      * @param ontologyManager The ontology manager.
      * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
      */
     private Instances(
         final OWLOntology ontology,
         final OWLOntologyManager ontologyManager,
-        final OWLReasoner reasoner
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
     ) {
         this.ontology = ontology;
         this.ontologyManager = ontologyManager;
         this.reasoner = reasoner;
+        this.ontologyIndex = ontologyIndex;
     }
 
     /**
@@ -80,6 +106,12 @@ public class Instances {
      *
      * @ocde DataProperties}.
      *
+     * The returned instance uses the {@link OntologyIndex} shared by all
+     * utility classes created for the reasoner without an index, therefore
+     * repeated calls don't create additional indexes. The index is kept
+     * while it is used by a utility class and can be closed explicitly using
+     * {@link OntologyIndex#closeSharedOntologyIndex(OWLReasoner)}.
+     *
      * @param ontology        The ontology to use.
      * @param ontologyManager The ontology manager.
      * @param reasoner        The reasoner.
@@ -95,7 +127,49 @@ public class Instances {
         Objects.requireNonNull(ontologyManager);
         Objects.requireNonNull(reasoner);
 
-        return new Instances(ontology, ontologyManager, reasoner);
+        return new Instances(
+            ontology,
+            ontologyManager,
+            reasoner,
+            OntologyIndex.getSharedOntologyIndex(reasoner)
+        );
+    }
+
+    /**
+     * Factory method for generating new intances of {@code Instances} which
+     * share an existing {@link OntologyIndex}.
+     *
+     * @param ontology        The ontology to use.
+     * @param ontologyManager The ontology manager.
+     * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
+     *
+     * @return A {@code Instances} instance.
+     */
+    public static Instances buildInstances(
+        final OWLOntology ontology,
+        final OWLOntologyManager ontologyManager,
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontology);
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(reasoner);
+        Objects.requireNonNull(ontologyIndex);
+
+        return new Instances(ontology, ontologyManager, reasoner, ontologyIndex);
+    }
+
+    /**
+     * Builds a new instance of {@link ClassHierarchy} which shares the
+     * {@link OntologyIndex} with this instance.
+     *
+     * @return A new instance of {@link ClassHierarchy}.
+     */
+    public ClassHierarchy buildClassHierarchy() {
+        return ClassHierarchy.buildClassHierarchy(
+            ontologyManager, reasoner, ontologyIndex
+        );
     }
 
     /**
@@ -106,32 +180,7 @@ public class Instances {
      * @return All instances matching the DL query.
      */
     public Stream<OWLNamedIndividual> instances(final String query) {
-
-        final ShortFormProvider shortFormProvider
-                                    = new SimpleShortFormProvider();
-        final Set<OWLOntology> importsClosure = ontology
-            .importsClosure()
-            .collect(Collectors.toSet());
-
-        final BidirectionalShortFormProvider bidiShortformProvider
-                                                 = new BidirectionalShortFormProviderAdapter(
-                ontologyManager,
-                importsClosure,
-                shortFormProvider);
-
-        final ManchesterOWLSyntaxParser parser = OWLManager
-            .createManchesterParser();
-        parser.setDefaultOntology(ontology);
-        parser.setOWLEntityChecker(
-            new ShortFormEntityChecker(bidiShortformProvider));
-
-        final OWLClassExpression queryExpression = parser
-            .parseClassExpression(query);
-
-        return reasoner
-            .getInstances(queryExpression, false)
-            .entities()
-            .sorted(this::sortResults);
+        return instances(parseClassExpression(query));
     }
 
     /**
@@ -144,6 +193,27 @@ public class Instances {
         return instances(query).collect(Collectors.toList());
     }
 
+    /**
+     * Prepares a DL query with parameters. The query is parsed and validated
+     * once, the parameters (marked by {@code ?}) are bound directly to the
+     * parsed class expression each time the query is executed. For example:
+     *
+     * <pre>
+     * final PreparedQuery query = instances.prepare("Person and (age value ?)");
+     * final List&lt;OWLNamedIndividual&gt; result = query.getInstances(30);
+     * </pre>
+     *
+     * @param query The query with the parameters marked by {@code ?}.
+     *
+     * @return The prepared query.
+     *
+     * @throws org.semanticweb.owlapi.manchestersyntax.renderer.ParserException
+     * If the query is not a valid class expression.
+     */
+    public PreparedQuery prepare(final String query) {
+        return PreparedQuery.buildPreparedQuery(this, ontologyManager, query);
+    }
+
     /**
      * Get all instances with the provided IRI.
      * 
@@ -151,7 +221,9 @@ public class Instances {
      * @return A stream with all matching individuals.
      */
     public Stream<OWLNamedIndividual> instances(final IRI iri) {
-        return instances(iri.getShortForm());
+        return instances(
+            ontologyManager.getOWLDataFactory().getOWLClass(iri)
+        );
     }
 
     /**
@@ -164,6 +236,1930 @@ public class Instances {
         return instances(iri).collect(Collectors.toList());
     }
 
+    /**
+     * Get all instances of the provided class expression. The expression is
+     * used as is, no parsing is necessary. The instances of a named class are
+     * read from the {@link OntologyIndex}, other class expressions are passed
+     * to the reasoner. This method should be preferred if the class or class
+     * expression is known in advance, for example as constant.
+     *
+     * @param classExpression The class expression, for example an
+     *                        {@link org.semanticweb.owlapi.model.OWLClass}.
+     *
+     * @return A stream with all matching individuals.
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final OWLClassExpression classExpression
+    ) {
+        return instances(classExpression, QueryOptions.buildQueryOptions());
+    }
+
+    /**
+     * Get all instances of the provided class expression.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return A list with all matching individuals.
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final OWLClassExpression classExpression
+    ) {
+        return instances(classExpression).collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the instances matching the provided DL query. The query fails
+     * with a {@link QueryTimeoutException} if the deadline passes and with a
+     * {@link QueryCancelledException} if the query is cancelled, including
+     * while the returned stream is consumed.
+     *
+     * @param query    The query to execute.
+     * @param deadline The deadline of the query.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see QueryDeadline
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final String query, final QueryDeadline deadline
+    ) {
+        return instances(
+            parseClassExpression(query),
+            QueryOptions.buildQueryOptions().withDeadline(deadline)
+        );
+    }
+
+    /**
+     * Retrieves the instances matching the provided DL query.
+     *
+     * @param query    The query to execute.
+     * @param deadline The deadline of the query.
+     *
+     * @return A list with the matching individuals.
+     *
+     * @see #instances(java.lang.String,
+     * de.jpdigital.owlapisimplex.QueryDeadline)
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final String query, final QueryDeadline deadline
+    ) {
+        return instances(query, deadline).collect(Collectors.toList());
+    }
+
+    /**
+     * Get all instances of the provided class expression. The query fails
+     * with a {@link QueryTimeoutException} if the deadline passes and with a
+     * {@link QueryCancelledException} if the query is cancelled, including
+     * while the returned stream is consumed.
+     *
+     * @param classExpression The class expression.
+     * @param deadline        The deadline of the query.
+     *
+     * @return A stream with all matching individuals.
+     *
+     * @see QueryDeadline
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final OWLClassExpression classExpression,
+        final QueryDeadline deadline
+    ) {
+        return instances(
+            classExpression,
+            QueryOptions.buildQueryOptions().withDeadline(deadline)
+        );
+    }
+
+    /**
+     * Get all instances of the provided class expression.
+     *
+     * @param classExpression The class expression.
+     * @param deadline        The deadline of the query.
+     *
+     * @return A list with all matching individuals.
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final OWLClassExpression classExpression,
+        final QueryDeadline deadline
+    ) {
+        return instances(classExpression, deadline)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Retrieves the instances matching the provided DL query using the
+     * provided {@link QueryOptions}.
+     *
+     * @param query   The query to execute.
+     * @param options The options for the query.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instances(org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryOptions)
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final String query, final QueryOptions options
+    ) {
+        return instances(parseClassExpression(query), options);
+    }
+
+    /**
+     * Retrieves the instances matching the provided DL query using the
+     * provided {@link QueryOptions}.
+     *
+     * @param query   The query to execute.
+     * @param options The options for the query.
+     *
+     * @return A list with the matching individuals.
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final String query, final QueryOptions options
+    ) {
+        return instances(query, options).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the instances of the class with the provided IRI using the
+     * provided {@link QueryOptions}.
+     *
+     * @param iri     The IRI of the class.
+     * @param options The options for the query.
+     *
+     * @return A stream with the matching individuals.
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final IRI iri, final QueryOptions options
+    ) {
+        return instances(
+            ontologyManager.getOWLDataFactory().getOWLClass(iri), options
+        );
+    }
+
+    /**
+     * Get the instances of the class with the provided IRI using the
+     * provided {@link QueryOptions}.
+     *
+     * @param iri     The IRI of the class.
+     * @param options The options for the query.
+     *
+     * @return A list with the matching individuals.
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final IRI iri, final QueryOptions options
+    ) {
+        return instances(iri, options).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the instances of the provided class expression using the provided
+     * {@link QueryOptions}.
+     *
+     * The instances of a named class, and of class expressions which the
+     * {@link QueryPlan query planner} can answer from the index, are taken
+     * from the {@link OntologyIndex}. They are already ordered by their IRI,
+     * with a limit the stream stops after the last requested instance. Direct
+     * instances and all other class expressions are retrieved from the
+     * reasoner, see {@link #explain(org.semanticweb.owlapi.model.OWLClassExpression)}.
+     * Ordered results
+     * are sorted before the limit is applied, unordered results are returned
+     * in the order provided by the reasoner without sorting them.
+     *
+     * The {@link QueryOptions#getMaxResults() hard cap} is checked before
+     * the stream is returned. The {@link QueryOptions#getDeadline() deadline}
+     * is checked before the query is executed and for each instance returned
+     * by the stream, a running call of the reasoner is interrupted when the
+     * deadline passes.
+     *
+     * @param classExpression The class expression.
+     * @param options         The options for the query.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @throws ResultLimitExceededException If the class expression has more
+     *                                      instances than allowed by the
+     *                                      options.
+     * @throws QueryTimeoutException        If the deadline of the query has
+     *                                      passed.
+     * @throws QueryCancelledException      If the query has been cancelled.
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final OWLClassExpression classExpression, final QueryOptions options
+    ) {
+        Objects.requireNonNull(classExpression);
+        Objects.requireNonNull(options);
+
+        final QueryDeadline deadline = options.getDeadline();
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        final Stream<OWLNamedIndividual> result;
+        final BitSet members;
+        if (options.isDirect()) {
+            members = null;
+        } else if (classExpression.isNamed()) {
+            guard.check(deadline);
+            members = ontologyIndex.getClassMembers(
+                classExpression.asOWLClass()
+            );
+        } else {
+            guard.check(deadline);
+            members = evaluateFromIndex(classExpression);
+        }
+        if (members != null) {
+            checkMaxResults(members.cardinality(), options);
+            result = ontologyIndex.getDictionary().individuals(members);
+        } else {
+            final NodeSet<OWLNamedIndividual> nodeSet = guard.call(
+                deadline,
+                () -> reasoner.getInstances(
+                    classExpression, options.isDirect()
+                )
+            );
+            if (options.getMaxResults() != QueryOptions.UNLIMITED) {
+                checkMaxResults(nodeSet.entities().count(), options);
+            }
+            if (options.isOrdered()) {
+                result = nodeSet.entities().sorted(this::sortResults);
+            } else {
+                result = nodeSet.entities();
+            }
+        }
+
+        if (options.getLimit() == QueryOptions.UNLIMITED) {
+            return guard.checked(deadline, result);
+        } else {
+            return guard.checked(deadline, result.limit(options.getLimit()));
+        }
+    }
+
+    /**
+     * Get the instances of the provided class expression using the provided
+     * {@link QueryOptions}.
+     *
+     * @param classExpression The class expression.
+     * @param options         The options for the query.
+     *
+     * @return A list with the matching individuals.
+     *
+     * @throws ResultLimitExceededException If the class expression has more
+     *                                      instances than allowed by the
+     *                                      options.
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final OWLClassExpression classExpression, final QueryOptions options
+    ) {
+        return instances(classExpression, options)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the instances of the class expression built by the provided
+     * {@link QueryExpression}.
+     *
+     * @param query The query expression.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instances(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public Stream<OWLNamedIndividual> instances(final QueryExpression query) {
+        return instances(query.getClassExpression());
+    }
+
+    /**
+     * Get the instances of the class expression built by the provided
+     * {@link QueryExpression}.
+     *
+     * @param query The query expression.
+     *
+     * @return A list with the matching individuals.
+     */
+    public List<OWLNamedIndividual> getInstances(final QueryExpression query) {
+        return instances(query).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the instances of the class expression built by the provided
+     * {@link QueryExpression} using the provided {@link QueryOptions}.
+     *
+     * @param query   The query expression.
+     * @param options The options for the query.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instances(org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryOptions)
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final QueryExpression query, final QueryOptions options
+    ) {
+        return instances(query.getClassExpression(), options);
+    }
+
+    /**
+     * Get the instances of the class expression built by the provided
+     * {@link QueryExpression} using the provided {@link QueryOptions}.
+     *
+     * @param query   The query expression.
+     * @param options The options for the query.
+     *
+     * @return A list with the matching individuals.
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final QueryExpression query, final QueryOptions options
+    ) {
+        return instances(query, options).collect(Collectors.toList());
+    }
+
+    /**
+     * Publishes the instances of the provided class expression with
+     * backpressure.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return A publisher for the matching individuals.
+     *
+     * @see #publishInstances(org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryOptions)
+     */
+    public ResultFlow.Publisher<OWLNamedIndividual> publishInstances(
+        final OWLClassExpression classExpression
+    ) {
+        return publishInstances(
+            classExpression, QueryOptions.buildQueryOptions()
+        );
+    }
+
+    /**
+     * Publishes the instances of the provided class expression with
+     * backpressure. The query is executed for each subscriber when the
+     * subscriber requests the first instances.
+     *
+     * The direct and indirect instances of a named class are emitted from the
+     * members of the class in the {@link OntologyIndex} in the order of their
+     * IRI. Only as many instances as requested are looked up, so even a class
+     * with millions of members is published with constant additional memory
+     * and the first instances are emitted immediately. For other queries the
+     * reasoner computes all instances before the first instance is emitted.
+     *
+     * A {@link ResultLimitExceededException}, {@link QueryTimeoutException}
+     * or {@link QueryCancelledException} is passed to
+     * {@link ResultFlow.Subscriber#onError(java.lang.Throwable)}.
+     *
+     * @param classExpression The class expression.
+     * @param options         The options for the query.
+     *
+     * @return A publisher for the matching individuals.
+     */
+    public ResultFlow.Publisher<OWLNamedIndividual> publishInstances(
+        final OWLClassExpression classExpression, final QueryOptions options
+    ) {
+        Objects.requireNonNull(classExpression);
+        Objects.requireNonNull(options);
+
+        return new StreamPublisher<>(
+            () -> instances(classExpression, options)
+        );
+    }
+
+    /**
+     * Counts the instances matching the provided DL query.
+     *
+     * @param query The query to execute.
+     *
+     * @return The number of individuals matching the query.
+     *
+     * @see #countInstances(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public long countInstances(final String query) {
+        return countInstances(parseClassExpression(query));
+    }
+
+    /**
+     * Counts the instances of the class with the provided IRI.
+     *
+     * @param iri The IRI of the class.
+     *
+     * @return The number of instances of the class.
+     */
+    public long countInstances(final IRI iri) {
+        return countInstances(
+            ontologyManager.getOWLDataFactory().getOWLClass(iri)
+        );
+    }
+
+    /**
+     * Counts the instances of the provided class expression without
+     * collecting or sorting them.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return The number of instances of the class expression.
+     *
+     * @see #countInstances(org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryDeadline)
+     */
+    public long countInstances(final OWLClassExpression classExpression) {
+        return countInstances(classExpression, QueryDeadline.NONE);
+    }
+
+    /**
+     * Counts the instances of the provided class expression without
+     * collecting or sorting them. For a named class the members are taken
+     * from the {@link OntologyIndex}, the result is the cardinality of the
+     * {@link BitSet} of the members. Class expressions which the
+     * {@link QueryPlan query planner} can answer from the index are counted
+     * the same way. For other class expressions the instances returned by
+     * the reasoner are counted, the call of the reasoner is interrupted when
+     * the deadline passes.
+     *
+     * @param classExpression The class expression.
+     * @param deadline        The deadline of the query.
+     *
+     * @return The number of instances of the class expression.
+     *
+     * @throws QueryTimeoutException   If the deadline of the query has
+     *                                 passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public long countInstances(
+        final OWLClassExpression classExpression,
+        final QueryDeadline deadline
+    ) {
+        Objects.requireNonNull(classExpression);
+        Objects.requireNonNull(deadline);
+
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        guard.check(deadline);
+        if (classExpression.isNamed()) {
+            return ontologyIndex
+                .getClassMembers(classExpression.asOWLClass())
+                .cardinality();
+        }
+        final BitSet members = evaluateFromIndex(classExpression);
+        if (members != null) {
+            return members.cardinality();
+        }
+        return guard
+            .call(
+                deadline,
+                () -> reasoner.getInstances(classExpression, false)
+            )
+            .entities()
+            .count();
+    }
+
+    /**
+     * Counts the instances of the class expression built by the provided
+     * {@link QueryExpression}.
+     *
+     * @param query The query expression.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #countInstances(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public long countInstances(final QueryExpression query) {
+        return countInstances(query.getClassExpression());
+    }
+
+    /**
+     * Checks if there are any instances matching the provided DL query.
+     *
+     * @param query The query to execute.
+     *
+     * @return {@code true} if at least one individual matches the query,
+     *         {@code false} otherwise.
+     *
+     * @see #hasInstances(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public boolean hasInstances(final String query) {
+        return hasInstances(parseClassExpression(query));
+    }
+
+    /**
+     * Checks if the class with the provided IRI has any instances.
+     *
+     * @param iri The IRI of the class.
+     *
+     * @return {@code true} if the class has at least one instance,
+     *         {@code false} otherwise.
+     */
+    public boolean hasInstances(final IRI iri) {
+        return hasInstances(
+            ontologyManager.getOWLDataFactory().getOWLClass(iri)
+        );
+    }
+
+    /**
+     * Checks if the provided class expression has any instances.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return {@code true} if the class expression has at least one instance,
+     *         {@code false} otherwise.
+     *
+     * @see #hasInstances(org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryDeadline)
+     */
+    public boolean hasInstances(final OWLClassExpression classExpression) {
+        return hasInstances(classExpression, QueryDeadline.NONE);
+    }
+
+    /**
+     * Checks if the provided class expression has any instances. For a named
+     * class, and for class expressions which the
+     * {@link QueryPlan query planner} can answer from the index, the members
+     * are taken from the {@link OntologyIndex}. For other class expressions
+     * the check stops at the first individual which the index knows to be an
+     * instance, for example a member of a named class in an intersection or
+     * union which is connected by an asserted value of a property. Only if
+     * there is no such individual the reasoner is called: An unsatisfiable
+     * class expression has no instances, otherwise the instances are
+     * retrieved from the reasoner. The call of the reasoner is interrupted
+     * when the deadline passes.
+     *
+     * @param classExpression The class expression.
+     * @param deadline        The deadline of the query.
+     *
+     * @return {@code true} if the class expression has at least one instance,
+     *         {@code false} otherwise.
+     *
+     * @throws QueryTimeoutException   If the deadline of the query has
+     *                                 passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public boolean hasInstances(
+        final OWLClassExpression classExpression,
+        final QueryDeadline deadline
+    ) {
+        Objects.requireNonNull(classExpression);
+        Objects.requireNonNull(deadline);
+
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        guard.check(deadline);
+        if (classExpression.isNamed()) {
+            return !ontologyIndex
+                .getClassMembers(classExpression.asOWLClass())
+                .isEmpty();
+        }
+        final BitSet members = evaluateFromIndex(classExpression);
+        if (members != null) {
+            return !members.isEmpty();
+        }
+        if (!ontologyIndex
+            .getQueryPlanner()
+            .knownInstances(classExpression)
+            .isEmpty()) {
+            return true;
+        }
+        return guard.call(deadline, () -> {
+            if (reasoner.isSatisfiable(classExpression)) {
+                return !reasoner
+                    .getInstances(classExpression, false)
+                    .isEmpty();
+            } else {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Checks if there are any instances of the class expression built by the
+     * provided {@link QueryExpression}.
+     *
+     * @param query The query expression.
+     *
+     * @return {@code true} if at least one individual matches the query,
+     *         {@code false} otherwise.
+     *
+     * @see #hasInstances(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public boolean hasInstances(final QueryExpression query) {
+        return hasInstances(query.getClassExpression());
+    }
+
+    /**
+     * Explains how the provided DL query is evaluated.
+     *
+     * @param query The query.
+     *
+     * @return The plan for the query.
+     *
+     * @see #explain(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public QueryPlan explain(final String query) {
+        return explain(parseClassExpression(query));
+    }
+
+    /**
+     * Explains how the class expression built by the provided
+     * {@link QueryExpression} is evaluated.
+     *
+     * @param query The query expression.
+     *
+     * @return The plan for the query.
+     *
+     * @see #explain(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public QueryPlan explain(final QueryExpression query) {
+        return explain(query.getClassExpression());
+    }
+
+    /**
+     * Explains how the instances of the provided class expression are
+     * retrieved by
+     * {@link #instances(org.semanticweb.owlapi.model.OWLClassExpression)},
+     * {@link #countInstances(org.semanticweb.owlapi.model.OWLClassExpression)}
+     * and {@link #hasInstances(org.semanticweb.owlapi.model.OWLClassExpression)}:
+     * From the {@link OntologyIndex} or from the reasoner, with an estimated
+     * cost. Queries for direct instances always use the reasoner.
+     *
+     * Creating the plan materializes the members of the named classes used
+     * in the class expression and the indexes of the properties, but doesn't
+     * evaluate the plan.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return The plan for the class expression.
+     */
+    public QueryPlan explain(final OWLClassExpression classExpression) {
+        Objects.requireNonNull(classExpression);
+
+        return plan(classExpression);
+    }
+
+    /**
+     * Checks if an individual is an instance of the class expression described
+     * by the provided DL query.
+     *
+     * @param individual The individual.
+     * @param query      The query describing the class expression.
+     *
+     * @return {@code true} if the individual is an instance of the class
+     *         expression, {@code false} otherwise.
+     *
+     * @see #isInstanceOf(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public boolean isInstanceOf(
+        final OWLNamedIndividual individual, final String query
+    ) {
+        return isInstanceOf(individual, parseClassExpression(query));
+    }
+
+    /**
+     * Checks if an individual is an instance of the class with the provided
+     * IRI.
+     *
+     * @param individual The individual.
+     * @param iri        The IRI of the class.
+     *
+     * @return {@code true} if the individual is an instance of the class,
+     *         {@code false} otherwise.
+     *
+     * @see #isInstanceOf(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public boolean isInstanceOf(
+        final OWLNamedIndividual individual, final IRI iri
+    ) {
+        return isInstanceOf(
+            individual, ontologyManager.getOWLDataFactory().getOWLClass(iri)
+        );
+    }
+
+    /**
+     * Checks if an individual is an instance of a class expression. For a
+     * named class and an individual known to the {@link OntologyIndex} the
+     * check is a lookup in the {@link BitSet} of the members of the class and
+     * requires constant time once the members have been materialized. In all
+     * other cases the reasoner is asked if the class assertion is entailed.
+     * If the reasoner does not support entailment checks for class
+     * assertions, the instances of the class expression are retrieved from
+     * the reasoner.
+     *
+     * @param individual      The individual.
+     * @param classExpression The class expression, for example an
+     *                        {@link org.semanticweb.owlapi.model.OWLClass}.
+     *
+     * @return {@code true} if the individual is an instance of the class
+     *         expression, {@code false} otherwise.
+     *
+     * @see #isInstanceOf(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryDeadline)
+     */
+    public boolean isInstanceOf(
+        final OWLNamedIndividual individual,
+        final OWLClassExpression classExpression
+    ) {
+        return isInstanceOf(individual, classExpression, QueryDeadline.NONE);
+    }
+
+    /**
+     * Checks if an individual is an instance of a class expression, see
+     * {@link #isInstanceOf(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLClassExpression)}.
+     * The deadline is checked before the members of a named class are looked
+     * up, a call of the reasoner is interrupted when the deadline passes.
+     *
+     * @param individual      The individual.
+     * @param classExpression The class expression.
+     * @param deadline        The deadline of the query.
+     *
+     * @return {@code true} if the individual is an instance of the class
+     *         expression, {@code false} otherwise.
+     *
+     * @throws QueryTimeoutException   If the deadline of the query has
+     *                                 passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public boolean isInstanceOf(
+        final OWLNamedIndividual individual,
+        final OWLClassExpression classExpression,
+        final QueryDeadline deadline
+    ) {
+        Objects.requireNonNull(individual);
+        Objects.requireNonNull(classExpression);
+        Objects.requireNonNull(deadline);
+
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        guard.check(deadline);
+        if (classExpression.isNamed()) {
+            final int id = ontologyIndex.getDictionary().getId(individual);
+            if (id >= 0) {
+                return ontologyIndex
+                    .getClassMembers(classExpression.asOWLClass())
+                    .get(id);
+            }
+        }
+
+        if (reasoner.isEntailmentCheckingSupported(AxiomType.CLASS_ASSERTION)) {
+            return guard.call(
+                deadline,
+                () -> reasoner.isEntailed(
+                    ontologyManager
+                        .getOWLDataFactory()
+                        .getOWLClassAssertionAxiom(classExpression, individual)
+                )
+            );
+        } else {
+            return guard.call(
+                deadline,
+                () -> reasoner
+                    .getInstances(classExpression, false)
+                    .containsEntity(individual)
+            );
+        }
+    }
+
+    /**
+     * Get the members of an OWL class which have a specific value for a data
+     * property. The query is answered using the {@link OntologyIndex}: The
+     * members of the class are retrieved from the reasoner once, the values of
+     * the property are taken from the data property assertions in the
+     * ontology. Values are compared by their value, not by their lexical form,
+     * for example {@code "1"^^xsd:int} is equal to {@code "01"^^xsd:integer}.
+     *
+     * If the reasoner may entail values of the property which are not
+     * asserted (see {@link DataPropertyValueIndex#isComplete()}), the values
+     * of each member of the class are retrieved from the reasoner instead.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A stream with the matching individuals.
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OWLLiteral value
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithValue(owlClass, property, LiteralValues.toKey(value))
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a specific integer value
+     * (any of the integer types of XML Schema) for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final long value
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithValue(owlClass, property, LiteralValues.toKey(value))
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a specific
+     * {@code xsd:double} or {@code xsd:float} value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final double value
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithValue(owlClass, property, LiteralValues.toKey(value))
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a specific
+     * {@code xsd:boolean} value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean value
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithValue(owlClass, property, LiteralValues.toKey(value))
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a specific
+     * {@code xsd:decimal} (or integer) value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final BigDecimal value
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithValue(owlClass, property, LiteralValues.toKey(value))
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a specific
+     * {@code xsd:dateTime} value for a data property. Values are compared as
+     * points in time, values without a timezone in the ontology are
+     * interpreted as UTC.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OffsetDateTime value
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithValue(owlClass, property, LiteralValues.toKey(value))
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a value with a specific
+     * lexical form for a data property. In contrast to the other variants of
+     * this method the datatype of the values is ignored, for example
+     * {@code "42"} matches {@code "42"^^xsd:string} and
+     * {@code "42"^^xsd:int}.
+     *
+     * @param owlClass    The OWL class.
+     * @param property    The data property.
+     * @param lexicalForm The lexical form of the value.
+     *
+     * @return A stream with the matching individuals.
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final String lexicalForm
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersWithLexicalForm(owlClass, property, lexicalForm)
+        );
+    }
+
+    /**
+     * Counts the members of an OWL class which have a specific value for a
+     * data property. The count is the cardinality of the intersection of the
+     * {@link BitSet}s in the {@link OntologyIndex}, the matching individuals
+     * are not materialized.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OWLLiteral value
+    ) {
+        return membersWithValue(
+            owlClass, property, LiteralValues.toKey(value)
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a specific
+     * integer value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #countInstancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final long value
+    ) {
+        return membersWithValue(
+            owlClass, property, LiteralValues.toKey(value)
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a specific
+     * {@code xsd:double} value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #countInstancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final double value
+    ) {
+        return membersWithValue(
+            owlClass, property, LiteralValues.toKey(value)
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a specific
+     * {@code xsd:boolean} value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #countInstancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean value
+    ) {
+        return membersWithValue(
+            owlClass, property, LiteralValues.toKey(value)
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a specific
+     * {@code xsd:decimal} value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #countInstancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final BigDecimal value
+    ) {
+        return membersWithValue(
+            owlClass, property, LiteralValues.toKey(value)
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a specific
+     * {@code xsd:dateTime} value for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #countInstancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OffsetDateTime value
+    ) {
+        return membersWithValue(
+            owlClass, property, LiteralValues.toKey(value)
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a value with a specific
+     * lexical form for a data property.
+     *
+     * @param owlClass    The OWL class.
+     * @param property    The data property.
+     * @param lexicalForm The lexical form of the value.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #instancesWithDataPropertyValue(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty, java.lang.String)
+     */
+    public long countInstancesWithDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final String lexicalForm
+    ) {
+        return membersWithLexicalForm(
+            owlClass, property, lexicalForm
+        ).cardinality();
+    }
+
+    /**
+     * Get the members of an OWL class which have a numeric value in a range
+     * for a data property. The query is answered using the sorted range index
+     * of the {@link OntologyIndex} and requires a binary search only. Values
+     * are compared as {@code double}.
+     *
+     * If the reasoner may entail values of the property which are not
+     * asserted (see {@link DataPropertyValueIndex#isComplete()}), a range
+     * index of the values of the members of the class entailed by the
+     * reasoner is built for the query instead.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param min      The lower bound (inclusive). Use
+     *                 {@link Double#NEGATIVE_INFINITY} for no lower bound.
+     * @param max      The upper bound (inclusive). Use
+     *                 {@link Double#POSITIVE_INFINITY} for no upper bound.
+     *
+     * @return A stream with the individuals which have at least one value in
+     *         the range.
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyInRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final double min,
+        final double max
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersInNumericRange(owlClass, property, min, max)
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a {@code xsd:decimal} (or
+     * integer) value in a range for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param min      The lower bound (inclusive).
+     * @param max      The upper bound (inclusive).
+     *
+     * @return A stream with the individuals which have at least one value in
+     *         the range.
+     *
+     * @see #instancesWithDataPropertyInRange(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty, double, double)
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyInRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final BigDecimal min,
+        final BigDecimal max
+    ) {
+        return instancesWithDataPropertyInRange(
+            owlClass, property, min.doubleValue(), max.doubleValue()
+        );
+    }
+
+    /**
+     * Get the members of an OWL class which have a {@code xsd:dateTime} value
+     * in a range for a data property. Values are compared as points in time
+     * with millisecond precision, values without a timezone in the ontology
+     * are interpreted as UTC.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param from     The lower bound (inclusive).
+     * @param to       The upper bound (inclusive).
+     *
+     * @return A stream with the individuals which have at least one value in
+     *         the range.
+     */
+    public Stream<OWLNamedIndividual> instancesWithDataPropertyInRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OffsetDateTime from,
+        final OffsetDateTime to
+    ) {
+        return ontologyIndex.getDictionary().individuals(
+            membersInTemporalRange(owlClass, property, from, to)
+        );
+    }
+
+    /**
+     * Counts the members of an OWL class which have a numeric value in a
+     * range for a data property, without materializing the individuals.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param min      The lower bound (inclusive).
+     * @param max      The upper bound (inclusive).
+     *
+     * @return The number of individuals which have at least one value in the
+     *         range.
+     *
+     * @see #instancesWithDataPropertyInRange(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty, double, double)
+     */
+    public long countInstancesWithDataPropertyInRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final double min,
+        final double max
+    ) {
+        return membersInNumericRange(
+            owlClass, property, min, max
+        ).cardinality();
+    }
+
+    /**
+     * Counts the members of an OWL class which have a {@code xsd:decimal}
+     * (or integer) value in a range for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param min      The lower bound (inclusive).
+     * @param max      The upper bound (inclusive).
+     *
+     * @return The number of individuals which have at least one value in the
+     *         range.
+     */
+    public long countInstancesWithDataPropertyInRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final BigDecimal min,
+        final BigDecimal max
+    ) {
+        return countInstancesWithDataPropertyInRange(
+            owlClass, property, min.doubleValue(), max.doubleValue()
+        );
+    }
+
+    /**
+     * Counts the members of an OWL class which have a {@code xsd:dateTime}
+     * value in a range for a data property.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param from     The lower bound (inclusive).
+     * @param to       The upper bound (inclusive).
+     *
+     * @return The number of individuals which have at least one value in the
+     *         range.
+     *
+     * @see #instancesWithDataPropertyInRange(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty,
+     * java.time.OffsetDateTime, java.time.OffsetDateTime)
+     */
+    public long countInstancesWithDataPropertyInRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OffsetDateTime from,
+        final OffsetDateTime to
+    ) {
+        return membersInTemporalRange(
+            owlClass, property, from, to
+        ).cardinality();
+    }
+
+    /**
+     * Get the members of an OWL class which have a numeric or
+     * {@code xsd:dateTime} value for a data property, ordered by the value.
+     * If the property has numeric values, these values are used, otherwise
+     * the {@code xsd:dateTime} values. If an individual has several values
+     * for the property, the smallest (ascending order) or the largest
+     * (descending order) value determines its position.
+     *
+     * The stream is created lazily from the sorted range index of the
+     * {@link OntologyIndex}. Therefore, retrieving the first {@code k}
+     * individuals using {@link Stream#limit(long)} does not require sorting
+     * the members of the class. If the reasoner may entail values of the
+     * property which are not asserted, the values of the members of the class
+     * are retrieved from the reasoner and sorted for the query.
+     *
+     * @param owlClass  The OWL class.
+     * @param property  The data property.
+     * @param ascending Order ascending ({@code true}) or descending
+     *                  ({@code false})?
+     *
+     * @return A stream with the individuals, ordered by the value of the
+     *         property. Individuals without a value are not included.
+     */
+    public Stream<OWLNamedIndividual> instancesOrderedByDataProperty(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean ascending
+    ) {
+        final DataPropertyRangeIndex rangeIndex = getRangeIndex(
+            owlClass, property
+        );
+        final BitSet members = ontologyIndex.getClassMembers(owlClass);
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        return rangeIndex
+            .positions(ascending)
+            .map(rangeIndex::getIndividualId)
+            .filter(members::get)
+            .distinct()
+            .mapToObj(dictionary::getIndividual);
+    }
+
+    /**
+     * Get the first {@code limit} members of an OWL class ordered by the
+     * numeric or {@code xsd:dateTime} value of a data property, for example
+     * the 50 most recent documents. The order is the same as for
+     * {@link #instancesOrderedByDataProperty(org.semanticweb.owlapi.model.OWLClass, org.semanticweb.owlapi.model.OWLDataProperty, boolean)}.
+     *
+     * Depending on the size of the class, the individuals are either taken
+     * from the sorted range index until {@code limit} members of the class
+     * are found, or the members of the class are scanned once and the best
+     * {@code limit} members are kept in a bounded heap. In both cases, the
+     * class is never sorted completely.
+     *
+     * @param owlClass  The OWL class.
+     * @param property  The data property.
+     * @param ascending Order ascending ({@code true}) or descending
+     *                  ({@code false})?
+     * @param limit     The maximum number of individuals to return.
+     *
+     * @return A stream with at most {@code limit} individuals, ordered by the
+     *         value of the property. Individuals without a value are not
+     *         included.
+     *
+     * @throws IllegalArgumentException If {@code limit} is negative.
+     */
+    public Stream<OWLNamedIndividual> instancesOrderedByDataProperty(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean ascending,
+        final int limit
+    ) {
+        if (limit < 0) {
+            throw new IllegalArgumentException(
+                "The limit must not be negative."
+            );
+        }
+
+        final BitSet members = ontologyIndex.getClassMembers(owlClass);
+        final long memberCount = members.cardinality();
+        final long individualCount = ontologyIndex.getDictionary().size();
+        // Walking the range index visits about limit * individualCount /
+        // memberCount values until limit members are found, the heap visits
+        // each member once. If the values are entailed by the reasoner, the
+        // range index contains the members of the class only.
+        if (limit * individualCount <= memberCount * memberCount
+                || !ontologyIndex
+                .getDataPropertyValueIndex(property)
+                .isComplete()) {
+            return instancesOrderedByDataProperty(owlClass, property, ascending)
+                .limit(limit);
+        } else {
+            return topMembers(members, property, ascending, limit);
+        }
+    }
+
+    /**
+     * Get the first {@code limit} members of an OWL class ordered by the
+     * numeric or {@code xsd:dateTime} value of a data property.
+     *
+     * @param owlClass  The OWL class.
+     * @param property  The data property.
+     * @param ascending Order ascending ({@code true}) or descending
+     *                  ({@code false})?
+     * @param limit     The maximum number of individuals to return.
+     *
+     * @return A {@link List} with at most {@code limit} individuals, ordered
+     *         by the value of the property.
+     *
+     * @throws IllegalArgumentException If {@code limit} is negative.
+     *
+     * @see #instancesOrderedByDataProperty(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty, boolean, int)
+     */
+    public List<OWLNamedIndividual> getInstancesOrderedByDataProperty(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean ascending,
+        final int limit
+    ) {
+        return instancesOrderedByDataProperty(
+            owlClass, property, ascending, limit
+        ).collect(Collectors.toList());
+    }
+
+    /**
+     * Get the smallest numeric or {@code xsd:dateTime} value of a data
+     * property of the members of an OWL class.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     *
+     * @return An {@link Optional} with the smallest value or an empty
+     *         {@link Optional} if no member of the class has a value for the
+     *         property.
+     *
+     * @see #instancesOrderedByDataProperty(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty, boolean)
+     */
+    public Optional<OWLLiteral> minDataPropertyValue(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        return firstDataPropertyValue(owlClass, property, true);
+    }
+
+    /**
+     * Get the largest numeric or {@code xsd:dateTime} value of a data
+     * property of the members of an OWL class.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     *
+     * @return An {@link Optional} with the largest value or an empty
+     *         {@link Optional} if no member of the class has a value for the
+     *         property.
+     *
+     * @see #instancesOrderedByDataProperty(org.semanticweb.owlapi.model.OWLClass,
+     * org.semanticweb.owlapi.model.OWLDataProperty, boolean)
+     */
+    public Optional<OWLLiteral> maxDataPropertyValue(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        return firstDataPropertyValue(owlClass, property, false);
+    }
+
+    /**
+     * Helper method for retrieving the first value of a data property of the
+     * members of class from the range index.
+     *
+     * @param owlClass  The OWL class.
+     * @param property  The data property.
+     * @param ascending Ascending or descending order?
+     *
+     * @return The first value, if any.
+     */
+    private Optional<OWLLiteral> firstDataPropertyValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean ascending
+    ) {
+        final DataPropertyRangeIndex rangeIndex = getRangeIndex(
+            owlClass, property
+        );
+        final BitSet members = ontologyIndex.getClassMembers(owlClass);
+        return rangeIndex
+            .positions(ascending)
+            .filter(position -> members.get(
+                rangeIndex.getIndividualId(position)
+            ))
+            .mapToObj(rangeIndex::getValue)
+            .findFirst();
+    }
+
+    /**
+     * Helper method for selecting the first {@code limit} members of a class
+     * using a bounded heap. The heap contains the best members found so far,
+     * with the worst of them at the head, so each member is compared with
+     * the head only. Members are ordered by their key in the range index
+     * (the smallest key for ascending, the largest for descending order) and
+     * by their id, like the positions of the range index.
+     *
+     * @param members   The ids of the members of the class.
+     * @param property  The data property.
+     * @param ascending Ascending or descending order?
+     * @param limit     The maximum number of members to return.
+     *
+     * @return The first {@code limit} members in order.
+     */
+    private Stream<OWLNamedIndividual> topMembers(
+        final BitSet members,
+        final OWLDataProperty property,
+        final boolean ascending,
+        final int limit
+    ) {
+        final boolean numeric = ontologyIndex
+            .getNumericRangeIndex(property)
+            .size() > 0;
+        final PrimitiveDataPropertyValues primitiveValues = ontologyIndex
+            .getPrimitiveValues(property);
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+
+        final Comparator<long[]> order;
+        if (ascending) {
+            order = Comparator
+                .<long[]>comparingLong(entry -> entry[0])
+                .thenComparingLong(entry -> entry[1]);
+        } else {
+            order = Comparator
+                .<long[]>comparingLong(entry -> entry[0])
+                .thenComparingLong(entry -> entry[1])
+                .reversed();
+        }
+        final PriorityQueue<long[]> heap = new PriorityQueue<>(
+            Math.max(1, Math.min(limit, members.cardinality())),
+            order.reversed()
+        );
+        for (int id = members.nextSetBit(0);
+             id >= 0 && limit > 0;
+             id = members.nextSetBit(id + 1)) {
+            final LongStream keys;
+            if (numeric) {
+                keys = primitiveValues
+                    .doubleValues(id)
+                    .filter(value -> !Double.isNaN(value))
+                    .mapToLong(DataPropertyRangeIndex::numericKey);
+            } else {
+                keys = Arrays
+                    .stream(valueIndex.getValues(id))
+                    .map(LiteralValues::toKey)
+                    .filter(key -> key instanceof Instant)
+                    .mapToLong(
+                        key -> DataPropertyRangeIndex.temporalKey(
+                            (Instant) key
+                        )
+                    );
+            }
+            final OptionalLong key;
+            if (ascending) {
+                key = keys.min();
+            } else {
+                key = keys.max();
+            }
+            if (!key.isPresent()) {
+                continue;
+            }
+            final long[] entry = new long[]{key.getAsLong(), id};
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (order.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+
+        final List<long[]> result = new ArrayList<>(heap);
+        result.sort(order);
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        return result
+            .stream()
+            .map(entry -> dictionary.getIndividual((int) entry[1]));
+    }
+
+    /**
+     * Helper method for choosing the range index for a property: The numeric
+     * index if the property has numeric values, the temporal index otherwise.
+     *
+     * If the value index of the property is incomplete, the range index is
+     * built from the values of the members of the class entailed by the
+     * reasoner (see {@link #getEntailedRangeIndex(org.semanticweb.owlapi.model.OWLClass, org.semanticweb.owlapi.model.OWLDataProperty, boolean)}).
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     *
+     * @return The range index to use.
+     */
+    private DataPropertyRangeIndex getRangeIndex(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        final DataPropertyRangeIndex numericIndex = getNumericRangeIndex(
+            owlClass, property
+        );
+        if (numericIndex.size() > 0) {
+            return numericIndex;
+        } else {
+            return getTemporalRangeIndex(owlClass, property);
+        }
+    }
+
+    /**
+     * Helper method for getting the numeric range index of a property for
+     * the members of a class.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     *
+     * @return The range index, may contain individuals which are not members
+     *         of the class.
+     */
+    private DataPropertyRangeIndex getNumericRangeIndex(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        if (ontologyIndex.getDataPropertyValueIndex(property).isComplete()) {
+            return ontologyIndex.getNumericRangeIndex(property);
+        } else {
+            return getEntailedRangeIndex(owlClass, property, true);
+        }
+    }
+
+    /**
+     * Helper method for getting the temporal range index of a property for
+     * the members of a class.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     *
+     * @return The range index, may contain individuals which are not members
+     *         of the class.
+     */
+    private DataPropertyRangeIndex getTemporalRangeIndex(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        if (ontologyIndex.getDataPropertyValueIndex(property).isComplete()) {
+            return ontologyIndex.getTemporalRangeIndex(property);
+        } else {
+            return getEntailedRangeIndex(owlClass, property, false);
+        }
+    }
+
+    /**
+     * Helper method for building a range index of the values of a property
+     * for the members of a class entailed by the reasoner. Used if the
+     * reasoner may entail values of the property which are not asserted. The
+     * index is built for a single query and is not cached.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param numeric  Index the numeric ({@code true}) or the temporal
+     *                 ({@code false}) values?
+     *
+     * @return The range index.
+     */
+    private DataPropertyRangeIndex getEntailedRangeIndex(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean numeric
+    ) {
+        return DataPropertyRangeIndex.buildIndex(
+            id -> ontologyIndex.getDataPropertyValues(
+                id, property, QueryDeadline.NONE
+            ),
+            ontologyIndex.getClassMembers(owlClass),
+            numeric
+        );
+    }
+
+    /**
+     * Helper method for looking up the members of a class with a specific
+     * value in the {@link OntologyIndex}.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param key      The key of the value.
+     *
+     * @return The ids of the matching individuals.
+     */
+    private BitSet membersWithValue(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final Object key
+    ) {
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+        if (!valueIndex.isComplete()) {
+            return membersMatching(
+                owlClass,
+                property,
+                literal -> key.equals(LiteralValues.toKey(literal))
+            );
+        }
+        return intersectWithClassMembers(
+            owlClass, valueIndex.getIndividualsWithValue(key)
+        );
+    }
+
+    /**
+     * Helper method for looking up the members of a class with a value with a
+     * specific lexical form in the {@link OntologyIndex}.
+     *
+     * @param owlClass    The OWL class.
+     * @param property    The data property.
+     * @param lexicalForm The lexical form of the value.
+     *
+     * @return The ids of the matching individuals.
+     */
+    private BitSet membersWithLexicalForm(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final String lexicalForm
+    ) {
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(property);
+        if (!valueIndex.isComplete()) {
+            return membersMatching(
+                owlClass,
+                property,
+                literal -> lexicalForm.equals(literal.getLiteral())
+            );
+        }
+        return intersectWithClassMembers(
+            owlClass, valueIndex.getIndividualsWithLexicalForm(lexicalForm)
+        );
+    }
+
+    /**
+     * Helper method for looking up the members of a class with a numeric
+     * value in a range in the {@link OntologyIndex}.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param min      The lower bound (inclusive).
+     * @param max      The upper bound (inclusive).
+     *
+     * @return The ids of the matching individuals.
+     */
+    private BitSet membersInNumericRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final double min,
+        final double max
+    ) {
+        if (Double.isNaN(min) || Double.isNaN(max)) {
+            return new BitSet();
+        }
+        return intersectWithClassMembers(
+            owlClass,
+            getNumericRangeIndex(owlClass, property)
+                .getIndividualsInRange(
+                    DataPropertyRangeIndex.numericKey(min),
+                    DataPropertyRangeIndex.numericKey(max)
+                )
+        );
+    }
+
+    /**
+     * Helper method for looking up the members of a class with a
+     * {@code xsd:dateTime} value in a range in the {@link OntologyIndex}.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param from     The lower bound (inclusive).
+     * @param to       The upper bound (inclusive).
+     *
+     * @return The ids of the matching individuals.
+     */
+    private BitSet membersInTemporalRange(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final OffsetDateTime from,
+        final OffsetDateTime to
+    ) {
+        return intersectWithClassMembers(
+            owlClass,
+            getTemporalRangeIndex(owlClass, property)
+                .getIndividualsInRange(
+                    DataPropertyRangeIndex.temporalKey(from.toInstant()),
+                    DataPropertyRangeIndex.temporalKey(to.toInstant())
+                )
+        );
+    }
+
+    /**
+     * Helper method for finding the members of a class with a value matching
+     * a predicate if the value index of the property is incomplete, because
+     * the reasoner may entail values which are not asserted. The values of
+     * each member are retrieved from the reasoner.
+     *
+     * @param owlClass The OWL class.
+     * @param property The data property.
+     * @param matches  The predicate for the values.
+     *
+     * @return The ids of the members with at least one matching value.
+     */
+    private BitSet membersMatching(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final Predicate<OWLLiteral> matches
+    ) {
+        final BitSet members = ontologyIndex.getClassMembers(owlClass);
+        final BitSet result = new BitSet();
+        for (int id = members.nextSetBit(0);
+             id >= 0;
+             id = members.nextSetBit(id + 1)) {
+            final OWLLiteral[] values = ontologyIndex.getDataPropertyValues(
+                id, property, QueryDeadline.NONE
+            );
+            if (Arrays.stream(values).anyMatch(matches)) {
+                result.set(id);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for intersecting a set of individuals with the members of
+     * a class.
+     *
+     * @param owlClass    The OWL class.
+     * @param individuals The ids of the individuals. The {@link BitSet} is
+     *                    modified by this method.
+     *
+     * @return The ids of the individuals which are members of the class, the
+     *         modified {@link BitSet}.
+     */
+    private BitSet intersectWithClassMembers(
+        final OWLClass owlClass, final BitSet individuals
+    ) {
+        individuals.and(ontologyIndex.getClassMembers(owlClass));
+        return individuals;
+    }
+
+    /**
+     * Helper method for planning the evaluation of a class expression.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return The plan.
+     */
+    private QueryPlan plan(final OWLClassExpression classExpression) {
+        return ontologyIndex.getQueryPlanner().plan(classExpression);
+    }
+
+    /**
+     * Helper method for evaluating a class expression using the index if
+     * possible.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return The ids of the instances of the class expression, or
+     *         {@code null} if the class expression must be passed to the
+     *         reasoner.
+     */
+    private BitSet evaluateFromIndex(
+        final OWLClassExpression classExpression
+    ) {
+        final QueryPlan plan = plan(classExpression);
+        if (plan.isIndexed()) {
+            return plan.evaluate();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Helper method for checking the hard cap of a query.
+     *
+     * @param matches The number of instances matched by the query.
+     * @param options The options of the query.
+     *
+     * @throws ResultLimitExceededException If {@code matches} exceeds the
+     *                                      hard cap.
+     */
+    private void checkMaxResults(
+        final long matches, final QueryOptions options
+    ) {
+        if (matches > options.getMaxResults()) {
+            throw new ResultLimitExceededException(
+                options.getMaxResults(), matches
+            );
+        }
+    }
+
+    /**
+     * Helper method for parsing a DL query in Manchester syntax.
+     *
+     * @param query The query to parse.
+     *
+     * @return The class expression described by the query.
+     */
+    private OWLClassExpression parseClassExpression(final String query) {
+        return parseClassExpression(query, buildEntityChecker());
+    }
+
+    /**
+     * Helper method for parsing a DL query in Manchester syntax using the
+     * provided {@link OWLEntityChecker}.
+     *
+     * @param query         The query to parse.
+     * @param entityChecker The entity checker for resolving the names used
+     *                      in the query.
+     *
+     * @return The class expression described by the query.
+     */
+    OWLClassExpression parseClassExpression(
+        final String query, final OWLEntityChecker entityChecker
+    ) {
+        final ManchesterOWLSyntaxParser parser = OWLManager
+            .createManchesterParser();
+        parser.setDefaultOntology(ontology);
+        parser.setOWLEntityChecker(entityChecker);
+
+        return parser.parseClassExpression(query);
+    }
+
+    /**
+     * Helper method for creating an {@link OWLEntityChecker} which resolves
+     * the short names and the full IRIs of the entities of the ontology and
+     * its imports.
+     *
+     * @return The entity checker.
+     */
+    OWLEntityChecker buildEntityChecker() {
+        final ShortFormProvider shortFormProvider
+                                    = new SimpleShortFormProvider();
+        final Set<OWLOntology> importsClosure = ontology
+            .importsClosure()
+            .collect(Collectors.toSet());
+
+        final BidirectionalShortFormProvider bidiShortformProvider
+                                                 = new BidirectionalShortFormProviderAdapter(
+                ontologyManager,
+                importsClosure,
+                shortFormProvider);
+
+        return new FullIriEntityChecker(
+            ontology, new ShortFormEntityChecker(bidiShortformProvider)
+        );
+    }
+
     /**
      * Helper method for sorting {@link OWLNamedIndividual}s by their IRI.
      *
@@ -0,0 +1,296 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Helper methods for converting literals into keys for the value indexes and
+ * Java values into literals.
+ *
+ * Two literals get the same key if they have the same value in the value space
+ * of their datatypes, for example {@code "1"^^xsd:int} and
+ * {@code "01"^^xsd:integer}. The keys are
+ * <ul>
+ * <li>{@link BigDecimal}s without trailing zeros for {@code xsd:decimal} and
+ * all integer types,</li>
+ * <li>{@link Double}s for {@code xsd:double} and {@code xsd:float},</li>
+ * <li>{@link Boolean}s for {@code xsd:boolean},</li>
+ * <li>{@link Instant}s for {@code xsd:dateTime} and
+ * {@code xsd:dateTimeStamp}. Values without a timezone are interpreted as
+ * UTC,</li>
+ * <li>{@link String}s for {@code xsd:string} and plain literals without a
+ * language tag,</li>
+ * <li>the literal itself for all other literals.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class LiteralValues {
+
+    /**
+     * Datatypes which are mapped to {@link BigDecimal}.
+     */
+    private static final Set<OWL2Datatype> DECIMAL_TYPES = EnumSet.of(
+        OWL2Datatype.XSD_DECIMAL,
+        OWL2Datatype.XSD_INTEGER,
+        OWL2Datatype.XSD_INT,
+        OWL2Datatype.XSD_LONG,
+        OWL2Datatype.XSD_SHORT,
+        OWL2Datatype.XSD_BYTE,
+        OWL2Datatype.XSD_NON_NEGATIVE_INTEGER,
+        OWL2Datatype.XSD_NON_POSITIVE_INTEGER,
+        OWL2Datatype.XSD_POSITIVE_INTEGER,
+        OWL2Datatype.XSD_NEGATIVE_INTEGER,
+        OWL2Datatype.XSD_UNSIGNED_LONG,
+        OWL2Datatype.XSD_UNSIGNED_INT,
+        OWL2Datatype.XSD_UNSIGNED_SHORT,
+        OWL2Datatype.XSD_UNSIGNED_BYTE
+    );
+
+    private LiteralValues() {
+        // Only static helper methods
+    }
+
+    /**
+     * Converts a literal into the key used by the value indexes.
+     *
+     * @param literal The literal.
+     *
+     * @return The key for the literal. If the lexical form of the literal is
+     *         not valid for its datatype the literal itself is used as key.
+     */
+    static Object toKey(final OWLLiteral literal) {
+        final OWLDatatype datatype = literal.getDatatype();
+        if (literal.hasLang()) {
+            return literal;
+        }
+        if (datatype.isString() || datatype.isRDFPlainLiteral()) {
+            return literal.getLiteral();
+        }
+        if (!datatype.isBuiltIn()) {
+            return literal;
+        }
+
+        final OWL2Datatype builtIn = datatype.getBuiltInDatatype();
+        final String lexicalForm = literal.getLiteral().trim();
+        try {
+            if (DECIMAL_TYPES.contains(builtIn)) {
+                return toKey(new BigDecimal(lexicalForm));
+            }
+            switch (builtIn) {
+                case XSD_DOUBLE:
+                case XSD_FLOAT:
+                    return parseDouble(lexicalForm);
+                case XSD_BOOLEAN:
+                    return parseBoolean(literal, lexicalForm);
+                case XSD_DATE_TIME:
+                case XSD_DATE_TIME_STAMP:
+                    return parseDateTime(lexicalForm);
+                default:
+                    return literal;
+            }
+        } catch (NumberFormatException | DateTimeParseException ex) {
+            return literal;
+        }
+    }
+
+    /**
+     * @param value An integer value.
+     *
+     * @return The key for the value.
+     */
+    static Object toKey(final long value) {
+        return toKey(BigDecimal.valueOf(value));
+    }
+
+    /**
+     * @param value A decimal value.
+     *
+     * @return The key for the value.
+     */
+    static Object toKey(final BigDecimal value) {
+        if (value.signum() == 0) {
+            return BigDecimal.ZERO;
+        } else {
+            return value.stripTrailingZeros();
+        }
+    }
+
+    /**
+     * @param value A double value.
+     *
+     * @return The key for the value.
+     */
+    static Object toKey(final double value) {
+        return value;
+    }
+
+    /**
+     * @param value A boolean value.
+     *
+     * @return The key for the value.
+     */
+    static Object toKey(final boolean value) {
+        return value;
+    }
+
+    /**
+     * @param value A date/time value.
+     *
+     * @return The key for the value.
+     */
+    static Object toKey(final OffsetDateTime value) {
+        return value.toInstant();
+    }
+
+    /**
+     * @param value A string value.
+     *
+     * @return The key for the value.
+     */
+    static Object toKey(final String value) {
+        return value;
+    }
+
+    /**
+     * Converts a Java value to a typed literal. Integral numbers are
+     * converted to {@code xsd:integer}, {@link BigDecimal}s to
+     * {@code xsd:decimal}, {@link Double}s to {@code xsd:double},
+     * {@link Float}s to {@code xsd:float}, {@link Boolean}s to
+     * {@code xsd:boolean}, {@link OffsetDateTime}s to {@code xsd:dateTime}
+     * and {@link String}s to {@code xsd:string}. {@link OWLLiteral}s are
+     * returned unchanged.
+     *
+     * @param dataFactory The data factory for creating the literal.
+     * @param value       The value.
+     *
+     * @return The literal, or {@code null} if the type of the value is not
+     *         supported.
+     */
+    static OWLLiteral toLiteral(
+        final OWLDataFactory dataFactory, final Object value
+    ) {
+        if (value instanceof OWLLiteral) {
+            return (OWLLiteral) value;
+        } else if (value instanceof String) {
+            return dataFactory.getOWLLiteral((String) value);
+        } else if (value instanceof Integer
+                       || value instanceof Long
+                       || value instanceof Short
+                       || value instanceof Byte
+                       || value instanceof BigInteger) {
+            return dataFactory.getOWLLiteral(
+                value.toString(), OWL2Datatype.XSD_INTEGER
+            );
+        } else if (value instanceof BigDecimal) {
+            return dataFactory.getOWLLiteral(
+                ((BigDecimal) value).toPlainString(), OWL2Datatype.XSD_DECIMAL
+            );
+        } else if (value instanceof Double) {
+            return dataFactory.getOWLLiteral((Double) value);
+        } else if (value instanceof Float) {
+            return dataFactory.getOWLLiteral((Float) value);
+        } else if (value instanceof Boolean) {
+            return dataFactory.getOWLLiteral((Boolean) value);
+        } else if (value instanceof OffsetDateTime) {
+            return dataFactory.getOWLLiteral(
+                ((OffsetDateTime) value).format(
+                    DateTimeFormatter.ISO_OFFSET_DATE_TIME
+                ),
+                OWL2Datatype.XSD_DATE_TIME
+            );
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Parses the lexical form of a {@code xsd:double} or {@code xsd:float}.
+     * In contrast to {@link Double#parseDouble(java.lang.String)} the special
+     * values {@code INF} and {@code -INF} are supported.
+     *
+     * @param lexicalForm The lexical form.
+     *
+     * @return The value.
+     */
+    static double parseDouble(final String lexicalForm) {
+        switch (lexicalForm) {
+            case "INF":
+            case "+INF":
+                return Double.POSITIVE_INFINITY;
+            case "-INF":
+                return Double.NEGATIVE_INFINITY;
+            default:
+                return Double.parseDouble(lexicalForm);
+        }
+    }
+
+    /**
+     * Parses the lexical form of a {@code xsd:dateTime}.
+     *
+     * @param lexicalForm The lexical form.
+     *
+     * @return The point in time. If the value has no timezone UTC is assumed.
+     */
+    static Instant parseDateTime(final String lexicalForm) {
+        try {
+            return OffsetDateTime.parse(lexicalForm).toInstant();
+        } catch (DateTimeParseException ex) {
+            return LocalDateTime.parse(lexicalForm).toInstant(ZoneOffset.UTC);
+        }
+    }
+
+    /**
+     * Helper method for parsing the lexical form of a {@code xsd:boolean}.
+     *
+     * @param literal     The literal.
+     * @param lexicalForm The lexical form.
+     *
+     * @return The value as {@link Boolean} or the literal if the lexical form
+     *         is invalid.
+     */
+    private static Object parseBoolean(
+        final OWLLiteral literal, final String lexicalForm
+    ) {
+        switch (lexicalForm) {
+            case "true":
+            case "1":
+                return Boolean.TRUE;
+            case "false":
+            case "0":
+                return Boolean.FALSE;
+            default:
+                return literal;
+        }
+    }
+
+}
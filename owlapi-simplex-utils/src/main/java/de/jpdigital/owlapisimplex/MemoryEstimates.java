@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import java.util.BitSet;
+import java.util.Map;
+
+/**
+ * Helper methods for estimating the memory used by the indexes of the
+ * {@link OntologyIndex}. The estimates assume a 64 bit JVM without
+ * compressed references and are not exact, but good enough to compare the
+ * size of the indexes and to watch their growth.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class MemoryEstimates {
+
+    /**
+     * Size of an object header.
+     */
+    static final long OBJECT_HEADER = 16;
+
+    /**
+     * Size of a reference.
+     */
+    static final long REFERENCE = 8;
+
+    /**
+     * Estimated size of an entry of a hash map, including the key object.
+     */
+    static final long MAP_ENTRY = 2 * OBJECT_HEADER + 4 * REFERENCE + 16;
+
+    private MemoryEstimates() {
+        // Only static helper methods
+    }
+
+    /**
+     * @param length The length of an array of references.
+     *
+     * @return The estimated size of the array.
+     */
+    static long array(final int length) {
+        return OBJECT_HEADER + length * REFERENCE;
+    }
+
+    /**
+     * @param length The length of an {@code int} array.
+     *
+     * @return The estimated size of the array.
+     */
+    static long intArray(final int length) {
+        return OBJECT_HEADER + length * 4L;
+    }
+
+    /**
+     * @param length The length of a {@code long} array.
+     *
+     * @return The estimated size of the array.
+     */
+    static long longArray(final int length) {
+        return OBJECT_HEADER + length * 8L;
+    }
+
+    /**
+     * @param bitSet A {@link BitSet}.
+     *
+     * @return The estimated size of the {@link BitSet}.
+     */
+    static long bitSet(final BitSet bitSet) {
+        return OBJECT_HEADER + REFERENCE + 8 + longArray(bitSet.size() / 64);
+    }
+
+    /**
+     * @param entries The number of entries of a hash map.
+     *
+     * @return The estimated size of the map without the values.
+     */
+    static long map(final int entries) {
+        return OBJECT_HEADER + array(entries * 4 / 3 + 1) + entries * MAP_ENTRY;
+    }
+
+    /**
+     * @param map A map with {@link BitSet}s as values.
+     *
+     * @return The estimated size of the map and the {@link BitSet}s.
+     */
+    static long bitSetMap(final Map<?, BitSet> map) {
+        final long bitSets = map
+            .values()
+            .stream()
+            .mapToLong(MemoryEstimates::bitSet)
+            .sum();
+        return map(map.size()) + bitSets;
+    }
+
+}
@@ -17,14 +17,21 @@
 package de.jpdigital.owlapisimplex;
 
 import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLNamedIndividual;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -44,24 +51,37 @@ public class ObjectProperties {
      */
     private final OWLReasoner reasoner;
 
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
     /**
      * Creates a new instance.
      *
-     * @param ontology        The ontology to use.
      * @param ontologyManager The ontology manager.
      * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
      */
     private ObjectProperties(
         final OWLOntologyManager ontologyManager,
-        final OWLReasoner reasoner
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
     ) {
         this.ontologyManager = ontologyManager;
         this.reasoner = reasoner;
+        this.ontologyIndex = ontologyIndex;
     }
 
     /**
      * Factory method for generating new instances of {@code ObjectProperties}.
      *
+     * The returned instance uses the {@link OntologyIndex} shared by all
+     * utility classes created for the reasoner without an index, therefore
+     * repeated calls don't create additional indexes. The index is kept
+     * while it is used by a utility class and can be closed explicitly using
+     * {@link OntologyIndex#closeSharedOntologyIndex(OWLReasoner)}.
+     *
      * @param ontologyManager The ontology manager.
      * @param reasoner        The reasoner.
      *
@@ -74,7 +94,33 @@ public class ObjectProperties {
         Objects.requireNonNull(ontologyManager);
         Objects.requireNonNull(reasoner);
 
-        return new ObjectProperties(ontologyManager, reasoner);
+        return new ObjectProperties(
+            ontologyManager,
+            reasoner,
+            OntologyIndex.getSharedOntologyIndex(reasoner)
+        );
+    }
+
+    /**
+     * Factory method for generating new instances of {@code ObjectProperties}
+     * which share an {@link OntologyIndex} with other utility classes.
+     *
+     * @param ontologyManager The ontology manager.
+     * @param reasoner        The reasoner.
+     * @param ontologyIndex   The materialized state of the ontology.
+     *
+     * @return A {@code ObjectProperties} instance.
+     */
+    public static ObjectProperties buildObjectProperties(
+        final OWLOntologyManager ontologyManager,
+        final OWLReasoner reasoner,
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(reasoner);
+        Objects.requireNonNull(ontologyIndex);
+
+        return new ObjectProperties(ontologyManager, reasoner, ontologyIndex);
     }
 
     /**
@@ -94,7 +140,81 @@ public class ObjectProperties {
             .getOWLDataFactory()
             .getOWLObjectProperty(propertyIri);
 
-        return reasoner.objectPropertyValues(fromIndividual, property);
+        return objectPropertyValues(fromIndividual, property);
+    }
+
+    /**
+     * Get the values of an object property for an individual as {@link Stream}.
+     *
+     * This variant avoids the lookup of the property using the
+     * {@link org.semanticweb.owlapi.model.OWLDataFactory} and should be
+     * preferred if the property is already available, for example as
+     * constant generated by owlapi-simplex.
+     *
+     * The values are read from the adjacency index of the property in the
+     * {@link OntologyIndex}, which includes the assertions of the
+     * sub-properties and of the inverse properties of the property. If the
+     * reasoner may entail additional values, for example for a transitive
+     * property or a property used in a property chain, the values are
+     * retrieved from the reasoner.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     *
+     * @return A {@link Stream} of the values of the object property.
+     */
+    public Stream<OWLNamedIndividual> objectPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property
+    ) {
+        return objectPropertyValues(
+            fromIndividual, property, QueryDeadline.NONE
+        );
+    }
+
+    /**
+     * Get the values of an object property for an individual as
+     * {@link Stream} with a deadline. If the values are retrieved from the
+     * reasoner, the reasoner is interrupted when the deadline passes or the
+     * query is cancelled.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     * @param deadline       The deadline of the query.
+     *
+     * @return A {@link Stream} of the values of the object property.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public Stream<OWLNamedIndividual> objectPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property,
+        final QueryDeadline deadline
+    ) {
+        Objects.requireNonNull(deadline);
+
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        guard.check(deadline);
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int id = dictionary.getId(fromIndividual);
+        final ObjectPropertyGraph graph = ontologyIndex
+            .getObjectPropertyGraph(property);
+        if (id < 0 || !graph.isComplete()) {
+            return guard.checked(
+                deadline,
+                guard.call(
+                    deadline,
+                    () -> reasoner.objectPropertyValues(
+                        fromIndividual, property
+                    )
+                )
+            );
+        }
+        return guard.checked(
+            deadline,
+            graph.successors(id).mapToObj(dictionary::getIndividual)
+        );
     }
 
     /**
@@ -113,4 +233,566 @@ public class ObjectProperties {
             .collect(Collectors.toList());
     }
 
+    /**
+     * Get the values of an object property for an individual as {@link List}.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     *
+     * @return A {@link List} of the values of the object property.
+     */
+    public List<OWLNamedIndividual> getObjectPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property
+    ) {
+        return objectPropertyValues(fromIndividual, property)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the values of an object property for an individual as {@link List}
+     * with a deadline.
+     *
+     * @param fromIndividual The individual from which the values are read.
+     * @param property       The property which values are read.
+     * @param deadline       The deadline of the query.
+     *
+     * @return A {@link List} of the values of the object property.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public List<OWLNamedIndividual> getObjectPropertyValues(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property,
+        final QueryDeadline deadline
+    ) {
+        return objectPropertyValues(fromIndividual, property, deadline)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation) as {@link Stream}.
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param propertyIri  The IRI of the property.
+     *
+     * @return A {@link Stream} of the individuals pointing to the individual.
+     */
+    public Stream<OWLNamedIndividual> inverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final IRI propertyIri
+    ) {
+        final OWLObjectProperty property = ontologyManager
+            .getOWLDataFactory()
+            .getOWLObjectProperty(propertyIri);
+
+        return inverseObjectPropertyValues(toIndividual, property);
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation) as {@link Stream}.
+     *
+     * The individuals are read from the adjacency index of the property in
+     * the {@link OntologyIndex}, which stores the assertions of the property
+     * in both directions. Assertions of the sub-properties and of the
+     * declared inverse properties are included. Therefore the reverse
+     * navigation requires no call of the reasoner and has the same cost
+     * whether or not an inverse property is declared in the ontology. Only if
+     * the reasoner may entail additional values, for example for a transitive
+     * property, the values of the inverse of the property are retrieved from
+     * the reasoner.
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param property     The property.
+     *
+     * @return A {@link Stream} of the individuals pointing to the individual,
+     *         ordered by their IRI.
+     */
+    public Stream<OWLNamedIndividual> inverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property
+    ) {
+        return inverseObjectPropertyValues(
+            toIndividual, property, QueryDeadline.NONE
+        );
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation) as {@link Stream} with a
+     * deadline. If the individuals are retrieved from the reasoner, the
+     * reasoner is interrupted when the deadline passes or the query is
+     * cancelled.
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param property     The property.
+     * @param deadline     The deadline of the query.
+     *
+     * @return A {@link Stream} of the individuals pointing to the individual,
+     *         ordered by their IRI.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public Stream<OWLNamedIndividual> inverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property,
+        final QueryDeadline deadline
+    ) {
+        Objects.requireNonNull(deadline);
+
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        guard.check(deadline);
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int id = dictionary.getId(toIndividual);
+        final ObjectPropertyGraph graph = ontologyIndex
+            .getObjectPropertyGraph(property);
+        if (id < 0 || !graph.isComplete()) {
+            return guard.checked(
+                deadline,
+                guard
+                    .call(
+                        deadline,
+                        () -> reasoner.objectPropertyValues(
+                            toIndividual, property.getInverseProperty()
+                        )
+                    )
+                    .sorted(
+                        (individual1, individual2) -> individual1
+                            .getIRI()
+                            .toString()
+                            .compareTo(individual2.getIRI().toString())
+                    )
+            );
+        }
+        return guard.checked(
+            deadline,
+            graph.predecessors(id).mapToObj(dictionary::getIndividual)
+        );
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation) as {@link List}.
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param propertyIri  The IRI of the property.
+     *
+     * @return A {@link List} of the individuals pointing to the individual.
+     */
+    public List<OWLNamedIndividual> getInverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final IRI propertyIri
+    ) {
+        return inverseObjectPropertyValues(toIndividual, propertyIri)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation) as {@link List}.
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param property     The property.
+     *
+     * @return A {@link List} of the individuals pointing to the individual.
+     */
+    public List<OWLNamedIndividual> getInverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property
+    ) {
+        return inverseObjectPropertyValues(toIndividual, property)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the individuals which have a specific individual as value of an
+     * object property (reverse navigation) as {@link List} with a deadline.
+     *
+     * @param toIndividual The individual used as value of the property.
+     * @param property     The property.
+     * @param deadline     The deadline of the query.
+     *
+     * @return A {@link List} of the individuals pointing to the individual.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    public List<OWLNamedIndividual> getInverseObjectPropertyValues(
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property,
+        final QueryDeadline deadline
+    ) {
+        return inverseObjectPropertyValues(toIndividual, property, deadline)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get all individuals reachable from an individual by following an object
+     * property one or more times (transitive closure).
+     *
+     * The traversal uses the adjacency index of the property in the
+     * {@link OntologyIndex}, which is built from the object property
+     * assertions of the ontology, and requires no call of the reasoner. The
+     * closures of the most recently used start individuals are memoized. If
+     * the reasoner may entail values of the property which are not asserted
+     * (see {@link ObjectPropertyGraph#isComplete()}), the values of each
+     * individual reached are retrieved from the reasoner instead, and the
+     * closure is not memoized.
+     *
+     * @param fromIndividual The start individual.
+     * @param property       The property to follow.
+     *
+     * @return A {@link Stream} of the reachable individuals, ordered by their
+     *         IRI. The start individual is only included if it is part of a
+     *         cycle.
+     */
+    public Stream<OWLNamedIndividual> transitiveClosure(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property
+    ) {
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int from = dictionary.getId(fromIndividual);
+        return dictionary.individuals(
+            getTraversalGraph(from, property, Integer.MAX_VALUE)
+                .getClosure(from)
+        );
+    }
+
+    /**
+     * Get all individuals reachable from an individual by following an object
+     * property one or more times (transitive closure).
+     *
+     * @param fromIndividual The start individual.
+     * @param property       The property to follow.
+     *
+     * @return A {@link List} of the reachable individuals.
+     *
+     * @see #transitiveClosure(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLObjectProperty)
+     */
+    public List<OWLNamedIndividual> getTransitiveClosure(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property
+    ) {
+        return transitiveClosure(fromIndividual, property)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Get the individuals reachable from an individual by following an object
+     * property at most {@code maxHops} times (breadth first search). Like
+     * {@link #transitiveClosure(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLObjectProperty)}
+     * this method uses the reasoner if it may entail values of the property
+     * which are not asserted.
+     *
+     * @param fromIndividual The start individual.
+     * @param property       The property to follow.
+     * @param maxHops        The maximum number of hops.
+     * @param maxResults     The maximum number of individuals to return. The
+     *                       search stops when the limit is reached.
+     *
+     * @return A {@link Stream} of the reachable individuals, ordered by their
+     *         distance from the start individual.
+     *
+     * @throws IllegalArgumentException If {@code maxHops} or
+     *                                  {@code maxResults} is negative.
+     *
+     * @see #transitiveClosure(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLObjectProperty)
+     */
+    public Stream<OWLNamedIndividual> reachableWithin(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property,
+        final int maxHops,
+        final int maxResults
+    ) {
+        checkLimit("maxHops", maxHops);
+        checkLimit("maxResults", maxResults);
+
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int from = dictionary.getId(fromIndividual);
+        return Arrays
+            .stream(
+                getTraversalGraph(from, property, maxHops)
+                    .breadthFirstSearch(from, maxHops, maxResults)
+            )
+            .mapToObj(dictionary::getIndividual);
+    }
+
+    /**
+     * Get the individuals reachable from an individual by following an object
+     * property at most {@code maxHops} times (breadth first search).
+     *
+     * @param fromIndividual The start individual.
+     * @param property       The property to follow.
+     * @param maxHops        The maximum number of hops.
+     * @param maxResults     The maximum number of individuals to return.
+     *
+     * @return A {@link List} of the reachable individuals, ordered by their
+     *         distance from the start individual.
+     *
+     * @see #reachableWithin(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLObjectProperty, int, int)
+     */
+    public List<OWLNamedIndividual> getReachableWithin(
+        final OWLNamedIndividual fromIndividual,
+        final OWLObjectProperty property,
+        final int maxHops,
+        final int maxResults
+    ) {
+        return reachableWithin(fromIndividual, property, maxHops, maxResults)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds a shortest path between two individuals following an object
+     * property.
+     *
+     * @param fromIndividual The start individual.
+     * @param toIndividual   The target individual.
+     * @param property       The property to follow.
+     *
+     * @return An {@link Optional} with the individuals on the path, including
+     *         the start and the target individual, or an empty
+     *         {@link Optional} if there is no path.
+     *
+     * @see #shortestPath(org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLNamedIndividual,
+     * org.semanticweb.owlapi.model.OWLObjectProperty, int)
+     */
+    public Optional<List<OWLNamedIndividual>> shortestPath(
+        final OWLNamedIndividual fromIndividual,
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property
+    ) {
+        return shortestPath(
+            fromIndividual, toIndividual, property, Integer.MAX_VALUE
+        );
+    }
+
+    /**
+     * Finds a shortest path between two individuals following an object
+     * property. Like
+     * {@link #transitiveClosure(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLObjectProperty)}
+     * this method uses the reasoner if it may entail values of the property
+     * which are not asserted.
+     *
+     * @param fromIndividual The start individual.
+     * @param toIndividual   The target individual.
+     * @param property       The property to follow.
+     * @param maxDepth       The maximum length of the path (number of hops).
+     *
+     * @return An {@link Optional} with the individuals on the path, including
+     *         the start and the target individual, or an empty
+     *         {@link Optional} if there is no path with at most
+     *         {@code maxDepth} hops.
+     *
+     * @throws IllegalArgumentException If {@code maxDepth} is negative.
+     */
+    public Optional<List<OWLNamedIndividual>> shortestPath(
+        final OWLNamedIndividual fromIndividual,
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property,
+        final int maxDepth
+    ) {
+        checkLimit("maxDepth", maxDepth);
+
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int from = dictionary.getId(fromIndividual);
+        final int[] path = getTraversalGraph(from, property, maxDepth)
+            .shortestPath(from, dictionary.getId(toIndividual), maxDepth);
+        if (path == null) {
+            return Optional.empty();
+        }
+        return Optional.of(
+            Arrays
+                .stream(path)
+                .mapToObj(dictionary::getIndividual)
+                .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Checks if an individual is reachable from another individual by
+     * following an object property one or more times. The check uses the
+     * memoized transitive closure of the start individual. Like
+     * {@link #transitiveClosure(org.semanticweb.owlapi.model.OWLNamedIndividual, org.semanticweb.owlapi.model.OWLObjectProperty)}
+     * this method uses the reasoner if it may entail values of the property
+     * which are not asserted.
+     *
+     * @param fromIndividual The start individual.
+     * @param toIndividual   The target individual.
+     * @param property       The property to follow.
+     *
+     * @return {@code true} if {@code toIndividual} is reachable from
+     *         {@code fromIndividual}, {@code false} otherwise.
+     */
+    public boolean isReachable(
+        final OWLNamedIndividual fromIndividual,
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property
+    ) {
+        return isReachable(
+            fromIndividual, toIndividual, property, Integer.MAX_VALUE
+        );
+    }
+
+    /**
+     * Checks if an individual is reachable from another individual by
+     * following an object property at most {@code maxDepth} times.
+     *
+     * @param fromIndividual The start individual.
+     * @param toIndividual   The target individual.
+     * @param property       The property to follow.
+     * @param maxDepth       The maximum number of hops.
+     *
+     * @return {@code true} if {@code toIndividual} is reachable from
+     *         {@code fromIndividual} within {@code maxDepth} hops,
+     *         {@code false} otherwise.
+     *
+     * @throws IllegalArgumentException If {@code maxDepth} is negative.
+     */
+    public boolean isReachable(
+        final OWLNamedIndividual fromIndividual,
+        final OWLNamedIndividual toIndividual,
+        final OWLObjectProperty property,
+        final int maxDepth
+    ) {
+        checkLimit("maxDepth", maxDepth);
+
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int from = dictionary.getId(fromIndividual);
+        return getTraversalGraph(from, property, maxDepth)
+            .isReachable(from, dictionary.getId(toIndividual), maxDepth);
+    }
+
+    /**
+     * Publishes the values of an object property for all members of a class
+     * with backpressure, for example for exporting the values. Each value is
+     * emitted as an object property assertion. The members are emitted in
+     * the order of their IRI.
+     *
+     * The members of the class and the values are read from the
+     * {@link OntologyIndex} as the subscriber requests them, so the memory
+     * required for publishing does not depend on the size of the class. If
+     * the reasoner may entail additional values of the property, the values
+     * of each member are retrieved from the reasoner when the member is
+     * reached.
+     *
+     * @param owlClass The class.
+     * @param property The object property.
+     *
+     * @return A publisher for the values of the property.
+     */
+    public ResultFlow.Publisher<OWLObjectPropertyAssertionAxiom> publishObjectPropertyValues(
+        final OWLClass owlClass, final OWLObjectProperty property
+    ) {
+        Objects.requireNonNull(owlClass);
+        Objects.requireNonNull(property);
+
+        final OWLDataFactory dataFactory = ontologyManager.getOWLDataFactory();
+        return new StreamPublisher<>(
+            () -> ontologyIndex
+                .getDictionary()
+                .individuals(ontologyIndex.getClassMembers(owlClass))
+                .flatMap(
+                    individual -> objectPropertyValues(individual, property)
+                        .map(
+                            value -> dataFactory
+                                .getOWLObjectPropertyAssertionAxiom(
+                                    property, individual, value
+                                )
+                        )
+                )
+        );
+    }
+
+    /**
+     * Helper method for checking the limits passed to the traversal methods.
+     *
+     * @param name  The name of the parameter.
+     * @param value The value of the parameter.
+     *
+     * @throws IllegalArgumentException If the value is negative.
+     */
+    /**
+     * Helper method for getting the graph used for a traversal starting at
+     * an individual. If the graph of the property in the
+     * {@link OntologyIndex} is complete, it is used. Otherwise the part of
+     * the graph reachable from the start individual within {@code maxHops}
+     * hops is built from the values entailed by the reasoner. This graph is
+     * built for a single traversal and is not cached.
+     *
+     * @param from     The id of the start individual.
+     * @param property The property to follow.
+     * @param maxHops  The maximum number of hops of the traversal.
+     *
+     * @return The graph for the traversal.
+     */
+    private ObjectPropertyGraph getTraversalGraph(
+        final int from, final OWLObjectProperty property, final int maxHops
+    ) {
+        final ObjectPropertyGraph graph = ontologyIndex.getObjectPropertyGraph(
+            property
+        );
+        if (from < 0 || graph.isComplete()) {
+            return graph;
+        }
+
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final ReasonerGuard guard = ontologyIndex.getReasonerGuard();
+        final IntStream.Builder edgeSources = IntStream.builder();
+        final IntStream.Builder edgeTargets = IntStream.builder();
+        final BitSet visited = new BitSet(dictionary.size());
+        visited.set(from);
+        int[] frontier = {from};
+        for (int hop = 0; hop < maxHops && frontier.length > 0; hop++) {
+            final IntStream.Builder next = IntStream.builder();
+            for (final int node : frontier) {
+                final OWLNamedIndividual individual = dictionary
+                    .getIndividual(node);
+                final int[] successors = guard
+                    .call(
+                        QueryDeadline.NONE,
+                        () -> reasoner.objectPropertyValues(
+                            individual, property
+                        )
+                    )
+                    .mapToInt(dictionary::getId)
+                    .filter(id -> id >= 0)
+                    .toArray();
+                for (final int successor : successors) {
+                    edgeSources.add(node);
+                    edgeTargets.add(successor);
+                    if (!visited.get(successor)) {
+                        visited.set(successor);
+                        next.add(successor);
+                    }
+                }
+            }
+            frontier = next.build().toArray();
+        }
+
+        return new ObjectPropertyGraph(
+            property,
+            graph.getSourceProperties(),
+            true,
+            dictionary.size(),
+            edgeSources.build().toArray(),
+            edgeTargets.build().toArray()
+        );
+    }
+
+    private static void checkLimit(final String name, final int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(
+                String.format("%s must not be negative.", name)
+            );
+        }
+    }
+
 }
@@ -0,0 +1,517 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Adjacency index of a single object property. The individuals are the nodes
+ * of the graph, each object property assertion is an edge from the subject
+ * to the object. Assertions of the sub-properties of the property are edges
+ * of the graph, assertions of the inverse properties are edges in the
+ * opposite direction.
+ *
+ * The edges are stored twice, in forward (successors) and in inverse
+ * direction (predecessors), so navigating the property backwards costs the
+ * same as navigating it forwards, regardless of whether an inverse property
+ * is declared in the ontology. Both directions use a compressed layout: The
+ * sorted ids of the successors of all nodes are stored in a single array, the
+ * successors of the node {@code i} are found at the positions
+ * {@code successorOffsets[i]} (inclusive) to {@code successorOffsets[i + 1]}
+ * (exclusive). The same layout is used for the predecessors.
+ *
+ * The graph provides the basic traversal operations used by
+ * {@link ObjectProperties}. The transitive closures of the most recently used
+ * start nodes are memoized.
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}. They are immutable except for the closure cache,
+ * which is synchronized.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class ObjectPropertyGraph {
+
+    /**
+     * Maximum number of memoized closures.
+     */
+    static final int CLOSURE_CACHE_SIZE = 256;
+
+    /**
+     * Marker for unvisited nodes.
+     */
+    private static final int UNVISITED = -1;
+
+    /**
+     * The property of the graph.
+     */
+    private final OWLObjectProperty property;
+
+    /**
+     * The properties from which assertions were used to build the graph.
+     */
+    private final Set<OWLObjectProperty> sourceProperties;
+
+    /**
+     * Are all values of the property covered by the edges of the graph?
+     */
+    private final boolean complete;
+
+    /**
+     * The start positions of the successors of each node in
+     * {@link #successorIds}.
+     */
+    private final int[] successorOffsets;
+
+    /**
+     * The successors of all nodes.
+     */
+    private final int[] successorIds;
+
+    /**
+     * The start positions of the predecessors of each node in
+     * {@link #predecessorIds}.
+     */
+    private final int[] predecessorOffsets;
+
+    /**
+     * The predecessors of all nodes.
+     */
+    private final int[] predecessorIds;
+
+    /**
+     * The memoized closures, in access order.
+     */
+    private final Map<Integer, BitSet> closures;
+
+    /**
+     * Creates a graph.
+     *
+     * @param property         The property.
+     * @param sourceProperties The properties from which assertions were used
+     *                         to build the graph.
+     * @param complete         Are all values of the property covered by the
+     *                         edges of the graph?
+     * @param nodeCount        The number of nodes.
+     * @param edgeSources      The source nodes of the edges.
+     * @param edgeTargets      The target nodes of the edges, the target of
+     *                         the edge {@code i} is
+     *                         {@code edgeTargets[i]}. Duplicate edges are
+     *                         ignored.
+     */
+    ObjectPropertyGraph(
+        final OWLObjectProperty property,
+        final Set<OWLObjectProperty> sourceProperties,
+        final boolean complete,
+        final int nodeCount,
+        final int[] edgeSources,
+        final int[] edgeTargets
+    ) {
+        this.property = property;
+        this.sourceProperties = Collections.unmodifiableSet(sourceProperties);
+        this.complete = complete;
+        successorOffsets = new int[nodeCount + 1];
+        successorIds = buildAdjacency(
+            nodeCount, edgeSources, edgeTargets, successorOffsets
+        );
+        predecessorOffsets = new int[nodeCount + 1];
+        predecessorIds = buildAdjacency(
+            nodeCount, edgeTargets, edgeSources, predecessorOffsets
+        );
+        closures = new LinkedHashMap<Integer, BitSet>(16, 0.75f, true) {
+
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                final Map.Entry<Integer, BitSet> eldest
+            ) {
+                return size() > CLOSURE_CACHE_SIZE;
+            }
+
+        };
+    }
+
+    /**
+     * @return The property of the graph.
+     */
+    OWLObjectProperty getProperty() {
+        return property;
+    }
+
+    /**
+     * @return The properties from which assertions were used to build the
+     *         graph.
+     */
+    Set<OWLObjectProperty> getSourceProperties() {
+        return sourceProperties;
+    }
+
+    /**
+     * @return {@code true} if the edges of the graph are all values of the
+     *         property, {@code false} if the reasoner may entail additional
+     *         values, for example for a transitive property.
+     */
+    boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return The number of nodes of the graph.
+     */
+    int size() {
+        return successorOffsets.length - 1;
+    }
+
+    /**
+     * @return The number of edges of the graph.
+     */
+    int getEdgeCount() {
+        return successorIds.length;
+    }
+
+    /**
+     * Get the direct successors of a node.
+     *
+     * @param node The id of the node.
+     *
+     * @return The sorted ids of the successors.
+     */
+    IntStream successors(final int node) {
+        if (node < 0 || node >= size()) {
+            return IntStream.empty();
+        } else {
+            return Arrays.stream(
+                successorIds, successorOffsets[node], successorOffsets[node + 1]
+            );
+        }
+    }
+
+    /**
+     * Get the direct predecessors of a node.
+     *
+     * @param node The id of the node.
+     *
+     * @return The sorted ids of the predecessors.
+     */
+    IntStream predecessors(final int node) {
+        if (node < 0 || node >= size()) {
+            return IntStream.empty();
+        } else {
+            return Arrays.stream(
+                predecessorIds,
+                predecessorOffsets[node],
+                predecessorOffsets[node + 1]
+            );
+        }
+    }
+
+    /**
+     * Get all nodes reachable from a node by one or more edges. The result is
+     * memoized.
+     *
+     * @param node The id of the start node.
+     *
+     * @return The ids of the reachable nodes. The returned {@link BitSet} is
+     *         shared and must not be modified.
+     */
+    BitSet getClosure(final int node) {
+        synchronized (closures) {
+            final BitSet closure = closures.get(node);
+            if (closure != null) {
+                return closure;
+            }
+        }
+        final BitSet closure = new BitSet(size());
+        if (node >= 0) {
+            final int[] queue = new int[size()];
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = node;
+            while (head < tail) {
+                final int current = queue[head++];
+                for (int i = successorOffsets[current];
+                     i < successorOffsets[current + 1];
+                     i++) {
+                    final int successor = successorIds[i];
+                    if (!closure.get(successor)) {
+                        closure.set(successor);
+                        queue[tail++] = successor;
+                    }
+                }
+            }
+        }
+        synchronized (closures) {
+            closures.put(node, closure);
+        }
+        return closure;
+    }
+
+    /**
+     * Breadth first search starting at a node.
+     *
+     * @param node       The id of the start node.
+     * @param maxHops    The maximum number of edges to follow.
+     * @param maxResults The maximum number of nodes to return.
+     *
+     * @return The ids of the nodes reachable within {@code maxHops} edges,
+     *         excluding the start node (unless it is part of a cycle), in the
+     *         order of their distance from the start node.
+     */
+    int[] breadthFirstSearch(
+        final int node, final int maxHops, final int maxResults
+    ) {
+        if (node < 0 || maxHops == 0 || maxResults == 0) {
+            return new int[0];
+        }
+        final BitSet visited = new BitSet(size());
+        int[] result = new int[Math.min(16, maxResults)];
+        int count = 0;
+        int levelStart = 0;
+        int hops = 0;
+        // The first level are the direct successors of the start node.
+        for (int i = successorOffsets[node];
+             i < successorOffsets[node + 1];
+             i++) {
+            final int successor = successorIds[i];
+            if (count == maxResults) {
+                return Arrays.copyOf(result, count);
+            }
+            visited.set(successor);
+            result = ensureCapacity(result, count, maxResults);
+            result[count++] = successor;
+        }
+        hops++;
+        while (hops < maxHops && levelStart < count) {
+            final int levelEnd = count;
+            for (int i = levelStart; i < levelEnd; i++) {
+                for (int j = successorOffsets[result[i]];
+                     j < successorOffsets[result[i] + 1];
+                     j++) {
+                    final int successor = successorIds[j];
+                    if (visited.get(successor)) {
+                        continue;
+                    }
+                    if (count == maxResults) {
+                        return Arrays.copyOf(result, count);
+                    }
+                    visited.set(successor);
+                    result = ensureCapacity(result, count, maxResults);
+                    result[count++] = successor;
+                }
+            }
+            levelStart = levelEnd;
+            hops++;
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Finds a shortest path between two nodes.
+     *
+     * @param from     The id of the start node.
+     * @param to       The id of the target node.
+     * @param maxDepth The maximum length of the path (number of edges).
+     *
+     * @return The ids of the nodes on the path, including the start and the
+     *         target node, or {@code null} if there is no path with at most
+     *         {@code maxDepth} edges.
+     */
+    int[] shortestPath(final int from, final int to, final int maxDepth) {
+        if (from < 0 || to < 0) {
+            return null;
+        }
+        final int[] predecessors = new int[size()];
+        Arrays.fill(predecessors, UNVISITED);
+        final int[] queue = new int[size()];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = from;
+        // Mark the start node as visited. For a path from a node to itself
+        // the start node is found again as successor.
+        predecessors[from] = from;
+        int depth = 0;
+        while (head < tail && depth < maxDepth) {
+            final int levelEnd = tail;
+            while (head < levelEnd) {
+                final int current = queue[head++];
+                for (int i = successorOffsets[current];
+                     i < successorOffsets[current + 1];
+                     i++) {
+                    final int successor = successorIds[i];
+                    if (successor == to) {
+                        return buildPath(predecessors, from, current, to);
+                    }
+                    if (predecessors[successor] == UNVISITED) {
+                        predecessors[successor] = current;
+                        queue[tail++] = successor;
+                    }
+                }
+            }
+            depth++;
+        }
+        return null;
+    }
+
+    /**
+     * Checks if a node is reachable from another node.
+     *
+     * @param from     The id of the start node.
+     * @param to       The id of the target node.
+     * @param maxDepth The maximum number of edges to follow.
+     *
+     * @return {@code true} if there is a path from {@code from} to
+     *         {@code to} with at least one and at most {@code maxDepth}
+     *         edges.
+     */
+    boolean isReachable(final int from, final int to, final int maxDepth) {
+        if (from < 0 || to < 0) {
+            return false;
+        }
+        if (maxDepth == Integer.MAX_VALUE) {
+            return getClosure(from).get(to);
+        }
+        synchronized (closures) {
+            final BitSet closure = closures.get(from);
+            if (closure != null && !closure.get(to)) {
+                return false;
+            }
+        }
+        return shortestPath(from, to, maxDepth) != null;
+    }
+
+    /**
+     * Estimates the memory used by the graph, including the memoized
+     * closures.
+     *
+     * @return The estimated size in bytes.
+     */
+    long estimateMemoryUsage() {
+        long result = MemoryEstimates.intArray(successorOffsets.length)
+                          + MemoryEstimates.intArray(successorIds.length)
+                          + MemoryEstimates.intArray(predecessorOffsets.length)
+                          + MemoryEstimates.intArray(predecessorIds.length);
+        synchronized (closures) {
+            result += MemoryEstimates.bitSetMap(closures);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for building the compressed adjacency lists of one
+     * direction.
+     *
+     * @param nodeCount The number of nodes.
+     * @param sources   The source nodes of the edges.
+     * @param targets   The target nodes of the edges.
+     * @param offsets   Array of length {@code nodeCount + 1} to fill with the
+     *                  start positions of the adjacency lists.
+     *
+     * @return The sorted, duplicate free adjacency lists of all nodes.
+     */
+    private static int[] buildAdjacency(
+        final int nodeCount,
+        final int[] sources,
+        final int[] targets,
+        final int[] offsets
+    ) {
+        // Counting sort of the edges by their source node.
+        final int[] start = new int[nodeCount + 1];
+        for (final int source : sources) {
+            start[source + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            start[node + 1] += start[node];
+        }
+        final int[] adjacent = new int[targets.length];
+        final int[] position = Arrays.copyOf(start, nodeCount);
+        for (int i = 0; i < sources.length; i++) {
+            adjacent[position[sources[i]]++] = targets[i];
+        }
+
+        // Sort each list and remove duplicates, compacting the array.
+        int count = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node] = count;
+            Arrays.sort(adjacent, start[node], start[node + 1]);
+            for (int i = start[node]; i < start[node + 1]; i++) {
+                if (i == start[node] || adjacent[i] != adjacent[i - 1]) {
+                    adjacent[count++] = adjacent[i];
+                }
+            }
+        }
+        offsets[nodeCount] = count;
+        return Arrays.copyOf(adjacent, count);
+    }
+
+    /**
+     * Helper method for building a path from the predecessors found by a
+     * breadth first search.
+     *
+     * @param predecessors The predecessors.
+     * @param from         The start node.
+     * @param last         The last node before the target node.
+     * @param to           The target node.
+     *
+     * @return The path.
+     */
+    private static int[] buildPath(
+        final int[] predecessors, final int from, final int last, final int to
+    ) {
+        int length = 2;
+        for (int node = last; node != from; node = predecessors[node]) {
+            length++;
+        }
+        final int[] path = new int[length];
+        path[length - 1] = to;
+        int position = length - 2;
+        for (int node = last; node != from; node = predecessors[node]) {
+            path[position--] = node;
+        }
+        path[0] = from;
+        return path;
+    }
+
+    /**
+     * Helper method for growing the result array of
+     * {@link #breadthFirstSearch(int, int, int)}.
+     *
+     * @param array      The array.
+     * @param count      The number of used entries.
+     * @param maxResults The maximum number of entries.
+     *
+     * @return The array or a larger copy.
+     */
+    private static int[] ensureCapacity(
+        final int[] array, final int count, final int maxResults
+    ) {
+        if (count < array.length) {
+            return array;
+        }
+        final long newLength = Math.min((long) array.length * 2, maxResults);
+        return Arrays.copyOf(array, (int) newLength);
+    }
+
+}
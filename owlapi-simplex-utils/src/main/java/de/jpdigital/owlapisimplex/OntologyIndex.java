@@ -0,0 +1,1259 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.parameters.AxiomAnnotations;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Materialized state of an ontology used by the utility classes to answer
+ * frequent queries without a DL query and a call of the reasoner.
+ *
+ * The index contains
+ * <ul>
+ * <li>a dictionary which assigns a numeric id to each named individual,</li>
+ * <li>the members of OWL classes as {@link BitSet}s of these ids. The members
+ * are retrieved from the reasoner, therefore inferred members are
+ * included,</li>
+ * <li>an index for the values of each data property, built from the data
+ * property assertions in the ontology and its imports.</li>
+ * <li>sorted indexes of the numeric and temporal values of each data
+ * property, used for range queries and for ordering individuals by the value
+ * of a property.</li>
+ * <li>the parsed numeric and boolean values of each data property, stored in
+ * primitive arrays.</li>
+ * <li>an adjacency index (graph) for each object property, built from the
+ * assertions of the property and of its declared inverse properties in the
+ * ontology and its imports. The graph can be navigated in both
+ * directions.</li>
+ * <li>the inferred class hierarchy, built once from the reasoner.</li>
+ * <li>the inferred hierarchies of the object and data properties, built once
+ * from the reasoner. The value indexes and the graphs of the properties
+ * include the assertions of the sub-properties.</li>
+ * <li>a {@link QueryPlanner} which answers class expressions by combining the
+ * class members, graphs and value indexes.</li>
+ * <li>the annotation assertions of the ontology and its imports grouped by
+ * their subject, and a sorted index of the labels for prefix searches.</li>
+ * </ul>
+ *
+ * All parts of the index are created when they are used for the first time.
+ * The index listens for changes of the ontology and its imports. If a data
+ * property assertion is added or removed, the value index of the property is
+ * updated incrementally, the class memberships, the range indexes and the
+ * parsed values of the property are rebuilt on their next use. If an object
+ * property assertion is added or removed, the class memberships and the
+ * graphs of the property and of its inverse properties are rebuilt on their
+ * next use. The indexes and graphs of the super-properties of the property are
+ * updated in the same way. The class and property hierarchies are kept if
+ * assertions are added or removed. If an annotation axiom is added or
+ * removed, only the annotation index is rebuilt on its next use.
+ * All other changes of logical axioms, declarations or imports discard the
+ * complete index.
+ *
+ * The index never flushes the reasoner. If the index is used with a reasoner
+ * which does not reflect changes immediately (a buffering reasoner), the
+ * class members and hierarchies retrieved from the reasoner reflect the
+ * state of the reasoner, not of the ontology, until the reasoner has been
+ * flushed by the caller. Parts of the index built while the reasoner has
+ * pending changes are only returned to the caller and not stored, so they
+ * are rebuilt from the flushed reasoner on their next use.
+ *
+ * The memory used by the index can be monitored using
+ * {@link #getEstimatedMemoryUsage()}. An index which is no longer needed
+ * should be closed using {@link #close()}, which removes its listener from
+ * the ontology manager. The manager only holds a weak reference to the index,
+ * so an index which is no longer used is garbage collected even if it hasn't
+ * been closed. Its listener is removed with the next change of an ontology.
+ *
+ * The index also holds the {@link QueryMetrics} of the utility classes
+ * sharing the index, for example the number of queries which exceeded their
+ * {@link QueryDeadline}.
+ *
+ * Instances of this class are thread safe. The parts of the index are built
+ * without holding a lock, so two threads may build the same part
+ * concurrently. A part is only stored if the ontology has not been changed
+ * while it was built, therefore a change never gets lost because of a part
+ * built from the ontology before the change. A query running concurrently
+ * with a change may see the data before or after the change.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class OntologyIndex implements AutoCloseable {
+
+    /**
+     * The indexes used by the utility classes created without an index, one
+     * per reasoner. The values are weak references, because a value of a
+     * {@link WeakHashMap} which refers to its key keeps the entry reachable,
+     * and the index refers to its reasoner. An index is removed when it is
+     * no longer used by a utility class.
+     */
+    private static final Map<OWLReasoner, WeakReference<OntologyIndex>> SHARED_INDEXES
+                                                                              = new WeakHashMap<>();
+
+    /**
+     * The ontology to index.
+     */
+    private final OWLOntology ontology;
+
+    /**
+     * Reasoner for the ontology.
+     */
+    private final OWLReasoner reasoner;
+
+    /**
+     * The current state of the index.
+     */
+    private volatile State state;
+
+    /**
+     * The metrics of the queries using this index.
+     */
+    private final QueryMetrics queryMetrics;
+
+    /**
+     * Executes the calls of the reasoner with a deadline.
+     */
+    private final ReasonerGuard reasonerGuard;
+
+    /**
+     * The listener registered at the ontology manager.
+     */
+    private final OWLOntologyChangeListener changeListener;
+
+    /**
+     * Has the index been closed?
+     */
+    private volatile boolean closed;
+
+    /**
+     * Number of calls of the reasoner while the reasoner had pending
+     * changes. Parts built while this number changes are not stored.
+     */
+    private final AtomicLong outdatedReasonerCalls;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ontology The ontology to index.
+     * @param reasoner The reasoner.
+     */
+    private OntologyIndex(
+        final OWLOntology ontology, final OWLReasoner reasoner
+    ) {
+        this.ontology = ontology;
+        this.reasoner = reasoner;
+        state = new State();
+        queryMetrics = new QueryMetrics();
+        reasonerGuard = new ReasonerGuard(reasoner, queryMetrics);
+        changeListener = new ChangeListener(
+            this, ontology.getOWLOntologyManager()
+        );
+        outdatedReasonerCalls = new AtomicLong();
+    }
+
+    /**
+     * Factory method for creating new instances of {@code OntologyIndex}.
+     * Usually there is no need to call this method, use
+     * {@link OwlApiSimplexUtils#getOntologyIndex()} instead.
+     *
+     * @param ontology The ontology to index.
+     * @param reasoner The reasoner.
+     *
+     * @return An {@code OntologyIndex} instance.
+     */
+    public static OntologyIndex buildOntologyIndex(
+        final OWLOntology ontology, final OWLReasoner reasoner
+    ) {
+        Objects.requireNonNull(ontology);
+        Objects.requireNonNull(reasoner);
+
+        final OntologyIndex ontologyIndex = new OntologyIndex(
+            ontology, reasoner
+        );
+        ontology
+            .getOWLOntologyManager()
+            .addOntologyChangeListener(ontologyIndex.changeListener);
+        return ontologyIndex;
+    }
+
+    /**
+     * Get the index shared by all utility classes created for a reasoner
+     * without an index, for example by
+     * {@link Instances#buildInstances(org.semanticweb.owlapi.model.OWLOntology, org.semanticweb.owlapi.model.OWLOntologyManager, org.semanticweb.owlapi.reasoner.OWLReasoner)}.
+     * The index is created for the root ontology of the reasoner on the
+     * first call, further calls return the same index until it is closed
+     * using {@link #closeSharedOntologyIndex(OWLReasoner)}, or until it is
+     * no longer used by any utility class and has been garbage collected.
+     *
+     * @param reasoner The reasoner.
+     *
+     * @return The shared index for the reasoner.
+     */
+    static OntologyIndex getSharedOntologyIndex(final OWLReasoner reasoner) {
+        Objects.requireNonNull(reasoner);
+
+        synchronized (SHARED_INDEXES) {
+            final WeakReference<OntologyIndex> reference = SHARED_INDEXES
+                .get(reasoner);
+            final OntologyIndex shared;
+            if (reference == null) {
+                shared = null;
+            } else {
+                shared = reference.get();
+            }
+            if (shared != null && !shared.closed) {
+                return shared;
+            }
+            final OntologyIndex ontologyIndex = buildOntologyIndex(
+                reasoner.getRootOntology(), reasoner
+            );
+            SHARED_INDEXES.put(reasoner, new WeakReference<>(ontologyIndex));
+            return ontologyIndex;
+        }
+    }
+
+    /**
+     * Closes the index shared by the utility classes created for a reasoner
+     * without an index, if there is one. Utility classes created afterwards
+     * for the reasoner get a new index, the utility classes created before
+     * must not be used anymore. Call this method if the reasoner is disposed
+     * of, or use an {@link OwlApiSimplexUtils} instance which holds the
+     * shared index and close it.
+     *
+     * @param reasoner The reasoner.
+     */
+    public static void closeSharedOntologyIndex(final OWLReasoner reasoner) {
+        Objects.requireNonNull(reasoner);
+
+        final OntologyIndex shared;
+        synchronized (SHARED_INDEXES) {
+            final WeakReference<OntologyIndex> reference = SHARED_INDEXES
+                .get(reasoner);
+            if (reference == null) {
+                shared = null;
+            } else {
+                shared = reference.get();
+            }
+        }
+        if (shared != null) {
+            shared.close();
+        }
+    }
+
+    /**
+     * Removes the listener of the index from the ontology manager. The index
+     * doesn't reflect changes of the ontology after it has been closed and
+     * must not be used anymore. If the index is the shared index of its
+     * reasoner, the next utility class created without an index gets a new
+     * index. Closing an index twice has no effect.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ontology
+            .getOWLOntologyManager()
+            .removeOntologyChangeListener(changeListener);
+        synchronized (SHARED_INDEXES) {
+            final WeakReference<OntologyIndex> reference = SHARED_INDEXES
+                .get(reasoner);
+            if (reference != null && reference.get() == this) {
+                SHARED_INDEXES.remove(reasoner);
+            }
+        }
+        state = new State();
+    }
+
+    /**
+     * Discards all materialized data. The data is rebuilt when it is used the
+     * next time.
+     */
+    public void invalidate() {
+        state = new State();
+    }
+
+    /**
+     * Get the metrics of the queries executed by the utility classes using
+     * this index, for example the number of queries which timed out. The
+     * metrics are kept if the index is invalidated.
+     *
+     * @return The metrics of the queries.
+     */
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    /**
+     * Estimates the memory used by the materialized data. The estimate
+     * excludes the OWL objects (individuals, literals) which are shared with
+     * the ontology.
+     *
+     * @return The estimated memory used by the index in bytes.
+     */
+    public long getEstimatedMemoryUsage() {
+        return state.estimateMemoryUsage();
+    }
+
+    /**
+     * Get the dictionary of the individuals.
+     *
+     * @return The dictionary.
+     */
+    IndividualDictionary getDictionary() {
+        return state.getDictionary();
+    }
+
+    /**
+     * Get the members of an OWL class, including inferred members.
+     *
+     * @param owlClass The OWL class.
+     *
+     * @return The ids of the members of the class. The returned {@link BitSet}
+     *         is shared and must not be modified.
+     */
+    BitSet getClassMembers(final OWLClass owlClass) {
+        return state.getClassMembers(owlClass);
+    }
+
+    /**
+     * Get the index of the values of a data property.
+     *
+     * @param property The data property.
+     *
+     * @return The index for the property.
+     */
+    DataPropertyValueIndex getDataPropertyValueIndex(
+        final OWLDataProperty property
+    ) {
+        return state.getDataPropertyValueIndex(property);
+    }
+
+    /**
+     * Get the values of a data property for an individual. The values are
+     * read from the value index of the property if the index contains all
+     * values of the property (see {@link DataPropertyValueIndex#isComplete()}),
+     * otherwise they are retrieved from the reasoner.
+     *
+     * @param id       The id of the individual.
+     * @param property The data property.
+     * @param deadline The deadline for the call of the reasoner.
+     *
+     * @return The values of the property for the individual.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    OWLLiteral[] getDataPropertyValues(
+        final int id,
+        final OWLDataProperty property,
+        final QueryDeadline deadline
+    ) {
+        final DataPropertyValueIndex valueIndex = getDataPropertyValueIndex(
+            property
+        );
+        if (valueIndex.isComplete()) {
+            return valueIndex.getValues(id);
+        }
+        final OWLNamedIndividual individual = getDictionary().getIndividual(id);
+        return reasonerGuard.call(
+            deadline,
+            () -> reasoner
+                .dataPropertyValues(individual, property)
+                .toArray(OWLLiteral[]::new)
+        );
+    }
+
+    /**
+     * Get the ids of the values of an object property for an individual. The
+     * values are read from the graph of the property if the graph contains
+     * all values of the property (see {@link ObjectPropertyGraph#isComplete()}),
+     * otherwise they are retrieved from the reasoner. Values which are not
+     * part of the dictionary are ignored.
+     *
+     * @param id       The id of the individual.
+     * @param property The object property.
+     * @param deadline The deadline for the call of the reasoner.
+     *
+     * @return The distinct ids of the values of the property for the
+     *         individual.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    int[] getObjectPropertyValues(
+        final int id,
+        final OWLObjectProperty property,
+        final QueryDeadline deadline
+    ) {
+        final ObjectPropertyGraph graph = getObjectPropertyGraph(property);
+        if (graph.isComplete()) {
+            return graph.successors(id).distinct().toArray();
+        }
+        final IndividualDictionary individuals = getDictionary();
+        final OWLNamedIndividual individual = individuals.getIndividual(id);
+        final OWLNamedIndividual[] values = reasonerGuard.call(
+            deadline,
+            () -> reasoner
+                .objectPropertyValues(individual, property)
+                .toArray(OWLNamedIndividual[]::new)
+        );
+        return Arrays
+            .stream(values)
+            .mapToInt(individuals::getId)
+            .filter(value -> value >= 0)
+            .distinct()
+            .toArray();
+    }
+
+    /**
+     * Get the sorted index of the numeric values of a data property.
+     *
+     * @param property The data property.
+     *
+     * @return The range index for the numeric values of the property.
+     */
+    DataPropertyRangeIndex getNumericRangeIndex(
+        final OWLDataProperty property
+    ) {
+        return state.getNumericRangeIndex(property);
+    }
+
+    /**
+     * Get the sorted index of the {@code xsd:dateTime} values of a data
+     * property.
+     *
+     * @param property The data property.
+     *
+     * @return The range index for the temporal values of the property.
+     */
+    DataPropertyRangeIndex getTemporalRangeIndex(
+        final OWLDataProperty property
+    ) {
+        return state.getTemporalRangeIndex(property);
+    }
+
+    /**
+     * Get the parsed values of a data property.
+     *
+     * @param property The data property.
+     *
+     * @return The parsed values of the property.
+     */
+    PrimitiveDataPropertyValues getPrimitiveValues(
+        final OWLDataProperty property
+    ) {
+        return state.getPrimitiveValues(property);
+    }
+
+    /**
+     * Get the adjacency index of an object property.
+     *
+     * @param property The object property.
+     *
+     * @return The graph of the property.
+     */
+    ObjectPropertyGraph getObjectPropertyGraph(
+        final OWLObjectProperty property
+    ) {
+        return state.getObjectPropertyGraph(property);
+    }
+
+    /**
+     * Get the guard for calling the reasoner with a {@link QueryDeadline}.
+     *
+     * @return The guard for the reasoner of this index.
+     */
+    ReasonerGuard getReasonerGuard() {
+        return reasonerGuard;
+    }
+
+    /**
+     * Get the inferred class hierarchy.
+     *
+     * @return The class hierarchy.
+     */
+    ClassHierarchyIndex getClassHierarchy() {
+        return state.getClassHierarchy();
+    }
+
+    /**
+     * Get the inferred hierarchies of the object and data properties.
+     *
+     * @return The property hierarchies.
+     */
+    PropertyHierarchyIndex getPropertyHierarchy() {
+        return state.getPropertyHierarchy();
+    }
+
+    /**
+     * Get the planner for answering class expressions from the index.
+     *
+     * @return The query planner.
+     */
+    QueryPlanner getQueryPlanner() {
+        return state.getQueryPlanner();
+    }
+
+    /**
+     * Get the annotation assertions grouped by their subject.
+     *
+     * @return The annotation index.
+     */
+    AnnotationIndex getAnnotationIndex() {
+        return state.getAnnotationIndex();
+    }
+
+    /**
+     * Calls the reasoner for building a part of the index. The reasoner is
+     * not flushed. If a buffering reasoner has pending changes, the call is
+     * counted in {@link #outdatedReasonerCalls}, so that the part built from
+     * the result is not stored.
+     *
+     * @param <T>  The type of the result.
+     * @param call The call of the reasoner.
+     *
+     * @return The result of the call.
+     */
+    private <T> T callReasoner(final Supplier<T> call) {
+        return reasonerGuard.call(
+            QueryDeadline.NONE,
+            () -> {
+                if (!reasoner.getPendingChanges().isEmpty()) {
+                    outdatedReasonerCalls.incrementAndGet();
+                }
+                return call.get();
+            }
+        );
+    }
+
+    /**
+     * Listener for changes of the ontology.
+     *
+     * @param changes The changes.
+     */
+    private void ontologiesChanged(
+        final List<? extends OWLOntologyChange> changes
+    ) {
+        final Set<OWLOntology> importsClosure = ontology
+            .importsClosure()
+            .collect(Collectors.toSet());
+        final State current = state;
+        for (final OWLOntologyChange change : changes) {
+            if (!importsClosure.contains(change.getOntology())) {
+                continue;
+            }
+            if (change.isAxiomChange()
+                    && change.getAxiom().isAnnotationAxiom()) {
+                current.annotationsChanged();
+                continue;
+            }
+            if (change.isAxiomChange()
+                    && change.getAxiom() instanceof OWLDataPropertyAssertionAxiom
+                    && current.dataPropertyAssertionChanged(
+                    (OWLDataPropertyAssertionAxiom) change.getAxiom()
+                )) {
+                continue;
+            }
+            if (change.isAxiomChange()
+                    && change.getAxiom() instanceof OWLObjectPropertyAssertionAxiom
+                    && current.objectPropertyAssertionChanged(
+                    (OWLObjectPropertyAssertionAxiom) change.getAxiom()
+                )) {
+                continue;
+            }
+            invalidate();
+            return;
+        }
+    }
+
+    /**
+     * The listener registered at the ontology manager. The listener only
+     * holds a weak reference to the index, otherwise the manager would keep
+     * the index and its reasoner reachable until the index is closed. If the
+     * index has been garbage collected, the listener removes itself from the
+     * manager.
+     */
+    private static final class ChangeListener
+        implements OWLOntologyChangeListener {
+
+        private final WeakReference<OntologyIndex> ontologyIndex;
+
+        private final OWLOntologyManager ontologyManager;
+
+        ChangeListener(
+            final OntologyIndex ontologyIndex,
+            final OWLOntologyManager ontologyManager
+        ) {
+            this.ontologyIndex = new WeakReference<>(ontologyIndex);
+            this.ontologyManager = ontologyManager;
+        }
+
+        @Override
+        public void ontologiesChanged(
+            final List<? extends OWLOntologyChange> changes
+        ) {
+            final OntologyIndex target = ontologyIndex.get();
+            if (target == null) {
+                ontologyManager.removeOntologyChangeListener(this);
+            } else {
+                target.ontologiesChanged(changes);
+            }
+        }
+
+    }
+
+    /**
+     * The materialized data. All data derived from the dictionary is kept
+     * together, so that {@link #invalidate()} can discard everything
+     * atomically.
+     */
+    private final class State {
+
+        private volatile IndividualDictionary dictionary;
+
+        private volatile ClassHierarchyIndex classHierarchy;
+
+        private volatile PropertyHierarchyIndex propertyHierarchy;
+
+        private volatile QueryPlanner queryPlanner;
+
+        private volatile AnnotationIndex annotationIndex;
+
+        /**
+         * Number of changes applied incrementally to this state. Parts built
+         * while this number changes are not stored. The number is incremented
+         * after a change has been applied, so a part built after reading the
+         * new number includes the change.
+         */
+        private volatile long modifications;
+
+        /**
+         * Guards {@link #modifications} and the storing of built parts. The
+         * listener for changes of the ontology is called while the ontology
+         * is locked, therefore this lock is never held while the ontology or
+         * the reasoner is accessed by another thread. Otherwise the listener
+         * and a thread building a part of the index would wait for each
+         * other.
+         */
+        private final Object publishLock = new Object();
+
+        private final Map<OWLClass, BitSet> classMembers
+                                                = new ConcurrentHashMap<>();
+
+        private final Map<OWLDataProperty, DataPropertyValueIndex> dataPropertyValueIndexes
+                                                                       = new ConcurrentHashMap<>();
+
+        private final Map<OWLDataProperty, DataPropertyRangeIndex> numericRangeIndexes
+                                                                       = new ConcurrentHashMap<>();
+
+        private final Map<OWLDataProperty, DataPropertyRangeIndex> temporalRangeIndexes
+                                                                       = new ConcurrentHashMap<>();
+
+        private final Map<OWLDataProperty, PrimitiveDataPropertyValues> primitiveValues
+                                                                            = new ConcurrentHashMap<>();
+
+        private final Map<OWLObjectProperty, ObjectPropertyGraph> objectPropertyGraphs
+                                                                     = new ConcurrentHashMap<>();
+
+        IndividualDictionary getDictionary() {
+            IndividualDictionary result = dictionary;
+            if (result == null) {
+                synchronized (this) {
+                    result = dictionary;
+                    if (result == null) {
+                        final long version = modifications;
+                        result = new IndividualDictionary(
+                            ontology.individualsInSignature(Imports.INCLUDED)
+                        );
+                        synchronized (publishLock) {
+                            if (version == modifications) {
+                                dictionary = result;
+                            }
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        ClassHierarchyIndex getClassHierarchy() {
+            ClassHierarchyIndex result = classHierarchy;
+            if (result == null) {
+                synchronized (this) {
+                    result = classHierarchy;
+                    if (result == null) {
+                        final long outdated = outdatedReasonerCalls.get();
+                        result = callReasoner(
+                            () -> new ClassHierarchyIndex(ontology, reasoner)
+                        );
+                        if (outdated == outdatedReasonerCalls.get()) {
+                            classHierarchy = result;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        PropertyHierarchyIndex getPropertyHierarchy() {
+            PropertyHierarchyIndex result = propertyHierarchy;
+            if (result == null) {
+                synchronized (this) {
+                    result = propertyHierarchy;
+                    if (result == null) {
+                        final long outdated = outdatedReasonerCalls.get();
+                        result = callReasoner(
+                            () -> new PropertyHierarchyIndex(
+                                ontology, reasoner
+                            )
+                        );
+                        if (outdated == outdatedReasonerCalls.get()) {
+                            propertyHierarchy = result;
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        QueryPlanner getQueryPlanner() {
+            QueryPlanner result = queryPlanner;
+            if (result == null) {
+                synchronized (this) {
+                    result = queryPlanner;
+                    if (result == null) {
+                        result = new QueryPlanner(
+                            ontology, OntologyIndex.this
+                        );
+                        queryPlanner = result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        AnnotationIndex getAnnotationIndex() {
+            AnnotationIndex result = annotationIndex;
+            if (result == null) {
+                synchronized (this) {
+                    result = annotationIndex;
+                    if (result == null) {
+                        final long version = modifications;
+                        result = new AnnotationIndex(ontology);
+                        synchronized (publishLock) {
+                            if (version == modifications) {
+                                annotationIndex = result;
+                            }
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Discards the annotation index after an annotation axiom has been
+         * added or removed. An index built concurrently isn't stored, because
+         * it may have been built before the change.
+         */
+        void annotationsChanged() {
+            synchronized (publishLock) {
+                annotationIndex = null;
+                modifications++;
+            }
+        }
+
+        BitSet getClassMembers(final OWLClass owlClass) {
+            return getOrBuild(classMembers, owlClass, this::materialize);
+        }
+
+        DataPropertyValueIndex getDataPropertyValueIndex(
+            final OWLDataProperty property
+        ) {
+            return getOrBuild(
+                dataPropertyValueIndexes, property, this::materialize
+            );
+        }
+
+        DataPropertyRangeIndex getNumericRangeIndex(
+            final OWLDataProperty property
+        ) {
+            return getOrBuild(
+                numericRangeIndexes,
+                property,
+                key -> DataPropertyRangeIndex.buildNumericIndex(
+                    getDataPropertyValueIndex(key), getDictionary().size()
+                )
+            );
+        }
+
+        DataPropertyRangeIndex getTemporalRangeIndex(
+            final OWLDataProperty property
+        ) {
+            return getOrBuild(
+                temporalRangeIndexes,
+                property,
+                key -> DataPropertyRangeIndex.buildTemporalIndex(
+                    getDataPropertyValueIndex(key), getDictionary().size()
+                )
+            );
+        }
+
+        PrimitiveDataPropertyValues getPrimitiveValues(
+            final OWLDataProperty property
+        ) {
+            return getOrBuild(
+                primitiveValues,
+                property,
+                key -> new PrimitiveDataPropertyValues(
+                    getDataPropertyValueIndex(key), getDictionary().size()
+                )
+            );
+        }
+
+        ObjectPropertyGraph getObjectPropertyGraph(
+            final OWLObjectProperty property
+        ) {
+            return getOrBuild(
+                objectPropertyGraphs, property, this::materialize
+            );
+        }
+
+        /**
+         * Get a part of the index from one of the maps of this state, or
+         * builds it if it isn't available. The part is built without holding
+         * a lock, so that a slow build (for example the members of a class
+         * retrieved from the reasoner) doesn't block queries for other parts.
+         * The built part is only stored if no change has been applied to the
+         * state during the build. Otherwise it may have been built from the
+         * ontology before the change, and is only returned to the caller. The
+         * same applies to a part built using a reasoner with pending
+         * changes.
+         *
+         * @param <K>   The type of the keys of the map.
+         * @param <V>   The type of the parts.
+         * @param parts The map holding the parts.
+         * @param key   The key of the part.
+         * @param build Builds the part for a key.
+         *
+         * @return The part for the key.
+         */
+        private <K, V> V getOrBuild(
+            final Map<K, V> parts, final K key, final Function<K, V> build
+        ) {
+            final V stored = parts.get(key);
+            if (stored != null) {
+                return stored;
+            }
+            final long version = modifications;
+            final long outdated = outdatedReasonerCalls.get();
+            final V result = build.apply(key);
+            synchronized (publishLock) {
+                if (version == modifications
+                        && outdated == outdatedReasonerCalls.get()) {
+                    final V previous = parts.putIfAbsent(key, result);
+                    if (previous != null) {
+                        return previous;
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Updates the state after a data property assertion has been added or
+         * removed.
+         *
+         * @param axiom The added or removed axiom.
+         *
+         * @return {@code true} if the state has been updated, {@code false}
+         *         if the change can't be applied incrementally and the state
+         *         must be discarded.
+         */
+        boolean dataPropertyAssertionChanged(
+            final OWLDataPropertyAssertionAxiom axiom
+        ) {
+            synchronized (publishLock) {
+                try {
+                    return applyDataPropertyAssertionChanged(axiom);
+                } finally {
+                    modifications++;
+                }
+            }
+        }
+
+        private boolean applyDataPropertyAssertionChanged(
+            final OWLDataPropertyAssertionAxiom axiom
+        ) {
+            final IndividualDictionary individuals = dictionary;
+            if (individuals == null) {
+                // Nothing materialized yet.
+                return true;
+            }
+            if (axiom.getProperty().isAnonymous()
+                    || !axiom.getSubject().isNamed()) {
+                return false;
+            }
+            final int id = individuals.getId(
+                axiom.getSubject().asOWLNamedIndividual()
+            );
+            if (id < 0) {
+                return false;
+            }
+
+            final OWLDataProperty property = axiom
+                .getProperty()
+                .asOWLDataProperty();
+            // Class memberships can be inferred from data property values.
+            classMembers.clear();
+            numericRangeIndexes.remove(property);
+            temporalRangeIndexes.remove(property);
+            primitiveValues.remove(property);
+
+            // The assertion is also a value of the super-properties.
+            for (final DataPropertyValueIndex valueIndex
+                     : dataPropertyValueIndexes.values()) {
+                if (!valueIndex.getSourceProperties().contains(property)) {
+                    continue;
+                }
+                numericRangeIndexes.remove(valueIndex.getProperty());
+                temporalRangeIndexes.remove(valueIndex.getProperty());
+                primitiveValues.remove(valueIndex.getProperty());
+                // The change has already been applied, therefore the
+                // ontology tells us if the value is (still) asserted for
+                // one of the properties of the index.
+                final boolean asserted = valueIndex
+                    .getSourceProperties()
+                    .stream()
+                    .anyMatch(
+                        sourceProperty -> ontology.containsAxiom(
+                            ontology
+                                .getOWLOntologyManager()
+                                .getOWLDataFactory()
+                                .getOWLDataPropertyAssertionAxiom(
+                                    sourceProperty,
+                                    axiom.getSubject(),
+                                    axiom.getObject()
+                                ),
+                            Imports.INCLUDED,
+                            AxiomAnnotations.IGNORE_AXIOM_ANNOTATIONS
+                        )
+                    );
+                if (asserted) {
+                    valueIndex.addValue(id, axiom.getObject());
+                } else {
+                    valueIndex.removeValue(id, axiom.getObject());
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Updates the state after an object property assertion has been
+         * added or removed.
+         *
+         * @param axiom The added or removed axiom.
+         *
+         * @return {@code true} if the state has been updated, {@code false}
+         *         if the change can't be applied incrementally and the state
+         *         must be discarded.
+         */
+        boolean objectPropertyAssertionChanged(
+            final OWLObjectPropertyAssertionAxiom axiom
+        ) {
+            synchronized (publishLock) {
+                try {
+                    return applyObjectPropertyAssertionChanged(axiom);
+                } finally {
+                    modifications++;
+                }
+            }
+        }
+
+        private boolean applyObjectPropertyAssertionChanged(
+            final OWLObjectPropertyAssertionAxiom axiom
+        ) {
+            final IndividualDictionary individuals = dictionary;
+            if (individuals == null) {
+                // Nothing materialized yet.
+                return true;
+            }
+            if (!axiom.getSubject().isNamed()
+                    || !axiom.getObject().isNamed()
+                    || individuals.getId(
+                    axiom.getSubject().asOWLNamedIndividual()
+                ) < 0
+                    || individuals.getId(
+                    axiom.getObject().asOWLNamedIndividual()
+                ) < 0) {
+                return false;
+            }
+
+            // Class memberships can be inferred from object property values.
+            classMembers.clear();
+            // The assertion is also an edge of the graphs of the inverse
+            // properties and of the super-properties.
+            final OWLObjectProperty property = axiom
+                .getProperty()
+                .getNamedProperty();
+            objectPropertyGraphs
+                .values()
+                .removeIf(
+                    graph -> graph.getSourceProperties().contains(property)
+                );
+            return true;
+        }
+
+        long estimateMemoryUsage() {
+            final ClassHierarchyIndex hierarchy = classHierarchy;
+            final PropertyHierarchyIndex propertyHierarchies
+                                             = propertyHierarchy;
+            long hierarchySize = 0;
+            if (hierarchy != null) {
+                hierarchySize += hierarchy.estimateMemoryUsage();
+            }
+            if (propertyHierarchies != null) {
+                hierarchySize += propertyHierarchies.estimateMemoryUsage();
+            }
+            final AnnotationIndex annotations = annotationIndex;
+            long annotationSize = 0;
+            if (annotations != null) {
+                annotationSize = annotations.estimateMemoryUsage();
+            }
+            final IndividualDictionary individuals = dictionary;
+            if (individuals == null) {
+                return hierarchySize + annotationSize;
+            }
+            final long valueIndexes = dataPropertyValueIndexes
+                .values()
+                .stream()
+                .mapToLong(DataPropertyValueIndex::estimateMemoryUsage)
+                .sum();
+            final long rangeIndexes = Stream
+                .concat(
+                    numericRangeIndexes.values().stream(),
+                    temporalRangeIndexes.values().stream()
+                )
+                .mapToLong(DataPropertyRangeIndex::estimateMemoryUsage)
+                .sum();
+            final long graphs = objectPropertyGraphs
+                .values()
+                .stream()
+                .mapToLong(ObjectPropertyGraph::estimateMemoryUsage)
+                .sum();
+            final long parsedValues = primitiveValues
+                .values()
+                .stream()
+                .mapToLong(PrimitiveDataPropertyValues::estimateMemoryUsage)
+                .sum();
+            return individuals.estimateMemoryUsage()
+                       + MemoryEstimates.bitSetMap(classMembers)
+                       + MemoryEstimates.map(dataPropertyValueIndexes.size())
+                       + valueIndexes
+                       + MemoryEstimates.map(numericRangeIndexes.size())
+                       + MemoryEstimates.map(temporalRangeIndexes.size())
+                       + rangeIndexes
+                       + MemoryEstimates.map(primitiveValues.size())
+                       + parsedValues
+                       + MemoryEstimates.map(objectPropertyGraphs.size())
+                       + graphs
+                       + hierarchySize
+                       + annotationSize;
+        }
+
+        private BitSet materialize(final OWLClass owlClass) {
+            final IndividualDictionary individuals = getDictionary();
+            final BitSet members = new BitSet(individuals.size());
+            callReasoner(() -> reasoner.getInstances(owlClass, false))
+                .entities()
+                .mapToInt(individuals::getId)
+                .filter(id -> id >= 0)
+                .forEach(members::set);
+            return members;
+        }
+
+        private DataPropertyValueIndex materialize(
+            final OWLDataProperty property
+        ) {
+            final IndividualDictionary individuals = getDictionary();
+            final Set<OWLDataProperty> sourceProperties = getPropertyHierarchy()
+                .getDataSubProperties(property);
+            final Map<Integer, Set<OWLLiteral>> values = new HashMap<>();
+            sourceProperties
+                .stream()
+                .flatMap(
+                    sourceProperty -> ontology
+                        .referencingAxioms(sourceProperty, Imports.INCLUDED)
+                        .filter(
+                            axiom -> axiom
+                                instanceof OWLDataPropertyAssertionAxiom
+                        )
+                        .map(axiom -> (OWLDataPropertyAssertionAxiom) axiom)
+                        .filter(
+                            axiom -> axiom
+                                .getProperty()
+                                .equals(sourceProperty)
+                        )
+                )
+                .filter(axiom -> axiom.getSubject().isNamed())
+                .forEach(
+                    axiom -> {
+                        final int id = individuals.getId(
+                            axiom.getSubject().asOWLNamedIndividual()
+                        );
+                        if (id >= 0) {
+                            values
+                                .computeIfAbsent(
+                                    id, key -> new LinkedHashSet<>()
+                                )
+                                .add(axiom.getObject());
+                        }
+                    }
+                );
+
+            final OWLLiteral[][] valuesByIndividual
+                                     = new OWLLiteral[individuals.size()][];
+            for (final Map.Entry<Integer, Set<OWLLiteral>> entry : values
+                .entrySet()) {
+                valuesByIndividual[entry.getKey()] = entry
+                    .getValue()
+                    .toArray(new OWLLiteral[0]);
+            }
+
+            return new DataPropertyValueIndex(
+                property,
+                sourceProperties,
+                getPropertyHierarchy().isAssertionComplete(sourceProperties),
+                valuesByIndividual
+            );
+        }
+
+        private ObjectPropertyGraph materialize(
+            final OWLObjectProperty property
+        ) {
+            final IndividualDictionary individuals = getDictionary();
+
+            // An assertion of a sub-property is an edge of the property, an
+            // assertion of an inverse property (or one of its sub-properties)
+            // is an edge of the property in the opposite direction.
+            final PropertyHierarchyIndex hierarchy = getPropertyHierarchy();
+            final Set<OWLObjectProperty> forward = hierarchy
+                .getObjectSubProperties(property);
+            final Set<OWLObjectProperty> inverses = hierarchy
+                .getInverseObjectSubProperties(property);
+            final Set<OWLObjectProperty> sourceProperties = new HashSet<>(
+                forward
+            );
+            sourceProperties.addAll(inverses);
+
+            final IntStream.Builder edgeSources = IntStream.builder();
+            final IntStream.Builder edgeTargets = IntStream.builder();
+            for (final OWLObjectProperty sourceProperty : sourceProperties) {
+                // A property can be its own inverse (symmetric property).
+                final boolean isForward = forward.contains(sourceProperty);
+                final boolean isInverse = inverses.contains(sourceProperty);
+                ontology
+                    .referencingAxioms(sourceProperty, Imports.INCLUDED)
+                    .filter(
+                        axiom -> axiom
+                            instanceof OWLObjectPropertyAssertionAxiom
+                    )
+                    .map(axiom -> (OWLObjectPropertyAssertionAxiom) axiom)
+                    .filter(
+                        axiom -> axiom
+                            .getProperty()
+                            .getNamedProperty()
+                            .equals(sourceProperty)
+                    )
+                    .filter(axiom -> axiom.getSubject().isNamed())
+                    .filter(axiom -> axiom.getObject().isNamed())
+                    .forEach(
+                        axiom -> {
+                            final int subject = individuals.getId(
+                                axiom.getSubject().asOWLNamedIndividual()
+                            );
+                            final int object = individuals.getId(
+                                axiom.getObject().asOWLNamedIndividual()
+                            );
+                            if (subject < 0 || object < 0) {
+                                return;
+                            }
+                            // An assertion for the inverse of a property is
+                            // an edge in the opposite direction.
+                            final boolean anonymous = axiom
+                                .getProperty()
+                                .isAnonymous();
+                            if (isForward && !anonymous
+                                    || isInverse && anonymous) {
+                                edgeSources.add(subject);
+                                edgeTargets.add(object);
+                            }
+                            if (isForward && anonymous
+                                    || isInverse && !anonymous) {
+                                edgeSources.add(object);
+                                edgeTargets.add(subject);
+                            }
+                        }
+                    );
+            }
+
+            return new ObjectPropertyGraph(
+                property,
+                sourceProperties,
+                hierarchy.isAssertionComplete(sourceProperties),
+                individuals.size(),
+                edgeSources.build().toArray(),
+                edgeTargets.build().toArray()
+            );
+        }
+
+    }
+
+}
@@ -46,6 +46,13 @@ public class OwlApiSimplexUtils {
      */
     private final OWLReasoner reasoner;
 
+    /**
+     * The materialized state of the ontology, shared by all utility classes
+     * created by this instance and by the utility classes created for the
+     * reasoner without an index.
+     */
+    private final OntologyIndex ontologyIndex;
+
     OwlApiSimplexUtils(
         final OWLOntology ontology,
         final OWLOntologyManager ontologyManager,
@@ -54,6 +61,7 @@ public class OwlApiSimplexUtils {
         this.ontology = ontology;
         this.ontologyManager = ontologyManager;
         this.reasoner = reasoner;
+        this.ontologyIndex = OntologyIndex.getSharedOntologyIndex(reasoner);
     }
 
     public OWLOntology getOntology() {
@@ -68,6 +76,84 @@ public class OwlApiSimplexUtils {
         return reasoner;
     }
 
+    public OntologyIndex getOntologyIndex() {
+        return ontologyIndex;
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return ontologyIndex.getQueryMetrics();
+    }
+
+    /**
+     * Builds a new instance of {@link Annotations} using the OWL API objects
+     * passed to the {@code OwlApiSimplexUtils} instance.
+     *
+     * @return A new instance of {@link Annotations}.
+     */
+    public Annotations buildAnnotations() {
+        return Annotations.buildAnnotations(ontologyManager, ontologyIndex);
+    }
+
+    /**
+     * Builds a new instance of {@link AsyncQueries} using the OWL API objects
+     * passed to the {@code OwlApiSimplexUtils} instance. The executor of the
+     * returned instance uses one thread per available processor and a queue
+     * with a capacity of {@link AsyncQueries#DEFAULT_QUEUE_CAPACITY}.
+     *
+     * @return A new instance of {@link AsyncQueries}.
+     */
+    public AsyncQueries buildAsyncQueries() {
+        return buildAsyncQueries(
+            Runtime.getRuntime().availableProcessors(),
+            AsyncQueries.DEFAULT_QUEUE_CAPACITY
+        );
+    }
+
+    /**
+     * Builds a new instance of {@link AsyncQueries} using the OWL API objects
+     * passed to the {@code OwlApiSimplexUtils} instance.
+     *
+     * @param threads       The number of threads of the executor.
+     * @param queueCapacity The maximum number of queries waiting for a
+     *                      thread. Further queries are rejected.
+     *
+     * @return A new instance of {@link AsyncQueries}.
+     */
+    public AsyncQueries buildAsyncQueries(
+        final int threads, final int queueCapacity
+    ) {
+        return AsyncQueries.buildAsyncQueries(
+            buildInstances(),
+            buildDataProperties(),
+            buildObjectProperties(),
+            ontologyIndex,
+            threads,
+            queueCapacity
+        );
+    }
+
+    /**
+     * Builds a new instance of {@link Aggregations} using the OWL API objects
+     * passed to the {@code OwlApiSimplexUtils} instance.
+     *
+     * @return A new instance of {@link Aggregations}.
+     */
+    public Aggregations buildAggregations() {
+        return Aggregations.buildAggregations(ontologyIndex);
+    }
+
+    /**
+     * Builds a new instance of {@link ClassHierarchy} using the OWL API
+     * objects passed to the {@code OwlApiSimplexUtils} instance.
+     * 
+     * @return A new instance of {@link ClassHierarchy}.
+     */
+    public ClassHierarchy buildClassHierarchy() {
+        return ClassHierarchy.buildClassHierarchy(
+            ontologyManager, reasoner, ontologyIndex
+        );
+    }
+
     /**
      * Builds a new instance of {@link DataProperties} using the OWL API objects
      * passed to the {@code OwlApiSimplexUtils} instance.
@@ -75,7 +161,9 @@ public class OwlApiSimplexUtils {
      * @return A new instance of {@link DataProperties}.
      */
     public DataProperties buildDataProperties() {
-        return DataProperties.buildDataProperties(ontologyManager, reasoner);
+        return DataProperties.buildDataProperties(
+            ontologyManager, reasoner, ontologyIndex
+        );
     }
 
     /**
@@ -85,7 +173,9 @@ public class OwlApiSimplexUtils {
      * @return A new instance of {@link Instances}.
      */
     public Instances buildInstances() {
-        return Instances.buildInstances(ontology, ontologyManager, reasoner);
+        return Instances.buildInstances(
+            ontology, ontologyManager, reasoner, ontologyIndex
+        );
     }
 
     /**
@@ -96,8 +186,18 @@ public class OwlApiSimplexUtils {
      */
     public ObjectProperties buildObjectProperties() {
         return ObjectProperties.buildObjectProperties(
-            ontologyManager, reasoner
+            ontologyManager, reasoner, ontologyIndex
         );
     }
 
+    /**
+     * Builds a new instance of {@link PatternMatcher} using the OWL API
+     * objects passed to the {@code OwlApiSimplexUtils} instance.
+     *
+     * @return A new instance of {@link PatternMatcher}.
+     */
+    public PatternMatcher buildPatternMatcher() {
+        return PatternMatcher.buildPatternMatcher(ontologyIndex);
+    }
+
 }
@@ -23,8 +23,10 @@ import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
+import org.semanticweb.owlapi.reasoner.SimpleConfiguration;
 
 import java.io.InputStream;
+import java.time.Duration;
 import java.util.List;
 import java.util.Objects;
 
@@ -40,6 +42,12 @@ public abstract class OwlApiSimplexUtilsBuilder {
      */
     private final OWLOntologyManager ontologyManager;
 
+    /**
+     * The timeout of the reasoner, {@code null} if the reasoner has no
+     * timeout.
+     */
+    private Duration reasonerTimeout;
+
     OwlApiSimplexUtilsBuilder() {
         ontologyManager = OWLManager.createConcurrentOWLOntologyManager();
     }
@@ -48,6 +56,35 @@ public abstract class OwlApiSimplexUtilsBuilder {
         return ontologyManager;
     }
 
+    /**
+     * Sets the timeout for the reasoner created by {@link #build()}. The
+     * timeout is passed to the reasoner using its configuration. It applies
+     * to each call of the reasoner made by the utility classes. If a call
+     * exceeds the timeout, the query fails with a
+     * {@link QueryTimeoutException}. The reasoner remains usable.
+     *
+     * Stricter deadlines for single queries can be set using a
+     * {@link QueryDeadline}.
+     *
+     * @param timeout The timeout for calls of the reasoner.
+     *
+     * @return This builder.
+     *
+     * @throws IllegalArgumentException If the timeout is zero or negative.
+     */
+    public OwlApiSimplexUtilsBuilder setReasonerTimeout(
+        final Duration timeout
+    ) {
+        Objects.requireNonNull(timeout);
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException(
+                String.format("Invalid reasoner timeout %s.", timeout)
+            );
+        }
+        reasonerTimeout = timeout;
+        return this;
+    }
+
     /**
      * Helper method for loading an ontology document from an
      * {@link InputStream}.
@@ -116,7 +153,14 @@ public abstract class OwlApiSimplexUtilsBuilder {
         validate(ontologies);
         final OWLOntology ontology = ontologies.get(ontologies.size() - 1);
         final OWLReasonerFactory reasonerFactory = new OpenlletReasonerFactory();
-        final OWLReasoner reasoner = reasonerFactory.createReasoner(ontology);
+        final OWLReasoner reasoner;
+        if (reasonerTimeout == null) {
+            reasoner = reasonerFactory.createReasoner(ontology);
+        } else {
+            reasoner = reasonerFactory.createReasoner(
+                ontology, new SimpleConfiguration(reasonerTimeout.toMillis())
+            );
+        }
 
         return new OwlApiSimplexUtils(ontology, getOntologyManager(), reasoner);
     }
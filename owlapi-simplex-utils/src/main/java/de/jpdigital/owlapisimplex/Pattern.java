@@ -0,0 +1,307 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * A small conjunctive pattern over the individuals of an ontology, matched
+ * by a {@link PatternMatcher}. A pattern consists of atoms over named
+ * variables, all atoms must be satisfied by a match. For example the
+ * individuals of class {@code A} linked via {@code P} to members of class
+ * {@code B} whose property {@code Q} has the value {@code v}:
+ *
+ * <pre>
+ * final Pattern pattern = Pattern
+ *     .buildPattern()
+ *     .type("a", A)
+ *     .link("a", P, "b")
+ *     .type("b", B)
+ *     .value("b", Q, v);
+ * </pre>
+ *
+ * Instances of this class are immutable, the methods adding an atom return a
+ * modified copy.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class Pattern {
+
+    /**
+     * The empty pattern.
+     */
+    private static final Pattern EMPTY = new Pattern(
+        Collections.emptyList()
+    );
+
+    /**
+     * The atoms of the pattern.
+     */
+    private final List<Atom> atoms;
+
+    /**
+     * Creates a pattern.
+     *
+     * @param atoms The atoms of the pattern.
+     */
+    private Pattern(final List<Atom> atoms) {
+        this.atoms = atoms;
+    }
+
+    /**
+     * Factory method for an empty pattern.
+     *
+     * @return An empty pattern. At least one atom must be added before the
+     *         pattern can be matched.
+     */
+    public static Pattern buildPattern() {
+        return EMPTY;
+    }
+
+    /**
+     * Adds an atom requiring that a variable is bound to a member of an OWL
+     * class (including inferred members).
+     *
+     * @param variable The variable.
+     * @param owlClass The OWL class.
+     *
+     * @return A copy of this pattern with the additional atom.
+     */
+    public Pattern type(final String variable, final OWLClass owlClass) {
+        Objects.requireNonNull(owlClass);
+
+        return add(new Atom(AtomType.TYPE, variable, null, owlClass));
+    }
+
+    /**
+     * Adds an atom requiring that the individual bound to {@code subject} is
+     * linked via an object property to the individual bound to
+     * {@code object}. Assertions of the sub-properties and the inverse
+     * properties of the property are included.
+     *
+     * @param subject  The variable for the subject.
+     * @param property The object property.
+     * @param object   The variable for the object.
+     *
+     * @return A copy of this pattern with the additional atom.
+     */
+    public Pattern link(
+        final String subject,
+        final OWLObjectProperty property,
+        final String object
+    ) {
+        Objects.requireNonNull(property);
+        Objects.requireNonNull(object);
+
+        return add(new Atom(AtomType.LINK, subject, object, property));
+    }
+
+    /**
+     * Adds an atom requiring that the individual bound to a variable has a
+     * specific value for a data property. Values are compared by their
+     * value, not by their lexical form.
+     *
+     * @param variable The variable.
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A copy of this pattern with the additional atom.
+     */
+    public Pattern value(
+        final String variable,
+        final OWLDataProperty property,
+        final OWLLiteral value
+    ) {
+        Objects.requireNonNull(property);
+        Objects.requireNonNull(value);
+
+        return add(new Atom(AtomType.VALUE, variable, null, property, value));
+    }
+
+    /**
+     * Adds an atom binding a variable to a specific individual.
+     *
+     * @param variable   The variable.
+     * @param individual The individual.
+     *
+     * @return A copy of this pattern with the additional atom.
+     */
+    public Pattern individual(
+        final String variable, final OWLNamedIndividual individual
+    ) {
+        Objects.requireNonNull(individual);
+
+        return add(
+            new Atom(AtomType.INDIVIDUAL, variable, null, individual)
+        );
+    }
+
+    /**
+     * Get the variables of the pattern.
+     *
+     * @return The variables, in the order of their first occurrence.
+     */
+    public List<String> getVariables() {
+        final Set<String> variables = new LinkedHashSet<>();
+        for (final Atom atom : atoms) {
+            variables.add(atom.getVariable());
+            if (atom.getSecondVariable() != null) {
+                variables.add(atom.getSecondVariable());
+            }
+        }
+        return Collections.unmodifiableList(new ArrayList<>(variables));
+    }
+
+    /**
+     * @return The atoms of the pattern.
+     */
+    List<Atom> getAtoms() {
+        return atoms;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s{ atoms = [%s] }",
+            super.toString(),
+            atoms
+                .stream()
+                .map(Atom::toString)
+                .collect(Collectors.joining(", "))
+        );
+    }
+
+    private Pattern add(final Atom atom) {
+        final List<Atom> result = new ArrayList<>(atoms);
+        result.add(atom);
+        return new Pattern(Collections.unmodifiableList(result));
+    }
+
+    /**
+     * The types of atoms.
+     */
+    enum AtomType {
+
+        TYPE,
+        LINK,
+        VALUE,
+        INDIVIDUAL
+
+    }
+
+    /**
+     * A single atom of a pattern.
+     */
+    static final class Atom {
+
+        private final AtomType type;
+
+        private final String variable;
+
+        /**
+         * The object variable of a {@link AtomType#LINK} atom, {@code null}
+         * for all other atoms.
+         */
+        private final String secondVariable;
+
+        /**
+         * The class, property or individual of the atom.
+         */
+        private final OWLObject entity;
+
+        /**
+         * The value of a {@link AtomType#VALUE} atom.
+         */
+        private final OWLLiteral value;
+
+        private Atom(
+            final AtomType type,
+            final String variable,
+            final String secondVariable,
+            final OWLObject entity
+        ) {
+            this(type, variable, secondVariable, entity, null);
+        }
+
+        private Atom(
+            final AtomType type,
+            final String variable,
+            final String secondVariable,
+            final OWLObject entity,
+            final OWLLiteral value
+        ) {
+            this.type = type;
+            this.variable = Objects.requireNonNull(variable);
+            this.secondVariable = secondVariable;
+            this.entity = entity;
+            this.value = value;
+        }
+
+        AtomType getType() {
+            return type;
+        }
+
+        String getVariable() {
+            return variable;
+        }
+
+        String getSecondVariable() {
+            return secondVariable;
+        }
+
+        OWLObject getEntity() {
+            return entity;
+        }
+
+        OWLLiteral getValue() {
+            return value;
+        }
+
+        @Override
+        public String toString() {
+            switch (type) {
+                case TYPE:
+                    return String.format("?%s a %s", variable, entity);
+                case LINK:
+                    return String.format(
+                        "?%s %s ?%s", variable, entity, secondVariable
+                    );
+                case VALUE:
+                    return String.format(
+                        "?%s %s %s", variable, entity, value
+                    );
+                default:
+                    return String.format("?%s = %s", variable, entity);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A match of a {@link Pattern}: The individuals bound to the variables of
+ * the pattern.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class PatternMatch {
+
+    /**
+     * The variables of the pattern, shared by all matches.
+     */
+    private final List<String> variables;
+
+    /**
+     * The ids of the individuals bound to the variables, in the order of
+     * {@link #variables}.
+     */
+    private final int[] ids;
+
+    /**
+     * The dictionary for resolving the ids.
+     */
+    private final IndividualDictionary dictionary;
+
+    /**
+     * Creates a match.
+     *
+     * @param variables  The variables of the pattern.
+     * @param ids        The ids of the individuals bound to the variables.
+     * @param dictionary The dictionary for resolving the ids.
+     */
+    PatternMatch(
+        final List<String> variables,
+        final int[] ids,
+        final IndividualDictionary dictionary
+    ) {
+        this.variables = variables;
+        this.ids = ids;
+        this.dictionary = dictionary;
+    }
+
+    /**
+     * @return The variables of the pattern.
+     */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+     * Get the individual bound to a variable.
+     *
+     * @param variable The variable.
+     *
+     * @return The individual bound to the variable.
+     *
+     * @throws IllegalArgumentException If the pattern has no such variable.
+     */
+    public OWLNamedIndividual getIndividual(final String variable) {
+        final int index = variables.indexOf(variable);
+        if (index < 0) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "The pattern has no variable \"%s\". Available "
+                        + "variables: %s",
+                    variable,
+                    variables
+                )
+            );
+        }
+        return dictionary.getIndividual(ids[index]);
+    }
+
+    /**
+     * Get all bindings of the match.
+     *
+     * @return A map of the variables and the individuals bound to them, in
+     *         the order of the variables.
+     */
+    public Map<String, OWLNamedIndividual> toMap() {
+        final Map<String, OWLNamedIndividual> result = new LinkedHashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            result.put(variables.get(i), dictionary.getIndividual(ids[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * variables.hashCode() + Arrays.hashCode(ids);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof PatternMatch)) {
+            return false;
+        }
+        final PatternMatch other = (PatternMatch) obj;
+        return variables.equals(other.variables)
+                   && Arrays.equals(ids, other.ids)
+                   && dictionary == other.dictionary;
+    }
+
+    @Override
+    public String toString() {
+        return toMap().toString();
+    }
+
+}
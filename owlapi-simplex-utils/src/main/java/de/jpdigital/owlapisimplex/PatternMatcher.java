@@ -0,0 +1,520 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Matches small conjunctive {@link Pattern}s against the materialized state
+ * of the ontology in the {@link OntologyIndex}, without calling the reasoner
+ * for each step.
+ *
+ * The atoms restricting a single variable (classes, values, individuals) are
+ * intersected first, which gives the candidates for each variable. The links
+ * are then joined one by one, starting with the link with the smallest
+ * estimated number of edges (the number of edges of the property, scaled by
+ * the share of candidates of both variables). Each following link is one
+ * sharing a variable with the links already joined, again the one with the
+ * smallest estimate. Links are joined using hash joins, the hash table is
+ * built from the smaller input. Variables which are not used in any link are
+ * combined with the other variables at the end.
+ *
+ * The class memberships are the inferred memberships. The links and values
+ * are the assertions of the properties and of their sub-properties (and
+ * inverse properties for links), as in the graphs and value indexes of the
+ * {@link OntologyIndex}. Values entailed only by the reasoner, for example
+ * for transitive properties or property chains, are not matched.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class PatternMatcher {
+
+    /**
+     * Marks an unbound variable in a row.
+     */
+    private static final int UNBOUND = -1;
+
+    /**
+     * The materialized state of the ontology.
+     */
+    private final OntologyIndex ontologyIndex;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param ontologyIndex The materialized state of the ontology.
+     */
+    private PatternMatcher(final OntologyIndex ontologyIndex) {
+        this.ontologyIndex = ontologyIndex;
+    }
+
+    /**
+     * Factory method for creating new instances of {@code PatternMatcher}.
+     *
+     * @param ontologyIndex The materialized state of the ontology.
+     *
+     * @return A {@code PatternMatcher} instance.
+     */
+    public static PatternMatcher buildPatternMatcher(
+        final OntologyIndex ontologyIndex
+    ) {
+        Objects.requireNonNull(ontologyIndex);
+
+        return new PatternMatcher(ontologyIndex);
+    }
+
+    /**
+     * Finds all matches of a pattern.
+     *
+     * @param pattern The pattern.
+     *
+     * @return A stream of the matches, in no particular order.
+     *
+     * @throws IllegalArgumentException If the pattern is empty.
+     */
+    public Stream<PatternMatch> matches(final Pattern pattern) {
+        final List<String> variables = pattern.getVariables();
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        return join(pattern, variables, dictionary)
+            .stream()
+            .map(ids -> new PatternMatch(variables, ids, dictionary));
+    }
+
+    /**
+     * Finds all matches of a pattern.
+     *
+     * @param pattern The pattern.
+     *
+     * @return A list of the matches, in no particular order.
+     *
+     * @throws IllegalArgumentException If the pattern is empty.
+     */
+    public List<PatternMatch> getMatches(final Pattern pattern) {
+        return matches(pattern).collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the matches of a pattern.
+     *
+     * @param pattern The pattern.
+     *
+     * @return The number of matches.
+     *
+     * @throws IllegalArgumentException If the pattern is empty.
+     */
+    public long countMatches(final Pattern pattern) {
+        return join(
+            pattern, pattern.getVariables(), ontologyIndex.getDictionary()
+        ).size();
+    }
+
+    /**
+     * Helper method for joining the atoms of a pattern.
+     *
+     * @param pattern    The pattern.
+     * @param variables  The variables of the pattern.
+     * @param dictionary The dictionary of the individuals.
+     *
+     * @return The rows of the result, each row contains the ids of the
+     *         individuals bound to the variables.
+     */
+    private List<int[]> join(
+        final Pattern pattern,
+        final List<String> variables,
+        final IndividualDictionary dictionary
+    ) {
+        Objects.requireNonNull(pattern);
+        if (variables.isEmpty()) {
+            throw new IllegalArgumentException("The pattern is empty.");
+        }
+
+        // Candidates for each variable, null if the variable is only
+        // restricted by links.
+        final BitSet[] candidates = new BitSet[variables.size()];
+        final List<Pattern.Atom> links = new ArrayList<>();
+        for (final Pattern.Atom atom : pattern.getAtoms()) {
+            final int variable = variables.indexOf(atom.getVariable());
+            switch (atom.getType()) {
+                case TYPE:
+                    restrict(
+                        candidates,
+                        variable,
+                        ontologyIndex.getClassMembers(
+                            (OWLClass) atom.getEntity()
+                        )
+                    );
+                    break;
+                case VALUE:
+                    restrict(
+                        candidates,
+                        variable,
+                        ontologyIndex
+                            .getDataPropertyValueIndex(
+                                (OWLDataProperty) atom.getEntity()
+                            )
+                            .getIndividualsWithValue(
+                                LiteralValues.toKey(atom.getValue())
+                            )
+                    );
+                    break;
+                case INDIVIDUAL:
+                    final BitSet individual = new BitSet();
+                    final int id = dictionary.getId(
+                        (OWLNamedIndividual) atom.getEntity()
+                    );
+                    if (id >= 0) {
+                        individual.set(id);
+                    }
+                    restrict(candidates, variable, individual);
+                    break;
+                default:
+                    links.add(atom);
+                    break;
+            }
+        }
+        if (Arrays.stream(candidates).anyMatch(
+            candidate -> candidate != null && candidate.isEmpty()
+        )) {
+            return Collections.emptyList();
+        }
+
+        final int[] empty = new int[variables.size()];
+        Arrays.fill(empty, UNBOUND);
+        List<int[]> rows = Collections.singletonList(empty);
+        final boolean[] bound = new boolean[variables.size()];
+        final List<Pattern.Atom> remaining = new ArrayList<>(links);
+        while (!remaining.isEmpty() && !rows.isEmpty()) {
+            final Pattern.Atom next = nextLink(
+                remaining, variables, candidates, bound, dictionary.size()
+            );
+            remaining.remove(next);
+            final int subject = variables.indexOf(next.getVariable());
+            final int object = variables.indexOf(next.getSecondVariable());
+            rows = hashJoin(
+                rows,
+                bound,
+                edges(next, subject, object, candidates),
+                subject,
+                object
+            );
+            bound[subject] = true;
+            bound[object] = true;
+        }
+
+        // Variables not used in links
+        for (int i = 0; i < variables.size() && !rows.isEmpty(); i++) {
+            if (!bound[i]) {
+                rows = product(rows, i, candidates[i]);
+                bound[i] = true;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Helper method for choosing the next link to join: The link with the
+     * smallest estimated number of edges, preferring links sharing a
+     * variable with the links already joined.
+     *
+     * @param links      The links not joined yet.
+     * @param variables  The variables of the pattern.
+     * @param candidates The candidates of the variables.
+     * @param bound      The bound variables.
+     * @param size       The number of individuals.
+     *
+     * @return The next link.
+     */
+    private Pattern.Atom nextLink(
+        final List<Pattern.Atom> links,
+        final List<String> variables,
+        final BitSet[] candidates,
+        final boolean[] bound,
+        final int size
+    ) {
+        Pattern.Atom result = null;
+        boolean resultConnected = false;
+        double resultEstimate = Double.MAX_VALUE;
+        for (final Pattern.Atom link : links) {
+            final int subject = variables.indexOf(link.getVariable());
+            final int object = variables.indexOf(link.getSecondVariable());
+            final boolean connected = bound[subject] || bound[object];
+            final double estimate = ontologyIndex
+                .getObjectPropertyGraph((OWLObjectProperty) link.getEntity())
+                .getEdgeCount()
+                                        * selectivity(candidates[subject], size)
+                                        * selectivity(candidates[object], size);
+            if (result == null
+                    || connected && !resultConnected
+                    || connected == resultConnected
+                           && estimate < resultEstimate) {
+                result = link;
+                resultConnected = connected;
+                resultEstimate = estimate;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for collecting the edges of a link between the
+     * candidates of its variables.
+     *
+     * @param link       The link.
+     * @param subject    The index of the subject variable.
+     * @param object     The index of the object variable.
+     * @param candidates The candidates of the variables.
+     *
+     * @return The edges as pairs of ids.
+     */
+    private List<int[]> edges(
+        final Pattern.Atom link,
+        final int subject,
+        final int object,
+        final BitSet[] candidates
+    ) {
+        final ObjectPropertyGraph graph = ontologyIndex.getObjectPropertyGraph(
+            (OWLObjectProperty) link.getEntity()
+        );
+        final BitSet subjects = candidates[subject];
+        final BitSet objects = candidates[object];
+        final List<int[]> result = new ArrayList<>();
+        if (subjects == null && objects != null) {
+            // Start from the restricted side.
+            objects
+                .stream()
+                .forEach(
+                    to -> graph
+                        .predecessors(to)
+                        .forEach(from -> result.add(new int[]{from, to}))
+                );
+        } else {
+            final Stream<Integer> from;
+            if (subjects == null) {
+                from = Stream
+                    .iterate(0, node -> node + 1)
+                    .limit(graph.size());
+            } else {
+                from = subjects.stream().boxed();
+            }
+            from.forEach(
+                node -> graph
+                    .successors(node)
+                    .filter(to -> objects == null || objects.get(to))
+                    .forEach(to -> result.add(new int[]{node, to}))
+            );
+        }
+        if (subject == object) {
+            result.removeIf(edge -> edge[0] != edge[1]);
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for joining the rows with the edges of a link. The hash
+     * table is built from the smaller input and probed with the other.
+     *
+     * @param rows    The rows joined so far.
+     * @param bound   The variables bound in the rows.
+     * @param edges   The edges of the link.
+     * @param subject The index of the subject variable of the link.
+     * @param object  The index of the object variable of the link.
+     *
+     * @return The joined rows.
+     */
+    private static List<int[]> hashJoin(
+        final List<int[]> rows,
+        final boolean[] bound,
+        final List<int[]> edges,
+        final int subject,
+        final int object
+    ) {
+        final List<int[]> result = new ArrayList<>();
+        if (!bound[subject] && !bound[object]) {
+            for (final int[] row : rows) {
+                for (final int[] edge : edges) {
+                    result.add(bind(row, subject, object, edge));
+                }
+            }
+            return result;
+        }
+
+        if (rows.size() <= edges.size()) {
+            final Map<Long, List<int[]>> table = new HashMap<>();
+            for (final int[] row : rows) {
+                table
+                    .computeIfAbsent(
+                        key(row[subject], row[object], bound, subject, object),
+                        key -> new ArrayList<>()
+                    )
+                    .add(row);
+            }
+            for (final int[] edge : edges) {
+                final List<int[]> matching = table.get(
+                    key(edge[0], edge[1], bound, subject, object)
+                );
+                if (matching != null) {
+                    for (final int[] row : matching) {
+                        result.add(bind(row, subject, object, edge));
+                    }
+                }
+            }
+        } else {
+            final Map<Long, List<int[]>> table = new HashMap<>();
+            for (final int[] edge : edges) {
+                table
+                    .computeIfAbsent(
+                        key(edge[0], edge[1], bound, subject, object),
+                        key -> new ArrayList<>()
+                    )
+                    .add(edge);
+            }
+            for (final int[] row : rows) {
+                final List<int[]> matching = table.get(
+                    key(row[subject], row[object], bound, subject, object)
+                );
+                if (matching != null) {
+                    for (final int[] edge : matching) {
+                        result.add(bind(row, subject, object, edge));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for computing the join key of a row or an edge from the
+     * values of the bound variables.
+     *
+     * @param subjectId The id for the subject variable.
+     * @param objectId  The id for the object variable.
+     * @param bound     The bound variables.
+     * @param subject   The index of the subject variable.
+     * @param object    The index of the object variable.
+     *
+     * @return The key.
+     */
+    private static long key(
+        final int subjectId,
+        final int objectId,
+        final boolean[] bound,
+        final int subject,
+        final int object
+    ) {
+        if (bound[subject] && bound[object]) {
+            return (long) subjectId << 32 | objectId;
+        } else if (bound[subject]) {
+            return subjectId;
+        } else {
+            return objectId;
+        }
+    }
+
+    /**
+     * Helper method for extending a row with an edge.
+     *
+     * @param row     The row.
+     * @param subject The index of the subject variable.
+     * @param object  The index of the object variable.
+     * @param edge    The edge.
+     *
+     * @return A new row.
+     */
+    private static int[] bind(
+        final int[] row, final int subject, final int object, final int[] edge
+    ) {
+        final int[] result = Arrays.copyOf(row, row.length);
+        result[subject] = edge[0];
+        result[object] = edge[1];
+        return result;
+    }
+
+    /**
+     * Helper method for combining the rows with all candidates of a variable.
+     *
+     * @param rows       The rows.
+     * @param variable   The index of the variable.
+     * @param candidates The candidates of the variable.
+     *
+     * @return The combined rows.
+     */
+    private static List<int[]> product(
+        final List<int[]> rows, final int variable, final BitSet candidates
+    ) {
+        final List<int[]> result = new ArrayList<>();
+        for (final int[] row : rows) {
+            candidates
+                .stream()
+                .forEach(id -> {
+                    final int[] extended = Arrays.copyOf(row, row.length);
+                    extended[variable] = id;
+                    result.add(extended);
+                });
+        }
+        return result;
+    }
+
+    /**
+     * Helper method for adding a restriction to the candidates of a
+     * variable.
+     *
+     * @param candidates  The candidates of all variables.
+     * @param variable    The index of the variable.
+     * @param individuals The individuals allowed by the restriction.
+     */
+    private static void restrict(
+        final BitSet[] candidates, final int variable, final BitSet individuals
+    ) {
+        if (candidates[variable] == null) {
+            candidates[variable] = (BitSet) individuals.clone();
+        } else {
+            candidates[variable].and(individuals);
+        }
+    }
+
+    /**
+     * Helper method for estimating the share of the individuals which are
+     * candidates for a variable.
+     *
+     * @param candidates The candidates or {@code null}.
+     * @param size       The number of individuals.
+     *
+     * @return The share of the candidates.
+     */
+    private static double selectivity(final BitSet candidates, final int size) {
+        if (candidates == null || size == 0) {
+            return 1.0;
+        } else {
+            return (double) candidates.cardinality() / size;
+        }
+    }
+
+}
@@ -0,0 +1,747 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.expression.OWLEntityChecker;
+import org.semanticweb.owlapi.manchestersyntax.renderer.ParserException;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAnnotationProperty;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDatatype;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A DL query in Manchester syntax which is parsed and validated once and
+ * executed with different parameters. Parameters are marked with a {@code ?}
+ * in the query, for example {@code Person and (age value ?)} or
+ * {@code worksFor value ?}. A parameter can be used wherever the query
+ * expects a class, an individual or a literal. The kind of each parameter is
+ * determined when the query is prepared.
+ *
+ * When the query is executed the parameters are bound directly to the
+ * {@link OWLClassExpression} parsed from the query. The query is not parsed
+ * again and the values of the parameters are never interpreted as Manchester
+ * syntax, therefore a parameter can't change the structure of the query.
+ *
+ * Instances of this class are created using
+ * {@link Instances#prepare(java.lang.String)} and are thread-safe.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class PreparedQuery {
+
+    /**
+     * The kinds of parameters supported in prepared queries.
+     */
+    public enum ParameterType {
+
+        /**
+         * The parameter is a class. Values can be {@link OWLClass}es or
+         * {@link IRI}s.
+         */
+        CLASS,
+        /**
+         * The parameter is an individual. Values can be
+         * {@link OWLNamedIndividual}s or {@link IRI}s.
+         */
+        INDIVIDUAL,
+        /**
+         * The parameter is a literal. Values can be {@link OWLLiteral}s,
+         * {@link String}s, {@link Integer}s, {@link Long}s,
+         * {@code BigInteger}s, {@code BigDecimal}s, {@link Double}s,
+         * {@link Float}s, {@link Boolean}s or {@code OffsetDateTime}s.
+         */
+        LITERAL
+
+    }
+
+    /**
+     * Prefix of the names used for the parameters when parsing the query.
+     */
+    private static final String PARAMETER_NAME = "owlapisimplexparameter";
+
+    /**
+     * Prefix of the IRIs of the placeholder entities.
+     */
+    private static final String PLACEHOLDER_IRI
+                                    = "urn:owlapi-simplex:parameter:";
+
+    /**
+     * Prefix of the lexical form of the placeholder literals.
+     */
+    private static final String PLACEHOLDER_LITERAL
+                                    = "owlapi-simplex-parameter-";
+
+    /**
+     * The {@link Instances} instance used to execute the query.
+     */
+    private final Instances instances;
+
+    /**
+     * The ontology manager.
+     */
+    private final OWLOntologyManager ontologyManager;
+
+    /**
+     * The query with the parameters marked by {@code ?}.
+     */
+    private final String query;
+
+    /**
+     * The class expression parsed from the query, containing placeholders
+     * for the parameters.
+     */
+    private final OWLClassExpression template;
+
+    /**
+     * The types of the parameters.
+     */
+    private final List<ParameterType> parameterTypes;
+
+    /**
+     * The placeholders of the parameters in the class expression.
+     */
+    private final List<OWLObject> placeholders;
+
+    /**
+     * Creates a new prepared query.
+     *
+     * @param instances       The {@link Instances} instance used to execute
+     *                        the query.
+     * @param ontologyManager The ontology manager.
+     * @param query           The query.
+     * @param template        The class expression parsed from the query.
+     * @param parameterTypes  The types of the parameters.
+     * @param placeholders    The placeholders of the parameters.
+     */
+    private PreparedQuery(
+        final Instances instances,
+        final OWLOntologyManager ontologyManager,
+        final String query,
+        final OWLClassExpression template,
+        final List<ParameterType> parameterTypes,
+        final List<OWLObject> placeholders
+    ) {
+        this.instances = instances;
+        this.ontologyManager = ontologyManager;
+        this.query = query;
+        this.template = template;
+        this.parameterTypes = parameterTypes;
+        this.placeholders = placeholders;
+    }
+
+    /**
+     * Parses and validates a query with parameters.
+     *
+     * The parameters are replaced by names which the entity checker resolves
+     * to placeholder classes and individuals. If the parser expects a literal
+     * at the position of a parameter, the parameter is replaced by a
+     * placeholder literal and the query is parsed again. Therefore a query
+     * with {@code n} parameters is parsed at most {@code n + 1} times.
+     *
+     * @param instances       The {@link Instances} instance used to execute
+     *                        the query.
+     * @param ontologyManager The ontology manager.
+     * @param query           The query.
+     *
+     * @return The prepared query.
+     *
+     * @throws ParserException If the query is not a valid class expression.
+     */
+    static PreparedQuery buildPreparedQuery(
+        final Instances instances,
+        final OWLOntologyManager ontologyManager,
+        final String query
+    ) {
+        Objects.requireNonNull(instances);
+        Objects.requireNonNull(ontologyManager);
+        Objects.requireNonNull(query);
+
+        final List<String> parts = split(query);
+        final int count = parts.size() - 1;
+        final OWLDataFactory dataFactory = ontologyManager.getOWLDataFactory();
+        final OWLEntityChecker entityChecker = new PlaceholderEntityChecker(
+            instances.buildEntityChecker(), dataFactory
+        );
+
+        final boolean[] literals = new boolean[count];
+        OWLClassExpression template = null;
+        while (template == null) {
+            try {
+                template = instances.parseClassExpression(
+                    join(parts, literals), entityChecker
+                );
+            } catch (ParserException ex) {
+                final int index = parameterIndex(ex.getCurrentToken());
+                if (index < 0 || index >= count || literals[index]) {
+                    throw ex;
+                }
+                literals[index] = true;
+            }
+        }
+
+        // Depending on the context the parser accepts a parameter name as
+        // the lexical form of a literal, for example in facet restrictions.
+        final Map<String, OWLLiteral> templateLiterals = literals(template)
+            .collect(
+                Collectors.toMap(
+                    OWLLiteral::getLiteral,
+                    literal -> literal,
+                    (first, second) -> first
+                )
+            );
+        final List<ParameterType> parameterTypes = new ArrayList<>();
+        final List<OWLObject> placeholders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final OWLClass placeholderClass = dataFactory.getOWLClass(
+                IRI.create(PLACEHOLDER_IRI + "class:" + i)
+            );
+            final OWLNamedIndividual placeholderIndividual = dataFactory
+                .getOWLNamedIndividual(
+                    IRI.create(PLACEHOLDER_IRI + "individual:" + i)
+                );
+            final OWLLiteral placeholderLiteral = templateLiterals.getOrDefault(
+                PLACEHOLDER_LITERAL + i,
+                templateLiterals.get(PARAMETER_NAME + i)
+            );
+            if (placeholderLiteral != null) {
+                parameterTypes.add(ParameterType.LITERAL);
+                placeholders.add(placeholderLiteral);
+            } else if (template.containsEntityInSignature(placeholderClass)) {
+                parameterTypes.add(ParameterType.CLASS);
+                placeholders.add(placeholderClass);
+            } else if (template.containsEntityInSignature(
+                placeholderIndividual
+            )) {
+                parameterTypes.add(ParameterType.INDIVIDUAL);
+                placeholders.add(placeholderIndividual);
+            } else {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "Parameter %d of query \"%s\" is not used as a "
+                            + "class, an individual or a literal.",
+                        i + 1,
+                        query
+                    )
+                );
+            }
+        }
+
+        return new PreparedQuery(
+            instances,
+            ontologyManager,
+            query,
+            template,
+            Collections.unmodifiableList(parameterTypes),
+            placeholders
+        );
+    }
+
+    /**
+     * Get the query from which this prepared query was created.
+     *
+     * @return The query with the parameters marked by {@code ?}.
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    /**
+     * Get the number of parameters of the query.
+     *
+     * @return The number of parameters.
+     */
+    public int getParameterCount() {
+        return parameterTypes.size();
+    }
+
+    /**
+     * Get the types of the parameters of the query, in the order of their
+     * occurrence in the query.
+     *
+     * @return An unmodifiable list of the types of the parameters.
+     */
+    public List<ParameterType> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    /**
+     * Binds the provided values to the parameters of the query.
+     *
+     * @param parameters The values of the parameters, in the order of their
+     *                   occurrence in the query.
+     *
+     * @return The class expression of the query with the parameters replaced
+     *         by the provided values.
+     *
+     * @throws IllegalArgumentException If the number of values doesn't match
+     *                                  the number of parameters or if a value
+     *                                  can't be used for its parameter.
+     */
+    public OWLClassExpression bind(final Object... parameters) {
+        Objects.requireNonNull(parameters);
+        if (parameters.length != parameterTypes.size()) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "The query \"%s\" has %d parameters, but %d values were "
+                        + "provided.",
+                    query,
+                    parameterTypes.size(),
+                    parameters.length
+                )
+            );
+        }
+
+        final OWLDataFactory dataFactory = ontologyManager.getOWLDataFactory();
+        final Map<OWLEntity, IRI> entities = new HashMap<>();
+        final Map<OWLLiteral, OWLLiteral> literals = new HashMap<>();
+        for (int i = 0; i < parameters.length; i++) {
+            final Object value = parameters[i];
+            if (value == null) {
+                throw new IllegalArgumentException(
+                    String.format("The value of parameter %d is null.", i + 1)
+                );
+            }
+            switch (parameterTypes.get(i)) {
+                case CLASS:
+                    entities.put(
+                        (OWLEntity) placeholders.get(i),
+                        toIri(value, OWLClass.class, i)
+                    );
+                    break;
+                case INDIVIDUAL:
+                    entities.put(
+                        (OWLEntity) placeholders.get(i),
+                        toIri(value, OWLNamedIndividual.class, i)
+                    );
+                    break;
+                default:
+                    literals.put(
+                        (OWLLiteral) placeholders.get(i),
+                        toLiteral(dataFactory, value, i)
+                    );
+                    break;
+            }
+        }
+
+        return new OWLObjectDuplicator(entities, literals, ontologyManager)
+            .duplicateObject(template);
+    }
+
+    /**
+     * Executes the query with the provided parameters.
+     *
+     * @param parameters The values of the parameters.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #bind(java.lang.Object...)
+     * @see Instances#instances(org.semanticweb.owlapi.model.OWLClassExpression)
+     */
+    public Stream<OWLNamedIndividual> instances(final Object... parameters) {
+        return instances.instances(bind(parameters));
+    }
+
+    /**
+     * Executes the query with the provided parameters.
+     *
+     * @param parameters The values of the parameters.
+     *
+     * @return A list with the matching individuals.
+     *
+     * @see #bind(java.lang.Object...)
+     */
+    public List<OWLNamedIndividual> getInstances(final Object... parameters) {
+        return instances(parameters).collect(Collectors.toList());
+    }
+
+    /**
+     * Executes the query with the provided parameters and
+     * {@link QueryOptions}.
+     *
+     * @param options    The options for the query.
+     * @param parameters The values of the parameters.
+     *
+     * @return A stream with the matching individuals.
+     *
+     * @see #bind(java.lang.Object...)
+     * @see Instances#instances(org.semanticweb.owlapi.model.OWLClassExpression,
+     * de.jpdigital.owlapisimplex.QueryOptions)
+     */
+    public Stream<OWLNamedIndividual> instances(
+        final QueryOptions options, final Object... parameters
+    ) {
+        return instances.instances(bind(parameters), options);
+    }
+
+    /**
+     * Executes the query with the provided parameters and
+     * {@link QueryOptions}.
+     *
+     * @param options    The options for the query.
+     * @param parameters The values of the parameters.
+     *
+     * @return A list with the matching individuals.
+     *
+     * @see #bind(java.lang.Object...)
+     */
+    public List<OWLNamedIndividual> getInstances(
+        final QueryOptions options, final Object... parameters
+    ) {
+        return instances(options, parameters).collect(Collectors.toList());
+    }
+
+    /**
+     * Counts the individuals matching the query with the provided parameters.
+     *
+     * @param parameters The values of the parameters.
+     *
+     * @return The number of matching individuals.
+     *
+     * @see #bind(java.lang.Object...)
+     */
+    public long countInstances(final Object... parameters) {
+        return instances.countInstances(bind(parameters));
+    }
+
+    /**
+     * Checks if any individuals match the query with the provided parameters.
+     *
+     * @param parameters The values of the parameters.
+     *
+     * @return {@code true} if at least one individual matches the query,
+     *         {@code false} otherwise.
+     *
+     * @see #bind(java.lang.Object...)
+     */
+    public boolean hasInstances(final Object... parameters) {
+        return instances.hasInstances(bind(parameters));
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s{ query = \"%s\", parameterTypes = %s }",
+            super.toString(),
+            query,
+            parameterTypes
+        );
+    }
+
+    /**
+     * Splits a query at the parameter markers. Question marks in quoted
+     * literals and in full IRIs are not parameter markers. In a facet
+     * restriction, for example {@code int[<= ?, > ?]}, a {@code <} directly
+     * after {@code [} or {@code ,} is a facet and not the start of an IRI.
+     *
+     * @param query The query.
+     *
+     * @return The parts of the query between the parameter markers.
+     */
+    private static List<String> split(final String query) {
+        final List<String> parts = new ArrayList<>();
+        final StringBuilder part = new StringBuilder();
+        boolean quoted = false;
+        boolean iri = false;
+        // Depth of the brackets of facet restrictions and the last character
+        // outside of literals and IRIs which isn't whitespace.
+        int facets = 0;
+        char previous = ' ';
+        for (int i = 0; i < query.length(); i++) {
+            final char current = query.charAt(i);
+            if (quoted) {
+                if (current == '\\' && i + 1 < query.length()) {
+                    part.append(current);
+                    i++;
+                    part.append(query.charAt(i));
+                    continue;
+                }
+                quoted = current != '"';
+            } else if (iri) {
+                iri = current != '>';
+            } else if (current == '"') {
+                quoted = true;
+            } else if (current == '<') {
+                iri = !(facets > 0 && (previous == '[' || previous == ','))
+                          && isIri(query, i);
+            } else if (current == '?') {
+                parts.add(part.toString());
+                part.setLength(0);
+                previous = current;
+                continue;
+            } else if (current == '[') {
+                facets++;
+            } else if (current == ']' && facets > 0) {
+                facets--;
+            }
+            if (!Character.isWhitespace(current)) {
+                previous = current;
+            }
+            part.append(current);
+        }
+        parts.add(part.toString());
+        return parts;
+    }
+
+    /**
+     * Checks if a full IRI starts at a position of a query. A full IRI is
+     * enclosed in {@code <} and {@code >}, contains no whitespace and has a
+     * scheme, therefore it contains a {@code :}.
+     *
+     * @param query The query.
+     * @param start The position of the {@code <}.
+     *
+     * @return {@code true} if an IRI starts at the position, {@code false}
+     *         otherwise.
+     */
+    private static boolean isIri(final String query, final int start) {
+        final int end = query.indexOf('>', start + 1);
+        if (end < 0) {
+            return false;
+        }
+        final String iri = query.substring(start + 1, end);
+        return iri.indexOf(':') > 0
+                   && iri.chars().noneMatch(Character::isWhitespace);
+    }
+
+    /**
+     * Joins the parts of a query, replacing the parameter markers with names
+     * or placeholder literals.
+     *
+     * @param parts    The parts of the query.
+     * @param literals Which parameters are literals?
+     *
+     * @return The query for the parser.
+     */
+    private static String join(
+        final List<String> parts, final boolean[] literals
+    ) {
+        final StringBuilder result = new StringBuilder(parts.get(0));
+        for (int i = 0; i < literals.length; i++) {
+            result.append(' ');
+            if (literals[i]) {
+                result
+                    .append('"')
+                    .append(PLACEHOLDER_LITERAL)
+                    .append(i)
+                    .append('"');
+            } else {
+                result.append(PARAMETER_NAME).append(i);
+            }
+            result.append(' ').append(parts.get(i + 1));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Get the index of the parameter represented by a name.
+     *
+     * @param name The name.
+     *
+     * @return The index of the parameter or {@code -1} if the name does not
+     *         represent a parameter.
+     */
+    private static int parameterIndex(final String name) {
+        if (name == null
+                || !name.startsWith(PARAMETER_NAME)
+                || name.length() == PARAMETER_NAME.length()
+                || name.length() > PARAMETER_NAME.length() + 9) {
+            return -1;
+        }
+        final String index = name.substring(PARAMETER_NAME.length());
+        if (!index.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        return Integer.parseInt(index);
+    }
+
+    /**
+     * Collects the literals used in an OWL object and its components.
+     *
+     * @param object The object.
+     *
+     * @return A stream of the literals.
+     */
+    private static Stream<OWLLiteral> literals(final Object object) {
+        if (object instanceof OWLLiteral) {
+            return Stream.of((OWLLiteral) object);
+        } else if (object instanceof OWLObject) {
+            return ((OWLObject) object)
+                .components()
+                .flatMap(PreparedQuery::literals);
+        } else if (object instanceof Collection) {
+            return ((Collection<?>) object)
+                .stream()
+                .flatMap(PreparedQuery::literals);
+        } else {
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Converts the value of a class or individual parameter to an IRI.
+     *
+     * @param value      The value.
+     * @param entityType The expected type of entity.
+     * @param index      The index of the parameter.
+     *
+     * @return The IRI of the value.
+     *
+     * @throws IllegalArgumentException If the value is not an entity of the
+     *                                  expected type or an {@link IRI}.
+     */
+    private static IRI toIri(
+        final Object value,
+        final Class<? extends OWLEntity> entityType,
+        final int index
+    ) {
+        if (value instanceof IRI) {
+            return (IRI) value;
+        } else if (entityType.isInstance(value)) {
+            return ((OWLEntity) value).getIRI();
+        } else {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Parameter %d expects a %s or an IRI, but the value is "
+                        + "a %s.",
+                    index + 1,
+                    entityType.getSimpleName(),
+                    value.getClass().getName()
+                )
+            );
+        }
+    }
+
+    /**
+     * Converts the value of a literal parameter to an {@link OWLLiteral}.
+     *
+     * @param dataFactory The data factory.
+     * @param value       The value.
+     * @param index       The index of the parameter.
+     *
+     * @return The literal.
+     *
+     * @throws IllegalArgumentException If the value can't be converted to a
+     *                                  literal.
+     */
+    private static OWLLiteral toLiteral(
+        final OWLDataFactory dataFactory, final Object value, final int index
+    ) {
+        final OWLLiteral literal = LiteralValues.toLiteral(dataFactory, value);
+        if (literal == null) {
+            throw new IllegalArgumentException(
+                String.format(
+                    "Parameter %d expects a literal, but values of type %s "
+                        + "are not supported.",
+                    index + 1,
+                    value.getClass().getName()
+                )
+            );
+        }
+        return literal;
+    }
+
+    /**
+     * An {@link OWLEntityChecker} which resolves the names of the parameters
+     * to placeholder classes and individuals and delegates all other names.
+     */
+    private static final class PlaceholderEntityChecker
+        implements OWLEntityChecker {
+
+        /**
+         * The entity checker for all other names.
+         */
+        private final OWLEntityChecker delegate;
+
+        /**
+         * The data factory used to create the placeholders.
+         */
+        private final OWLDataFactory dataFactory;
+
+        PlaceholderEntityChecker(
+            final OWLEntityChecker delegate, final OWLDataFactory dataFactory
+        ) {
+            this.delegate = delegate;
+            this.dataFactory = dataFactory;
+        }
+
+        @Override
+        public OWLClass getOWLClass(final String name) {
+            final int index = parameterIndex(name);
+            if (index >= 0) {
+                return dataFactory.getOWLClass(
+                    IRI.create(PLACEHOLDER_IRI + "class:" + index)
+                );
+            }
+            return delegate.getOWLClass(name);
+        }
+
+        @Override
+        public OWLObjectProperty getOWLObjectProperty(final String name) {
+            return delegate.getOWLObjectProperty(name);
+        }
+
+        @Override
+        public OWLDataProperty getOWLDataProperty(final String name) {
+            return delegate.getOWLDataProperty(name);
+        }
+
+        @Override
+        public OWLNamedIndividual getOWLIndividual(final String name) {
+            final int index = parameterIndex(name);
+            if (index >= 0) {
+                return dataFactory.getOWLNamedIndividual(
+                    IRI.create(PLACEHOLDER_IRI + "individual:" + index)
+                );
+            }
+            return delegate.getOWLIndividual(name);
+        }
+
+        @Override
+        public OWLDatatype getOWLDatatype(final String name) {
+            return delegate.getOWLDatatype(name);
+        }
+
+        @Override
+        public OWLAnnotationProperty getOWLAnnotationProperty(
+            final String name
+        ) {
+            return delegate.getOWLAnnotationProperty(name);
+        }
+
+    }
+
+}
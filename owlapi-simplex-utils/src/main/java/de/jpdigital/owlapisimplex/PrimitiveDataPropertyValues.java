@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLLiteral;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.IntFunction;
+import java.util.stream.DoubleStream;
+import java.util.stream.LongStream;
+
+/**
+ * The parsed values of a single data property, stored in primitive arrays.
+ * The values are parsed once when the instance is created, reading them
+ * requires neither parsing nor boxing.
+ *
+ * The values of all individuals are stored in one array per type. The values
+ * of the individual with the id {@code i} are found at the positions
+ * {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive). Only
+ * values which can be represented by the type are included:
+ * <ul>
+ * <li>{@code long}: All integer values and decimal values without a
+ * fractional part, in the range of a {@code long}.</li>
+ * <li>{@code double}: All numeric values.</li>
+ * <li>{@code boolean}: All {@code xsd:boolean} values.</li>
+ * </ul>
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class PrimitiveDataPropertyValues {
+
+    private final int[] longOffsets;
+
+    private final long[] longValues;
+
+    private final int[] doubleOffsets;
+
+    private final double[] doubleValues;
+
+    private final int[] booleanOffsets;
+
+    private final boolean[] booleanValues;
+
+    /**
+     * Parses the values of a data property.
+     *
+     * @param valueIndex      The value index of the property.
+     * @param individualCount The number of individuals in the dictionary.
+     */
+    PrimitiveDataPropertyValues(
+        final DataPropertyValueIndex valueIndex, final int individualCount
+    ) {
+        this(
+            valueIndex::getValues,
+            individualCount,
+            valueIndex.getValueCount()
+        );
+    }
+
+    /**
+     * Parses the values of a single individual, for example the values
+     * entailed by the reasoner. The values are stored as the values of the
+     * individual with the id {@code 0}.
+     *
+     * @param literals The values.
+     *
+     * @return The parsed values.
+     */
+    static PrimitiveDataPropertyValues parse(final OWLLiteral[] literals) {
+        return new PrimitiveDataPropertyValues(
+            id -> literals, 1, literals.length
+        );
+    }
+
+    /**
+     * Parses the values of the individuals provided by a function.
+     *
+     * @param values          Provides the values of an individual.
+     * @param individualCount The number of individuals.
+     * @param valueCount      The expected number of values of all
+     *                        individuals, used as initial capacity. Values
+     *                        may be added to a value index while it is
+     *                        parsed.
+     */
+    private PrimitiveDataPropertyValues(
+        final IntFunction<OWLLiteral[]> values,
+        final int individualCount,
+        final int valueCount
+    ) {
+        long[] longs = new long[valueCount];
+        double[] doubles = new double[valueCount];
+        boolean[] booleans = new boolean[valueCount];
+        longOffsets = new int[individualCount + 1];
+        doubleOffsets = new int[individualCount + 1];
+        booleanOffsets = new int[individualCount + 1];
+
+        int longCount = 0;
+        int doubleCount = 0;
+        int booleanCount = 0;
+        for (int id = 0; id < individualCount; id++) {
+            longOffsets[id] = longCount;
+            doubleOffsets[id] = doubleCount;
+            booleanOffsets[id] = booleanCount;
+            final OWLLiteral[] literals = values.apply(id);
+            final int required = doubleCount
+                                      + booleanCount
+                                      + literals.length;
+            if (required > doubles.length) {
+                final int capacity = Math.max(required, doubles.length * 2);
+                longs = Arrays.copyOf(longs, capacity);
+                doubles = Arrays.copyOf(doubles, capacity);
+                booleans = Arrays.copyOf(booleans, capacity);
+            }
+            for (final OWLLiteral literal : literals) {
+                final Object key = LiteralValues.toKey(literal);
+                if (key instanceof BigDecimal) {
+                    final BigDecimal value = (BigDecimal) key;
+                    doubles[doubleCount++] = value.doubleValue();
+                    if (isLong(value)) {
+                        longs[longCount++] = value.longValue();
+                    }
+                } else if (key instanceof Double) {
+                    doubles[doubleCount++] = (Double) key;
+                } else if (key instanceof Boolean) {
+                    booleans[booleanCount++] = (Boolean) key;
+                }
+            }
+        }
+        longOffsets[individualCount] = longCount;
+        doubleOffsets[individualCount] = doubleCount;
+        booleanOffsets[individualCount] = booleanCount;
+
+        longValues = Arrays.copyOf(longs, longCount);
+        doubleValues = Arrays.copyOf(doubles, doubleCount);
+        booleanValues = Arrays.copyOf(booleans, booleanCount);
+    }
+
+    /**
+     * Get the {@code long} values of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     *
+     * @return A stream of the values, backed by the internal array.
+     */
+    LongStream longValues(final int individualId) {
+        if (individualId < 0) {
+            return LongStream.empty();
+        }
+        return Arrays.stream(
+            longValues,
+            longOffsets[individualId],
+            longOffsets[individualId + 1]
+        );
+    }
+
+    /**
+     * Get the {@code long} values of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     *
+     * @return A new array with the values.
+     */
+    long[] getLongValues(final int individualId) {
+        if (individualId < 0) {
+            return new long[0];
+        }
+        return Arrays.copyOfRange(
+            longValues,
+            longOffsets[individualId],
+            longOffsets[individualId + 1]
+        );
+    }
+
+    /**
+     * Get the first {@code long} value of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     * @param defaultValue The value to return if the individual has no
+     *                     {@code long} value.
+     *
+     * @return The first value or the default value.
+     */
+    long getLongValue(final int individualId, final long defaultValue) {
+        if (individualId < 0
+                || longOffsets[individualId] == longOffsets[individualId + 1]) {
+            return defaultValue;
+        }
+        return longValues[longOffsets[individualId]];
+    }
+
+    /**
+     * Get the {@code double} values of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     *
+     * @return A stream of the values, backed by the internal array.
+     */
+    DoubleStream doubleValues(final int individualId) {
+        if (individualId < 0) {
+            return DoubleStream.empty();
+        }
+        return Arrays.stream(
+            doubleValues,
+            doubleOffsets[individualId],
+            doubleOffsets[individualId + 1]
+        );
+    }
+
+    /**
+     * Get the {@code double} values of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     *
+     * @return A new array with the values.
+     */
+    double[] getDoubleValues(final int individualId) {
+        if (individualId < 0) {
+            return new double[0];
+        }
+        return Arrays.copyOfRange(
+            doubleValues,
+            doubleOffsets[individualId],
+            doubleOffsets[individualId + 1]
+        );
+    }
+
+    /**
+     * Get the first {@code double} value of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     * @param defaultValue The value to return if the individual has no
+     *                     numeric value.
+     *
+     * @return The first value or the default value.
+     */
+    double getDoubleValue(final int individualId, final double defaultValue) {
+        if (individualId < 0
+                || doubleOffsets[individualId]
+                       == doubleOffsets[individualId + 1]) {
+            return defaultValue;
+        }
+        return doubleValues[doubleOffsets[individualId]];
+    }
+
+    /**
+     * Get the {@code boolean} values of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     *
+     * @return A new array with the values.
+     */
+    boolean[] getBooleanValues(final int individualId) {
+        if (individualId < 0) {
+            return new boolean[0];
+        }
+        return Arrays.copyOfRange(
+            booleanValues,
+            booleanOffsets[individualId],
+            booleanOffsets[individualId + 1]
+        );
+    }
+
+    /**
+     * Get the first {@code boolean} value of an individual.
+     *
+     * @param individualId The id of the individual, {@code -1} for an unknown
+     *                     individual.
+     * @param defaultValue The value to return if the individual has no
+     *                     {@code boolean} value.
+     *
+     * @return The first value or the default value.
+     */
+    boolean getBooleanValue(
+        final int individualId, final boolean defaultValue
+    ) {
+        if (individualId < 0
+                || booleanOffsets[individualId]
+                       == booleanOffsets[individualId + 1]) {
+            return defaultValue;
+        }
+        return booleanValues[booleanOffsets[individualId]];
+    }
+
+    /**
+     * Estimates the memory used by the parsed values.
+     *
+     * @return The estimated size in bytes.
+     */
+    long estimateMemoryUsage() {
+        return MemoryEstimates.intArray(longOffsets.length)
+                   + MemoryEstimates.longArray(longValues.length)
+                   + MemoryEstimates.intArray(doubleOffsets.length)
+                   + MemoryEstimates.longArray(doubleValues.length)
+                   + MemoryEstimates.intArray(booleanOffsets.length)
+                   + MemoryEstimates.OBJECT_HEADER + booleanValues.length;
+    }
+
+    /**
+     * Helper method for checking if a decimal value is an integer in the
+     * range of a {@code long}.
+     *
+     * @param value The value.
+     *
+     * @return {@code true} if the value can be converted to a {@code long}
+     *         without loss, {@code false} otherwise.
+     */
+    private static boolean isLong(final BigDecimal value) {
+        try {
+            value.longValueExact();
+            return true;
+        } catch (ArithmeticException ex) {
+            return false;
+        }
+    }
+
+}
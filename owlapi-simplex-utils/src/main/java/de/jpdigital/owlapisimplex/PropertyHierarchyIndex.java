@@ -0,0 +1,410 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * The inferred hierarchies of the object and data properties of an ontology,
+ * built once from the reasoner.
+ *
+ * For each property the index stores the named properties whose assertions
+ * are also assertions of the property: The property itself, its equivalent
+ * properties and all (direct and indirect) sub-properties. For object
+ * properties the index also stores the named properties whose assertions are
+ * assertions of the property in the opposite direction, for example the
+ * declared inverse properties and their sub-properties. The
+ * {@link OntologyIndex} uses these sets to expand a property to its
+ * sub-properties when it materializes the assertions of the property.
+ *
+ * In addition the index knows which properties are used in axioms other than
+ * assertions and simple property axioms (sub-properties, inverses, domain and
+ * range etc.), for example transitive properties, property chains,
+ * functional properties or {@code hasValue} restrictions. The values of such
+ * properties can't be derived from the materialized assertions and must be
+ * retrieved from the reasoner. The same applies to all properties if the
+ * ontology may entail that two individuals are the same individual (see
+ * {@link #mayEntailSameAs()}), because an individual has all values of the
+ * individuals it is equal to.
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class PropertyHierarchyIndex {
+
+    /**
+     * Axiom types which don't entail property values beyond the asserted
+     * values and the values covered by the property hierarchy.
+     */
+    private static final Set<AxiomType<?>> SIMPLE_AXIOM_TYPES = new HashSet<>(
+        Arrays.asList(
+            AxiomType.DECLARATION,
+            AxiomType.ANNOTATION_ASSERTION,
+            AxiomType.OBJECT_PROPERTY_ASSERTION,
+            AxiomType.NEGATIVE_OBJECT_PROPERTY_ASSERTION,
+            AxiomType.SUB_OBJECT_PROPERTY,
+            AxiomType.EQUIVALENT_OBJECT_PROPERTIES,
+            AxiomType.INVERSE_OBJECT_PROPERTIES,
+            AxiomType.DISJOINT_OBJECT_PROPERTIES,
+            AxiomType.OBJECT_PROPERTY_DOMAIN,
+            AxiomType.OBJECT_PROPERTY_RANGE,
+            AxiomType.ASYMMETRIC_OBJECT_PROPERTY,
+            AxiomType.IRREFLEXIVE_OBJECT_PROPERTY,
+            AxiomType.DATA_PROPERTY_ASSERTION,
+            AxiomType.NEGATIVE_DATA_PROPERTY_ASSERTION,
+            AxiomType.SUB_DATA_PROPERTY,
+            AxiomType.EQUIVALENT_DATA_PROPERTIES,
+            AxiomType.DISJOINT_DATA_PROPERTIES,
+            AxiomType.DATA_PROPERTY_DOMAIN,
+            AxiomType.DATA_PROPERTY_RANGE
+        )
+    );
+
+    /**
+     * Axiom types which may entail that two individuals are the same
+     * individual.
+     */
+    private static final Set<AxiomType<?>> EQUALITY_AXIOM_TYPES
+                                               = new HashSet<>(
+            Arrays.asList(
+                AxiomType.SAME_INDIVIDUAL,
+                AxiomType.FUNCTIONAL_OBJECT_PROPERTY,
+                AxiomType.INVERSE_FUNCTIONAL_OBJECT_PROPERTY,
+                AxiomType.HAS_KEY
+            )
+        );
+
+    /**
+     * Class expression types which may entail that two individuals are the
+     * same individual if used in an axiom. Any maximum cardinality may force
+     * two fillers to be equal, if the other fillers are known to be
+     * different.
+     */
+    private static final Set<ClassExpressionType> EQUALITY_CLASS_EXPRESSION_TYPES
+                                                      = EnumSet.of(
+            ClassExpressionType.OBJECT_MAX_CARDINALITY,
+            ClassExpressionType.OBJECT_EXACT_CARDINALITY,
+            ClassExpressionType.OBJECT_ONE_OF
+        );
+
+    /**
+     * The sub-properties of the object properties, including the property
+     * itself and its equivalent properties.
+     */
+    private final Map<OWLObjectProperty, Set<OWLObjectProperty>> objectSubProperties;
+
+    /**
+     * The properties whose assertions are assertions of an object property
+     * in the opposite direction.
+     */
+    private final Map<OWLObjectProperty, Set<OWLObjectProperty>> inverseSubProperties;
+
+    /**
+     * The sub-properties of the data properties, including the property
+     * itself and its equivalent properties.
+     */
+    private final Map<OWLDataProperty, Set<OWLDataProperty>> dataSubProperties;
+
+    /**
+     * The properties used in axioms which entail additional values.
+     */
+    private final Set<OWLEntity> derivedProperties;
+
+    /**
+     * May the ontology entail that two individuals are the same individual?
+     */
+    private final boolean mayEntailSameAs;
+
+    /**
+     * Builds the hierarchies of the properties of an ontology and its
+     * imports.
+     *
+     * @param ontology The ontology.
+     * @param reasoner The reasoner for the ontology.
+     */
+    PropertyHierarchyIndex(
+        final OWLOntology ontology, final OWLReasoner reasoner
+    ) {
+        reasoner.precomputeInferences(
+            InferenceType.OBJECT_PROPERTY_HIERARCHY,
+            InferenceType.DATA_PROPERTY_HIERARCHY
+        );
+
+        objectSubProperties = new HashMap<>();
+        inverseSubProperties = new HashMap<>();
+        ontology
+            .objectPropertiesInSignature(Imports.INCLUDED)
+            .forEach(property -> {
+                final Set<OWLObjectPropertyExpression> subProperties = Stream
+                    .concat(
+                        reasoner.getSubObjectProperties(property, false)
+                            .entities(),
+                        reasoner.getEquivalentObjectProperties(property)
+                            .entities()
+                    )
+                    .collect(Collectors.toSet());
+                final Set<OWLObjectPropertyExpression> inverseProperties
+                                                           = Stream
+                        .concat(
+                            reasoner
+                                .getSubObjectProperties(
+                                    property.getInverseProperty(), false
+                                )
+                                .entities(),
+                            reasoner
+                                .getEquivalentObjectProperties(
+                                    property.getInverseProperty()
+                                )
+                                .entities()
+                        )
+                        .collect(Collectors.toSet());
+                // The declared inverse properties are included, even if the
+                // reasoner doesn't report them as sub-properties of the
+                // inverse of the property.
+                ontology
+                    .importsClosure()
+                    .flatMap(
+                        imported -> imported.inverseObjectPropertyAxioms(
+                            property
+                        )
+                    )
+                    .flatMap(axiom -> axiom.properties())
+                    .filter(inverse -> !inverse.equals(property))
+                    .forEach(inverseProperties::add);
+
+                // An inverse expression in the sub-properties of the property
+                // is a named property in the opposite direction and vice
+                // versa.
+                final Set<OWLObjectProperty> forward = Stream
+                    .concat(
+                        named(subProperties, false),
+                        named(inverseProperties, true)
+                    )
+                    .collect(Collectors.toSet());
+                forward.add(property);
+                final Set<OWLObjectProperty> reversed = Stream
+                    .concat(
+                        named(inverseProperties, false),
+                        named(subProperties, true)
+                    )
+                    .collect(Collectors.toSet());
+                objectSubProperties.put(
+                    property, Collections.unmodifiableSet(forward)
+                );
+                inverseSubProperties.put(
+                    property, Collections.unmodifiableSet(reversed)
+                );
+            });
+
+        dataSubProperties = new HashMap<>();
+        ontology
+            .dataPropertiesInSignature(Imports.INCLUDED)
+            .forEach(property -> {
+                final Set<OWLDataProperty> subProperties = Stream
+                    .concat(
+                        reasoner.getSubDataProperties(property, false)
+                            .entities(),
+                        reasoner.getEquivalentDataProperties(property)
+                            .entities()
+                    )
+                    .filter(
+                        subProperty -> !subProperty.isOWLBottomDataProperty()
+                    )
+                    .collect(Collectors.toSet());
+                subProperties.add(property);
+                dataSubProperties.put(
+                    property, Collections.unmodifiableSet(subProperties)
+                );
+            });
+
+        derivedProperties = Stream
+            .concat(
+                ontology.objectPropertiesInSignature(Imports.INCLUDED),
+                ontology.dataPropertiesInSignature(Imports.INCLUDED)
+            )
+            .filter(
+                property -> ontology
+                    .referencingAxioms(property, Imports.INCLUDED)
+                    .anyMatch(
+                        axiom -> !SIMPLE_AXIOM_TYPES.contains(
+                            axiom.getAxiomType()
+                        )
+                    )
+            )
+            .collect(Collectors.toSet());
+        mayEntailSameAs = ontology
+            .logicalAxioms(Imports.INCLUDED)
+            .anyMatch(
+                axiom -> EQUALITY_AXIOM_TYPES.contains(axiom.getAxiomType())
+                             || axiom
+                    .nestedClassExpressions()
+                    .anyMatch(
+                        expression -> EQUALITY_CLASS_EXPRESSION_TYPES.contains(
+                            expression.getClassExpressionType()
+                        )
+                    )
+            );
+    }
+
+    /**
+     * Get the named properties whose assertions are assertions of an object
+     * property.
+     *
+     * @param property The property.
+     *
+     * @return The property, its equivalent properties and its sub-properties.
+     */
+    Set<OWLObjectProperty> getObjectSubProperties(
+        final OWLObjectProperty property
+    ) {
+        return objectSubProperties.getOrDefault(
+            property, Collections.singleton(property)
+        );
+    }
+
+    /**
+     * Get the named properties whose assertions are assertions of an object
+     * property in the opposite direction.
+     *
+     * @param property The property.
+     *
+     * @return The inverse properties and their sub-properties.
+     */
+    Set<OWLObjectProperty> getInverseObjectSubProperties(
+        final OWLObjectProperty property
+    ) {
+        return inverseSubProperties.getOrDefault(
+            property, Collections.emptySet()
+        );
+    }
+
+    /**
+     * Get the named properties whose assertions are assertions of a data
+     * property.
+     *
+     * @param property The property.
+     *
+     * @return The property, its equivalent properties and its sub-properties.
+     */
+    Set<OWLDataProperty> getDataSubProperties(final OWLDataProperty property) {
+        return dataSubProperties.getOrDefault(
+            property, Collections.singleton(property)
+        );
+    }
+
+    /**
+     * Checks if the ontology may entail that two individuals are the same
+     * individual. This is the case if the ontology contains {@code sameAs}
+     * axioms, functional or inverse functional object properties, keys,
+     * maximum or exact cardinalities on object properties or enumerations of
+     * individuals. If equality may be entailed, none of the values of the
+     * properties can be derived from the assertions alone and no enumeration
+     * of individuals can be answered without the reasoner.
+     *
+     * @return {@code true} if the ontology may entail equality of
+     *         individuals, {@code false} otherwise.
+     */
+    boolean mayEntailSameAs() {
+        return mayEntailSameAs;
+    }
+
+    /**
+     * Checks if all values of a property can be derived from the assertions
+     * of the properties it was expanded to.
+     *
+     * @param sourceProperties The properties whose assertions are used.
+     *
+     * @return {@code true} if the assertions are sufficient, {@code false} if
+     *         the reasoner may entail additional values.
+     */
+    boolean isAssertionComplete(
+        final Collection<? extends OWLEntity> sourceProperties
+    ) {
+        return !mayEntailSameAs
+                   && sourceProperties
+                .stream()
+                .noneMatch(derivedProperties::contains);
+    }
+
+    /**
+     * Estimates the memory used by the index, excluding the properties which
+     * are shared with the ontology.
+     *
+     * @return The estimated size of the index in bytes.
+     */
+    long estimateMemoryUsage() {
+        final long sets = Stream
+            .concat(
+                Stream.concat(
+                    objectSubProperties.values().stream(),
+                    inverseSubProperties.values().stream()
+                ),
+                dataSubProperties.values().stream()
+            )
+            .mapToLong(properties -> MemoryEstimates.map(properties.size()))
+            .sum();
+        return MemoryEstimates.map(objectSubProperties.size())
+                   + MemoryEstimates.map(inverseSubProperties.size())
+                   + MemoryEstimates.map(dataSubProperties.size())
+                   + MemoryEstimates.map(derivedProperties.size())
+                   + sets;
+    }
+
+    /**
+     * Helper method for extracting the named properties from a set of
+     * property expressions.
+     *
+     * @param expressions The property expressions.
+     * @param inverse     Extract the named properties ({@code false}) or the
+     *                    properties of inverse expressions ({@code true})?
+     *
+     * @return The named properties, without {@code owl:bottomObjectProperty}.
+     */
+    private static Stream<OWLObjectProperty> named(
+        final Set<OWLObjectPropertyExpression> expressions,
+        final boolean inverse
+    ) {
+        return expressions
+            .stream()
+            .filter(expression -> expression.isAnonymous() == inverse)
+            .map(OWLObjectPropertyExpression::getNamedProperty)
+            .filter(property -> !property.isOWLBottomObjectProperty());
+    }
+
+}
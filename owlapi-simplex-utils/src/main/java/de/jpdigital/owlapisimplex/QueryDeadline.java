@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A deadline and cancellation token for a single query. A query using a
+ * {@code QueryDeadline} fails with a {@link QueryTimeoutException} if the
+ * deadline has passed, and with a {@link QueryCancelledException} if
+ * {@link #cancel()} has been called, for example by another thread.
+ *
+ * Calls of the reasoner are interrupted using
+ * {@link org.semanticweb.owlapi.reasoner.OWLReasoner#interrupt()} when the
+ * deadline passes or the query is cancelled. The streams returned by the
+ * queries check the deadline for each element (cooperative cancellation).
+ *
+ * <pre>
+ * QueryDeadline deadline = QueryDeadline.buildQueryDeadline(
+ *     Duration.ofSeconds(2)
+ * );
+ * List&lt;OWLNamedIndividual&gt; result = instances.getInstances(
+ *     "Person and (age some xsd:int)", deadline
+ * );
+ * </pre>
+ *
+ * The deadline is fixed when the {@code QueryDeadline} is created. A
+ * {@code QueryDeadline} should therefore be created for each query.
+ *
+ * Instances of this class are thread safe.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class QueryDeadline {
+
+    /**
+     * A deadline which never passes and can't be cancelled. Used by the
+     * query methods which have no {@code QueryDeadline} parameter.
+     */
+    static final QueryDeadline NONE = new QueryDeadline(false, 0, false);
+
+    /**
+     * The longest supported timeout. Longer timeouts are shortened to this
+     * value, which is still more than 100 years.
+     */
+    private static final long MAX_TIMEOUT_NANOS = Long.MAX_VALUE / 2;
+
+    /**
+     * Does this deadline have a timeout?
+     */
+    private final boolean timeout;
+
+    /**
+     * The deadline as value of {@link System#nanoTime()}. Only used if
+     * {@link #timeout} is {@code true}.
+     */
+    private final long deadline;
+
+    /**
+     * Can this deadline be cancelled?
+     */
+    private final boolean cancellable;
+
+    /**
+     * Has the query been cancelled?
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * Listeners which are called if the query is cancelled, for example to
+     * interrupt the reasoner.
+     */
+    private final List<Runnable> cancelListeners;
+
+    private QueryDeadline(
+        final boolean timeout, final long deadline, final boolean cancellable
+    ) {
+        this.timeout = timeout;
+        this.deadline = deadline;
+        this.cancellable = cancellable;
+        cancelListeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Factory method for a {@code QueryDeadline} without a timeout. The query
+     * runs until it is finished or {@link #cancel()} is called.
+     *
+     * @return A new {@code QueryDeadline}.
+     */
+    public static QueryDeadline buildQueryDeadline() {
+        return new QueryDeadline(false, 0, true);
+    }
+
+    /**
+     * Factory method for a {@code QueryDeadline} which passes after the
+     * provided timeout.
+     *
+     * @param timeout The maximum duration of the query, measured from now.
+     *
+     * @return A new {@code QueryDeadline}.
+     *
+     * @throws IllegalArgumentException If the timeout is negative.
+     */
+    public static QueryDeadline buildQueryDeadline(final Duration timeout) {
+        Objects.requireNonNull(timeout);
+        if (timeout.isNegative()) {
+            throw new IllegalArgumentException(
+                String.format("Invalid timeout %s.", timeout)
+            );
+        }
+
+        final long nanos;
+        if (timeout.compareTo(Duration.ofNanos(MAX_TIMEOUT_NANOS)) < 0) {
+            nanos = timeout.toNanos();
+        } else {
+            nanos = MAX_TIMEOUT_NANOS;
+        }
+        return new QueryDeadline(true, System.nanoTime() + nanos, true);
+    }
+
+    /**
+     * Cancels the query. If the query is calling the reasoner, the reasoner
+     * is interrupted. Calling this method has no effect if the query is
+     * already finished.
+     */
+    public void cancel() {
+        if (!cancellable || cancelled) {
+            return;
+        }
+        cancelled = true;
+        cancelListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * @return {@code true} if {@link #cancel()} has been called.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * @return Does this {@code QueryDeadline} have a timeout?
+     */
+    public boolean hasTimeout() {
+        return timeout;
+    }
+
+    /**
+     * @return {@code true} if the deadline has passed.
+     */
+    public boolean isExpired() {
+        return hasTimeout() && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * @return The time remaining until the deadline passes. If the deadline
+     *         has passed {@link Duration#ZERO} is returned. If there is no
+     *         timeout, the returned {@link Duration} is effectively infinite.
+     */
+    public Duration getRemaining() {
+        if (!hasTimeout()) {
+            return Duration.ofNanos(Long.MAX_VALUE);
+        }
+        return Duration.ofNanos(Math.max(0, deadline - System.nanoTime()));
+    }
+
+    /**
+     * Registers a listener which is called if the query is cancelled.
+     *
+     * @param listener The listener.
+     */
+    void addCancelListener(final Runnable listener) {
+        if (cancellable) {
+            cancelListeners.add(listener);
+        }
+    }
+
+    /**
+     * Removes a listener added by {@link #addCancelListener(Runnable)}.
+     *
+     * @param listener The listener.
+     */
+    void removeCancelListener(final Runnable listener) {
+        cancelListeners.remove(listener);
+    }
+
+}
@@ -0,0 +1,525 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLDataRange;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A type-safe builder for class expressions, for use with the typed constants
+ * generated by the OWL API Generator. For example the Manchester syntax query
+ * {@code Employee and (worksFor some Company)} can be written as
+ *
+ * <pre>
+ * import static de.jpdigital.owlapisimplex.QueryExpression.*;
+ *
+ * cls(EMPLOYEE).and(some(WORKS_FOR, COMPANY))
+ * </pre>
+ *
+ * In contrast to a query in Manchester syntax a {@code QueryExpression} is
+ * checked by the compiler and doesn't need to be parsed. Query expressions
+ * can be passed to the query methods of {@link Instances}, for example
+ * {@link Instances#instances(de.jpdigital.owlapisimplex.QueryExpression)}.
+ *
+ * Instances of this class are immutable. The methods combining expressions
+ * create new instances.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class QueryExpression {
+
+    /**
+     * The data factory used to create the class expressions.
+     */
+    private static final OWLDataFactory DATA_FACTORY = OWLManager
+        .getOWLDataFactory();
+
+    /**
+     * The class expression built by this instance.
+     */
+    private final OWLClassExpression classExpression;
+
+    /**
+     * Creates a new query expression.
+     *
+     * @param classExpression The class expression.
+     */
+    private QueryExpression(final OWLClassExpression classExpression) {
+        this.classExpression = classExpression;
+    }
+
+    /**
+     * Creates a query expression from an existing class expression.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return A query expression for the class expression.
+     */
+    public static QueryExpression of(final OWLClassExpression classExpression) {
+        Objects.requireNonNull(classExpression);
+
+        return new QueryExpression(classExpression);
+    }
+
+    /**
+     * A named class.
+     *
+     * @param owlClass The class.
+     *
+     * @return A query expression matching the instances of the class.
+     */
+    public static QueryExpression cls(final OWLClass owlClass) {
+        return of(owlClass);
+    }
+
+    /**
+     * {@code owl:Thing}.
+     *
+     * @return A query expression matching all individuals.
+     */
+    public static QueryExpression thing() {
+        return of(DATA_FACTORY.getOWLThing());
+    }
+
+    /**
+     * An enumeration of individuals ({@code {a, b, ...}}).
+     *
+     * @param individuals The individuals.
+     *
+     * @return A query expression matching the provided individuals.
+     */
+    public static QueryExpression oneOf(
+        final OWLNamedIndividual... individuals
+    ) {
+        return of(DATA_FACTORY.getOWLObjectOneOf(individuals));
+    }
+
+    /**
+     * An existential restriction ({@code property some filler}).
+     *
+     * @param property The object property.
+     * @param filler   The class of the values of the property.
+     *
+     * @return A query expression matching the individuals with at least one
+     *         value of the property which is an instance of the filler.
+     */
+    public static QueryExpression some(
+        final OWLObjectPropertyExpression property,
+        final QueryExpression filler
+    ) {
+        return of(
+            DATA_FACTORY.getOWLObjectSomeValuesFrom(
+                property, filler.classExpression
+            )
+        );
+    }
+
+    /**
+     * An existential restriction ({@code property some filler}).
+     *
+     * @param property The object property.
+     * @param filler   The class of the values of the property.
+     *
+     * @return A query expression matching the individuals with at least one
+     *         value of the property which is an instance of the filler.
+     */
+    public static QueryExpression some(
+        final OWLObjectPropertyExpression property, final OWLClass filler
+    ) {
+        return of(DATA_FACTORY.getOWLObjectSomeValuesFrom(property, filler));
+    }
+
+    /**
+     * An existential restriction for a data property
+     * ({@code property some range}).
+     *
+     * @param property The data property.
+     * @param range    The data range of the values, for example a datatype.
+     *
+     * @return A query expression matching the individuals with at least one
+     *         value of the property in the data range.
+     */
+    public static QueryExpression some(
+        final OWLDataProperty property, final OWLDataRange range
+    ) {
+        return of(DATA_FACTORY.getOWLDataSomeValuesFrom(property, range));
+    }
+
+    /**
+     * A universal restriction ({@code property only filler}).
+     *
+     * @param property The object property.
+     * @param filler   The class of the values of the property.
+     *
+     * @return A query expression matching the individuals whose values of the
+     *         property are all instances of the filler.
+     */
+    public static QueryExpression only(
+        final OWLObjectPropertyExpression property,
+        final QueryExpression filler
+    ) {
+        return of(
+            DATA_FACTORY.getOWLObjectAllValuesFrom(
+                property, filler.classExpression
+            )
+        );
+    }
+
+    /**
+     * A universal restriction ({@code property only filler}).
+     *
+     * @param property The object property.
+     * @param filler   The class of the values of the property.
+     *
+     * @return A query expression matching the individuals whose values of the
+     *         property are all instances of the filler.
+     */
+    public static QueryExpression only(
+        final OWLObjectPropertyExpression property, final OWLClass filler
+    ) {
+        return of(DATA_FACTORY.getOWLObjectAllValuesFrom(property, filler));
+    }
+
+    /**
+     * A value restriction for an object property
+     * ({@code property value individual}).
+     *
+     * @param property   The object property.
+     * @param individual The value.
+     *
+     * @return A query expression matching the individuals related to the
+     *         provided individual by the property.
+     */
+    public static QueryExpression value(
+        final OWLObjectPropertyExpression property,
+        final OWLNamedIndividual individual
+    ) {
+        return of(DATA_FACTORY.getOWLObjectHasValue(property, individual));
+    }
+
+    /**
+     * A value restriction for a data property ({@code property value literal}).
+     *
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final OWLLiteral value
+    ) {
+        return of(DATA_FACTORY.getOWLDataHasValue(property, value));
+    }
+
+    /**
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     *
+     * @see #value(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final String value
+    ) {
+        return value(property, LiteralValues.toLiteral(DATA_FACTORY, value));
+    }
+
+    /**
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     *
+     * @see #value(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final long value
+    ) {
+        return value(property, LiteralValues.toLiteral(DATA_FACTORY, value));
+    }
+
+    /**
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     *
+     * @see #value(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final double value
+    ) {
+        return value(property, LiteralValues.toLiteral(DATA_FACTORY, value));
+    }
+
+    /**
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     *
+     * @see #value(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final boolean value
+    ) {
+        return value(property, LiteralValues.toLiteral(DATA_FACTORY, value));
+    }
+
+    /**
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     *
+     * @see #value(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final BigDecimal value
+    ) {
+        return value(property, LiteralValues.toLiteral(DATA_FACTORY, value));
+    }
+
+    /**
+     * @param property The data property.
+     * @param value    The value.
+     *
+     * @return A query expression matching the individuals with the provided
+     *         value of the property.
+     *
+     * @see #value(org.semanticweb.owlapi.model.OWLDataProperty,
+     * org.semanticweb.owlapi.model.OWLLiteral)
+     */
+    public static QueryExpression value(
+        final OWLDataProperty property, final OffsetDateTime value
+    ) {
+        return value(property, LiteralValues.toLiteral(DATA_FACTORY, value));
+    }
+
+    /**
+     * A minimum cardinality restriction ({@code property min n filler}).
+     *
+     * @param cardinality The minimum number of values.
+     * @param property    The object property.
+     * @param filler      The class of the values of the property.
+     *
+     * @return A query expression matching the individuals with at least
+     *         {@code cardinality} values of the property which are instances
+     *         of the filler.
+     */
+    public static QueryExpression min(
+        final int cardinality,
+        final OWLObjectPropertyExpression property,
+        final QueryExpression filler
+    ) {
+        return of(
+            DATA_FACTORY.getOWLObjectMinCardinality(
+                cardinality, property, filler.classExpression
+            )
+        );
+    }
+
+    /**
+     * A maximum cardinality restriction ({@code property max n filler}).
+     *
+     * @param cardinality The maximum number of values.
+     * @param property    The object property.
+     * @param filler      The class of the values of the property.
+     *
+     * @return A query expression matching the individuals with at most
+     *         {@code cardinality} values of the property which are instances
+     *         of the filler.
+     */
+    public static QueryExpression max(
+        final int cardinality,
+        final OWLObjectPropertyExpression property,
+        final QueryExpression filler
+    ) {
+        return of(
+            DATA_FACTORY.getOWLObjectMaxCardinality(
+                cardinality, property, filler.classExpression
+            )
+        );
+    }
+
+    /**
+     * An exact cardinality restriction ({@code property exactly n filler}).
+     *
+     * @param cardinality The number of values.
+     * @param property    The object property.
+     * @param filler      The class of the values of the property.
+     *
+     * @return A query expression matching the individuals with exactly
+     *         {@code cardinality} values of the property which are instances
+     *         of the filler.
+     */
+    public static QueryExpression exactly(
+        final int cardinality,
+        final OWLObjectPropertyExpression property,
+        final QueryExpression filler
+    ) {
+        return of(
+            DATA_FACTORY.getOWLObjectExactCardinality(
+                cardinality, property, filler.classExpression
+            )
+        );
+    }
+
+    /**
+     * The intersection of this expression and the provided expressions
+     * ({@code this and other ...}).
+     *
+     * @param others The other expressions.
+     *
+     * @return A new query expression for the intersection.
+     */
+    public QueryExpression and(final QueryExpression... others) {
+        return of(
+            DATA_FACTORY.getOWLObjectIntersectionOf(
+                operands(others).collect(Collectors.toList())
+            )
+        );
+    }
+
+    /**
+     * The intersection of this expression and a named class
+     * ({@code this and owlClass}).
+     *
+     * @param owlClass The class.
+     *
+     * @return A new query expression for the intersection.
+     */
+    public QueryExpression and(final OWLClass owlClass) {
+        return and(cls(owlClass));
+    }
+
+    /**
+     * The union of this expression and the provided expressions
+     * ({@code this or other ...}).
+     *
+     * @param others The other expressions.
+     *
+     * @return A new query expression for the union.
+     */
+    public QueryExpression or(final QueryExpression... others) {
+        return of(
+            DATA_FACTORY.getOWLObjectUnionOf(
+                operands(others).collect(Collectors.toList())
+            )
+        );
+    }
+
+    /**
+     * The union of this expression and a named class
+     * ({@code this or owlClass}).
+     *
+     * @param owlClass The class.
+     *
+     * @return A new query expression for the union.
+     */
+    public QueryExpression or(final OWLClass owlClass) {
+        return or(cls(owlClass));
+    }
+
+    /**
+     * The complement of this expression ({@code not this}).
+     *
+     * @return A new query expression for the complement.
+     */
+    public QueryExpression not() {
+        return of(DATA_FACTORY.getOWLObjectComplementOf(classExpression));
+    }
+
+    /**
+     * Get the class expression built by this instance.
+     *
+     * @return The class expression.
+     */
+    public OWLClassExpression getClassExpression() {
+        return classExpression;
+    }
+
+    @Override
+    public int hashCode() {
+        return classExpression.hashCode();
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof QueryExpression)) {
+            return false;
+        }
+        final QueryExpression other = (QueryExpression) obj;
+        return classExpression.equals(other.classExpression);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s{ classExpression = %s }",
+            super.toString(),
+            classExpression
+        );
+    }
+
+    /**
+     * Helper method for collecting the operands of an intersection or union.
+     *
+     * @param others The expressions combined with this expression.
+     *
+     * @return The class expressions of this expression and the other
+     *         expressions.
+     */
+    private Stream<OWLClassExpression> operands(
+        final QueryExpression... others
+    ) {
+        return Stream.concat(
+            Stream.of(classExpression),
+            Arrays.stream(others).map(other -> other.classExpression)
+        );
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for monitoring the queries executed by the utility classes which
+ * share an {@link OntologyIndex}. The counters are available using
+ * {@link OntologyIndex#getQueryMetrics()} and can be exported to a
+ * monitoring system by polling them.
+ *
+ * Instances of this class are thread safe.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class QueryMetrics {
+
+    /**
+     * Queries which failed with a {@link QueryTimeoutException}.
+     */
+    private final LongAdder timeouts;
+
+    /**
+     * Queries which failed with a {@link QueryCancelledException} because
+     * they were cancelled.
+     */
+    private final LongAdder cancellations;
+
+    /**
+     * Calls of the reasoner which were interrupted.
+     */
+    private final LongAdder reasonerInterrupts;
+
+    /**
+     * Queries accepted by an {@link AsyncQueries} executor.
+     */
+    private final LongAdder asyncSubmissions;
+
+    /**
+     * Queries rejected by an {@link AsyncQueries} executor because its queue
+     * was full.
+     */
+    private final LongAdder asyncRejections;
+
+    QueryMetrics() {
+        timeouts = new LongAdder();
+        cancellations = new LongAdder();
+        reasonerInterrupts = new LongAdder();
+        asyncSubmissions = new LongAdder();
+        asyncRejections = new LongAdder();
+    }
+
+    /**
+     * @return The number of queries which timed out, either because their
+     *         {@link QueryDeadline} has passed or because the reasoner
+     *         exceeded its configured timeout.
+     */
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return The number of queries which were cancelled using
+     *         {@link QueryDeadline#cancel()}.
+     */
+    public long getCancellations() {
+        return cancellations.sum();
+    }
+
+    /**
+     * @return The number of calls of the reasoner which were interrupted
+     *         because of a timeout or a cancellation.
+     */
+    public long getReasonerInterrupts() {
+        return reasonerInterrupts.sum();
+    }
+
+    /**
+     * @return The number of queries accepted by the executors of the
+     *         {@link AsyncQueries} instances.
+     */
+    public long getAsyncSubmissions() {
+        return asyncSubmissions.sum();
+    }
+
+    /**
+     * @return The number of queries rejected by the executors of the
+     *         {@link AsyncQueries} instances because their queue was full.
+     */
+    public long getAsyncRejections() {
+        return asyncRejections.sum();
+    }
+
+    void recordTimeout() {
+        timeouts.increment();
+    }
+
+    void recordCancellation() {
+        cancellations.increment();
+    }
+
+    void recordReasonerInterrupt() {
+        reasonerInterrupts.increment();
+    }
+
+    void recordAsyncSubmission() {
+        asyncSubmissions.increment();
+    }
+
+    void recordAsyncRejection() {
+        asyncRejections.increment();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s{timeouts = %d, cancellations = %d, reasonerInterrupts = %d, "
+                + "asyncSubmissions = %d, asyncRejections = %d}",
+            getClass().getSimpleName(),
+            getTimeouts(),
+            getCancellations(),
+            getReasonerInterrupts(),
+            getAsyncSubmissions(),
+            getAsyncRejections()
+        );
+    }
+
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import java.util.Objects;
+
+/**
+ * Options for queries for the instances of a class. Instances of this class
+ * are immutable, the {@code withXxx} methods return a modified copy:
+ *
+ * <pre>
+ * QueryOptions options = QueryOptions
+ *     .buildQueryOptions()
+ *     .withDirect(true)
+ *     .withLimit(10);
+ * </pre>
+ *
+ * The default options (created by {@link #buildQueryOptions()}) return all
+ * (direct and indirect) instances, ordered by their IRI, without a limit,
+ * without a hard cap and without a deadline.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class QueryOptions {
+
+    /**
+     * Value of {@link #limit} and {@link #maxResults} if there is no limit.
+     */
+    public static final long UNLIMITED = Long.MAX_VALUE;
+
+    private static final QueryOptions DEFAULTS = new QueryOptions(
+        false, UNLIMITED, true, UNLIMITED, QueryDeadline.NONE
+    );
+
+    /**
+     * Only the direct instances?
+     */
+    private final boolean direct;
+
+    /**
+     * The maximum number of instances to return. Further instances are
+     * silently skipped.
+     */
+    private final long limit;
+
+    /**
+     * Order the instances by their IRI?
+     */
+    private final boolean ordered;
+
+    /**
+     * The maximum number of instances a query may match. If a query matches
+     * more instances a {@link ResultLimitExceededException} is thrown.
+     */
+    private final long maxResults;
+
+    /**
+     * The deadline of the query.
+     */
+    private final QueryDeadline deadline;
+
+    private QueryOptions(
+        final boolean direct,
+        final long limit,
+        final boolean ordered,
+        final long maxResults,
+        final QueryDeadline deadline
+    ) {
+        this.direct = direct;
+        this.limit = limit;
+        this.ordered = ordered;
+        this.maxResults = maxResults;
+        this.deadline = deadline;
+    }
+
+    /**
+     * Factory method for the default options.
+     *
+     * @return The default options: All instances, ordered by their IRI,
+     *         without a limit.
+     */
+    public static QueryOptions buildQueryOptions() {
+        return DEFAULTS;
+    }
+
+    /**
+     * @return Only the direct instances ({@code true}) or all instances
+     *         ({@code false})?
+     */
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * @return The maximum number of instances to return, or
+     *         {@link #UNLIMITED}.
+     */
+    public long getLimit() {
+        return limit;
+    }
+
+    /**
+     * @return Order the instances by their IRI?
+     */
+    public boolean isOrdered() {
+        return ordered;
+    }
+
+    /**
+     * @return The maximum number of instances a query may match, or
+     *         {@link #UNLIMITED}.
+     */
+    public long getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * @return The deadline of the query. If no deadline has been set, the
+     *         returned {@link QueryDeadline} never passes.
+     */
+    public QueryDeadline getDeadline() {
+        return deadline;
+    }
+
+    /**
+     * Only return the direct instances of the class, for example the
+     * individuals which are not instances of a subclass of the class.
+     *
+     * @param direct Only the direct instances?
+     *
+     * @return A copy of these options with the new value.
+     */
+    public QueryOptions withDirect(final boolean direct) {
+        return new QueryOptions(
+            direct, limit, ordered, maxResults, deadline
+        );
+    }
+
+    /**
+     * Return at most {@code limit} instances. If the instances are not
+     * ordered, the query stops after the first {@code limit} instances.
+     *
+     * @param limit The maximum number of instances to return.
+     *
+     * @return A copy of these options with the new value.
+     *
+     * @throws IllegalArgumentException If {@code limit} is negative.
+     */
+    public QueryOptions withLimit(final long limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException(
+                String.format("Invalid limit %d.", limit)
+            );
+        }
+        return new QueryOptions(
+            direct, limit, ordered, maxResults, deadline
+        );
+    }
+
+    /**
+     * Return the instances ordered by their IRI or in the order provided by
+     * the index or the reasoner. Unordered queries avoid sorting the
+     * instances returned by the reasoner.
+     *
+     * @param ordered Order the instances by their IRI?
+     *
+     * @return A copy of these options with the new value.
+     */
+    public QueryOptions withOrdered(final boolean ordered) {
+        return new QueryOptions(
+            direct, limit, ordered, maxResults, deadline
+        );
+    }
+
+    /**
+     * Sets a hard cap for the number of instances a query may match. The cap
+     * is checked before the first instance is returned. If the query matches
+     * more instances, a {@link ResultLimitExceededException} is thrown
+     * instead of returning a truncated result. The cap is checked against
+     * all matching instances, independent of the {@link #withLimit(long)
+     * limit}.
+     *
+     * @param maxResults The maximum number of instances a query may match.
+     *
+     * @return A copy of these options with the new value.
+     *
+     * @throws IllegalArgumentException If {@code maxResults} is negative.
+     */
+    public QueryOptions withMaxResults(final long maxResults) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException(
+                String.format("Invalid maximum number of results %d.",
+                              maxResults)
+            );
+        }
+        return new QueryOptions(
+            direct, limit, ordered, maxResults, deadline
+        );
+    }
+
+    /**
+     * Sets the deadline of the query. Because the deadline is fixed when the
+     * {@link QueryDeadline} is created, options with a deadline should only
+     * be used for a single query.
+     *
+     * @param deadline The deadline of the query.
+     *
+     * @return A copy of these options with the new value.
+     */
+    public QueryOptions withDeadline(final QueryDeadline deadline) {
+        return new QueryOptions(
+            direct,
+            limit,
+            ordered,
+            maxResults,
+            Objects.requireNonNull(deadline)
+        );
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s{direct = %b, limit = %d, ordered = %b, maxResults = %d}",
+            getClass().getSimpleName(),
+            direct,
+            limit,
+            ordered,
+            maxResults
+        );
+    }
+
+}
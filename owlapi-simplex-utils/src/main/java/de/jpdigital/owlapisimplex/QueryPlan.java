@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.OWLClassExpression;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Describes how a class expression is evaluated by {@link Instances}. Class
+ * expressions built from named classes, intersections, unions, enumerations
+ * of individuals, {@code some} restrictions and {@code value} restrictions
+ * are answered by combining the class members, the graphs of the object
+ * properties and the value indexes of the data properties materialized in
+ * the {@link OntologyIndex}. All other class expressions, and class
+ * expressions for which the index may miss instances entailed by the
+ * ontology, are passed to the reasoner.
+ *
+ * A plan is a tree of operations. The operations of an index plan have the
+ * operations for their operands as children. A plan using the reasoner
+ * consists of a single {@link Operation#REASONER} operation which tells why
+ * the index can't be used. Plans are created using
+ * {@link Instances#explain(org.semanticweb.owlapi.model.OWLClassExpression)}.
+ *
+ * The estimated costs are rough numbers for comparing plans: For index
+ * operations the number of members, edges or values visited, for the
+ * reasoner the number of individuals times the size of the class
+ * expression.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class QueryPlan {
+
+    /**
+     * The operations of a query plan.
+     */
+    public enum Operation {
+
+        /**
+         * The members of a named class, from the index.
+         */
+        CLASS_MEMBERS,
+        /**
+         * All individuals ({@code owl:Thing}).
+         */
+        ALL_INDIVIDUALS,
+        /**
+         * No individuals ({@code owl:Nothing}).
+         */
+        NO_INDIVIDUALS,
+        /**
+         * The individuals of an enumeration ({@code {a, b, ...}}).
+         */
+        INDIVIDUALS,
+        /**
+         * The intersection of the results of the children, evaluated in
+         * order of their estimated costs.
+         */
+        INTERSECTION,
+        /**
+         * The union of the results of the children.
+         */
+        UNION,
+        /**
+         * The individuals with an edge to a result of the child in the graph
+         * of an object property.
+         */
+        OBJECT_SOME_VALUES_FROM,
+        /**
+         * The individuals with an edge to an individual in the graph of an
+         * object property.
+         */
+        OBJECT_HAS_VALUE,
+        /**
+         * The individuals with a value in the value index of a data property.
+         */
+        DATA_HAS_VALUE,
+        /**
+         * The class expression is passed to the reasoner.
+         */
+        REASONER
+
+    }
+
+    /**
+     * The operation.
+     */
+    private final Operation operation;
+
+    /**
+     * The class expression evaluated by the operation.
+     */
+    private final OWLClassExpression classExpression;
+
+    /**
+     * Details about the operation, for example the property used, or the
+     * reason for using the reasoner.
+     */
+    private final String detail;
+
+    /**
+     * The estimated cost of the operation, including the costs of the
+     * children.
+     */
+    private final long estimatedCost;
+
+    /**
+     * The plans for the operands.
+     */
+    private final List<QueryPlan> children;
+
+    /**
+     * Evaluates an index plan. {@code null} for {@link Operation#REASONER}.
+     */
+    private final Supplier<BitSet> evaluator;
+
+    /**
+     * Creates a new plan.
+     *
+     * @param operation       The operation.
+     * @param classExpression The class expression.
+     * @param detail          Details about the operation.
+     * @param estimatedCost   The estimated cost.
+     * @param children        The plans for the operands.
+     * @param evaluator       Evaluates the plan.
+     */
+    private QueryPlan(
+        final Operation operation,
+        final OWLClassExpression classExpression,
+        final String detail,
+        final long estimatedCost,
+        final List<QueryPlan> children,
+        final Supplier<BitSet> evaluator
+    ) {
+        this.operation = operation;
+        this.classExpression = classExpression;
+        this.detail = detail;
+        this.estimatedCost = estimatedCost;
+        this.children = children;
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Creates a plan answered from the index.
+     *
+     * @param operation       The operation.
+     * @param classExpression The class expression.
+     * @param detail          Details about the operation.
+     * @param estimatedCost   The estimated cost.
+     * @param children        The plans for the operands.
+     * @param evaluator       Evaluates the plan. The returned {@link BitSet}
+     *                        must be a new instance which can be modified by
+     *                        the caller.
+     *
+     * @return The plan.
+     */
+    static QueryPlan buildIndexPlan(
+        final Operation operation,
+        final OWLClassExpression classExpression,
+        final String detail,
+        final long estimatedCost,
+        final List<QueryPlan> children,
+        final Supplier<BitSet> evaluator
+    ) {
+        return new QueryPlan(
+            operation,
+            classExpression,
+            detail,
+            estimatedCost,
+            Collections.unmodifiableList(children),
+            evaluator
+        );
+    }
+
+    /**
+     * Creates a plan which uses the reasoner.
+     *
+     * @param classExpression The class expression.
+     * @param reason          Why the index can't be used.
+     * @param estimatedCost   The estimated cost.
+     *
+     * @return The plan.
+     */
+    static QueryPlan buildReasonerPlan(
+        final OWLClassExpression classExpression,
+        final String reason,
+        final long estimatedCost
+    ) {
+        return new QueryPlan(
+            Operation.REASONER,
+            classExpression,
+            reason,
+            estimatedCost,
+            Collections.emptyList(),
+            null
+        );
+    }
+
+    /**
+     * @return The operation.
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return The class expression evaluated by the operation.
+     */
+    public OWLClassExpression getClassExpression() {
+        return classExpression;
+    }
+
+    /**
+     * @return Details about the operation, for a plan using the reasoner the
+     *         reason why the index can't be used.
+     */
+    public String getDetail() {
+        return detail;
+    }
+
+    /**
+     * @return The estimated cost of the operation, including its children.
+     */
+    public long getEstimatedCost() {
+        return estimatedCost;
+    }
+
+    /**
+     * @return The plans for the operands of the operation.
+     */
+    public List<QueryPlan> getChildren() {
+        return children;
+    }
+
+    /**
+     * @return {@code true} if the class expression is answered from the
+     *         index, {@code false} if it is passed to the reasoner.
+     */
+    public boolean isIndexed() {
+        return operation != Operation.REASONER;
+    }
+
+    /**
+     * Creates a human readable description of the plan, one line per
+     * operation, with the children indented below their parent.
+     *
+     * @return The description of the plan.
+     */
+    public String getExplanation() {
+        final StringBuilder builder = new StringBuilder();
+        explain(builder, 0);
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return getExplanation();
+    }
+
+    /**
+     * Evaluates an index plan.
+     *
+     * @return The ids of the matching individuals, a new {@link BitSet}.
+     *
+     * @throws IllegalStateException If the plan uses the reasoner.
+     */
+    BitSet evaluate() {
+        if (evaluator == null) {
+            throw new IllegalStateException(
+                "A plan using the reasoner can't be evaluated from the index."
+            );
+        }
+        return evaluator.get();
+    }
+
+    /**
+     * Helper method for appending the description of this operation and its
+     * children.
+     *
+     * @param builder The builder for the description.
+     * @param depth   The depth of the operation in the plan.
+     */
+    private void explain(final StringBuilder builder, final int depth) {
+        for (int i = 0; i < depth; i++) {
+            builder.append("  ");
+        }
+        builder
+            .append(operation)
+            .append(' ')
+            .append(classExpression)
+            .append(" [cost ")
+            .append(estimatedCost);
+        if (detail != null && !detail.isEmpty()) {
+            builder.append(", ").append(detail);
+        }
+        builder.append("]\n");
+        for (final QueryPlan child : children) {
+            child.explain(builder, depth + 1);
+        }
+    }
+
+}
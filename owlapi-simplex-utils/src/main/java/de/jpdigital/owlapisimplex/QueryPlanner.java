@@ -0,0 +1,656 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataHasValue;
+import org.semanticweb.owlapi.model.OWLIndividual;
+import org.semanticweb.owlapi.model.OWLNaryBooleanClassExpression;
+import org.semanticweb.owlapi.model.OWLObjectHasValue;
+import org.semanticweb.owlapi.model.OWLObjectOneOf;
+import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
+import org.semanticweb.owlapi.model.OWLObjectSomeValuesFrom;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Creates {@link QueryPlan}s for class expressions.
+ *
+ * A class expression is only answered from the index if the result is
+ * exactly the result of the reasoner:
+ * <ul>
+ * <li>Named classes, intersections and enumerations of individuals are
+ * always answered from the index (enumerations only if the ontology can't
+ * entail that two individuals are the same individual, see
+ * {@link PropertyHierarchyIndex#mayEntailSameAs()}).</li>
+ * <li>{@code value} restrictions are answered from the graph or the value
+ * index of the property, if all values of the property are asserted (see
+ * {@link PropertyHierarchyIndex#isAssertionComplete(java.util.Collection)}).
+ * </li>
+ * <li>{@code some} restrictions over object properties additionally require
+ * that the ontology contains no anonymous individuals, which may be the
+ * values of the property.</li>
+ * <li>Unions and {@code some} restrictions with a filler other than
+ * {@code owl:Thing} are only answered from the index if the ontology contains
+ * no axioms which may entail disjunctive knowledge (unions, complements,
+ * universal restrictions, maximum cardinalities, enumerations of several
+ * individuals and disjoint unions). Otherwise an individual may be an
+ * instance of a union without being an instance of one of its operands.</li>
+ * </ul>
+ *
+ * The checks of the ontology are done once when the planner is created.
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}, which discards the planner if the ontology changes
+ * in a way which may affect these checks.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class QueryPlanner {
+
+    /**
+     * Class expression types which may introduce disjunctive knowledge if
+     * used in an axiom.
+     */
+    private static final Set<ClassExpressionType> DISJUNCTIVE_TYPES = EnumSet
+        .of(
+            ClassExpressionType.OBJECT_UNION_OF,
+            ClassExpressionType.OBJECT_COMPLEMENT_OF,
+            ClassExpressionType.OBJECT_ALL_VALUES_FROM,
+            ClassExpressionType.OBJECT_MAX_CARDINALITY,
+            ClassExpressionType.OBJECT_EXACT_CARDINALITY,
+            ClassExpressionType.DATA_ALL_VALUES_FROM,
+            ClassExpressionType.DATA_MAX_CARDINALITY,
+            ClassExpressionType.DATA_EXACT_CARDINALITY
+        );
+
+    /**
+     * The index providing the materialized data.
+     */
+    private final OntologyIndex ontologyIndex;
+
+    /**
+     * Does the ontology contain axioms which may entail disjunctive
+     * knowledge?
+     */
+    private final boolean disjunctive;
+
+    /**
+     * Does the ontology contain anonymous individuals?
+     */
+    private final boolean anonymousIndividuals;
+
+    /**
+     * Creates a planner for an ontology and its imports.
+     *
+     * @param ontology      The ontology.
+     * @param ontologyIndex The index of the ontology.
+     */
+    QueryPlanner(
+        final OWLOntology ontology, final OntologyIndex ontologyIndex
+    ) {
+        this.ontologyIndex = ontologyIndex;
+        disjunctive = ontology
+            .axioms(AxiomType.DISJOINT_UNION, Imports.INCLUDED)
+            .findAny()
+            .isPresent()
+                          || ontology
+                .logicalAxioms(Imports.INCLUDED)
+                .flatMap(axiom -> axiom.nestedClassExpressions())
+                .anyMatch(QueryPlanner::isDisjunctive);
+        anonymousIndividuals = ontology
+            .importsClosure()
+            .flatMap(OWLOntology::anonymousIndividuals)
+            .findAny()
+            .isPresent();
+    }
+
+    /**
+     * Creates the plan for a class expression.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return The plan.
+     */
+    QueryPlan plan(final OWLClassExpression classExpression) {
+        switch (classExpression.getClassExpressionType()) {
+            case OWL_CLASS:
+                return planClass(classExpression);
+            case OBJECT_INTERSECTION_OF:
+                return planIntersection(
+                    (OWLNaryBooleanClassExpression) classExpression
+                );
+            case OBJECT_UNION_OF:
+                return planUnion(
+                    (OWLNaryBooleanClassExpression) classExpression
+                );
+            case OBJECT_ONE_OF:
+                return planOneOf((OWLObjectOneOf) classExpression);
+            case OBJECT_HAS_VALUE:
+                return planObjectHasValue(
+                    (OWLObjectHasValue) classExpression
+                );
+            case OBJECT_SOME_VALUES_FROM:
+                return planObjectSomeValuesFrom(
+                    (OWLObjectSomeValuesFrom) classExpression
+                );
+            case DATA_HAS_VALUE:
+                return planDataHasValue((OWLDataHasValue) classExpression);
+            default:
+                return reasoner(
+                    classExpression,
+                    String.format(
+                        "%s is not supported by the index",
+                        classExpression.getClassExpressionType().getName()
+                    )
+                );
+        }
+    }
+
+    /**
+     * Finds individuals which are known to be instances of a class
+     * expression, without calling the reasoner. The members of the named
+     * classes are taken from the index, the values of the properties from
+     * their graphs and value indexes, even if the reasoner may entail
+     * additional values. Each individual found is an instance of the class
+     * expression, but the result may miss instances, class expressions not
+     * supported by the index have no known instances. Used to answer a check
+     * for instances without retrieving all instances from the reasoner.
+     *
+     * @param classExpression The class expression.
+     *
+     * @return The ids of the individuals known to be instances of the class
+     *         expression.
+     */
+    BitSet knownInstances(final OWLClassExpression classExpression) {
+        switch (classExpression.getClassExpressionType()) {
+            case OWL_CLASS:
+                if (classExpression.isOWLThing()) {
+                    final BitSet result = new BitSet();
+                    result.set(0, ontologyIndex.getDictionary().size());
+                    return result;
+                }
+                if (classExpression.isOWLNothing()) {
+                    return new BitSet();
+                }
+                return (BitSet) ontologyIndex
+                    .getClassMembers(classExpression.asOWLClass())
+                    .clone();
+            case OBJECT_INTERSECTION_OF: {
+                final List<OWLClassExpression> operands
+                    = ((OWLNaryBooleanClassExpression) classExpression)
+                        .getOperandsAsList();
+                final BitSet result = knownInstances(operands.get(0));
+                for (int i = 1; i < operands.size() && !result.isEmpty(); i++) {
+                    result.and(knownInstances(operands.get(i)));
+                }
+                return result;
+            }
+            case OBJECT_UNION_OF: {
+                final BitSet result = new BitSet();
+                ((OWLNaryBooleanClassExpression) classExpression)
+                    .operands()
+                    .forEach(operand -> result.or(knownInstances(operand)));
+                return result;
+            }
+            case OBJECT_ONE_OF: {
+                final IndividualDictionary dictionary = ontologyIndex
+                    .getDictionary();
+                return toBitSet(
+                    ((OWLObjectOneOf) classExpression)
+                        .individuals()
+                        .filter(OWLIndividual::isNamed)
+                        .mapToInt(
+                            individual -> dictionary.getId(
+                                individual.asOWLNamedIndividual()
+                            )
+                        )
+                        .filter(id -> id >= 0)
+                );
+            }
+            case OBJECT_HAS_VALUE: {
+                final OWLObjectHasValue hasValue
+                    = (OWLObjectHasValue) classExpression;
+                if (!hasValue.getFiller().isNamed()) {
+                    return new BitSet();
+                }
+                final int id = ontologyIndex
+                    .getDictionary()
+                    .getId(hasValue.getFiller().asOWLNamedIndividual());
+                if (id < 0) {
+                    return new BitSet();
+                }
+                return toBitSet(
+                    neighbours(
+                        ontologyIndex.getObjectPropertyGraph(
+                            hasValue.getProperty().getNamedProperty()
+                        ),
+                        id,
+                        hasValue.getProperty().isAnonymous()
+                    )
+                );
+            }
+            case OBJECT_SOME_VALUES_FROM: {
+                final OWLObjectSomeValuesFrom someValuesFrom
+                    = (OWLObjectSomeValuesFrom) classExpression;
+                final ObjectPropertyGraph graph = ontologyIndex
+                    .getObjectPropertyGraph(
+                        someValuesFrom.getProperty().getNamedProperty()
+                    );
+                final boolean inverse = someValuesFrom
+                    .getProperty()
+                    .isAnonymous();
+                final BitSet result = new BitSet();
+                knownInstances(someValuesFrom.getFiller())
+                    .stream()
+                    .flatMap(id -> neighbours(graph, id, inverse))
+                    .forEach(result::set);
+                return result;
+            }
+            case DATA_HAS_VALUE: {
+                final OWLDataHasValue hasValue
+                    = (OWLDataHasValue) classExpression;
+                return ontologyIndex
+                    .getDataPropertyValueIndex(
+                        hasValue.getProperty().asOWLDataProperty()
+                    )
+                    .getIndividualsWithValue(
+                        LiteralValues.toKey(hasValue.getFiller())
+                    );
+            }
+            default:
+                return new BitSet();
+        }
+    }
+
+    /**
+     * Plans a named class, {@code owl:Thing} or {@code owl:Nothing}.
+     */
+    private QueryPlan planClass(final OWLClassExpression classExpression) {
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        if (classExpression.isOWLThing()) {
+            final int size = dictionary.size();
+            return QueryPlan.buildIndexPlan(
+                QueryPlan.Operation.ALL_INDIVIDUALS,
+                classExpression,
+                "",
+                size,
+                new ArrayList<>(),
+                () -> {
+                    final BitSet result = new BitSet(size);
+                    result.set(0, size);
+                    return result;
+                }
+            );
+        }
+        if (classExpression.isOWLNothing()) {
+            return QueryPlan.buildIndexPlan(
+                QueryPlan.Operation.NO_INDIVIDUALS,
+                classExpression,
+                "",
+                0,
+                new ArrayList<>(),
+                BitSet::new
+            );
+        }
+        final BitSet members = ontologyIndex.getClassMembers(
+            classExpression.asOWLClass()
+        );
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.CLASS_MEMBERS,
+            classExpression,
+            String.format("%d members", members.cardinality()),
+            members.cardinality(),
+            new ArrayList<>(),
+            () -> (BitSet) members.clone()
+        );
+    }
+
+    /**
+     * Plans an intersection.
+     */
+    private QueryPlan planIntersection(
+        final OWLNaryBooleanClassExpression intersection
+    ) {
+        final List<QueryPlan> operands = planOperands(intersection);
+        final QueryPlan fallback = findReasonerPlan(intersection, operands);
+        if (fallback != null) {
+            return fallback;
+        }
+        // The cheapest operand first, it usually has the fewest members.
+        final List<QueryPlan> ordered = operands
+            .stream()
+            .sorted(Comparator.comparingLong(QueryPlan::getEstimatedCost))
+            .collect(Collectors.toList());
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.INTERSECTION,
+            intersection,
+            "",
+            sumOfCosts(ordered),
+            ordered,
+            () -> {
+                final BitSet result = ordered.get(0).evaluate();
+                for (int i = 1; i < ordered.size() && !result.isEmpty(); i++) {
+                    result.and(ordered.get(i).evaluate());
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Plans a union.
+     */
+    private QueryPlan planUnion(final OWLNaryBooleanClassExpression union) {
+        if (disjunctive) {
+            return reasoner(
+                union,
+                "the ontology may entail disjunctive knowledge"
+            );
+        }
+        final List<QueryPlan> operands = planOperands(union);
+        final QueryPlan fallback = findReasonerPlan(union, operands);
+        if (fallback != null) {
+            return fallback;
+        }
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.UNION,
+            union,
+            "",
+            sumOfCosts(operands),
+            operands,
+            () -> {
+                final BitSet result = new BitSet();
+                for (final QueryPlan operand : operands) {
+                    result.or(operand.evaluate());
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Plans an enumeration of individuals.
+     */
+    private QueryPlan planOneOf(final OWLObjectOneOf oneOf) {
+        if (ontologyIndex.getPropertyHierarchy().mayEntailSameAs()) {
+            return reasoner(
+                oneOf,
+                "the ontology may entail that two individuals are the same"
+            );
+        }
+        final IndividualDictionary dictionary = ontologyIndex.getDictionary();
+        final int[] ids = oneOf
+            .individuals()
+            .filter(OWLIndividual::isNamed)
+            .mapToInt(
+                individual -> dictionary.getId(
+                    individual.asOWLNamedIndividual()
+                )
+            )
+            .filter(id -> id >= 0)
+            .toArray();
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.INDIVIDUALS,
+            oneOf,
+            "",
+            ids.length,
+            new ArrayList<>(),
+            () -> {
+                final BitSet result = new BitSet();
+                for (final int id : ids) {
+                    result.set(id);
+                }
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Plans a {@code value} restriction on an object property.
+     */
+    private QueryPlan planObjectHasValue(final OWLObjectHasValue hasValue) {
+        final OWLObjectPropertyExpression property = hasValue.getProperty();
+        if (!hasValue.getFiller().isNamed()) {
+            return reasoner(hasValue, "the value is an anonymous individual");
+        }
+        final ObjectPropertyGraph graph = ontologyIndex.getObjectPropertyGraph(
+            property.getNamedProperty()
+        );
+        if (!graph.isComplete()) {
+            return reasoner(hasValue, incompleteValues(property));
+        }
+        final int id = ontologyIndex
+            .getDictionary()
+            .getId(hasValue.getFiller().asOWLNamedIndividual());
+        final boolean inverse = property.isAnonymous();
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.OBJECT_HAS_VALUE,
+            hasValue,
+            String.format("graph of %s", property.getNamedProperty()),
+            1,
+            new ArrayList<>(),
+            () -> toBitSet(neighbours(graph, id, inverse))
+        );
+    }
+
+    /**
+     * Plans a {@code some} restriction on an object property.
+     */
+    private QueryPlan planObjectSomeValuesFrom(
+        final OWLObjectSomeValuesFrom someValuesFrom
+    ) {
+        final OWLObjectPropertyExpression property = someValuesFrom
+            .getProperty();
+        final OWLClassExpression filler = someValuesFrom.getFiller();
+        if (anonymousIndividuals) {
+            return reasoner(
+                someValuesFrom,
+                "the ontology contains anonymous individuals"
+            );
+        }
+        if (disjunctive && !filler.isOWLThing()) {
+            return reasoner(
+                someValuesFrom,
+                "the ontology may entail disjunctive knowledge"
+            );
+        }
+        final ObjectPropertyGraph graph = ontologyIndex.getObjectPropertyGraph(
+            property.getNamedProperty()
+        );
+        if (!graph.isComplete()) {
+            return reasoner(someValuesFrom, incompleteValues(property));
+        }
+        final QueryPlan fillerPlan = plan(filler);
+        if (!fillerPlan.isIndexed()) {
+            return reasoner(someValuesFrom, fillerPlan.getDetail());
+        }
+        final boolean inverse = property.isAnonymous();
+        final List<QueryPlan> children = new ArrayList<>();
+        children.add(fillerPlan);
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.OBJECT_SOME_VALUES_FROM,
+            someValuesFrom,
+            String.format(
+                "graph of %s, %d edges",
+                property.getNamedProperty(),
+                graph.getEdgeCount()
+            ),
+            fillerPlan.getEstimatedCost() + graph.getEdgeCount(),
+            children,
+            () -> {
+                final BitSet result = new BitSet();
+                fillerPlan
+                    .evaluate()
+                    .stream()
+                    .flatMap(id -> neighbours(graph, id, inverse))
+                    .forEach(result::set);
+                return result;
+            }
+        );
+    }
+
+    /**
+     * Plans a {@code value} restriction on a data property.
+     */
+    private QueryPlan planDataHasValue(final OWLDataHasValue hasValue) {
+        final DataPropertyValueIndex valueIndex = ontologyIndex
+            .getDataPropertyValueIndex(
+                hasValue.getProperty().asOWLDataProperty()
+            );
+        if (!valueIndex.isComplete()) {
+            return reasoner(
+                hasValue,
+                incompleteValues(hasValue.getProperty().asOWLDataProperty())
+            );
+        }
+        final Object key = LiteralValues.toKey(hasValue.getFiller());
+        return QueryPlan.buildIndexPlan(
+            QueryPlan.Operation.DATA_HAS_VALUE,
+            hasValue,
+            String.format("value index of %s", hasValue.getProperty()),
+            1,
+            new ArrayList<>(),
+            () -> valueIndex.getIndividualsWithValue(key)
+        );
+    }
+
+    /**
+     * Plans the operands of an intersection or union.
+     */
+    private List<QueryPlan> planOperands(
+        final OWLNaryBooleanClassExpression expression
+    ) {
+        return expression
+            .operands()
+            .map(this::plan)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Helper method for propagating the use of the reasoner from an operand
+     * to the whole expression.
+     *
+     * @param expression The expression.
+     * @param operands   The plans of the operands.
+     *
+     * @return A plan using the reasoner for the expression if one of the
+     *         operands can't be answered from the index, {@code null}
+     *         otherwise.
+     */
+    private QueryPlan findReasonerPlan(
+        final OWLClassExpression expression, final List<QueryPlan> operands
+    ) {
+        return operands
+            .stream()
+            .filter(operand -> !operand.isIndexed())
+            .findFirst()
+            .map(operand -> reasoner(expression, operand.getDetail()))
+            .orElse(null);
+    }
+
+    /**
+     * Creates a plan which passes a class expression to the reasoner.
+     */
+    private QueryPlan reasoner(
+        final OWLClassExpression classExpression, final String reason
+    ) {
+        return QueryPlan.buildReasonerPlan(
+            classExpression,
+            reason,
+            ontologyIndex.getDictionary().size()
+                * classExpression.nestedClassExpressions().count()
+        );
+    }
+
+    /**
+     * Creates the reason for using the reasoner if the values of a property
+     * are not complete.
+     */
+    private static String incompleteValues(final Object property) {
+        return String.format(
+            "the reasoner may entail values of %s which are not asserted",
+            property
+        );
+    }
+
+    /**
+     * Sums the estimated costs of plans.
+     */
+    private static long sumOfCosts(final List<QueryPlan> plans) {
+        return plans.stream().mapToLong(QueryPlan::getEstimatedCost).sum();
+    }
+
+    /**
+     * Get the neighbours of a node in the graph of a property, in the
+     * direction needed for a restriction.
+     *
+     * @param graph   The graph of the property.
+     * @param node    The node.
+     * @param inverse Is the restriction on the inverse of the property?
+     *
+     * @return The individuals which have the node as value of the property
+     *         (or of its inverse).
+     */
+    private static IntStream neighbours(
+        final ObjectPropertyGraph graph, final int node, final boolean inverse
+    ) {
+        if (inverse) {
+            return graph.successors(node);
+        } else {
+            return graph.predecessors(node);
+        }
+    }
+
+    /**
+     * Collects ids into a {@link BitSet}.
+     */
+    private static BitSet toBitSet(final IntStream ids) {
+        final BitSet result = new BitSet();
+        ids.forEach(result::set);
+        return result;
+    }
+
+    /**
+     * Checks if a class expression used in an axiom may entail disjunctive
+     * knowledge.
+     */
+    private static boolean isDisjunctive(
+        final OWLClassExpression classExpression
+    ) {
+        if (classExpression.getClassExpressionType()
+                == ClassExpressionType.OBJECT_ONE_OF) {
+            return ((OWLObjectOneOf) classExpression)
+                .individuals()
+                .count() > 1;
+        }
+        return DISJUNCTIVE_TYPES.contains(
+            classExpression.getClassExpressionType()
+        );
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+/**
+ * Thrown if the deadline of a query has passed (see {@link QueryDeadline}) or
+ * if the reasoner has exceeded the timeout set in its configuration (see
+ * {@link OwlApiSimplexUtilsBuilder#setReasonerTimeout(java.time.Duration)}).
+ * The reasoner remains usable after a query has timed out.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class QueryTimeoutException extends QueryCancelledException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs an instance of <code>QueryTimeoutException</code> with the
+     * specified detail message.
+     *
+     * @param msg The detail message.
+     */
+    public QueryTimeoutException(final String msg) {
+        super(msg);
+    }
+
+    /**
+     * Constructs an instance of <code>QueryTimeoutException</code> with the
+     * specified message which also wraps the specified exception.
+     *
+     * @param msg       The detail message.
+     * @param exception The exception to wrap, usually the exception thrown
+     *                  by the interrupted reasoner.
+     */
+    public QueryTimeoutException(final String msg, final Exception exception) {
+        super(msg, exception);
+    }
+
+}
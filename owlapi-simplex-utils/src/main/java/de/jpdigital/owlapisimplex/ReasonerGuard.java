@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import openllet.owlapi.OpenlletReasoner;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Executes calls of the reasoner with a {@link QueryDeadline}.
+ *
+ * While a call is running, a watchdog interrupts the reasoner using
+ * {@link OWLReasoner#interrupt()} when the deadline passes or the query is
+ * cancelled. The exceptions thrown by the interrupted reasoner are converted
+ * to a {@link QueryTimeoutException} or a {@link QueryCancelledException} and
+ * counted in the {@link QueryMetrics}. The same applies to the
+ * {@link TimeOutException} thrown if the reasoner exceeds the timeout set in
+ * its configuration.
+ *
+ * The calls of the reasoner are serialized, because reasoners are usually
+ * not thread safe. A call waits for the running call at most until its
+ * deadline passes. The reasoner is only interrupted while the call which
+ * owns the deadline is running, never while waiting.
+ *
+ * Openllet keeps the interrupt flag and measures its configured timeout from
+ * the creation of the reasoner. Therefore the timers of an Openllet reasoner
+ * are reset before each call and after an interrupted call, which makes the
+ * configured timeout a per-call timeout and leaves the reasoner usable after
+ * an interrupt.
+ *
+ * Instances of this class are created and managed by the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class ReasonerGuard {
+
+    /**
+     * Interval for checking the deadline while waiting for the reasoner, in
+     * nanoseconds.
+     */
+    private static final long LOCK_CHECK_INTERVAL = TimeUnit.MILLISECONDS
+        .toNanos(10);
+
+    /**
+     * The reasoner guarded by this instance.
+     */
+    private final OWLReasoner reasoner;
+
+    /**
+     * The metrics for recording timeouts and cancellations.
+     */
+    private final QueryMetrics metrics;
+
+    /**
+     * Serializes the calls of the reasoner.
+     */
+    private final ReentrantLock lock;
+
+    ReasonerGuard(final OWLReasoner reasoner, final QueryMetrics metrics) {
+        this.reasoner = reasoner;
+        this.metrics = metrics;
+        lock = new ReentrantLock();
+    }
+
+    /**
+     * Calls the reasoner. If the deadline passes or the query is cancelled
+     * while the call is running, the reasoner is interrupted.
+     *
+     * @param <T>      The type of the result.
+     * @param deadline The deadline of the query.
+     * @param call     The call of the reasoner. The call must compute its
+     *                 result eagerly, for example by returning the
+     *                 {@link Stream} of a
+     *                 {@link org.semanticweb.owlapi.reasoner.NodeSet}.
+     *
+     * @return The result of the call.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed or the
+     *                                 reasoner exceeded its configured
+     *                                 timeout.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    <T> T call(final QueryDeadline deadline, final Supplier<T> call) {
+        acquire(deadline);
+        try {
+            return callLocked(deadline, call);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Calls the reasoner while holding the {@link #lock}.
+     *
+     * @param <T>      The type of the result.
+     * @param deadline The deadline of the query.
+     * @param call     The call of the reasoner.
+     *
+     * @return The result of the call.
+     */
+    private <T> T callLocked(
+        final QueryDeadline deadline, final Supplier<T> call
+    ) {
+        resetTimers();
+
+        final Interrupter interrupter = new Interrupter();
+        final ScheduledFuture<?> watchdog;
+        if (deadline.hasTimeout()) {
+            watchdog = Watchdog.EXECUTOR.schedule(
+                interrupter,
+                deadline.getRemaining().toNanos(),
+                TimeUnit.NANOSECONDS
+            );
+        } else {
+            watchdog = null;
+        }
+        deadline.addCancelListener(interrupter);
+        try {
+            return call.get();
+        } catch (ReasonerInterruptedException | TimeOutException ex) {
+            if (deadline.isCancelled()) {
+                metrics.recordCancellation();
+                throw new QueryCancelledException(
+                    "The query has been cancelled.", ex
+                );
+            } else {
+                metrics.recordTimeout();
+                throw new QueryTimeoutException(
+                    "The query has exceeded its deadline or the timeout of "
+                        + "the reasoner.",
+                    ex
+                );
+            }
+        } finally {
+            deadline.removeCancelListener(interrupter);
+            if (watchdog != null) {
+                watchdog.cancel(false);
+            }
+            if (interrupter.finish()) {
+                metrics.recordReasonerInterrupt();
+                resetTimers();
+            }
+        }
+    }
+
+    /**
+     * Checks the deadline for each element of a stream. The stream fails with
+     * a {@link QueryTimeoutException} or {@link QueryCancelledException} when
+     * the deadline passes or the query is cancelled while the stream is
+     * consumed.
+     *
+     * @param <T>      The type of the elements of the stream.
+     * @param deadline The deadline of the query.
+     * @param stream   The stream.
+     *
+     * @return The stream which checks the deadline.
+     */
+    <T> Stream<T> checked(
+        final QueryDeadline deadline, final Stream<T> stream
+    ) {
+        if (deadline == QueryDeadline.NONE) {
+            return stream;
+        }
+        return stream.peek(element -> check(deadline));
+    }
+
+    /**
+     * Checks if the deadline of a query has passed or the query has been
+     * cancelled.
+     *
+     * @param deadline The deadline of the query.
+     *
+     * @throws QueryTimeoutException   If the deadline has passed.
+     * @throws QueryCancelledException If the query has been cancelled.
+     */
+    void check(final QueryDeadline deadline) {
+        if (deadline.isCancelled()) {
+            metrics.recordCancellation();
+            throw new QueryCancelledException("The query has been cancelled.");
+        }
+        if (deadline.isExpired()) {
+            metrics.recordTimeout();
+            throw new QueryTimeoutException(
+                "The query has exceeded its deadline."
+            );
+        }
+    }
+
+    /**
+     * Acquires the {@link #lock}, waiting at most until the deadline passes.
+     *
+     * @param deadline The deadline of the query.
+     *
+     * @throws QueryTimeoutException   If the deadline passes while waiting.
+     * @throws QueryCancelledException If the query is cancelled or the
+     *                                 current thread is interrupted while
+     *                                 waiting.
+     */
+    private void acquire(final QueryDeadline deadline) {
+        check(deadline);
+        if (deadline == QueryDeadline.NONE) {
+            lock.lock();
+            return;
+        }
+        try {
+            while (!lock.tryLock(
+                Math.min(
+                    deadline.getRemaining().toNanos(), LOCK_CHECK_INTERVAL
+                ),
+                TimeUnit.NANOSECONDS
+            )) {
+                check(deadline);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            metrics.recordCancellation();
+            throw new QueryCancelledException(
+                "Interrupted while waiting for the reasoner.", ex
+            );
+        }
+        try {
+            check(deadline);
+        } catch (QueryCancelledException ex) {
+            lock.unlock();
+            throw ex;
+        }
+    }
+
+    /**
+     * Resets the timers of an Openllet reasoner, including the interrupt
+     * flag.
+     */
+    private void resetTimers() {
+        if (reasoner instanceof OpenlletReasoner) {
+            ((OpenlletReasoner) reasoner).getKB().getTimers().resetAll();
+        }
+    }
+
+    /**
+     * Interrupts the reasoner, but only while the call is running.
+     */
+    private final class Interrupter implements Runnable {
+
+        private boolean running = true;
+
+        private boolean interrupted;
+
+        @Override
+        public synchronized void run() {
+            if (running && !interrupted) {
+                interrupted = true;
+                reasoner.interrupt();
+            }
+        }
+
+        /**
+         * Marks the call as finished.
+         *
+         * @return {@code true} if the reasoner has been interrupted.
+         */
+        synchronized boolean finish() {
+            running = false;
+            return interrupted;
+        }
+
+    }
+
+    /**
+     * Holder for the executor of the watchdog, which is created when it is
+     * used for the first time.
+     */
+    private static final class Watchdog {
+
+        private static final ScheduledExecutorService EXECUTOR;
+
+        static {
+            final ScheduledThreadPoolExecutor executor
+                = new ScheduledThreadPoolExecutor(1, runnable -> {
+                    final Thread thread = new Thread(
+                        runnable, "owlapi-simplex-reasoner-watchdog"
+                    );
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            executor.setRemoveOnCancelPolicy(true);
+            EXECUTOR = executor;
+        }
+
+        private Watchdog() {
+            // Only the executor
+        }
+
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+/**
+ * Interfaces for streaming query results with backpressure. The interfaces
+ * have the same methods and semantics as the interfaces of
+ * {@code java.util.concurrent.Flow} (Java 9) and of the Reactive Streams
+ * specification ({@code org.reactivestreams}). They are defined here because
+ * owlapi-simplex-utils is compatible with Java 8. Adapting them requires only
+ * a few lines, for example for a {@code Flow.Subscriber}:
+ *
+ * <pre>
+ * publisher.subscribe(new ResultFlow.Subscriber&lt;T&gt;() {
+ *     public void onSubscribe(ResultFlow.Subscription subscription) {
+ *         flowSubscriber.onSubscribe(new Flow.Subscription() {
+ *             public void request(long n) { subscription.request(n); }
+ *             public void cancel() { subscription.cancel(); }
+ *         });
+ *     }
+ *     public void onNext(T item) { flowSubscriber.onNext(item); }
+ *     public void onError(Throwable t) { flowSubscriber.onError(t); }
+ *     public void onComplete() { flowSubscriber.onComplete(); }
+ * });
+ * </pre>
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public final class ResultFlow {
+
+    private ResultFlow() {
+        // Only the nested interfaces
+    }
+
+    /**
+     * A producer of results which are emitted to a {@link Subscriber} on
+     * demand.
+     *
+     * @param <T> The type of the results.
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Adds a subscriber. Each subscriber receives all results of the
+         * query, the query is executed separately for each subscriber.
+         *
+         * @param subscriber The subscriber.
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+
+    }
+
+    /**
+     * A receiver of results.
+     *
+     * @param <T> The type of the results.
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Called once before any other method. No results are emitted until
+         * {@link Subscription#request(long)} is called.
+         *
+         * @param subscription The subscription for requesting results.
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called for each result, at most as often as requested.
+         *
+         * @param item The result.
+         */
+        void onNext(T item);
+
+        /**
+         * Called if the query fails. No further methods are called.
+         *
+         * @param throwable The error.
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Called after the last result. No further methods are called.
+         */
+        void onComplete();
+
+    }
+
+    /**
+     * The link between a {@link Publisher} and a {@link Subscriber}.
+     */
+    public interface Subscription {
+
+        /**
+         * Requests additional results.
+         *
+         * @param n The number of additional results, must be positive.
+         */
+        void request(long n);
+
+        /**
+         * Cancels the subscription. No further results are emitted.
+         */
+        void cancel();
+
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+/**
+ * Thrown if a query matches more instances than allowed by the
+ * {@link QueryOptions#withMaxResults(long) hard cap} of the query. This
+ * exception is unchecked so that it can be thrown by methods returning a
+ * {@link java.util.stream.Stream}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class ResultLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The hard cap of the query.
+     */
+    private final long maxResults;
+
+    /**
+     * The number of instances matched by the query.
+     */
+    private final long matches;
+
+    /**
+     * Creates a new instance.
+     *
+     * @param maxResults The hard cap of the query.
+     * @param matches    The number of instances matched by the query.
+     */
+    public ResultLimitExceededException(
+        final long maxResults, final long matches
+    ) {
+        super(
+            String.format(
+                "The query matches %d instances, but only %d are allowed.",
+                matches,
+                maxResults
+            )
+        );
+        this.maxResults = maxResults;
+        this.matches = matches;
+    }
+
+    /**
+     * @return The hard cap of the query.
+     */
+    public long getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * @return The number of instances matched by the query.
+     */
+    public long getMatches() {
+        return matches;
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * A {@link ResultFlow.Publisher} which emits the elements of a lazy
+ * {@link Stream} as requested by the subscriber.
+ *
+ * For each subscriber the stream is created when the first elements are
+ * requested, and only as many elements are pulled from the stream as have
+ * been requested. The elements are emitted in the thread calling
+ * {@link ResultFlow.Subscription#request(long)}. Reentrant calls of
+ * {@code request} from {@code onNext} are handled without recursion.
+ *
+ * @param <T> The type of the elements.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class StreamPublisher<T> implements ResultFlow.Publisher<T> {
+
+    /**
+     * Creates the stream for each subscriber.
+     */
+    private final Supplier<Stream<T>> source;
+
+    StreamPublisher(final Supplier<Stream<T>> source) {
+        this.source = source;
+    }
+
+    @Override
+    public void subscribe(final ResultFlow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        subscriber.onSubscribe(new StreamSubscription<>(source, subscriber));
+    }
+
+    /**
+     * The subscription of a single subscriber.
+     *
+     * @param <T> The type of the elements.
+     */
+    private static final class StreamSubscription<T>
+        implements ResultFlow.Subscription {
+
+        private final Supplier<Stream<T>> source;
+
+        private final ResultFlow.Subscriber<? super T> subscriber;
+
+        /**
+         * The number of requested elements which have not been emitted yet.
+         */
+        private final AtomicLong requested;
+
+        /**
+         * Guards the emission loop, only one thread emits elements.
+         */
+        private final AtomicInteger workInProgress;
+
+        /**
+         * The stream, created on the first request. Only accessed by the
+         * thread running the emission loop.
+         */
+        private Stream<T> stream;
+
+        /**
+         * The iterator of the stream.
+         */
+        private Iterator<T> iterator;
+
+        /**
+         * Set if the subscription has been cancelled.
+         */
+        private volatile boolean cancelled;
+
+        /**
+         * An invalid request, reported by the emission loop.
+         */
+        private volatile IllegalArgumentException invalidRequest;
+
+        /**
+         * Set if the subscription is finished. Only accessed by the thread
+         * running the emission loop.
+         */
+        private boolean done;
+
+        StreamSubscription(
+            final Supplier<Stream<T>> source,
+            final ResultFlow.Subscriber<? super T> subscriber
+        ) {
+            this.source = source;
+            this.subscriber = subscriber;
+            requested = new AtomicLong();
+            workInProgress = new AtomicInteger();
+        }
+
+        @Override
+        public void request(final long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException(
+                    String.format(
+                        "The number of requested elements must be "
+                            + "positive, but was %d.",
+                        n
+                    )
+                );
+            } else {
+                requested.getAndUpdate(
+                    current -> current + n < 0 ? Long.MAX_VALUE : current + n
+                );
+            }
+            emit();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            emit();
+        }
+
+        /**
+         * Emits the requested elements. If another thread or an outer call
+         * (from {@code onNext}) is already emitting, that call picks up the
+         * new demand.
+         */
+        private void emit() {
+            if (workInProgress.getAndIncrement() != 0) {
+                return;
+            }
+            int missed = 1;
+            do {
+                if (!done) {
+                    if (cancelled) {
+                        finish();
+                    } else if (invalidRequest != null) {
+                        finish();
+                        subscriber.onError(invalidRequest);
+                    } else {
+                        emitRequested();
+                    }
+                }
+                missed = workInProgress.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Emits elements until the demand is satisfied or the stream is
+         * exhausted.
+         */
+        private void emitRequested() {
+            try {
+                if (iterator == null) {
+                    stream = source.get();
+                    iterator = stream.iterator();
+                }
+                final long demand = requested.get();
+                long emitted = 0;
+                while (emitted < demand && !cancelled && iterator.hasNext()) {
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                }
+                if (!cancelled && !iterator.hasNext()) {
+                    finish();
+                    subscriber.onComplete();
+                } else {
+                    requested.addAndGet(-emitted);
+                }
+            } catch (RuntimeException ex) {
+                finish();
+                subscriber.onError(ex);
+            }
+        }
+
+        /**
+         * Marks the subscription as finished and closes the stream.
+         */
+        private void finish() {
+            done = true;
+            iterator = null;
+            if (stream != null) {
+                stream.close();
+                stream = null;
+            }
+        }
+
+    }
+
+}
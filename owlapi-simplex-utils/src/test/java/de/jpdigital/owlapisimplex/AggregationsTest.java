@@ -0,0 +1,496 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the results of {@link Aggregations} with aggregations computed
+ * from the answers of the reasoner, for the company ontology and for a large
+ * generated ontology which is scanned in parallel.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class AggregationsTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    /**
+     * The number of employees generated for the large ontology, enough for
+     * a parallel scan.
+     */
+    private static final int GENERATED_EMPLOYEES
+                                 = DataProperties.PARALLEL_THRESHOLD + 500;
+
+    private static OwlApiSimplexUtils company;
+
+    private static OwlApiSimplexUtils generated;
+
+    private static OWLDataFactory dataFactory;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        company = TestOntologies.load("company.ttl");
+        dataFactory = company.getOntologyManager().getOWLDataFactory();
+
+        generated = TestOntologies.load("company.ttl");
+        final OWLOntology ontology = generated.getOntology();
+        final Random random = new Random(48);
+        final List<OWLNamedIndividual> companies = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            companies.add(individual("company" + i));
+        }
+        for (int i = 0; i < GENERATED_EMPLOYEES; i++) {
+            final OWLNamedIndividual employee = individual(
+                String.format("employee%05d", i)
+            );
+            ontology.add(
+                dataFactory.getOWLClassAssertionAxiom(cls("Employee"), employee)
+            );
+            // A few employees without a company, some with two companies
+            if (i % 50 != 0) {
+                ontology.add(
+                    dataFactory.getOWLObjectPropertyAssertionAxiom(
+                        objectProperty("worksFor"),
+                        employee,
+                        companies.get(random.nextInt(3) + random.nextInt(5))
+                    )
+                );
+            }
+            if (i % 17 == 0) {
+                ontology.add(
+                    dataFactory.getOWLObjectPropertyAssertionAxiom(
+                        objectProperty("employs"), companies.get(6), employee
+                    )
+                );
+            }
+            // Salaries with several lexical forms of the same value
+            final int salary = 3000 + 250 * random.nextInt(12);
+            final String lexicalForm;
+            if (i % 3 == 0) {
+                lexicalForm = salary + ".00";
+            } else {
+                lexicalForm = Integer.toString(salary);
+            }
+            if (i % 40 != 0) {
+                ontology.add(
+                    dataFactory.getOWLDataPropertyAssertionAxiom(
+                        dataProperty("salary"),
+                        employee,
+                        dataFactory.getOWLLiteral(
+                            lexicalForm, OWL2Datatype.XSD_DECIMAL
+                        )
+                    )
+                );
+            }
+            ontology.add(
+                dataFactory.getOWLDataPropertyAssertionAxiom(
+                    dataProperty("age"),
+                    employee,
+                    dataFactory.getOWLLiteral(
+                        Integer.toString(20 + random.nextInt(40)),
+                        OWL2Datatype.XSD_INT
+                    )
+                )
+            );
+        }
+        generated.getReasoner().flush();
+    }
+
+    @Test
+    public void countByObjectPropertyValue() {
+        final Map<OWLNamedIndividual, Long> counts = company
+            .buildAggregations()
+            .countByObjectPropertyValue(
+                cls("Employee"), objectProperty("worksFor")
+            );
+        assertEquals(2, (long) counts.get(individual("acme")));
+        assertEquals(1, (long) counts.get(individual("initech")));
+        assertCountsByObjectPropertyValue(company, cls("Employee"));
+        assertCountsByObjectPropertyValue(company, cls("Person"));
+        assertCountsByObjectPropertyValue(generated, cls("Employee"));
+    }
+
+    @Test
+    public void countByDataPropertyValue() {
+        assertCountsByDataPropertyValue(company, dataProperty("age"));
+        assertCountsByDataPropertyValue(company, dataProperty("salary"));
+        assertCountsByDataPropertyValue(generated, dataProperty("age"));
+        assertCountsByDataPropertyValue(generated, dataProperty("salary"));
+    }
+
+    @Test
+    public void summarizeDataPropertyValues() {
+        assertSummary(company, cls("Person"), dataProperty("age"));
+        assertSummary(company, cls("Employee"), dataProperty("salary"));
+        assertSummary(generated, cls("Employee"), dataProperty("salary"));
+
+        final Aggregations aggregations = company.buildAggregations();
+        assertEquals(
+            OptionalDouble.of(4000),
+            aggregations.minDataPropertyValue(
+                cls("Employee"), dataProperty("salary")
+            )
+        );
+        assertEquals(
+            OptionalDouble.of(9000.5),
+            aggregations.maxDataPropertyValue(
+                cls("Employee"), dataProperty("salary")
+            )
+        );
+        assertEquals(
+            18000.5,
+            aggregations.sumDataPropertyValues(
+                cls("Employee"), dataProperty("salary")
+            ),
+            1e-9
+        );
+        assertFalse(
+            aggregations
+                .minDataPropertyValue(cls("Document"), dataProperty("salary"))
+                .isPresent()
+        );
+    }
+
+    @Test
+    public void summarizeByObjectPropertyValue() {
+        assertSummaryByObjectPropertyValue(company);
+        assertSummaryByObjectPropertyValue(generated);
+    }
+
+    @Test
+    public void summarizeByDataPropertyValue() {
+        assertSummaryByDataPropertyValue(company);
+        assertSummaryByDataPropertyValue(generated);
+    }
+
+    /**
+     * The values entailed by the reasoner but not asserted are aggregated
+     * like the asserted values: alice is a senior veteran without any
+     * asserted values.
+     */
+    @Test
+    public void entailedValuesAreAggregated() throws OwlApiSimplexException {
+        final OwlApiSimplexUtils values = TestOntologies.load(
+            "entailed-values.ttl"
+        );
+        final String namespace = "http://example.org/ontologies/values#";
+        final OWLClass person = dataFactory.getOWLClass(
+            IRI.create(namespace + "Person")
+        );
+        final OWLDataProperty level = dataFactory.getOWLDataProperty(
+            IRI.create(namespace + "level")
+        );
+        final OWLDataProperty years = dataFactory.getOWLDataProperty(
+            IRI.create(namespace + "years")
+        );
+        final Aggregations aggregations = values.buildAggregations();
+
+        final Map<OWLLiteral, Long> counts = aggregations
+            .countByDataPropertyValue(person, level);
+        assertEquals(2, counts.size());
+        assertEquals(2, (long) counts.get(dataFactory.getOWLLiteral("senior")));
+        assertEquals(1, (long) counts.get(dataFactory.getOWLLiteral("junior")));
+
+        final DoubleSummaryStatistics statistics = aggregations
+            .summarizeDataPropertyValues(person, years);
+        assertEquals(3, statistics.getCount());
+        assertEquals(65, statistics.getSum(), 1e-9);
+        assertEquals(5, statistics.getMin(), 1e-9);
+        assertEquals(30, statistics.getMax(), 1e-9);
+        assertSummary(values, person, years);
+
+        final Map<OWLLiteral, DoubleSummaryStatistics> byLevel = aggregations
+            .summarizeByDataPropertyValue(person, level, years);
+        assertEquals(
+            35,
+            byLevel.get(dataFactory.getOWLLiteral("senior")).getSum(),
+            1e-9
+        );
+        assertEquals(
+            30,
+            byLevel.get(dataFactory.getOWLLiteral("junior")).getSum(),
+            1e-9
+        );
+    }
+
+    private static void assertCountsByObjectPropertyValue(
+        final OwlApiSimplexUtils utils, final OWLClass owlClass
+    ) {
+        final Map<OWLNamedIndividual, Long> counts = utils
+            .buildAggregations()
+            .countByObjectPropertyValue(owlClass, objectProperty("worksFor"));
+        final Map<Object, List<OWLNamedIndividual>> expected = groups(
+            utils, owlClass, objectPropertyValues(utils, "worksFor")
+        );
+        assertEquals(
+            expected
+                .entrySet()
+                .stream()
+                .collect(
+                    Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> (long) entry.getValue().size()
+                    )
+                ),
+            counts
+        );
+        assertOrdered(counts);
+    }
+
+    private static void assertCountsByDataPropertyValue(
+        final OwlApiSimplexUtils utils, final OWLDataProperty property
+    ) {
+        final Map<OWLLiteral, Long> counts = utils
+            .buildAggregations()
+            .countByDataPropertyValue(cls("Employee"), property);
+        final Map<Object, List<OWLNamedIndividual>> expected = groups(
+            utils, cls("Employee"), dataPropertyValues(utils, property)
+        );
+        final Map<Object, Long> actual = new HashMap<>();
+        counts.forEach((literal, count) -> actual.put(value(literal), count));
+        assertEquals(expected.size(), counts.size());
+        assertEquals(
+            expected
+                .entrySet()
+                .stream()
+                .collect(
+                    Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> (long) entry.getValue().size()
+                    )
+                ),
+            actual
+        );
+        assertOrdered(counts);
+    }
+
+    private static void assertSummary(
+        final OwlApiSimplexUtils utils,
+        final OWLClass owlClass,
+        final OWLDataProperty measure
+    ) {
+        assertStatistics(
+            statistics(
+                utils,
+                utils.getReasoner().instances(owlClass, false).collect(
+                    Collectors.toList()
+                ),
+                measure
+            ),
+            utils
+                .buildAggregations()
+                .summarizeDataPropertyValues(owlClass, measure)
+        );
+    }
+
+    private static void assertSummaryByObjectPropertyValue(
+        final OwlApiSimplexUtils utils
+    ) {
+        final Map<OWLNamedIndividual, DoubleSummaryStatistics> result = utils
+            .buildAggregations()
+            .summarizeByObjectPropertyValue(
+                cls("Employee"),
+                objectProperty("worksFor"),
+                dataProperty("salary")
+            );
+        final Map<Object, List<OWLNamedIndividual>> expected = groups(
+            utils, cls("Employee"), objectPropertyValues(utils, "worksFor")
+        );
+        assertEquals(expected.keySet(), result.keySet());
+        expected.forEach(
+            (target, members) -> assertStatistics(
+                statistics(utils, members, dataProperty("salary")),
+                result.get(target)
+            )
+        );
+    }
+
+    private static void assertSummaryByDataPropertyValue(
+        final OwlApiSimplexUtils utils
+    ) {
+        final Map<OWLLiteral, DoubleSummaryStatistics> result = utils
+            .buildAggregations()
+            .summarizeByDataPropertyValue(
+                cls("Employee"), dataProperty("age"), dataProperty("salary")
+            );
+        final Map<Object, List<OWLNamedIndividual>> expected = groups(
+            utils,
+            cls("Employee"),
+            dataPropertyValues(utils, dataProperty("age"))
+        );
+        assertEquals(expected.size(), result.size());
+        result.forEach(
+            (age, statistics) -> assertStatistics(
+                statistics(
+                    utils, expected.get(value(age)), dataProperty("salary")
+                ),
+                statistics
+            )
+        );
+    }
+
+    /**
+     * Groups the members of a class returned by the reasoner by the keys
+     * returned for each member.
+     */
+    private static Map<Object, List<OWLNamedIndividual>> groups(
+        final OwlApiSimplexUtils utils,
+        final OWLClass owlClass,
+        final Function<OWLNamedIndividual, Set<Object>> keys
+    ) {
+        final Map<Object, List<OWLNamedIndividual>> result = new HashMap<>();
+        utils
+            .getReasoner()
+            .instances(owlClass, false)
+            .forEach(
+                member -> keys
+                    .apply(member)
+                    .forEach(
+                        key -> result
+                            .computeIfAbsent(key, k -> new ArrayList<>())
+                            .add(member)
+                    )
+            );
+        return result;
+    }
+
+    private static Function<OWLNamedIndividual, Set<Object>> objectPropertyValues(
+        final OwlApiSimplexUtils utils, final String property
+    ) {
+        final OWLReasoner reasoner = utils.getReasoner();
+        return member -> reasoner
+            .objectPropertyValues(member, objectProperty(property))
+            .collect(Collectors.toSet());
+    }
+
+    private static Function<OWLNamedIndividual, Set<Object>> dataPropertyValues(
+        final OwlApiSimplexUtils utils, final OWLDataProperty property
+    ) {
+        final OWLReasoner reasoner = utils.getReasoner();
+        return member -> reasoner
+            .dataPropertyValues(member, property)
+            .map(AggregationsTest::value)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * The statistics of the numeric values of a property of the provided
+     * individuals, as returned by the reasoner.
+     */
+    private static DoubleSummaryStatistics statistics(
+        final OwlApiSimplexUtils utils,
+        final List<OWLNamedIndividual> individuals,
+        final OWLDataProperty measure
+    ) {
+        final DoubleSummaryStatistics result = new DoubleSummaryStatistics();
+        individuals.forEach(
+            individual -> utils
+                .getReasoner()
+                .dataPropertyValues(individual, measure)
+                .map(AggregationsTest::value)
+                .filter(value -> value instanceof BigDecimal)
+                .mapToDouble(value -> ((BigDecimal) value).doubleValue())
+                .forEach(result)
+        );
+        return result;
+    }
+
+    /**
+     * The value of a literal, numbers are compared by their value.
+     */
+    private static Object value(final OWLLiteral literal) {
+        if (literal.getDatatype().isInteger()
+                || literal.getDatatype().getIRI().equals(
+                OWL2Datatype.XSD_INT.getIRI()
+            )
+                || literal.getDatatype().getIRI().equals(
+                OWL2Datatype.XSD_DECIMAL.getIRI()
+            )) {
+            return new BigDecimal(literal.getLiteral()).stripTrailingZeros();
+        }
+        return literal;
+    }
+
+    private static void assertStatistics(
+        final DoubleSummaryStatistics expected,
+        final DoubleSummaryStatistics actual
+    ) {
+        assertEquals(expected.getCount(), actual.getCount());
+        if (expected.getCount() > 0) {
+            assertEquals(expected.getMin(), actual.getMin(), 1e-9);
+            assertEquals(expected.getMax(), actual.getMax(), 1e-9);
+            assertEquals(expected.getSum(), actual.getSum(), 1e-6);
+        }
+    }
+
+    /**
+     * Checks that the groups are ordered by their count, largest first.
+     */
+    private static void assertOrdered(final Map<?, Long> counts) {
+        long previous = Long.MAX_VALUE;
+        for (final long count : counts.values()) {
+            assertTrue(count <= previous);
+            previous = count;
+        }
+    }
+
+    private static OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLObjectProperty objectProperty(final String name) {
+        return dataFactory.getOWLObjectProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+}
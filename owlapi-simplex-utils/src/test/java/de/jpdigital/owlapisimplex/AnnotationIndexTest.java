@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Checks the prefix search of the {@link AnnotationIndex} and that changes
+ * of the annotations only discard the annotation part of the
+ * {@link OntologyIndex}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class AnnotationIndexTest {
+
+    private static final String NAMESPACE
+        = "http://example.org/ontologies/labels#";
+
+    private OwlApiSimplexUtils utils;
+
+    private Annotations annotations;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        utils = TestOntologies.load("labels.ttl");
+        annotations = utils.buildAnnotations();
+    }
+
+    @After
+    public void tearDown() {
+        utils.getOntologyIndex().close();
+    }
+
+    @Test
+    public void prefixOfWordInLabel() {
+        assertFound(
+            annotations.findByLabelPrefix("corp", 10),
+            "acme", "umbrella", "globex", "lab"
+        );
+        assertFound(annotations.findByLabelPrefix("sink", 10), "supplies");
+        assertFound(annotations.findByLabelPrefix("deutsch", 10), "initech");
+        // The words must start with the prefix.
+        assertFound(annotations.findByLabelPrefix("orporation", 10));
+        assertFound(annotations.findByLabelPrefix("dland", 10));
+        // A digit followed by a letter is a single word.
+        assertFound(annotations.findByLabelPrefix("d", 10), "initech");
+        assertFound(annotations.findByLabelPrefix("3d", 10), "lab");
+        // Comments are not included.
+        assertFound(annotations.findByLabelPrefix("corporate", 10));
+    }
+
+    @Test
+    public void orderedByMatchingPart() {
+        final List<IRI> result = annotations.findByLabelPrefix("corp", 10);
+        // "Acme Corp" and "Umbrella Corp" end with the prefix, they come
+        // first.
+        assertEquals(
+            new HashSet<>(Arrays.asList(iri("acme"), iri("umbrella"))),
+            new HashSet<>(result.subList(0, 2))
+        );
+        assertEquals(
+            Arrays.asList(iri("globex"), iri("lab")), result.subList(2, 4)
+        );
+    }
+
+    @Test
+    public void caseInsensitive() {
+        final List<IRI> expected = annotations.findByLabelPrefix("corp", 10);
+        assertEquals(expected, annotations.findByLabelPrefix("CORP", 10));
+        assertEquals(expected, annotations.findByLabelPrefix("cOrP", 10));
+        assertFound(annotations.findByLabelPrefix("ACME C", 10), "acme");
+    }
+
+    @Test
+    public void languageFilter() {
+        assertFound(
+            annotations.findByLabelPrefix("corp", "en", 10),
+            "acme", "umbrella", "globex"
+        );
+        assertFound(
+            annotations.findByLabelPrefix("corp", "EN", 10),
+            "acme", "umbrella", "globex"
+        );
+        assertFound(
+            annotations.findByLabelPrefix("corp", "en-US", 10),
+            "acme", "umbrella", "globex"
+        );
+        assertFound(
+            annotations.findByLabelPrefix("corp", "en-GB", 10),
+            "acme", "umbrella"
+        );
+        assertFound(
+            annotations.findByLabelPrefix("corp", "de", 10),
+            "umbrella", "lab"
+        );
+        assertFound(
+            annotations.findByLabelPrefix("initech", "en", 10), "initech"
+        );
+        assertFound(
+            annotations.findByLabelPrefix("initech", "de", 10), "initech"
+        );
+        assertFound(annotations.findByLabelPrefix("initech", "en-US", 10));
+    }
+
+    @Test
+    public void limit() {
+        final List<IRI> all = annotations.findByLabelPrefix("corp", 10);
+        assertEquals(4, all.size());
+        assertEquals(
+            all.subList(0, 2), annotations.findByLabelPrefix("corp", 2)
+        );
+        assertEquals(
+            all.subList(0, 3), annotations.findByLabelPrefix("corp", 3)
+        );
+        assertEquals(
+            Collections.emptyList(), annotations.findByLabelPrefix("corp", 0)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLimit() {
+        annotations.findByLabelPrefix("corp", -1);
+    }
+
+    @Test
+    public void eachSubjectOnce() {
+        // Both labels of acme start with "acme", "ACME Corporation" also
+        // contains "corp".
+        assertEquals(
+            Collections.singletonList(iri("acme")),
+            annotations.findByLabelPrefix("acme", 10)
+        );
+        assertEquals(
+            Collections.singletonList(iri("initech")),
+            annotations.findByLabelPrefix("initech", 10)
+        );
+        final List<IRI> result = annotations.findByLabelPrefix("", 10);
+        assertEquals(new HashSet<>(result).size(), result.size());
+        assertEquals(7, result.size());
+    }
+
+    @Test
+    public void annotationChangeOnlyDiscardsAnnotations() {
+        final OntologyIndex ontologyIndex = utils.getOntologyIndex();
+        final OWLDataFactory dataFactory = utils
+            .getOntologyManager()
+            .getOWLDataFactory();
+        final OWLClass company = dataFactory.getOWLClass(iri("Company"));
+        final BitSet members = ontologyIndex.getClassMembers(company);
+        final ClassHierarchyIndex hierarchy = ontologyIndex
+            .getClassHierarchy();
+        final AnnotationIndex annotationIndex = ontologyIndex
+            .getAnnotationIndex();
+        assertFound(annotations.findByLabelPrefix("hoo", 10));
+
+        utils.getOntologyManager().addAxiom(
+            utils.getOntology(),
+            dataFactory.getOWLAnnotationAssertionAxiom(
+                dataFactory.getRDFSLabel(),
+                iri("hooli"),
+                dataFactory.getOWLLiteral("Hooli", "en")
+            )
+        );
+
+        assertNotSame(annotationIndex, ontologyIndex.getAnnotationIndex());
+        assertFound(annotations.findByLabelPrefix("hoo", 10), "hooli");
+        assertSame(members, ontologyIndex.getClassMembers(company));
+        assertSame(hierarchy, ontologyIndex.getClassHierarchy());
+    }
+
+    private IRI iri(final String name) {
+        return IRI.create(NAMESPACE + name);
+    }
+
+    /**
+     * Helper method for checking the result of a search, ignoring the order
+     * of the subjects.
+     *
+     * @param result The result of the search.
+     * @param names  The names of the expected subjects.
+     */
+    private void assertFound(final List<IRI> result, final String... names) {
+        assertEquals(names.length, result.size());
+        final HashSet<IRI> expected = new HashSet<>();
+        for (final String name : names) {
+            expected.add(iri(name));
+        }
+        assertEquals(expected, new HashSet<>(result));
+    }
+
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the execution of the queries submitted to {@link AsyncQueries}:
+ * failures, rejections, cancellations and deadlines.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class AsyncQueriesTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private static OwlApiSimplexUtils utils;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company-disjunctive.ttl");
+    }
+
+    @Test
+    public void resultCompletesFuture() throws Exception {
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(2, 4)) {
+            assertEquals(
+                3L,
+                (long) asyncQueries
+                    .countInstances(cls("Employee"))
+                    .get(5, TimeUnit.SECONDS)
+            );
+        }
+    }
+
+    @Test
+    public void runtimeExceptionCompletesFuture() throws Exception {
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(1, 4)) {
+            final IllegalStateException failure = new IllegalStateException();
+            final CompletableFuture<Object> future = asyncQueries.submit(
+                deadline -> {
+                    throw failure;
+                }
+            );
+            assertSame(failure, causeOf(future));
+            assertEquals(
+                "ok",
+                asyncQueries.submit(deadline -> "ok").get(5, TimeUnit.SECONDS)
+            );
+        }
+    }
+
+    @Test
+    public void errorIsRethrown() throws Exception {
+        final Thread.UncaughtExceptionHandler handler = Thread
+            .getDefaultUncaughtExceptionHandler();
+        final AtomicReference<Throwable> uncaught = new AtomicReference<>();
+        final CountDownLatch thrown = new CountDownLatch(1);
+        Thread.setDefaultUncaughtExceptionHandler((thread, ex) -> {
+            uncaught.set(ex);
+            thrown.countDown();
+        });
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(1, 4)) {
+            final InternalError error = new InternalError("test");
+            final CompletableFuture<Object> future = asyncQueries.submit(
+                deadline -> {
+                    throw error;
+                }
+            );
+            assertSame(error, causeOf(future));
+            assertTrue(thrown.await(5, TimeUnit.SECONDS));
+            assertSame(error, uncaught.get());
+            // The executor replaces the terminated thread.
+            assertEquals(
+                "ok",
+                asyncQueries.submit(deadline -> "ok").get(5, TimeUnit.SECONDS)
+            );
+        } finally {
+            Thread.setDefaultUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void fullQueueRejectsQueries() throws Exception {
+        final QueryMetrics metrics = utils.getQueryMetrics();
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(1, 1)) {
+            final CompletableFuture<String> blocking = asyncQueries.submit(
+                deadline -> {
+                    running.countDown();
+                    awaitQuietly(release);
+                    return "first";
+                }
+            );
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            final CompletableFuture<String> queued = asyncQueries.submit(
+                deadline -> "second"
+            );
+            final long rejections = metrics.getAsyncRejections();
+            final CompletableFuture<String> rejected = asyncQueries.submit(
+                deadline -> "third"
+            );
+            assertTrue(
+                causeOf(rejected) instanceof RejectedExecutionException
+            );
+            assertEquals(rejections + 1, metrics.getAsyncRejections());
+
+            release.countDown();
+            assertEquals("first", blocking.get(5, TimeUnit.SECONDS));
+            assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void deadlinePassesInQueue() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(1, 4)) {
+            asyncQueries.submit(deadline -> {
+                running.countDown();
+                awaitQuietly(release);
+                return null;
+            });
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            final CountDownLatch executed = new CountDownLatch(1);
+            final CompletableFuture<Object> late = asyncQueries.submit(
+                Duration.ofMillis(20),
+                deadline -> {
+                    executed.countDown();
+                    return null;
+                }
+            );
+            Thread.sleep(50);
+            release.countDown();
+            assertTrue(causeOf(late) instanceof QueryTimeoutException);
+            assertEquals(1, executed.getCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void cancellingFutureCancelsDeadline() throws Exception {
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(1, 4)) {
+            final CompletableFuture<Object> future = asyncQueries.submit(
+                deadline -> {
+                    running.countDown();
+                    while (!deadline.isCancelled()) {
+                        Thread.yield();
+                    }
+                    cancelled.countDown();
+                    return null;
+                }
+            );
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            future.cancel(true);
+            assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    /**
+     * A count waiting for the reasoner must stop waiting if the future is
+     * cancelled, otherwise the thread of the executor is blocked until the
+     * reasoner is released.
+     */
+    @Test
+    public void cancellingCountReleasesThread() throws Exception {
+        final OWLDataFactory dataFactory = utils
+            .getOntologyManager()
+            .getOWLDataFactory();
+        // Not answered from the index in the disjunctive ontology
+        final OWLClassExpression union = dataFactory.getOWLObjectUnionOf(
+            cls("Customer"),
+            dataFactory.getOWLObjectSomeValuesFrom(
+                dataFactory.getOWLObjectProperty(
+                    IRI.create(NAMESPACE + "worksFor")
+                ),
+                cls("Document")
+            )
+        );
+        final Instances instances = utils.buildInstances();
+        assertEquals(0, instances.countInstances(union));
+
+        final ReasonerGuard guard = utils.getOntologyIndex().getReasonerGuard();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> guard.call(
+            QueryDeadline.NONE,
+            () -> {
+                locked.countDown();
+                awaitQuietly(release);
+                return null;
+            }
+        ));
+        holder.start();
+        try (AsyncQueries asyncQueries = utils.buildAsyncQueries(1, 4)) {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            final CompletableFuture<Long> count = asyncQueries
+                .countInstances(union);
+            Thread.sleep(50);
+            count.cancel(true);
+            assertEquals(
+                "ok",
+                asyncQueries.submit(deadline -> "ok").get(5, TimeUnit.SECONDS)
+            );
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    private static Throwable causeOf(final CompletableFuture<?> future)
+        throws InterruptedException, TimeoutException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException ex) {
+            return ex.getCause();
+        }
+        fail("The future should fail.");
+        return null;
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static OWLClass cls(final String name) {
+        return utils
+            .getOntologyManager()
+            .getOWLDataFactory()
+            .getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+}
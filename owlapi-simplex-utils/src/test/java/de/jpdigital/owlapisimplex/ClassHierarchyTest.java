@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the results of {@link ClassHierarchy} which are read from the
+ * {@link ClassHierarchyIndex} with the results of the reasoner. The ontology
+ * contains a pair of equivalent classes, a class with two superclasses and
+ * two unsatisfiable classes.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class ClassHierarchyTest {
+
+    private static final String NAMESPACE
+        = "http://example.org/ontologies/hierarchy#";
+
+    private OWLDataFactory dataFactory;
+
+    private OWLReasoner reasoner;
+
+    private ClassHierarchy classHierarchy;
+
+    /**
+     * The classes of the ontology together with {@code owl:Thing} and
+     * {@code owl:Nothing}.
+     */
+    private List<OWLClass> classes;
+
+    /**
+     * The unsatisfiable classes as determined by the reasoner.
+     */
+    private Set<OWLClass> unsatisfiable;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        final OwlApiSimplexUtils utils = TestOntologies.load(
+            "class-hierarchy.ttl"
+        );
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        reasoner = utils.getReasoner();
+        classHierarchy = utils.buildClassHierarchy();
+        classes = new ArrayList<>(
+            utils.getOntology().getClassesInSignature()
+        );
+        classes.add(dataFactory.getOWLThing());
+        classes.add(dataFactory.getOWLNothing());
+        unsatisfiable = reasoner
+            .getUnsatisfiableClasses()
+            .entities()
+            .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void isSubClassOfMatchesReasoner() {
+        for (final OWLClass subClass : classes) {
+            for (final OWLClass superClass : classes) {
+                assertEquals(
+                    subClass + " subclass of " + superClass,
+                    reasoner.isEntailed(
+                        dataFactory.getOWLSubClassOfAxiom(
+                            subClass, superClass
+                        )
+                    ),
+                    classHierarchy.isSubClassOf(subClass, superClass)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void superClassesMatchReasoner() {
+        for (final OWLClass owlClass : classes) {
+            for (final boolean direct : new boolean[]{true, false}) {
+                assertEquals(
+                    "superclasses of " + owlClass + ", direct: " + direct,
+                    sorted(
+                        reasoner.getSuperClasses(owlClass, direct).entities()
+                    ),
+                    classHierarchy.getSuperClasses(owlClass, direct)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void subClassesMatchReasoner() {
+        for (final OWLClass owlClass : classes) {
+            for (final boolean direct : new boolean[]{true, false}) {
+                assertEquals(
+                    "subclasses of " + owlClass + ", direct: " + direct,
+                    sorted(
+                        reasoner
+                            .getSubClasses(owlClass, direct)
+                            .entities()
+                            .filter(
+                                subClass -> !unsatisfiable.contains(subClass)
+                            )
+                    ),
+                    classHierarchy.getSubClasses(owlClass, direct)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void equivalentClassesMatchReasoner() {
+        for (final OWLClass owlClass : classes) {
+            assertEquals(
+                "equivalent classes of " + owlClass,
+                sorted(
+                    reasoner
+                        .getEquivalentClasses(owlClass)
+                        .entities()
+                        .filter(equivalent -> !equivalent.equals(owlClass))
+                ),
+                classHierarchy.getEquivalentClasses(owlClass)
+            );
+        }
+    }
+
+    @Test
+    public void equivalentClasses() {
+        assertEquals(
+            Arrays.asList(cls("Hound")),
+            classHierarchy.getEquivalentClasses(cls("Dog"))
+        );
+        assertEquals(
+            Arrays.asList(cls("Dog")),
+            classHierarchy.getEquivalentClasses(cls("Hound"))
+        );
+        assertTrue(classHierarchy.isSubClassOf(cls("Dog"), cls("Hound")));
+        assertTrue(classHierarchy.isSubClassOf(cls("Hound"), cls("Dog")));
+        assertEquals(
+            Arrays.asList(cls("Beagle"), cls("PetDog")),
+            classHierarchy.getSubClasses(cls("Hound"), true)
+        );
+        assertEquals(
+            Arrays.asList(cls("Animal"), cls("Mammal")),
+            classHierarchy
+                .superClasses(cls("Beagle"), false)
+                .filter(superClass -> !superClass.isOWLThing())
+                .filter(superClass -> !superClass.equals(cls("Dog")))
+                .filter(superClass -> !superClass.equals(cls("Hound")))
+                .collect(Collectors.toList())
+        );
+    }
+
+    @Test
+    public void unsatisfiableClasses() {
+        assertTrue(unsatisfiable.contains(cls("Griffin")));
+        assertTrue(unsatisfiable.contains(cls("BabyGriffin")));
+        assertTrue(classHierarchy.isSubClassOf(cls("Griffin"), cls("Plant")));
+        assertTrue(
+            classHierarchy.isSubClassOf(cls("Griffin"), cls("BabyGriffin"))
+        );
+        assertFalse(classHierarchy.isSubClassOf(cls("Plant"), cls("Griffin")));
+        assertFalse(
+            classHierarchy.getSubClasses(cls("Bird"), false)
+                .contains(cls("Griffin"))
+        );
+        assertTrue(classHierarchy.getSubClasses(cls("Griffin"), false)
+            .isEmpty());
+        assertEquals(
+            Arrays.asList(cls("Griffin"), dataFactory.getOWLNothing()),
+            classHierarchy.getEquivalentClasses(cls("BabyGriffin"))
+        );
+    }
+
+    private OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private List<OWLClass> sorted(final Stream<OWLClass> classStream) {
+        return classStream
+            .sorted(
+                Comparator.comparing(owlClass -> owlClass.getIRI().toString())
+            )
+            .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Checks the queries for the values of data properties for an ontology in
+ * which the reasoner entails values which are not asserted. The results must
+ * be the results of the reasoner.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class EntailedDataPropertyValuesTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/values#";
+
+    private static OwlApiSimplexUtils utils;
+
+    private static OWLDataFactory dataFactory;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        utils = TestOntologies.load("entailed-values.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+    }
+
+    @Test
+    public void valueIndexIsIncomplete() {
+        assertFalse(
+            utils
+                .getOntologyIndex()
+                .getDataPropertyValueIndex(dataProperty("level"))
+                .isComplete()
+        );
+    }
+
+    @Test
+    public void instancesWithDataPropertyValue() {
+        final Instances instances = utils.buildInstances();
+        final OWLClass person = cls("Person");
+        final OWLLiteral senior = dataFactory.getOWLLiteral("senior");
+        final OWLLiteral thirty = dataFactory.getOWLLiteral(
+            "30", OWL2Datatype.XSD_INTEGER
+        );
+
+        assertEquals(
+            entailed(person, dataProperty("level"), senior),
+            toSet(
+                instances.instancesWithDataPropertyValue(
+                    person, dataProperty("level"), senior
+                )
+            )
+        );
+        assertEquals(
+            individuals("alice", "bob"),
+            toSet(
+                instances.instancesWithDataPropertyValue(
+                    person, dataProperty("level"), "senior"
+                )
+            )
+        );
+        assertEquals(
+            entailed(person, dataProperty("years"), thirty),
+            toSet(
+                instances.instancesWithDataPropertyValue(
+                    person, dataProperty("years"), 30L
+                )
+            )
+        );
+        assertEquals(
+            2,
+            instances.countInstancesWithDataPropertyValue(
+                person, dataProperty("years"), 30L
+            )
+        );
+        assertEquals(
+            2,
+            instances.countInstancesWithDataPropertyValue(
+                person, dataProperty("level"), senior
+            )
+        );
+    }
+
+    @Test
+    public void instancesWithDataPropertyInRange() {
+        final Instances instances = utils.buildInstances();
+        final OWLClass person = cls("Person");
+
+        assertEquals(
+            individuals("alice", "carol"),
+            toSet(
+                instances.instancesWithDataPropertyInRange(
+                    person, dataProperty("years"), 20.0, 40.0
+                )
+            )
+        );
+        assertEquals(
+            individuals("alice"),
+            toSet(
+                instances.instancesWithDataPropertyInRange(
+                    person,
+                    dataProperty("since"),
+                    OffsetDateTime.parse("1980-01-01T00:00:00Z"),
+                    OffsetDateTime.parse("2000-01-01T00:00:00Z")
+                )
+            )
+        );
+    }
+
+    @Test
+    public void instancesOrderedByDataProperty() {
+        final Instances instances = utils.buildInstances();
+        final OWLClass person = cls("Person");
+
+        final List<OWLNamedIndividual> byYears = instances
+            .getInstancesOrderedByDataProperty(
+                person, dataProperty("years"), true, 10
+            );
+        assertEquals(3, byYears.size());
+        assertEquals(individual("bob"), byYears.get(0));
+        assertEquals(
+            Arrays.asList(individual("alice"), individual("bob")),
+            instances.getInstancesOrderedByDataProperty(
+                person, dataProperty("since"), true, 10
+            )
+        );
+        assertEquals(
+            "5",
+            instances
+                .minDataPropertyValue(person, dataProperty("years"))
+                .get()
+                .getLiteral()
+        );
+        assertEquals(
+            "1990-01-01T00:00:00Z",
+            instances
+                .minDataPropertyValue(person, dataProperty("since"))
+                .get()
+                .getLiteral()
+        );
+    }
+
+    @Test
+    public void individualsWithDataPropertyValue() {
+        final DataProperties dataProperties = utils.buildDataProperties();
+        final OWLLiteral senior = dataFactory.getOWLLiteral("senior");
+
+        final List<OWLNamedIndividual> result = dataProperties
+            .getIndividualsWithDataPropertyValue(dataProperty("level"), senior);
+        assertEquals(
+            entailed(dataFactory.getOWLThing(), dataProperty("level"), senior),
+            new HashSet<>(result)
+        );
+        assertEquals(
+            Arrays.asList(individual("alice"), individual("bob")), result
+        );
+    }
+
+    @Test
+    public void dataPropertyValuesTable() {
+        final DataProperties dataProperties = utils.buildDataProperties();
+        final List<OWLNamedIndividual> rows = Arrays.asList(
+            individual("alice"), individual("bob"), individual("carol")
+        );
+        final DataPropertyValuesTable table = dataProperties
+            .getDataPropertyValuesTable(
+                rows, dataProperty("level"), dataProperty("years")
+            );
+
+        for (int row = 0; row < rows.size(); row++) {
+            for (int column = 0; column < 2; column++) {
+                assertEquals(
+                    rows.get(row) + " " + table.getProperties().get(column),
+                    utils
+                        .getReasoner()
+                        .dataPropertyValues(
+                            rows.get(row), table.getProperties().get(column)
+                        )
+                        .collect(Collectors.toSet()),
+                    new HashSet<>(table.getValues(row, column))
+                );
+            }
+        }
+    }
+
+    @Test
+    public void primitiveDataPropertyValues() {
+        final DataProperties dataProperties = utils.buildDataProperties();
+
+        assertArrayEquals(
+            new long[]{30L},
+            dataProperties.getLongDataPropertyValues(
+                individual("alice"), dataProperty("years")
+            )
+        );
+        assertArrayEquals(
+            new int[]{30},
+            dataProperties.getIntDataPropertyValues(
+                individual("alice"), dataProperty("years")
+            )
+        );
+        assertEquals(
+            30.0,
+            dataProperties.getDoubleDataPropertyValue(
+                individual("alice"), dataProperty("years"), -1.0
+            ),
+            0.0
+        );
+        assertEquals(
+            5,
+            dataProperties.getIntDataPropertyValue(
+                individual("bob"), dataProperty("years"), -1
+            )
+        );
+    }
+
+    @Test
+    public void intDataPropertyValuesOutOfRange() {
+        final DataProperties dataProperties = utils.buildDataProperties();
+
+        assertEquals(
+            0,
+            dataProperties
+                .intDataPropertyValues(individual("carol"), dataProperty("big"))
+                .count()
+        );
+        assertEquals(
+            -1,
+            dataProperties.getIntDataPropertyValue(
+                individual("carol"), dataProperty("big"), -1
+            )
+        );
+        assertArrayEquals(
+            new long[]{9999999999L},
+            dataProperties.getLongDataPropertyValues(
+                individual("carol"), dataProperty("big")
+            )
+        );
+    }
+
+    /**
+     * The members of a class with a value for a data property, as entailed
+     * by the reasoner.
+     */
+    static Set<OWLNamedIndividual> entailed(
+        final OWLClassExpression owlClass,
+        final OWLDataProperty property,
+        final OWLLiteral value
+    ) {
+        return utils
+            .getReasoner()
+            .instances(
+                dataFactory.getOWLObjectIntersectionOf(
+                    owlClass, dataFactory.getOWLDataHasValue(property, value)
+                ),
+                false
+            )
+            .collect(Collectors.toSet());
+    }
+
+    static Set<OWLNamedIndividual> individuals(final String... names) {
+        return Stream
+            .of(names)
+            .map(EntailedDataPropertyValuesTest::individual)
+            .collect(Collectors.toSet());
+    }
+
+    static OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    static OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+    static OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+    private static <T> Set<T> toSet(final Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+
+}
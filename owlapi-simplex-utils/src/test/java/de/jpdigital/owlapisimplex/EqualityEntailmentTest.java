@@ -0,0 +1,180 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the values of the properties read from the
+ * {@link OntologyIndex} are the values entailed by the reasoner for
+ * ontologies which may entail that two individuals are the same individual.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+@RunWith(Parameterized.class)
+public class EqualityEntailmentTest {
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> ontologies() {
+        return Arrays.asList(
+            new Object[]{"equality-none.ttl", false},
+            new Object[]{"equality-same-as.ttl", true},
+            new Object[]{"equality-functional.ttl", true},
+            new Object[]{"equality-inverse-functional.ttl", true},
+            new Object[]{"equality-key.ttl", true},
+            new Object[]{"equality-cardinality.ttl", true},
+            new Object[]{"equality-one-of.ttl", true}
+        );
+    }
+
+    private final String ontologyName;
+
+    private final boolean mayEntailSameAs;
+
+    private OwlApiSimplexUtils utils;
+
+    private OWLOntology ontology;
+
+    private OWLReasoner reasoner;
+
+    public EqualityEntailmentTest(
+        final String ontologyName, final boolean mayEntailSameAs
+    ) {
+        this.ontologyName = ontologyName;
+        this.mayEntailSameAs = mayEntailSameAs;
+    }
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        utils = TestOntologies.load(ontologyName);
+        ontology = utils.getOntology();
+        reasoner = utils.getReasoner();
+    }
+
+    @Test
+    public void detectsEntailedEquality() {
+        assertEquals(
+            mayEntailSameAs,
+            utils.getOntologyIndex().getPropertyHierarchy().mayEntailSameAs()
+        );
+    }
+
+    @Test
+    public void objectPropertyValuesMatchReasoner() {
+        final ObjectProperties objectProperties = utils
+            .buildObjectProperties();
+        for (final OWLNamedIndividual individual : individuals()) {
+            for (final OWLObjectProperty property : objectProperties()) {
+                assertEquals(
+                    individual + " " + property,
+                    toSet(reasoner.objectPropertyValues(individual, property)),
+                    toSet(
+                        objectProperties.getObjectPropertyValues(
+                            individual, property
+                        )
+                    )
+                );
+            }
+        }
+    }
+
+    @Test
+    public void inverseObjectPropertyValuesMatchReasoner() {
+        final ObjectProperties objectProperties = utils
+            .buildObjectProperties();
+        for (final OWLNamedIndividual individual : individuals()) {
+            for (final OWLObjectProperty property : objectProperties()) {
+                assertEquals(
+                    individual + " " + property,
+                    toSet(
+                        reasoner.objectPropertyValues(
+                            individual, property.getInverseProperty()
+                        )
+                    ),
+                    toSet(
+                        objectProperties.getInverseObjectPropertyValues(
+                            individual, property
+                        )
+                    )
+                );
+            }
+        }
+    }
+
+    @Test
+    public void dataPropertyValuesMatchReasoner() {
+        final DataProperties dataProperties = utils.buildDataProperties();
+        for (final OWLNamedIndividual individual : individuals()) {
+            for (final OWLDataProperty property : dataProperties()) {
+                assertEquals(
+                    individual + " " + property,
+                    toSet(reasoner.dataPropertyValues(individual, property)),
+                    toSet(
+                        dataProperties.getDataPropertyValues(
+                            individual, property
+                        )
+                    )
+                );
+            }
+        }
+    }
+
+    private List<OWLNamedIndividual> individuals() {
+        return ontology
+            .individualsInSignature(Imports.INCLUDED)
+            .collect(Collectors.toList());
+    }
+
+    private List<OWLObjectProperty> objectProperties() {
+        return ontology
+            .objectPropertiesInSignature(Imports.INCLUDED)
+            .collect(Collectors.toList());
+    }
+
+    private List<OWLDataProperty> dataProperties() {
+        return ontology
+            .dataPropertiesInSignature(Imports.INCLUDED)
+            .collect(Collectors.toList());
+    }
+
+    private static <T> Set<T> toSet(final Stream<T> stream) {
+        return stream.collect(Collectors.toSet());
+    }
+
+    private static <T> Set<T> toSet(final List<T> list) {
+        return toSet(list.stream());
+    }
+
+}
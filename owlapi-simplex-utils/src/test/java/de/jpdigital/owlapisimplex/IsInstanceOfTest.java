@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks {@link Instances#isInstanceOf(OWLNamedIndividual, OWLClassExpression)}
+ * for the lookup in the members of a named class and for the entailment
+ * checks of the reasoner. The reasoner used by the {@link Instances} records
+ * its entailment checks.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class IsInstanceOfTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private OWLDataFactory dataFactory;
+
+    /**
+     * The axioms passed to the entailment checks of the reasoner.
+     */
+    private List<String> entailmentChecks;
+
+    private Instances instances;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        final OwlApiSimplexUtils utils = TestOntologies.load("company.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        entailmentChecks = Collections.synchronizedList(new ArrayList<>());
+        final OWLReasoner reasoner = utils.getReasoner();
+        final OWLReasoner recording = (OWLReasoner) Proxy.newProxyInstance(
+            OWLReasoner.class.getClassLoader(),
+            new Class<?>[]{OWLReasoner.class},
+            (proxy, method, args) -> {
+                if ("isEntailed".equals(method.getName())) {
+                    entailmentChecks.add(String.valueOf(args[0]));
+                }
+                try {
+                    return method.invoke(reasoner, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        );
+        instances = Instances.buildInstances(
+            utils.getOntology(), utils.getOntologyManager(), recording
+        );
+    }
+
+    @Test
+    public void namedClassFromIndex() {
+        assertTrue(isInstanceOf("alice", "Employee"));
+        assertTrue(isInstanceOf("alice", "Staff"));
+        assertTrue(isInstanceOf("dave", "Person"));
+        assertFalse(isInstanceOf("dave", "Employee"));
+        assertFalse(isInstanceOf("acme", "Person"));
+        assertTrue(entailmentChecks.isEmpty());
+    }
+
+    @Test
+    public void unknownIndividual() {
+        final OWLNamedIndividual zoe = individual("zoe");
+        assertFalse(instances.isInstanceOf(zoe, cls("Person")));
+        assertEquals(1, entailmentChecks.size());
+    }
+
+    @Test
+    public void complexExpressionIsEntailed() {
+        final OWLClassExpression worksForAcme = dataFactory
+            .getOWLObjectHasValue(
+                dataFactory.getOWLObjectProperty(
+                    IRI.create(NAMESPACE + "worksFor")
+                ),
+                individual("acme")
+            );
+        assertTrue(instances.isInstanceOf(individual("bob"), worksForAcme));
+        assertFalse(instances.isInstanceOf(individual("carol"), worksForAcme));
+        assertFalse(
+            instances.isInstanceOf(
+                individual("bob"),
+                dataFactory.getOWLObjectComplementOf(cls("Person"))
+            )
+        );
+        assertEquals(3, entailmentChecks.size());
+    }
+
+    @Test
+    public void deadlineIsChecked() {
+        try {
+            instances.isInstanceOf(
+                individual("alice"),
+                cls("Employee"),
+                QueryDeadline.buildQueryDeadline(Duration.ZERO)
+            );
+            fail("The query should time out.");
+        } catch (QueryTimeoutException ex) {
+            // Expected
+        }
+
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+        deadline.cancel();
+        try {
+            instances.isInstanceOf(
+                individual("alice"),
+                dataFactory.getOWLObjectComplementOf(cls("Company")),
+                deadline
+            );
+            fail("The query should be cancelled.");
+        } catch (QueryCancelledException ex) {
+            // Expected
+        }
+        assertTrue(entailmentChecks.isEmpty());
+
+        assertTrue(
+            instances.isInstanceOf(
+                individual("alice"),
+                cls("Manager"),
+                QueryDeadline.buildQueryDeadline(Duration.ofSeconds(30))
+            )
+        );
+    }
+
+    private boolean isInstanceOf(
+        final String individual, final String owlClass
+    ) {
+        return instances.isInstanceOf(individual(individual), cls(owlClass));
+    }
+
+    private OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+}
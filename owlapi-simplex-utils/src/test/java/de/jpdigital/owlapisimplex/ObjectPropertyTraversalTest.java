@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the traversal methods of {@link ObjectProperties} for a property
+ * with values which are entailed by the reasoner but not asserted, and for a
+ * property with asserted values only. The results must match a traversal
+ * using the values provided by the reasoner.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class ObjectPropertyTraversalTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/links#";
+
+    private static OwlApiSimplexUtils utils;
+
+    private static OWLDataFactory dataFactory;
+
+    private static ObjectProperties objectProperties;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        utils = TestOntologies.load("entailed-links.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        objectProperties = utils.buildObjectProperties();
+    }
+
+    @Test
+    public void graphCompleteness() {
+        assertFalse(
+            utils
+                .getOntologyIndex()
+                .getObjectPropertyGraph(property("knows"))
+                .isComplete()
+        );
+        assertTrue(
+            utils
+                .getOntologyIndex()
+                .getObjectPropertyGraph(property("follows"))
+                .isComplete()
+        );
+    }
+
+    @Test
+    public void transitiveClosure() {
+        for (final String name : Arrays.asList("knows", "follows")) {
+            for (final String start : Arrays.asList("alice", "bob", "erin")) {
+                assertEquals(
+                    name + " " + start,
+                    entailedClosure(individual(start), property(name)),
+                    new HashSet<>(
+                        objectProperties.getTransitiveClosure(
+                            individual(start), property(name)
+                        )
+                    )
+                );
+            }
+        }
+        assertEquals(
+            Arrays.asList(
+                individual("bob"), individual("carol"), individual("dave")
+            ),
+            objectProperties.getTransitiveClosure(
+                individual("alice"), property("knows")
+            )
+        );
+    }
+
+    @Test
+    public void reachableWithin() {
+        assertEquals(
+            Arrays.asList(individual("bob"), individual("carol")),
+            objectProperties.getReachableWithin(
+                individual("alice"), property("knows"), 2, 10
+            )
+        );
+        assertEquals(
+            Arrays.asList(individual("bob")),
+            objectProperties.getReachableWithin(
+                individual("alice"), property("knows"), 1, 10
+            )
+        );
+        assertEquals(
+            Arrays.asList(individual("alice")),
+            objectProperties.getReachableWithin(
+                individual("erin"), property("follows"), 2, 10
+            )
+        );
+    }
+
+    @Test
+    public void shortestPath() {
+        assertEquals(
+            Optional.of(
+                Arrays.asList(
+                    individual("alice"),
+                    individual("bob"),
+                    individual("carol"),
+                    individual("dave")
+                )
+            ),
+            objectProperties.shortestPath(
+                individual("alice"), individual("dave"), property("knows")
+            )
+        );
+        assertEquals(
+            Optional.empty(),
+            objectProperties.shortestPath(
+                individual("alice"), individual("dave"), property("knows"), 2
+            )
+        );
+        assertEquals(
+            Optional.empty(),
+            objectProperties.shortestPath(
+                individual("erin"), individual("dave"), property("follows")
+            )
+        );
+    }
+
+    @Test
+    public void isReachable() {
+        assertTrue(
+            objectProperties.isReachable(
+                individual("alice"), individual("dave"), property("knows")
+            )
+        );
+        assertFalse(
+            objectProperties.isReachable(
+                individual("alice"), individual("dave"), property("knows"), 2
+            )
+        );
+        assertFalse(
+            objectProperties.isReachable(
+                individual("dave"), individual("alice"), property("knows")
+            )
+        );
+        assertTrue(
+            objectProperties.isReachable(
+                individual("erin"), individual("alice"), property("follows")
+            )
+        );
+    }
+
+    /**
+     * The transitive closure computed from the values entailed by the
+     * reasoner.
+     */
+    private static Set<OWLNamedIndividual> entailedClosure(
+        final OWLNamedIndividual from, final OWLObjectProperty property
+    ) {
+        final Set<OWLNamedIndividual> closure = new HashSet<>();
+        final Deque<OWLNamedIndividual> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            utils
+                .getReasoner()
+                .objectPropertyValues(queue.poll(), property)
+                .collect(Collectors.toList())
+                .stream()
+                .filter(closure::add)
+                .forEach(queue::add);
+        }
+        return closure;
+    }
+
+    private static OWLObjectProperty property(final String name) {
+        return dataFactory.getOWLObjectProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLLiteral;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the {@link OntologyIndex} reflects changes of the ontology,
+ * including changes applied while other threads use the index. The index
+ * must return the same answers as the reasoner after the changes.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class OntologyIndexMaintenanceTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private OwlApiSimplexUtils utils;
+
+    private OntologyIndex ontologyIndex;
+
+    private OWLOntology ontology;
+
+    private OWLOntologyManager manager;
+
+    private OWLReasoner reasoner;
+
+    private OWLDataFactory dataFactory;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        ontologyIndex = utils.getOntologyIndex();
+        ontology = utils.getOntology();
+        manager = utils.getOntologyManager();
+        reasoner = utils.getReasoner();
+        dataFactory = manager.getOWLDataFactory();
+    }
+
+    @After
+    public void tearDown() {
+        ontologyIndex.close();
+    }
+
+    @Test
+    public void dataPropertyAssertionIsAppliedIncrementally() {
+        final OWLDataProperty age = dataProperty("age");
+        final OWLDataProperty identifier = dataProperty("identifier");
+        final int dave = id("dave");
+        final DataPropertyValueIndex ages = ontologyIndex
+            .getDataPropertyValueIndex(age);
+        final DataPropertyValueIndex identifiers = ontologyIndex
+            .getDataPropertyValueIndex(identifier);
+        final OWLLiteral fifty = dataFactory.getOWLLiteral(50);
+        final OWLLiteral number = dataFactory.getOWLLiteral(
+            "4", dataFactory.getOWLDatatype(
+                IRI.create("http://www.w3.org/2001/XMLSchema#long")
+            )
+        );
+
+        final OWLAxiom ageAssertion = dataFactory
+            .getOWLDataPropertyAssertionAxiom(
+                age, individual("dave"), fifty
+            );
+        final OWLAxiom numberAssertion = dataFactory
+            .getOWLDataPropertyAssertionAxiom(
+                dataProperty("employeeNumber"), individual("dave"), number
+            );
+        manager.addAxiom(ontology, ageAssertion);
+        manager.addAxiom(ontology, numberAssertion);
+
+        assertTrue(
+            Arrays.asList(ages.getValues(dave)).contains(fifty)
+        );
+        assertTrue(
+            Arrays.asList(identifiers.getValues(dave)).contains(number)
+        );
+        assertSame(ages, ontologyIndex.getDataPropertyValueIndex(age));
+
+        manager.removeAxiom(ontology, ageAssertion);
+        manager.removeAxiom(ontology, numberAssertion);
+
+        assertFalse(
+            Arrays.asList(ages.getValues(dave)).contains(fifty)
+        );
+        assertFalse(
+            Arrays.asList(identifiers.getValues(dave)).contains(number)
+        );
+        assertEquals(
+            reasoner
+                .dataPropertyValues(individual("dave"), identifier)
+                .collect(Collectors.toSet()),
+            new HashSet<>(Arrays.asList(identifiers.getValues(dave)))
+        );
+    }
+
+    @Test
+    public void objectPropertyAssertionUpdatesGraphAndClassMembers() {
+        final OWLObjectProperty worksFor = objectProperty("worksFor");
+        final OWLClass employee = cls("Employee");
+        assertFalse(ontologyIndex.getClassMembers(employee).get(id("dave")));
+        assertEquals(
+            0, ontologyIndex.getObjectPropertyGraph(worksFor)
+                .successors(id("dave"))
+                .count()
+        );
+
+        // The domain of worksFor makes dave an employee. The reasoner of the
+        // fixture is a buffering reasoner, the index doesn't flush it. The
+        // members read before the flush are not stored, so the index
+        // reflects the change after the caller has flushed the reasoner.
+        manager.addAxiom(
+            ontology,
+            dataFactory.getOWLObjectPropertyAssertionAxiom(
+                worksFor, individual("dave"), individual("initech")
+            )
+        );
+
+        assertFalse(ontologyIndex.getClassMembers(employee).get(id("dave")));
+        assertFalse(reasoner.getPendingChanges().isEmpty());
+        reasoner.flush();
+        assertTrue(ontologyIndex.getClassMembers(employee).get(id("dave")));
+        assertMembers(employee);
+        assertEquals(
+            id("initech"),
+            ontologyIndex
+                .getObjectPropertyGraph(worksFor)
+                .successors(id("dave"))
+                .findFirst()
+                .getAsInt()
+        );
+        assertTrue(
+            ontologyIndex
+                .getObjectPropertyGraph(objectProperty("employs"))
+                .successors(id("initech"))
+                .anyMatch(node -> node == id("dave"))
+        );
+    }
+
+    @Test
+    public void otherChangesDiscardTheIndex() {
+        final OWLClass person = cls("Person");
+        ontologyIndex.getClassMembers(person);
+
+        manager.addAxiom(
+            ontology,
+            dataFactory.getOWLClassAssertionAxiom(
+                person, individual("eve")
+            )
+        );
+
+        assertTrue(id("eve") >= 0);
+        assertMembers(person);
+    }
+
+    @Test
+    public void changesWhileQuerying() throws InterruptedException {
+        final OWLClass employee = cls("Employee");
+        final OWLObjectProperty worksFor = objectProperty("worksFor");
+        final OWLDataProperty age = dataProperty("age");
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        final List<OWLNamedIndividual> persons = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final OWLNamedIndividual person = individual("person" + i);
+            manager.addAxiom(
+                ontology,
+                dataFactory.getOWLClassAssertionAxiom(cls("Person"), person)
+            );
+            persons.add(person);
+        }
+        // The readers use the parts of the index built from the ontology
+        // only. The reasoner isn't thread safe, it can't be queried while
+        // another thread changes the ontology. The property hierarchies are
+        // retrieved from the reasoner, they are built before the changes.
+        // The changes below are applied incrementally and keep them. A
+        // hierarchy read from a reasoner with pending changes isn't stored,
+        // so the reasoner is flushed first.
+        reasoner.flush();
+        ontologyIndex.getPropertyHierarchy();
+
+        final List<Thread> readers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final Thread reader = new Thread(
+                () -> {
+                    try {
+                        while (running.get()) {
+                            ontologyIndex.getObjectPropertyGraph(worksFor);
+                            ontologyIndex.getNumericRangeIndex(age);
+                            ontologyIndex.getPrimitiveValues(age);
+                        }
+                    } catch (RuntimeException | Error ex) {
+                        failure.compareAndSet(null, ex);
+                    }
+                }
+            );
+            reader.start();
+            readers.add(reader);
+        }
+
+        for (int i = 0; i < persons.size(); i++) {
+            final OWLNamedIndividual person = persons.get(i);
+            manager.addAxiom(
+                ontology,
+                dataFactory.getOWLObjectPropertyAssertionAxiom(
+                    worksFor, person, individual("acme")
+                )
+            );
+            manager.addAxiom(
+                ontology,
+                dataFactory.getOWLDataPropertyAssertionAxiom(age, person, i)
+            );
+        }
+
+        running.set(false);
+        for (final Thread reader : readers) {
+            reader.join();
+        }
+        assertNull(failure.get());
+
+        assertMembers(employee);
+        final ObjectPropertyGraph graph = ontologyIndex.getObjectPropertyGraph(
+            worksFor
+        );
+        assertEquals(
+            reasoner
+                .instances(
+                    dataFactory.getOWLObjectHasValue(
+                        worksFor, individual("acme")
+                    ),
+                    false
+                )
+                .collect(Collectors.toSet()),
+            graph
+                .predecessors(id("acme"))
+                .mapToObj(ontologyIndex.getDictionary()::getIndividual)
+                .collect(Collectors.toSet())
+        );
+        for (int i = 0; i < persons.size(); i++) {
+            assertEquals(
+                i,
+                ontologyIndex
+                    .getPrimitiveValues(age)
+                    .getLongValue(id("person" + i), -1)
+            );
+        }
+    }
+
+    /**
+     * Compares the members of a class in the index with the members entailed
+     * by the reasoner after flushing the pending changes of the buffering
+     * reasoner.
+     */
+    private void assertMembers(final OWLClass owlClass) {
+        reasoner.flush();
+        final BitSet members = ontologyIndex.getClassMembers(owlClass);
+        final Set<OWLNamedIndividual> indexed = members
+            .stream()
+            .mapToObj(ontologyIndex.getDictionary()::getIndividual)
+            .collect(Collectors.toSet());
+        assertEquals(
+            reasoner.instances(owlClass, false).collect(Collectors.toSet()),
+            indexed
+        );
+    }
+
+    private int id(final String name) {
+        return ontologyIndex.getDictionary().getId(individual(name));
+    }
+
+    private OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLObjectProperty objectProperty(final String name) {
+        return dataFactory.getOWLObjectProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+}
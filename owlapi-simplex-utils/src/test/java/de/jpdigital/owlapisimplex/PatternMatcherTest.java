@@ -0,0 +1,389 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the matches found by the {@link PatternMatcher} with the matches
+ * computed naively from the answers of the reasoner. The company ontology is
+ * extended with generated employees and companies, so that the joins have to
+ * combine larger inputs from both sides.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class PatternMatcherTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private static OwlApiSimplexUtils utils;
+
+    private static OWLDataFactory dataFactory;
+
+    private static PatternMatcher matcher;
+
+    private static List<OWLNamedIndividual> individuals;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        final OWLOntology ontology = utils.getOntology();
+
+        final Random random = new Random(47);
+        final List<OWLNamedIndividual> companies = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            final OWLNamedIndividual company = individual("company" + i);
+            companies.add(company);
+            ontology.add(
+                dataFactory.getOWLClassAssertionAxiom(cls("Company"), company)
+            );
+        }
+        final List<OWLNamedIndividual> employees = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            final OWLNamedIndividual employee = individual("employee" + i);
+            ontology.add(
+                dataFactory.getOWLClassAssertionAxiom(
+                    cls(i % 6 == 0 ? "Manager" : "Employee"), employee
+                ),
+                dataFactory.getOWLObjectPropertyAssertionAxiom(
+                    objectProperty("worksFor"),
+                    employee,
+                    companies.get(random.nextInt(companies.size()))
+                ),
+                dataFactory.getOWLDataPropertyAssertionAxiom(
+                    dataProperty("age"),
+                    employee,
+                    dataFactory.getOWLLiteral(
+                        Integer.toString(25 + random.nextInt(5)),
+                        OWL2Datatype.XSD_INT
+                    )
+                )
+            );
+            if (!employees.isEmpty() && random.nextBoolean()) {
+                ontology.add(
+                    dataFactory.getOWLObjectPropertyAssertionAxiom(
+                        objectProperty("directlyReportsTo"),
+                        employee,
+                        employees.get(random.nextInt(employees.size()))
+                    )
+                );
+            }
+            employees.add(employee);
+        }
+        // A second company for some employees and a cycle of length one
+        ontology.add(
+            dataFactory.getOWLObjectPropertyAssertionAxiom(
+                objectProperty("worksFor"),
+                employees.get(3),
+                companies.get(4)
+            ),
+            dataFactory.getOWLObjectPropertyAssertionAxiom(
+                objectProperty("employs"), companies.get(0), employees.get(4)
+            ),
+            dataFactory.getOWLObjectPropertyAssertionAxiom(
+                objectProperty("directlyReportsTo"),
+                employees.get(7),
+                employees.get(7)
+            )
+        );
+        utils.getReasoner().flush();
+
+        matcher = utils.buildPatternMatcher();
+        individuals = ontology
+            .individualsInSignature(Imports.INCLUDED)
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    public void typeAndLink() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .type("e", cls("Employee"))
+                .link("e", objectProperty("worksFor"), "c")
+        );
+    }
+
+    @Test
+    public void inverseProperty() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .link("c", objectProperty("employs"), "e")
+                .type("e", cls("Manager"))
+        );
+    }
+
+    @Test
+    public void chain() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .link("a", objectProperty("directlyReportsTo"), "b")
+                .link("b", objectProperty("directlyReportsTo"), "c")
+                .link("c", objectProperty("worksFor"), "d")
+        );
+    }
+
+    @Test
+    public void star() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .link("a", objectProperty("worksFor"), "c")
+                .link("b", objectProperty("worksFor"), "c")
+                .type("a", cls("Manager"))
+        );
+    }
+
+    @Test
+    public void cycle() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .link("a", objectProperty("directlyReportsTo"), "b")
+                .link("a", objectProperty("worksFor"), "c")
+                .link("c", objectProperty("employs"), "b")
+        );
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .link("e", objectProperty("worksFor"), "c")
+                .link("c", objectProperty("employs"), "e")
+        );
+    }
+
+    @Test
+    public void selfLink() {
+        final Pattern pattern = Pattern
+            .buildPattern()
+            .link("a", objectProperty("directlyReportsTo"), "a");
+        assertMatchesReasoner(pattern);
+        assertEquals(1, matcher.countMatches(pattern));
+    }
+
+    @Test
+    public void valuesAndIndividuals() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .value(
+                    "e",
+                    dataProperty("age"),
+                    dataFactory.getOWLLiteral("27", OWL2Datatype.XSD_INT)
+                )
+                .link("e", objectProperty("worksFor"), "c")
+                .individual("c", individual("company2"))
+        );
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .individual("a", individual("alice"))
+                .link("b", objectProperty("directlyReportsTo"), "a")
+        );
+    }
+
+    @Test
+    public void variablesWithoutLinks() {
+        assertMatchesReasoner(
+            Pattern
+                .buildPattern()
+                .type("m", cls("Manager"))
+                .type("d", cls("Document"))
+        );
+    }
+
+    @Test
+    public void noMatches() {
+        final Pattern pattern = Pattern
+            .buildPattern()
+            .type("d", cls("Document"))
+            .link("d", objectProperty("worksFor"), "c");
+        assertMatchesReasoner(pattern);
+        assertEquals(0, matcher.countMatches(pattern));
+    }
+
+    /**
+     * Values entailed only by the reasoner, here for the transitive property
+     * {@code reportsTo}, are not matched, but the asserted values of its
+     * sub-property are.
+     */
+    @Test
+    public void entailedValuesAreNotMatched() {
+        final Pattern pattern = Pattern
+            .buildPattern()
+            .link("a", objectProperty("reportsTo"), "b");
+        final Set<Map<String, OWLNamedIndividual>> entailed = reference(
+            pattern
+        );
+        final Set<Map<String, OWLNamedIndividual>> matched = matches(pattern);
+        assertTrue(entailed.containsAll(matched));
+        assertFalse(matched.isEmpty());
+        assertTrue(entailed.size() > matched.size());
+        assertEquals(
+            reference(
+                Pattern
+                    .buildPattern()
+                    .link("a", objectProperty("directlyReportsTo"), "b")
+            ),
+            matched
+        );
+    }
+
+    private static void assertMatchesReasoner(final Pattern pattern) {
+        final Set<Map<String, OWLNamedIndividual>> expected = reference(
+            pattern
+        );
+        assertEquals(pattern.toString(), expected, matches(pattern));
+        assertEquals(
+            pattern.toString(),
+            expected.size(),
+            matcher.countMatches(pattern)
+        );
+    }
+
+    /**
+     * The matches as maps, checking that no match is returned twice.
+     */
+    private static Set<Map<String, OWLNamedIndividual>> matches(
+        final Pattern pattern
+    ) {
+        final List<PatternMatch> matches = matcher.getMatches(pattern);
+        final Set<Map<String, OWLNamedIndividual>> result = matches
+            .stream()
+            .map(PatternMatch::toMap)
+            .collect(Collectors.toSet());
+        assertEquals(pattern.toString(), matches.size(), result.size());
+        return result;
+    }
+
+    /**
+     * Computes the matches of a pattern by trying all bindings of the
+     * variables, checking each atom with the reasoner.
+     */
+    private static Set<Map<String, OWLNamedIndividual>> reference(
+        final Pattern pattern
+    ) {
+        final Set<Map<String, OWLNamedIndividual>> result = new HashSet<>();
+        bindNext(pattern, pattern.getVariables(), new HashMap<>(), result);
+        return result;
+    }
+
+    private static void bindNext(
+        final Pattern pattern,
+        final List<String> variables,
+        final Map<String, OWLNamedIndividual> binding,
+        final Set<Map<String, OWLNamedIndividual>> result
+    ) {
+        if (binding.size() == variables.size()) {
+            result.add(new HashMap<>(binding));
+            return;
+        }
+        final String variable = variables.get(binding.size());
+        for (final OWLNamedIndividual individual : individuals) {
+            binding.put(variable, individual);
+            if (pattern
+                .getAtoms()
+                .stream()
+                .allMatch(atom -> holds(atom, binding))) {
+                bindNext(pattern, variables, binding, result);
+            }
+            binding.remove(variable);
+        }
+    }
+
+    /**
+     * Checks an atom using the reasoner, atoms with unbound variables hold.
+     */
+    private static boolean holds(
+        final Pattern.Atom atom, final Map<String, OWLNamedIndividual> binding
+    ) {
+        final OWLReasoner reasoner = utils.getReasoner();
+        final OWLNamedIndividual individual = binding.get(atom.getVariable());
+        if (individual == null) {
+            return true;
+        }
+        switch (atom.getType()) {
+            case TYPE:
+                return reasoner
+                    .getTypes(individual, false)
+                    .containsEntity((OWLClass) atom.getEntity());
+            case LINK:
+                final OWLNamedIndividual object = binding.get(
+                    atom.getSecondVariable()
+                );
+                return object == null
+                           || reasoner
+                        .getObjectPropertyValues(
+                            individual, (OWLObjectProperty) atom.getEntity()
+                        )
+                        .containsEntity(object);
+            case VALUE:
+                return reasoner
+                    .dataPropertyValues(
+                        individual, (OWLDataProperty) atom.getEntity()
+                    )
+                    .anyMatch(atom.getValue()::equals);
+            default:
+                return individual.equals(atom.getEntity());
+        }
+    }
+
+    private static OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLObjectProperty objectProperty(final String name) {
+        return dataFactory.getOWLObjectProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the parameters of {@link PreparedQuery}: the kind of each parameter
+ * determined from the query, the parameter markers which are part of
+ * literals, IRIs or facet restrictions, and the validation of the values
+ * bound to the parameters.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class PreparedQueryTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private OwlApiSimplexUtils utils;
+
+    private OWLDataFactory dataFactory;
+
+    private Instances instances;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        instances = utils.buildInstances();
+    }
+
+    @Test
+    public void classParameter() {
+        final PreparedQuery query = instances.prepare("Person and ?");
+        assertEquals(
+            Collections.singletonList(PreparedQuery.ParameterType.CLASS),
+            query.getParameterTypes()
+        );
+        assertEquals(
+            individuals("alice", "bob", "carol"),
+            new HashSet<>(query.getInstances(cls("Employee")))
+        );
+        assertEquals(
+            individuals("alice"),
+            new HashSet<>(
+                query.getInstances(IRI.create(NAMESPACE + "Manager"))
+            )
+        );
+    }
+
+    @Test
+    public void individualParameter() {
+        final PreparedQuery query = instances.prepare("worksFor value ?");
+        assertEquals(
+            Collections.singletonList(PreparedQuery.ParameterType.INDIVIDUAL),
+            query.getParameterTypes()
+        );
+        assertEquals(
+            individuals("alice", "bob"),
+            new HashSet<>(query.getInstances(individual("acme")))
+        );
+        assertEquals(
+            individuals("carol"),
+            new HashSet<>(
+                query.getInstances(IRI.create(NAMESPACE + "initech"))
+            )
+        );
+    }
+
+    @Test
+    public void literalParameters() {
+        final PreparedQuery query = instances.prepare(
+            "Person and (age value ?) and (active value ?)"
+        );
+        assertEquals(
+            Arrays.asList(
+                PreparedQuery.ParameterType.LITERAL,
+                PreparedQuery.ParameterType.LITERAL
+            ),
+            query.getParameterTypes()
+        );
+        assertEquals(
+            individuals("bob", "dave"),
+            new HashSet<>(query.getInstances(30, true))
+        );
+        assertEquals(
+            individuals(),
+            new HashSet<>(query.getInstances(30, false))
+        );
+        assertEquals(
+            individuals("dave"),
+            new HashSet<>(
+                instances.prepare("name value ?").getInstances("Dave")
+            )
+        );
+    }
+
+    /**
+     * The facets {@code <} and {@code <=} directly followed by a parameter are
+     * not the start of a full IRI.
+     */
+    @Test
+    public void facetParameters() {
+        final PreparedQuery lessThan = instances.prepare(
+            "Person and (age some int[<?])"
+        );
+        assertEquals(
+            Collections.singletonList(PreparedQuery.ParameterType.LITERAL),
+            lessThan.getParameterTypes()
+        );
+        assertEquals(
+            individuals("carol"), new HashSet<>(lessThan.getInstances(30))
+        );
+
+        final PreparedQuery lessThanOrEqual = instances.prepare(
+            "Person and (age some int[<= ?])"
+        );
+        assertEquals(1, lessThanOrEqual.getParameterCount());
+        assertEquals(
+            individuals("bob", "carol", "dave"),
+            new HashSet<>(lessThanOrEqual.getInstances(30))
+        );
+
+        final PreparedQuery range = instances.prepare(
+            "Person and (age some int[>= ?,<?])"
+        );
+        assertEquals(2, range.getParameterCount());
+        assertEquals(
+            individuals("bob", "dave"),
+            new HashSet<>(range.getInstances(29, 45))
+        );
+    }
+
+    @Test
+    public void markersInLiteralsAndIris() {
+        final OWLClass visitor = dataFactory.getOWLClass(
+            IRI.create("http://example.org/ontologies/company?type=Visitor")
+        );
+        utils.getOntology().add(
+            dataFactory.getOWLClassAssertionAxiom(
+                visitor, individual("dave")
+            )
+        );
+        utils.getReasoner().flush();
+
+        final PreparedQuery literal = instances.prepare(
+            "Person and (name value \"Who?\")"
+        );
+        assertEquals(0, literal.getParameterCount());
+        assertEquals(individuals(), new HashSet<>(literal.getInstances()));
+
+        final PreparedQuery iri = instances.prepare(
+            "<http://example.org/ontologies/company?type=Visitor> "
+                + "and (age value ?)"
+        );
+        assertEquals(1, iri.getParameterCount());
+        assertEquals(individuals("dave"), new HashSet<>(iri.getInstances(30)));
+        assertEquals(individuals(), new HashSet<>(iri.getInstances(45)));
+    }
+
+    @Test
+    public void wrongNumberOfValues() {
+        final PreparedQuery query = instances.prepare(
+            "Person and (age value ?)"
+        );
+        assertRejected(query);
+        assertRejected(query, 30, 45);
+    }
+
+    @Test
+    public void wrongTypeOfValues() {
+        assertRejected(instances.prepare("Person and ?"), individual("bob"));
+        assertRejected(instances.prepare("Person and ?"), "Employee");
+        assertRejected(instances.prepare("worksFor value ?"), cls("Company"));
+        assertRejected(
+            instances.prepare("Person and (age value ?)"), new Object()
+        );
+        assertRejected(
+            instances.prepare("Person and (age value ?)"), (Object) null
+        );
+    }
+
+    /**
+     * A string bound to a parameter is a literal, not a part of the query.
+     */
+    @Test
+    public void boundStringIsLiteral() {
+        final String injected = "Dave\") or (Person";
+        final OWLClassExpression bound = instances
+            .prepare("Employee and (name value ?)")
+            .bind(injected);
+        assertEquals(
+            dataFactory.getOWLObjectIntersectionOf(
+                cls("Employee"),
+                dataFactory.getOWLDataHasValue(
+                    dataFactory.getOWLDataProperty(
+                        IRI.create(NAMESPACE + "name")
+                    ),
+                    dataFactory.getOWLLiteral(injected)
+                )
+            ),
+            bound
+        );
+        assertEquals(
+            Collections.emptyList(),
+            instances
+                .prepare("Employee and (name value ?)")
+                .getInstances(injected)
+        );
+    }
+
+    private void assertRejected(
+        final PreparedQuery query, final Object... values
+    ) {
+        try {
+            query.bind(values);
+            fail("The values should be rejected.");
+        } catch (IllegalArgumentException ex) {
+            // Expected
+        }
+    }
+
+    private Set<OWLNamedIndividual> individuals(final String... names) {
+        final Set<OWLNamedIndividual> result = new HashSet<>();
+        for (final String name : names) {
+            result.add(individual(name));
+        }
+        return result;
+    }
+
+    private OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static de.jpdigital.owlapisimplex.QueryExpression.cls;
+import static de.jpdigital.owlapisimplex.QueryExpression.some;
+import static de.jpdigital.owlapisimplex.QueryExpression.value;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks the class expressions built by {@link QueryExpression} and their
+ * instances, compared with the equivalent queries in Manchester syntax and
+ * with the answers of the reasoner.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class QueryExpressionTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private static OwlApiSimplexUtils utils;
+
+    private static OWLDataFactory dataFactory;
+
+    private static Instances instances;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        instances = utils.buildInstances();
+    }
+
+    @Test
+    public void intersectionWithExistentialRestriction() {
+        final QueryExpression query = cls(owlClass("Employee")).and(
+            some(objectProperty("worksFor"), owlClass("Company"))
+        );
+        assertEquals(
+            dataFactory.getOWLObjectIntersectionOf(
+                owlClass("Employee"),
+                dataFactory.getOWLObjectSomeValuesFrom(
+                    objectProperty("worksFor"), owlClass("Company")
+                )
+            ),
+            query.getClassExpression()
+        );
+        assertEquals(
+            instances.getInstances("Employee and (worksFor some Company)"),
+            instances.getInstances(query)
+        );
+        assertEquals(
+            individuals("alice", "bob", "carol"),
+            instances.getInstances(query)
+        );
+    }
+
+    @Test
+    public void longValue() {
+        final QueryExpression query = value(dataProperty("age"), 30L);
+        assertEquals(
+            dataFactory.getOWLDataHasValue(
+                dataProperty("age"),
+                dataFactory.getOWLLiteral("30", OWL2Datatype.XSD_INTEGER)
+            ),
+            query.getClassExpression()
+        );
+        assertEquals(
+            instances.getInstances("age value 30"),
+            instances.getInstances(query)
+        );
+        assertEquals(
+            individuals("bob", "dave"), instances.getInstances(query)
+        );
+        assertEquals(
+            Collections.emptyList(),
+            instances.getInstances(value(dataProperty("age"), 31L))
+        );
+    }
+
+    @Test
+    public void decimalValue() {
+        final QueryExpression query = value(
+            dataProperty("salary"), new BigDecimal("9000.50")
+        );
+        assertEquals(
+            dataFactory.getOWLDataHasValue(
+                dataProperty("salary"),
+                dataFactory.getOWLLiteral("9000.50", OWL2Datatype.XSD_DECIMAL)
+            ),
+            query.getClassExpression()
+        );
+        assertEquals(
+            instances.getInstances("salary value 9000.50"),
+            instances.getInstances(query)
+        );
+        assertEquals(individuals("alice"), instances.getInstances(query));
+        // Values are compared by their value, not by their lexical form.
+        assertEquals(
+            individuals("bob"),
+            instances.getInstances(
+                value(dataProperty("salary"), new BigDecimal("5000.00"))
+            )
+        );
+    }
+
+    @Test
+    public void dateTimeValue() {
+        final QueryExpression query = value(
+            dataProperty("hired"),
+            OffsetDateTime.of(2015, 6, 1, 9, 0, 0, 0, ZoneOffset.UTC)
+        );
+        assertEquals(
+            dataFactory.getOWLDataHasValue(
+                dataProperty("hired"),
+                dataFactory.getOWLLiteral(
+                    "2015-06-01T09:00:00Z", OWL2Datatype.XSD_DATE_TIME
+                )
+            ),
+            query.getClassExpression()
+        );
+        assertEquals(
+            utils
+                .getReasoner()
+                .instances(query.getClassExpression(), false)
+                .collect(Collectors.toList()),
+            instances.getInstances(query)
+        );
+        assertEquals(individuals("bob"), instances.getInstances(query));
+    }
+
+    @Test
+    public void combinedValues() {
+        final QueryExpression query = cls(owlClass("Person"))
+            .and(value(dataProperty("active"), true))
+            .and(value(dataProperty("name"), "Dave"));
+        assertEquals(
+            instances.getInstances(
+                "Person and (active value true) and (name value \"Dave\")"
+            ),
+            instances.getInstances(query)
+        );
+        assertEquals(individuals("dave"), instances.getInstances(query));
+    }
+
+    private static List<OWLNamedIndividual> individuals(
+        final String... names
+    ) {
+        return Arrays
+            .stream(names)
+            .map(
+                name -> dataFactory.getOWLNamedIndividual(
+                    IRI.create(NAMESPACE + name)
+                )
+            )
+            .collect(Collectors.toList());
+    }
+
+    private static OWLClass owlClass(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLObjectProperty objectProperty(final String name) {
+        return dataFactory.getOWLObjectProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+}
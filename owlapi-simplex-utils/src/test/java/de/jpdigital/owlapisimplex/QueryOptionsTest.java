@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks {@link Instances#instances(OWLClassExpression, QueryOptions)} with
+ * the different {@link QueryOptions}. The reasoner used by the
+ * {@link Instances} records its calls of {@code getInstances}, so the tests
+ * can check whether a query is answered from the index or by the reasoner.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class QueryOptionsTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private OWLDataFactory dataFactory;
+
+    /**
+     * The {@code direct} argument of each call of
+     * {@link OWLReasoner#getInstances(OWLClassExpression, boolean)}.
+     */
+    private List<Boolean> reasonerCalls;
+
+    private Instances instances;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        final OwlApiSimplexUtils utils = TestOntologies.load("company.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        reasonerCalls = Collections.synchronizedList(new ArrayList<>());
+        final OWLReasoner reasoner = utils.getReasoner();
+        final OWLReasoner recording = (OWLReasoner) Proxy.newProxyInstance(
+            OWLReasoner.class.getClassLoader(),
+            new Class<?>[]{OWLReasoner.class},
+            (proxy, method, args) -> {
+                if ("getInstances".equals(method.getName())) {
+                    reasonerCalls.add((Boolean) args[1]);
+                }
+                try {
+                    return method.invoke(reasoner, args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+            }
+        );
+        instances = Instances.buildInstances(
+            utils.getOntology(), utils.getOntologyManager(), recording
+        );
+        // Materializes the members of the classes used by the tests.
+        instances.countInstances(cls("Employee"));
+        instances.countInstances(cls("Person"));
+        reasonerCalls.clear();
+    }
+
+    /**
+     * The limit of a query answered from the index stops the stream without
+     * reading further members: a cancellation after the last element within
+     * the limit is not noticed.
+     */
+    @Test
+    public void limitOnIndexPath() {
+        assertEquals(
+            individuals("alice", "bob"),
+            instances.getInstances(
+                cls("Employee"), QueryOptions.buildQueryOptions().withLimit(2)
+            )
+        );
+
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+        final Iterator<OWLNamedIndividual> limited = instances
+            .instances(
+                cls("Person"),
+                QueryOptions
+                    .buildQueryOptions()
+                    .withLimit(2)
+                    .withDeadline(deadline)
+            )
+            .iterator();
+        assertEquals(individual("alice"), limited.next());
+        assertEquals(individual("bob"), limited.next());
+        deadline.cancel();
+        assertFalse(limited.hasNext());
+        assertTrue(reasonerCalls.isEmpty());
+
+        final QueryDeadline unlimitedDeadline = QueryDeadline
+            .buildQueryDeadline();
+        final Iterator<OWLNamedIndividual> unlimited = instances
+            .instances(
+                cls("Person"),
+                QueryOptions
+                    .buildQueryOptions()
+                    .withDeadline(unlimitedDeadline)
+            )
+            .iterator();
+        unlimited.next();
+        unlimited.next();
+        unlimitedDeadline.cancel();
+        try {
+            unlimited.hasNext();
+            unlimited.next();
+            fail("The cancellation should be noticed.");
+        } catch (QueryCancelledException ex) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void maxResultsOnIndexPath() {
+        assertEquals(
+            individuals("alice", "bob", "carol"),
+            instances.getInstances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withMaxResults(3)
+            )
+        );
+        try {
+            instances.instances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withMaxResults(2).withLimit(1)
+            );
+            fail("The query should exceed the hard cap.");
+        } catch (ResultLimitExceededException ex) {
+            assertEquals(2, ex.getMaxResults());
+            assertEquals(3, ex.getMatches());
+        }
+        assertTrue(reasonerCalls.isEmpty());
+    }
+
+    /**
+     * A universal restriction can't be evaluated from the index. The range
+     * of {@code worksFor} makes every individual an instance.
+     */
+    @Test
+    public void maxResultsOnReasonerPath() {
+        final OWLClassExpression onlyCompanies = dataFactory
+            .getOWLObjectAllValuesFrom(
+                dataFactory.getOWLObjectProperty(
+                    IRI.create(NAMESPACE + "worksFor")
+                ),
+                cls("Company")
+            );
+        final long count = instances.countInstances(onlyCompanies);
+        assertTrue(count > 2);
+        reasonerCalls.clear();
+
+        try {
+            instances.instances(
+                onlyCompanies,
+                QueryOptions.buildQueryOptions().withMaxResults(2)
+            );
+            fail("The query should exceed the hard cap.");
+        } catch (ResultLimitExceededException ex) {
+            assertEquals(count, ex.getMatches());
+        }
+        assertEquals(Collections.singletonList(false), reasonerCalls);
+    }
+
+    @Test
+    public void directInstancesFromReasoner() {
+        assertEquals(
+            individuals("bob", "carol"),
+            instances.getInstances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withDirect(true)
+            )
+        );
+        assertEquals(Collections.singletonList(true), reasonerCalls);
+    }
+
+    @Test
+    public void orderedAndUnordered() {
+        final OWLClassExpression employeeOrReportingToManagers = dataFactory
+            .getOWLObjectUnionOf(
+                cls("Employee"),
+                dataFactory.getOWLObjectAllValuesFrom(
+                    dataFactory.getOWLObjectProperty(
+                        IRI.create(NAMESPACE + "reportsTo")
+                    ),
+                    cls("Manager")
+                )
+            );
+        final List<OWLNamedIndividual> ordered = instances.getInstances(
+            employeeOrReportingToManagers, QueryOptions.buildQueryOptions()
+        );
+        final List<OWLNamedIndividual> sorted = new ArrayList<>(ordered);
+        sorted.sort(
+            (individual1, individual2) -> individual1
+                .getIRI()
+                .toString()
+                .compareTo(individual2.getIRI().toString())
+        );
+        assertEquals(sorted, ordered);
+
+        final List<OWLNamedIndividual> unordered = instances.getInstances(
+            employeeOrReportingToManagers,
+            QueryOptions.buildQueryOptions().withOrdered(false)
+        );
+        assertEquals(new HashSet<>(ordered), new HashSet<>(unordered));
+        assertEquals(ordered.size(), unordered.size());
+        assertEquals(Arrays.asList(false, false), reasonerCalls);
+
+        // The members in the index are always ordered by their IRI.
+        assertEquals(
+            individuals("alice", "bob", "carol"),
+            instances.getInstances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withOrdered(false)
+            )
+        );
+    }
+
+    private List<OWLNamedIndividual> individuals(final String... names) {
+        return Arrays
+            .stream(names)
+            .map(this::individual)
+            .collect(Collectors.toList());
+    }
+
+    private OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+}
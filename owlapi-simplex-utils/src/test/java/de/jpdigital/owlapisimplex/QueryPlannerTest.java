@@ -0,0 +1,397 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.vocab.OWL2Datatype;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the instances of the class expressions answered by the
+ * {@link QueryPlanner} are the instances returned by the reasoner, both if
+ * the plan uses the index and if it falls back to the reasoner.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class QueryPlannerTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    /**
+     * An ontology without disjunctive axioms and without axioms entailing
+     * the equality of individuals.
+     */
+    private static OwlApiSimplexUtils horn;
+
+    /**
+     * The same ontology with a disjunctive axiom and a functional property.
+     */
+    private static OwlApiSimplexUtils disjunctive;
+
+    private static OWLDataFactory dataFactory;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        horn = TestOntologies.load("company.ttl");
+        disjunctive = TestOntologies.load("company-disjunctive.ttl");
+        dataFactory = horn.getOntologyManager().getOWLDataFactory();
+    }
+
+    @Test
+    public void namedClass() {
+        assertIndexed(cls("Employee"));
+        assertIndexed(cls("Staff"));
+        assertIndexed(cls("Person"));
+    }
+
+    @Test
+    public void thingAndNothing() {
+        assertIndexed(dataFactory.getOWLThing());
+        assertIndexed(dataFactory.getOWLNothing());
+    }
+
+    @Test
+    public void intersection() {
+        assertIndexed(
+            dataFactory.getOWLObjectIntersectionOf(
+                cls("Employee"),
+                dataFactory.getOWLObjectHasValue(
+                    objectProperty("worksFor"), individual("acme")
+                )
+            )
+        );
+    }
+
+    @Test
+    public void union() {
+        final OWLClassExpression union = dataFactory.getOWLObjectUnionOf(
+            cls("Manager"), cls("Company")
+        );
+        assertIndexed(union);
+
+        final OWLClassExpression entailed = dataFactory.getOWLObjectUnionOf(
+            cls("Employee"), cls("Customer")
+        );
+        assertFalse(disjunctive.buildInstances().explain(entailed).isIndexed());
+        assertMatchesReasoner(disjunctive, entailed);
+    }
+
+    @Test
+    public void oneOf() {
+        assertIndexed(
+            dataFactory.getOWLObjectOneOf(individual("alice"), individual("acme"))
+        );
+    }
+
+    @Test
+    public void oneOfWithEntailedEquality() throws OwlApiSimplexException {
+        final OwlApiSimplexUtils equality = TestOntologies.load(
+            "equality-functional.ttl"
+        );
+        final OWLClassExpression oneOf = dataFactory.getOWLObjectOneOf(
+            dataFactory.getOWLNamedIndividual(
+                IRI.create("http://example.org/ontologies/equality#b")
+            )
+        );
+        assertFalse(equality.buildInstances().explain(oneOf).isIndexed());
+        assertMatchesReasoner(equality, oneOf);
+        assertEquals(2, equality.buildInstances().getInstances(oneOf).size());
+    }
+
+    @Test
+    public void objectHasValue() {
+        assertIndexed(
+            dataFactory.getOWLObjectHasValue(
+                objectProperty("worksFor"), individual("acme")
+            )
+        );
+        assertIndexed(
+            dataFactory.getOWLObjectHasValue(
+                objectProperty("employs"), individual("bob")
+            )
+        );
+        assertIndexed(
+            dataFactory.getOWLObjectHasValue(
+                objectProperty("worksFor").getInverseProperty(),
+                individual("alice")
+            )
+        );
+
+        // reportsTo is transitive, the values are entailed by the reasoner.
+        final OWLClassExpression transitive = dataFactory.getOWLObjectHasValue(
+            objectProperty("reportsTo"), individual("alice")
+        );
+        assertFalse(horn.buildInstances().explain(transitive).isIndexed());
+        assertMatchesReasoner(horn, transitive);
+        assertMatchesReasoner(disjunctive, transitive);
+    }
+
+    @Test
+    public void objectSomeValuesFrom() {
+        assertIndexed(
+            dataFactory.getOWLObjectSomeValuesFrom(
+                objectProperty("worksFor"), cls("Company")
+            )
+        );
+        assertIndexed(
+            dataFactory.getOWLObjectSomeValuesFrom(
+                objectProperty("worksFor").getInverseProperty(), cls("Manager")
+            )
+        );
+        assertIndexed(
+            dataFactory.getOWLObjectSomeValuesFrom(
+                objectProperty("directlyReportsTo"), dataFactory.getOWLThing()
+            )
+        );
+    }
+
+    @Test
+    public void dataHasValue() {
+        assertIndexed(
+            dataFactory.getOWLDataHasValue(
+                dataProperty("age"),
+                dataFactory.getOWLLiteral("30", OWL2Datatype.XSD_INT)
+            )
+        );
+        assertIndexed(
+            dataFactory.getOWLDataHasValue(
+                dataProperty("name"), dataFactory.getOWLLiteral("Bobby")
+            )
+        );
+    }
+
+    @Test
+    public void knownInstances() {
+        // Customer is only declared in the disjunctive ontology.
+        final OWLClassExpression employeeOrCustomer = dataFactory
+            .getOWLObjectUnionOf(cls("Employee"), cls("Customer"));
+        for (final OWLClassExpression classExpression : Arrays.asList(
+            employeeOrCustomer,
+            dataFactory.getOWLObjectIntersectionOf(
+                employeeOrCustomer,
+                dataFactory.getOWLDataHasValue(
+                    dataProperty("name"), dataFactory.getOWLLiteral("Dave")
+                )
+            ),
+            dataFactory.getOWLObjectUnionOf(
+                cls("Customer"),
+                dataFactory.getOWLObjectSomeValuesFrom(
+                    objectProperty("worksFor"), cls("Document")
+                )
+            )
+        )) {
+            assertKnownInstances(disjunctive, classExpression);
+        }
+        for (final OWLClassExpression classExpression : Arrays.asList(
+            dataFactory.getOWLObjectHasValue(
+                objectProperty("reportsTo"), individual("alice")
+            ),
+            dataFactory.getOWLObjectSomeValuesFrom(
+                objectProperty("reportsTo").getInverseProperty(),
+                dataFactory.getOWLObjectOneOf(individual("carol"))
+            ),
+            dataFactory.getOWLObjectComplementOf(cls("Employee"))
+        )) {
+            assertKnownInstances(horn, classExpression);
+            assertKnownInstances(disjunctive, classExpression);
+        }
+    }
+
+    @Test
+    public void hasInstancesStopsAtKnownInstance() throws InterruptedException {
+        final Instances instances = disjunctive.buildInstances();
+        final OWLClassExpression known = dataFactory.getOWLObjectUnionOf(
+            cls("Employee"), cls("Customer")
+        );
+        final OWLClassExpression unknown = dataFactory.getOWLObjectUnionOf(
+            cls("Customer"),
+            dataFactory.getOWLObjectSomeValuesFrom(
+                objectProperty("worksFor"), cls("Document")
+            )
+        );
+        // Materializes the members of the classes and the graphs used.
+        assertTrue(instances.hasInstances(known));
+        assertFalse(instances.hasInstances(unknown));
+
+        final ReasonerGuard guard = disjunctive
+            .getOntologyIndex()
+            .getReasonerGuard();
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> guard.call(
+            QueryDeadline.NONE,
+            () -> {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        ));
+        holder.start();
+        locked.await();
+        try {
+            // Answered without waiting for the reasoner
+            assertTrue(instances.hasInstances(known, deadline()));
+            try {
+                instances.hasInstances(unknown, deadline());
+                fail("The check should wait for the reasoner.");
+            } catch (QueryTimeoutException ex) {
+                // Expected
+            }
+            try {
+                instances.countInstances(known, deadline());
+                fail("The count should wait for the reasoner.");
+            } catch (QueryTimeoutException ex) {
+                // Expected
+            }
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals(4, instances.countInstances(known, deadline()));
+    }
+
+    @Test
+    public void deadlineIsCheckedBeforeCounting() {
+        final Instances instances = horn.buildInstances();
+        final QueryDeadline cancelled = QueryDeadline.buildQueryDeadline();
+        cancelled.cancel();
+        try {
+            instances.countInstances(cls("Employee"), cancelled);
+            fail("The count should fail.");
+        } catch (QueryCancelledException ex) {
+            // Expected
+        }
+        try {
+            instances.hasInstances(cls("Employee"), cancelled);
+            fail("The check should fail.");
+        } catch (QueryCancelledException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * Checks that a class expression is answered from the index in the Horn
+     * ontology and that the instances are the instances returned by the
+     * reasoner in both ontologies.
+     */
+    private static void assertIndexed(
+        final OWLClassExpression classExpression
+    ) {
+        final QueryPlan plan = horn.buildInstances().explain(classExpression);
+        assertTrue(plan.getExplanation(), plan.isIndexed());
+        assertMatchesReasoner(horn, classExpression);
+        assertMatchesReasoner(disjunctive, classExpression);
+    }
+
+    private static void assertMatchesReasoner(
+        final OwlApiSimplexUtils utils,
+        final OWLClassExpression classExpression
+    ) {
+        final Instances instances = utils.buildInstances();
+        final Set<OWLNamedIndividual> expected = utils
+            .getReasoner()
+            .instances(classExpression, false)
+            .collect(Collectors.toSet());
+        assertEquals(
+            classExpression.toString(),
+            expected,
+            new HashSet<>(instances.getInstances(classExpression))
+        );
+        assertEquals(
+            classExpression.toString(),
+            expected.size(),
+            instances.countInstances(classExpression)
+        );
+        assertEquals(
+            classExpression.toString(),
+            !expected.isEmpty(),
+            instances.hasInstances(classExpression)
+        );
+    }
+
+    /**
+     * Checks that the individuals known to be instances of a class
+     * expression are instances returned by the reasoner and that the checks
+     * and counts match the reasoner.
+     */
+    private static void assertKnownInstances(
+        final OwlApiSimplexUtils utils,
+        final OWLClassExpression classExpression
+    ) {
+        final OntologyIndex index = utils.getOntologyIndex();
+        final Set<OWLNamedIndividual> known = index
+            .getDictionary()
+            .individuals(
+                index.getQueryPlanner().knownInstances(classExpression)
+            )
+            .collect(Collectors.toSet());
+        final Set<OWLNamedIndividual> expected = utils
+            .getReasoner()
+            .instances(classExpression, false)
+            .collect(Collectors.toSet());
+        assertTrue(
+            classExpression + ": " + known,
+            expected.containsAll(known)
+        );
+        assertMatchesReasoner(utils, classExpression);
+    }
+
+    private static QueryDeadline deadline() {
+        return QueryDeadline.buildQueryDeadline(Duration.ofMillis(200));
+    }
+
+    private static OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLObjectProperty objectProperty(final String name) {
+        return dataFactory.getOWLObjectProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.ReasonerInterruptedException;
+import org.semanticweb.owlapi.reasoner.TimeOutException;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the handling of {@link QueryDeadline}s by the
+ * {@link ReasonerGuard}: interrupting a running call of the reasoner when the
+ * deadline passes or the query is cancelled, waiting for the lock of the
+ * reasoner and checking streams.
+ *
+ * The guard is tested with a reasoner which only records the calls of
+ * {@link OWLReasoner#interrupt()}. A call of the reasoner is simulated by a
+ * loop which runs until the reasoner is interrupted.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class ReasonerGuardTest {
+
+    private AtomicInteger interrupts;
+
+    private AtomicBoolean interrupted;
+
+    private QueryMetrics metrics;
+
+    private ReasonerGuard guard;
+
+    @Before
+    public void setUp() {
+        interrupts = new AtomicInteger();
+        interrupted = new AtomicBoolean();
+        final OWLReasoner reasoner = (OWLReasoner) Proxy.newProxyInstance(
+            OWLReasoner.class.getClassLoader(),
+            new Class<?>[]{OWLReasoner.class},
+            (proxy, method, args) -> {
+                if ("interrupt".equals(method.getName())) {
+                    interrupts.incrementAndGet();
+                    interrupted.set(true);
+                    return null;
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }
+        );
+        metrics = new QueryMetrics();
+        guard = new ReasonerGuard(reasoner, metrics);
+    }
+
+    @Test
+    public void callReturnsResult() {
+        assertEquals(
+            "result",
+            guard.call(
+                QueryDeadline.buildQueryDeadline(Duration.ofSeconds(5)),
+                () -> "result"
+            )
+        );
+        assertEquals(0, interrupts.get());
+        assertEquals(0, metrics.getTimeouts());
+    }
+
+    @Test
+    public void expiredDeadlineFailsBeforeCall() {
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline(
+            Duration.ZERO
+        );
+        final AtomicBoolean called = new AtomicBoolean();
+        try {
+            guard.call(deadline, () -> called.getAndSet(true));
+            fail("The call should fail.");
+        } catch (QueryTimeoutException ex) {
+            // Expected
+        }
+        assertFalse(called.get());
+        assertEquals(1, metrics.getTimeouts());
+        assertEquals(0, interrupts.get());
+    }
+
+    @Test
+    public void timeoutInterruptsReasoner() {
+        try {
+            guard.call(
+                QueryDeadline.buildQueryDeadline(Duration.ofMillis(50)),
+                this::runUntilInterrupted
+            );
+            fail("The call should time out.");
+        } catch (QueryTimeoutException ex) {
+            assertTrue(ex.getCause() instanceof ReasonerInterruptedException);
+        }
+        assertEquals(1, interrupts.get());
+        assertEquals(1, metrics.getTimeouts());
+        assertEquals(1, metrics.getReasonerInterrupts());
+    }
+
+    @Test
+    public void cancelInterruptsReasoner() throws InterruptedException {
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+        final CountDownLatch running = new CountDownLatch(1);
+        final AtomicReference<RuntimeException> failure
+            = new AtomicReference<>();
+        final Thread query = new Thread(() -> {
+            try {
+                guard.call(deadline, () -> {
+                    running.countDown();
+                    return runUntilInterrupted();
+                });
+            } catch (RuntimeException ex) {
+                failure.set(ex);
+            }
+        });
+        query.start();
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        deadline.cancel();
+        query.join(5000);
+
+        assertTrue(failure.get() instanceof QueryCancelledException);
+        assertEquals(1, interrupts.get());
+        assertEquals(1, metrics.getCancellations());
+        assertEquals(0, metrics.getTimeouts());
+    }
+
+    @Test
+    public void timeOutOfReasonerIsConverted() {
+        try {
+            guard.call(QueryDeadline.NONE, () -> {
+                throw new TimeOutException();
+            });
+            fail("The call should time out.");
+        } catch (QueryTimeoutException ex) {
+            // Expected
+        }
+        assertEquals(1, metrics.getTimeouts());
+        assertEquals(0, interrupts.get());
+    }
+
+    /**
+     * A query waiting for the reasoner fails when its deadline passes, but
+     * the running call of another query is not interrupted.
+     */
+    @Test
+    public void waitingForReasonerTimesOut() throws InterruptedException {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = holdLock(locked, release);
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            final AtomicBoolean called = new AtomicBoolean();
+            try {
+                guard.call(
+                    QueryDeadline.buildQueryDeadline(Duration.ofMillis(50)),
+                    () -> called.getAndSet(true)
+                );
+                fail("The call should time out while waiting.");
+            } catch (QueryTimeoutException ex) {
+                // Expected
+            }
+            assertFalse(called.get());
+            assertEquals(0, interrupts.get());
+            assertEquals(1, metrics.getTimeouts());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        // The lock has been released
+        assertEquals(
+            "result",
+            guard.call(
+                QueryDeadline.buildQueryDeadline(Duration.ofSeconds(5)),
+                () -> "result"
+            )
+        );
+    }
+
+    @Test
+    public void waitingForReasonerIsCancelled() throws InterruptedException {
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = holdLock(locked, release);
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+            final AtomicReference<RuntimeException> failure
+                = new AtomicReference<>();
+            final Thread query = new Thread(() -> {
+                try {
+                    guard.call(deadline, () -> "result");
+                } catch (RuntimeException ex) {
+                    failure.set(ex);
+                }
+            });
+            query.start();
+            Thread.sleep(50);
+            deadline.cancel();
+            query.join(5000);
+
+            assertTrue(failure.get() instanceof QueryCancelledException);
+            assertEquals(0, interrupts.get());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    public void checkedStreamFailsWhenCancelled() {
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+        final Iterator<Integer> iterator = guard
+            .checked(deadline, Stream.of(1, 2, 3))
+            .iterator();
+        assertEquals(1, (int) iterator.next());
+        deadline.cancel();
+        try {
+            iterator.next();
+            fail("The stream should fail.");
+        } catch (QueryCancelledException ex) {
+            // Expected
+        }
+    }
+
+    /**
+     * The deadline of a query is checked before the query is executed and
+     * while the returned stream is consumed.
+     */
+    @Test
+    public void instancesCheckDeadline() throws OwlApiSimplexException {
+        final OwlApiSimplexUtils utils = TestOntologies.load("company.ttl");
+        final Instances instances = utils.buildInstances();
+        final OWLClass person = utils
+            .getOntologyManager()
+            .getOWLDataFactory()
+            .getOWLClass(
+                IRI.create("http://example.org/ontologies/company#Person")
+            );
+        final long timeouts = utils.getQueryMetrics().getTimeouts();
+        try {
+            instances.getInstances(
+                person, QueryDeadline.buildQueryDeadline(Duration.ZERO)
+            );
+            fail("The query should time out.");
+        } catch (QueryTimeoutException ex) {
+            // Expected
+        }
+        assertEquals(timeouts + 1, utils.getQueryMetrics().getTimeouts());
+
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+        final Iterator<OWLNamedIndividual> iterator = instances
+            .instances(person, deadline)
+            .iterator();
+        iterator.next();
+        deadline.cancel();
+        try {
+            iterator.next();
+            fail("The stream should fail.");
+        } catch (QueryCancelledException ex) {
+            // Expected
+        }
+        assertEquals(4, instances.getInstances(person).size());
+    }
+
+    /**
+     * Simulates a call of the reasoner which runs until the reasoner is
+     * interrupted.
+     */
+    private String runUntilInterrupted() {
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!interrupted.get()) {
+            if (System.nanoTime() - end > 0) {
+                return "not interrupted";
+            }
+            Thread.yield();
+        }
+        throw new ReasonerInterruptedException("interrupted");
+    }
+
+    /**
+     * Starts a thread holding the lock of the reasoner until
+     * {@code release} is counted down.
+     */
+    private Thread holdLock(
+        final CountDownLatch locked, final CountDownLatch release
+    ) {
+        final Thread holder = new Thread(() -> guard.call(
+            QueryDeadline.NONE,
+            () -> {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }
+        ));
+        holder.start();
+        return holder;
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import openllet.owlapi.OpenlletReasonerFactory;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectProperty;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks the {@link OntologyIndex} shared by the utility classes created
+ * without an index.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class SharedOntologyIndexTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private OwlApiSimplexUtils utils;
+
+    private OWLReasoner reasoner;
+
+    private OWLDataFactory dataFactory;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        reasoner = utils.getReasoner();
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+    }
+
+    @Test
+    public void oneIndexPerReasoner() {
+        final OntologyIndex shared = OntologyIndex.getSharedOntologyIndex(
+            reasoner
+        );
+        assertSame(shared, OntologyIndex.getSharedOntologyIndex(reasoner));
+
+        Instances.buildInstances(
+            utils.getOntology(), utils.getOntologyManager(), reasoner
+        );
+        DataProperties.buildDataProperties(utils.getOntologyManager(), reasoner);
+        ObjectProperties.buildObjectProperties(
+            utils.getOntologyManager(), reasoner
+        );
+        ClassHierarchy.buildClassHierarchy(utils.getOntologyManager(), reasoner);
+        assertSame(shared, OntologyIndex.getSharedOntologyIndex(reasoner));
+    }
+
+    @Test
+    public void closedIndexIsReplaced() {
+        final OntologyIndex shared = OntologyIndex.getSharedOntologyIndex(
+            reasoner
+        );
+        shared.close();
+        shared.close();
+        assertNotSame(shared, OntologyIndex.getSharedOntologyIndex(reasoner));
+    }
+
+    /**
+     * The utility classes created by {@link OwlApiSimplexUtils} and by the
+     * factory methods without an index use the same index, therefore they
+     * also wait for the same lock of the reasoner.
+     */
+    @Test
+    public void utilsUseSharedIndex() throws InterruptedException {
+        assertSame(
+            OntologyIndex.getSharedOntologyIndex(reasoner),
+            utils.getOntologyIndex()
+        );
+
+        final Instances instances = Instances.buildInstances(
+            utils.getOntology(), utils.getOntologyManager(), reasoner
+        );
+        final OWLObjectProperty worksFor = dataFactory.getOWLObjectProperty(
+            IRI.create(NAMESPACE + "worksFor")
+        );
+        final OWLClassExpression onlyCompanies = dataFactory
+            .getOWLObjectAllValuesFrom(
+                worksFor,
+                dataFactory.getOWLClass(IRI.create(NAMESPACE + "Company"))
+            );
+        // Builds the parts of the index used by the query, so that only the
+        // query itself waits for the lock.
+        instances.countInstances(onlyCompanies);
+
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(
+            () -> utils.getOntologyIndex().getReasonerGuard().call(
+                QueryDeadline.NONE,
+                () -> {
+                    locked.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }
+            )
+        );
+        holder.start();
+        try {
+            assertTrue(locked.await(5, TimeUnit.SECONDS));
+            instances.countInstances(
+                onlyCompanies,
+                QueryDeadline.buildQueryDeadline(Duration.ofMillis(100))
+            );
+            fail("The query should wait for the lock held by the utils.");
+        } catch (QueryTimeoutException ex) {
+            // Expected
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    public void sharedIndexIsClosedExplicitly() {
+        final OntologyIndex shared = OntologyIndex.getSharedOntologyIndex(
+            reasoner
+        );
+        OntologyIndex.closeSharedOntologyIndex(reasoner);
+        assertNotSame(shared, OntologyIndex.getSharedOntologyIndex(reasoner));
+    }
+
+    /**
+     * The ontology manager doesn't keep a shared index reachable which is no
+     * longer used by a utility class.
+     */
+    @Test
+    public void unusedSharedIndexIsCollected() throws InterruptedException {
+        final OWLReasoner other = new OpenlletReasonerFactory()
+            .createReasoner(utils.getOntology());
+        try {
+            final WeakReference<OntologyIndex> shared = new WeakReference<>(
+                OntologyIndex.getSharedOntologyIndex(other)
+            );
+            for (int i = 0; i < 50 && shared.get() != null; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertNull(shared.get());
+
+            // The listener of the collected index removes itself.
+            utils.getOntology().add(
+                dataFactory.getOWLDeclarationAxiom(
+                    dataFactory.getOWLClass(IRI.create(NAMESPACE + "Robot"))
+                )
+            );
+        } finally {
+            other.dispose();
+        }
+    }
+
+    @Test
+    public void sharedIndexFollowsChanges() {
+        final DataProperties dataProperties = DataProperties
+            .buildDataProperties(utils.getOntologyManager(), reasoner);
+        final OWLNamedIndividual dave = dataFactory.getOWLNamedIndividual(
+            IRI.create(NAMESPACE + "dave")
+        );
+        final OWLDataProperty name = dataFactory.getOWLDataProperty(
+            IRI.create(NAMESPACE + "name")
+        );
+        assertEquals(
+            Collections.singletonList(dataFactory.getOWLLiteral("Dave")),
+            dataProperties.getDataPropertyValues(dave, name)
+        );
+
+        final OWLOntology ontology = utils.getOntology();
+        ontology.remove(
+            dataFactory.getOWLDataPropertyAssertionAxiom(name, dave, "Dave")
+        );
+        assertEquals(
+            Collections.emptyList(),
+            dataProperties.getDataPropertyValues(dave, name)
+        );
+    }
+
+}
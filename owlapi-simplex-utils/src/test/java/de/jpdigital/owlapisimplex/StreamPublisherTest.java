@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataPropertyAssertionAxiom;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+import org.semanticweb.owlapi.model.OWLObjectPropertyAssertionAxiom;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks the backpressure of {@link StreamPublisher} and the publishers
+ * returned by {@link Instances}, {@link DataProperties} and
+ * {@link ObjectProperties}.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class StreamPublisherTest {
+
+    private static final String NAMESPACE
+                                    = "http://example.org/ontologies/company#";
+
+    private static OwlApiSimplexUtils utils;
+
+    private static OWLDataFactory dataFactory;
+
+    @BeforeClass
+    public static void setUpClass() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+    }
+
+    @Test
+    public void emitsRequestedElements() {
+        final AtomicInteger pulled = new AtomicInteger();
+        final RecordingSubscriber<Integer> subscriber
+            = new RecordingSubscriber<>();
+        new StreamPublisher<>(
+            () -> Stream
+                .iterate(0, i -> i + 1)
+                .peek(i -> pulled.incrementAndGet())
+        ).subscribe(subscriber);
+        assertEquals(0, pulled.get());
+
+        subscriber.subscription.request(3);
+        assertEquals(Arrays.asList(0, 1, 2), subscriber.items);
+        // The iterator of the stream looks ahead at most one element.
+        assertTrue(pulled.get() <= 4);
+
+        subscriber.subscription.request(2);
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4), subscriber.items);
+        assertTrue(pulled.get() <= 6);
+        assertEquals(0, subscriber.completions);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void reentrantRequestDoesNotRecurse() {
+        final int size = 10000;
+        final AtomicInteger depth = new AtomicInteger();
+        final AtomicInteger maxDepth = new AtomicInteger();
+        final RecordingSubscriber<Integer> subscriber
+            = new RecordingSubscriber<>();
+        subscriber.onItem = item -> {
+            maxDepth.accumulateAndGet(depth.incrementAndGet(), Math::max);
+            subscriber.subscription.request(1);
+            depth.decrementAndGet();
+        };
+        new StreamPublisher<>(() -> IntStream.range(0, size).boxed())
+            .subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        assertEquals(size, subscriber.items.size());
+        assertEquals(1, maxDepth.get());
+        assertEquals(1, subscriber.completions);
+    }
+
+    @Test
+    public void cancelStopsEmissionAndClosesStream() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final RecordingSubscriber<Integer> subscriber
+            = new RecordingSubscriber<>();
+        subscriber.onItem = item -> {
+            if (item == 1) {
+                subscriber.subscription.cancel();
+            }
+        };
+        new StreamPublisher<>(
+            () -> IntStream.range(0, 10).boxed().onClose(() -> closed.set(true))
+        ).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+        assertEquals(Arrays.asList(0, 1), subscriber.items);
+        assertTrue(closed.get());
+
+        subscriber.subscription.request(5);
+        assertEquals(2, subscriber.items.size());
+        assertEquals(0, subscriber.completions);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void invalidRequestFails() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        final RecordingSubscriber<Integer> subscriber
+            = new RecordingSubscriber<>();
+        new StreamPublisher<>(
+            () -> IntStream.range(0, 10).boxed().onClose(() -> closed.set(true))
+        ).subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        subscriber.subscription.request(0);
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(closed.get());
+
+        subscriber.subscription.request(-1);
+        subscriber.subscription.request(5);
+        assertEquals(Arrays.asList(0, 1), subscriber.items);
+        assertEquals(1, subscriber.errors);
+        assertEquals(0, subscriber.completions);
+    }
+
+    @Test
+    public void completesOnce() {
+        final RecordingSubscriber<Integer> subscriber
+            = new RecordingSubscriber<>();
+        new StreamPublisher<>(() -> IntStream.range(0, 3).boxed())
+            .subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        subscriber.subscription.request(1);
+        assertEquals(0, subscriber.completions);
+        subscriber.subscription.request(5);
+        subscriber.subscription.request(5);
+        subscriber.subscription.cancel();
+        assertEquals(Arrays.asList(0, 1, 2), subscriber.items);
+        assertEquals(1, subscriber.completions);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void sourceErrorsArePassedToSubscriber() {
+        final ResultLimitExceededException failure
+            = new ResultLimitExceededException(1, 2);
+        final RecordingSubscriber<Integer> subscriber
+            = new RecordingSubscriber<>();
+        new StreamPublisher<>(
+            () -> IntStream.range(0, 3).boxed().peek(
+                item -> {
+                    if (item == 1) {
+                        throw failure;
+                    }
+                }
+            )
+        ).subscribe(subscriber);
+
+        subscriber.subscription.request(5);
+        assertEquals(Arrays.asList(0), subscriber.items);
+        assertEquals(failure, subscriber.error);
+        assertEquals(0, subscriber.completions);
+    }
+
+    @Test
+    public void publishInstances() {
+        final Instances instances = utils.buildInstances();
+        final RecordingSubscriber<OWLNamedIndividual> subscriber
+            = new RecordingSubscriber<>();
+        instances.publishInstances(cls("Employee")).subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        assertEquals(
+            Arrays.asList(individual("alice"), individual("bob")),
+            subscriber.items
+        );
+        assertEquals(0, subscriber.completions);
+        subscriber.subscription.request(2);
+        assertEquals(
+            Arrays.asList(
+                individual("alice"), individual("bob"), individual("carol")
+            ),
+            subscriber.items
+        );
+        assertEquals(1, subscriber.completions);
+    }
+
+    @Test
+    public void publishInstancesPassesQueryErrors() {
+        final Instances instances = utils.buildInstances();
+
+        final RecordingSubscriber<OWLNamedIndividual> limited
+            = new RecordingSubscriber<>();
+        instances
+            .publishInstances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withMaxResults(2)
+            )
+            .subscribe(limited);
+        limited.subscription.request(10);
+        assertTrue(limited.error instanceof ResultLimitExceededException);
+        assertEquals(0, limited.completions);
+
+        final RecordingSubscriber<OWLNamedIndividual> timedOut
+            = new RecordingSubscriber<>();
+        instances
+            .publishInstances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withDeadline(
+                    QueryDeadline.buildQueryDeadline(Duration.ZERO)
+                )
+            )
+            .subscribe(timedOut);
+        timedOut.subscription.request(10);
+        assertTrue(timedOut.error instanceof QueryTimeoutException);
+        assertTrue(timedOut.items.isEmpty());
+
+        final QueryDeadline deadline = QueryDeadline.buildQueryDeadline();
+        final RecordingSubscriber<OWLNamedIndividual> cancelled
+            = new RecordingSubscriber<>();
+        instances
+            .publishInstances(
+                cls("Employee"),
+                QueryOptions.buildQueryOptions().withDeadline(deadline)
+            )
+            .subscribe(cancelled);
+        cancelled.subscription.request(1);
+        deadline.cancel();
+        cancelled.subscription.request(10);
+        // The element looked ahead before the cancellation may be emitted.
+        assertTrue(cancelled.items.size() < 3);
+        assertTrue(cancelled.error instanceof QueryCancelledException);
+    }
+
+    @Test
+    public void publishDataPropertyValues() {
+        final RecordingSubscriber<OWLDataPropertyAssertionAxiom> subscriber
+            = new RecordingSubscriber<>();
+        utils
+            .buildDataProperties()
+            .publishDataPropertyValues(
+                cls("Employee"),
+                dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + "age"))
+            )
+            .subscribe(subscriber);
+
+        subscriber.subscription.request(1);
+        assertEquals(1, subscriber.items.size());
+        assertEquals(
+            individual("alice"), subscriber.items.get(0).getSubject()
+        );
+        subscriber.subscription.request(10);
+        assertEquals(
+            Arrays.asList(45, 30, 28),
+            subscriber
+                .items
+                .stream()
+                .map(axiom -> axiom.getObject().parseInteger())
+                .collect(Collectors.toList())
+        );
+        assertEquals(1, subscriber.completions);
+    }
+
+    @Test
+    public void publishObjectPropertyValues() {
+        final RecordingSubscriber<OWLObjectPropertyAssertionAxiom> subscriber
+            = new RecordingSubscriber<>();
+        utils
+            .buildObjectProperties()
+            .publishObjectPropertyValues(
+                cls("Employee"),
+                dataFactory.getOWLObjectProperty(
+                    IRI.create(NAMESPACE + "worksFor")
+                )
+            )
+            .subscribe(subscriber);
+
+        subscriber.subscription.request(2);
+        assertEquals(2, subscriber.items.size());
+        subscriber.subscription.cancel();
+        subscriber.subscription.request(10);
+        assertEquals(
+            Arrays.asList(individual("alice"), individual("bob")),
+            subscriber
+                .items
+                .stream()
+                .map(OWLObjectPropertyAssertionAxiom::getSubject)
+                .collect(Collectors.toList())
+        );
+        assertEquals(
+            Arrays.asList(individual("acme"), individual("acme")),
+            subscriber
+                .items
+                .stream()
+                .map(OWLObjectPropertyAssertionAxiom::getObject)
+                .collect(Collectors.toList())
+        );
+        assertEquals(0, subscriber.completions);
+    }
+
+    private static OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private static OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+    /**
+     * Records the signals received from a publisher.
+     */
+    private static final class RecordingSubscriber<T>
+        implements ResultFlow.Subscriber<T> {
+
+        private final List<T> items = new ArrayList<>();
+
+        private ResultFlow.Subscription subscription;
+
+        private Consumer<T> onItem = item -> {
+        };
+
+        private Throwable error;
+
+        private int errors;
+
+        private int completions;
+
+        @Override
+        public void onSubscribe(final ResultFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final T item) {
+            items.add(item);
+            onItem.accept(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+            errors++;
+        }
+
+        @Override
+        public void onComplete() {
+            completions++;
+        }
+
+    }
+
+}
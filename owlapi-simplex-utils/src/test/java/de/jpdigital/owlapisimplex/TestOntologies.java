@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.model.SetOntologyID;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the fixture ontologies of the tests from the class path.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+final class TestOntologies {
+
+    /**
+     * Counter for the version IRIs of the loaded ontologies.
+     */
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+
+    private TestOntologies() {
+        // Nothing
+    }
+
+    /**
+     * Loads a fixture ontology from the package of the tests. Each loaded
+     * ontology gets a unique version IRI: The OWL API caches the signatures
+     * of the ontologies by their IDs, therefore two copies of a fixture with
+     * different content, for example after a test has added individuals to
+     * one copy, would share the cached signature otherwise.
+     *
+     * @param name The name of the ontology document, for example
+     *             {@code equality-none.ttl}.
+     *
+     * @return An {@link OwlApiSimplexUtils} instance for the ontology, using
+     *         an Openllet reasoner.
+     *
+     * @throws OwlApiSimplexException If the ontology could not be loaded.
+     */
+    static OwlApiSimplexUtils load(final String name)
+        throws OwlApiSimplexException {
+        final OwlApiSimplexUtils utils
+            = new OwlApiSimplexUtilsFromResourcesBuilder(
+                Collections.singletonList("/de/jpdigital/owlapisimplex/" + name)
+            ).build();
+        final OWLOntology ontology = utils.getOntology();
+        final IRI ontologyIri = ontology
+            .getOntologyID()
+            .getOntologyIRI()
+            .orElseThrow(IllegalStateException::new);
+        ontology.getOWLOntologyManager().applyChange(
+            new SetOntologyID(
+                ontology,
+                new OWLOntologyID(
+                    ontologyIri,
+                    IRI.create(
+                        ontologyIri + "/test/" + VERSIONS.incrementAndGet()
+                    )
+                )
+            )
+        );
+        utils.getReasoner().flush();
+        return utils;
+    }
+
+}
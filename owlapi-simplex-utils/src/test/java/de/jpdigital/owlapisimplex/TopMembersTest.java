@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2020 Jens Pelzetter
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Affero General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ *
+ * You should have received a copy of the GNU Affero General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.jpdigital.owlapisimplex;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLDataProperty;
+import org.semanticweb.owlapi.model.OWLNamedIndividual;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that
+ * {@link Instances#instancesOrderedByDataProperty(OWLClass, OWLDataProperty, boolean, int)}
+ * returns the same individuals in the same order as the sorted range index
+ * if the limit is large compared to the size of the class, so the members
+ * of the class are selected using a bounded heap. bob and dave have the
+ * same age, so the order of ties is checked too.
+ *
+ * @author <a href="mailto:jens.pelzetter@googlemail.com">Jens Pelzetter</a>
+ */
+public class TopMembersTest {
+
+    private static final String NAMESPACE
+        = "http://example.org/ontologies/company#";
+
+    private OwlApiSimplexUtils utils;
+
+    private OntologyIndex ontologyIndex;
+
+    private OWLDataFactory dataFactory;
+
+    private Instances instances;
+
+    @Before
+    public void setUp() throws OwlApiSimplexException {
+        utils = TestOntologies.load("company.ttl");
+        ontologyIndex = utils.getOntologyIndex();
+        dataFactory = utils.getOntologyManager().getOWLDataFactory();
+        instances = utils.buildInstances();
+    }
+
+    @After
+    public void tearDown() {
+        ontologyIndex.close();
+    }
+
+    @Test
+    public void numericValuesWithTies() {
+        final OWLClass person = cls("Person");
+        final OWLDataProperty age = dataProperty("age");
+        assertHeapIsUsed(person, age, 2);
+
+        assertEquals(
+            individuals("carol"), top(person, age, true, 1)
+        );
+        assertEquals(
+            individuals("alice"), top(person, age, false, 1)
+        );
+        final List<OWLNamedIndividual> ascending = top(person, age, true, 3);
+        assertEquals(individual("carol"), ascending.get(0));
+        assertEquals(
+            new HashSet<>(individuals("bob", "dave")),
+            new HashSet<>(ascending.subList(1, 3))
+        );
+        final List<OWLNamedIndividual> descending = top(person, age, false, 3);
+        assertEquals(individual("alice"), descending.get(0));
+        assertEquals(
+            new HashSet<>(individuals("bob", "dave")),
+            new HashSet<>(descending.subList(1, 3))
+        );
+        assertSameAsRangeIndex(person, age);
+    }
+
+    @Test
+    public void temporalValues() {
+        final OWLClass employee = cls("Employee");
+        final OWLDataProperty hired = dataProperty("hired");
+        assertHeapIsUsed(employee, hired, 2);
+
+        assertEquals(
+            individuals("alice", "bob"), top(employee, hired, true, 2)
+        );
+        assertEquals(
+            individuals("carol", "bob"), top(employee, hired, false, 2)
+        );
+        // dave has no value.
+        assertEquals(
+            individuals("alice", "bob", "carol"),
+            top(cls("Person"), hired, true, 10)
+        );
+        assertSameAsRangeIndex(employee, hired);
+        assertSameAsRangeIndex(cls("Person"), hired);
+    }
+
+    @Test
+    public void severalValues() {
+        final OWLDataProperty age = dataProperty("age");
+        utils.getOntologyManager().addAxiom(
+            utils.getOntology(),
+            dataFactory.getOWLDataPropertyAssertionAxiom(
+                age, individual("dave"), dataFactory.getOWLLiteral(50)
+            )
+        );
+        utils.getReasoner().flush();
+        final OWLClass person = cls("Person");
+        assertHeapIsUsed(person, age, 2);
+
+        // The smallest value determines the position in ascending order, the
+        // largest value in descending order.
+        assertEquals(
+            individuals("carol", "bob", "dave"), top(person, age, true, 3)
+        );
+        assertEquals(
+            individuals("dave", "alice"), top(person, age, false, 2)
+        );
+        assertSameAsRangeIndex(person, age);
+    }
+
+    @Test
+    public void limitZero() {
+        assertEquals(
+            Collections.emptyList(),
+            top(cls("Person"), dataProperty("age"), true, 0)
+        );
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeLimit() {
+        top(cls("Person"), dataProperty("age"), true, -1);
+    }
+
+    /**
+     * Checks that the members of the class are selected using the bounded
+     * heap for the limit and all larger limits.
+     *
+     * @param owlClass The class.
+     * @param property The data property.
+     * @param limit    The smallest limit used by the test.
+     */
+    private void assertHeapIsUsed(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final int limit
+    ) {
+        final long memberCount = ontologyIndex
+            .getClassMembers(owlClass)
+            .cardinality();
+        final long individualCount = ontologyIndex.getDictionary().size();
+        assertTrue(limit * individualCount > memberCount * memberCount);
+        assertTrue(
+            ontologyIndex.getDataPropertyValueIndex(property).isComplete()
+        );
+    }
+
+    /**
+     * Compares the result of the heap with the first individuals of the
+     * range index for all limits up to the size of the class, in both
+     * directions.
+     *
+     * @param owlClass The class.
+     * @param property The data property.
+     */
+    private void assertSameAsRangeIndex(
+        final OWLClass owlClass, final OWLDataProperty property
+    ) {
+        final int memberCount = ontologyIndex
+            .getClassMembers(owlClass)
+            .cardinality();
+        for (final boolean ascending : new boolean[]{true, false}) {
+            for (int limit = 0; limit <= memberCount + 1; limit++) {
+                assertEquals(
+                    "limit " + limit + ", ascending: " + ascending,
+                    instances
+                        .instancesOrderedByDataProperty(
+                            owlClass, property, ascending
+                        )
+                        .limit(limit)
+                        .collect(Collectors.toList()),
+                    top(owlClass, property, ascending, limit)
+                );
+            }
+        }
+    }
+
+    private List<OWLNamedIndividual> top(
+        final OWLClass owlClass,
+        final OWLDataProperty property,
+        final boolean ascending,
+        final int limit
+    ) {
+        return instances.getInstancesOrderedByDataProperty(
+            owlClass, property, ascending, limit
+        );
+    }
+
+    private OWLClass cls(final String name) {
+        return dataFactory.getOWLClass(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLDataProperty dataProperty(final String name) {
+        return dataFactory.getOWLDataProperty(IRI.create(NAMESPACE + name));
+    }
+
+    private OWLNamedIndividual individual(final String name) {
+        return dataFactory.getOWLNamedIndividual(IRI.create(NAMESPACE + name));
+    }
+
+    private List<OWLNamedIndividual> individuals(final String... names) {
+        return Arrays
+            .stream(names)
+            .map(this::individual)
+            .collect(Collectors.toList());
+    }
+
+}